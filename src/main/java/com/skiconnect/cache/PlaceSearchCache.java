@@ -0,0 +1,92 @@
+package com.skiconnect.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of place search results keyed by place and result type.
+ *
+ * <p>Entries are evicted by size (W-TinyLFU) and after a fixed time to live, and all entries of a place are
+ * invalidated once a {@link PlaceSearchDataChangedEvent} for it commits. A result is computed inside the
+ * cache's per-key compute, so an invalidation that arrives while a result is still being loaded waits for
+ * the load and then discards it; a result read before the commit can therefore never outlive the event.
+ * Every instance keeps its own copy, so with several instances other writers are only seen after the TTL.
+ */
+@Component
+public class PlaceSearchCache {
+
+    // Result types of GET /search; null stands for schools and teachers together
+    private static final String[] TYPES = {null, "schools", "teachers"};
+
+    private final Cache<Key, Object> cache;
+
+    public PlaceSearchCache(@Value("${skiconnect.app.searchCacheMaxEntries:10000}") long maxEntries,
+                            @Value("${skiconnect.app.searchCacheTtlMs:300000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long placeId, String type, Supplier<T> loader) {
+        return (T) cache.get(new Key(placeId, type), key -> loader.get());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public void invalidatePlace(Long placeId) {
+        for (String type : TYPES) {
+            cache.invalidate(new Key(placeId, type));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Runs before ResourceVersions bumps the place's version, so a new tag never serves an old entry
+    @TransactionalEventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPlaceSearchDataChanged(PlaceSearchDataChangedEvent event) {
+        event.getPlaceIds().forEach(this::invalidatePlace);
+    }
+
+    private static final class Key {
+        private final Long placeId;
+        private final String type;
+
+        Key(Long placeId, String type) {
+            this.placeId = placeId;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && placeId.equals(((Key) other).placeId) && Objects.equals(type, ((Key) other).type);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * placeId.hashCode() + Objects.hashCode(type);
+        }
+    }
+}
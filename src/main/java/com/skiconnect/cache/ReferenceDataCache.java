@@ -0,0 +1,72 @@
+package com.skiconnect.cache;
+
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the Hibernate second-level cache of places, schools and teachers in step with the writes Hibernate
+ * cannot see, and reports its statistics.
+ *
+ * <p>Entity and collection writes through the persistence context update the read-write regions themselves.
+ * The available-lesson counters are changed by native updates in their own query space, so the affected
+ * school and teacher are evicted here: once inside the writing transaction, so it reads its own change, and
+ * again after commit, in case a concurrent reader cached the old row in between.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Statistics statistics;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public void evictCounters(Long schoolId, Long teacherId) {
+        entityManagerFactory.getCache().evict(School.class, schoolId);
+        entityManagerFactory.getCache().evict(Teacher.class, teacherId);
+    }
+
+    public void evictCounters(Collection<Long> schoolIds, Collection<Long> teacherIds) {
+        schoolIds.forEach(schoolId -> entityManagerFactory.getCache().evict(School.class, schoolId));
+        teacherIds.forEach(teacherId -> entityManagerFactory.getCache().evict(Teacher.class, teacherId));
+    }
+
+    /**
+     * Totals over every second-level region since startup or the last statistics reset.
+     */
+    public Statistics statistics() {
+        return statistics;
+    }
+
+    /**
+     * Per-region statistics keyed by region name: the entity and collection regions and the query cache.
+     */
+    public Map<String, CacheRegionStatistics> regionStatistics() {
+        Map<String, CacheRegionStatistics> regions = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.put(region, regionStatistics);
+            }
+        }
+        return regions;
+    }
+
+    @TransactionalEventListener
+    public void onLessonAvailabilityChanged(LessonAvailabilityChangedEvent event) {
+        evictCounters(event.getSchoolId(), event.getTeacherId());
+    }
+}
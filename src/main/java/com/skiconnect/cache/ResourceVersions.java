@@ -0,0 +1,81 @@
+package com.skiconnect.cache;
+
+import com.skiconnect.event.AvailabilityRuleChangedEvent;
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version numbers of the place search results and lesson listings, bumped after every committed mutation
+ * and used as strong ETags so conditional GETs are answered without touching the database.
+ *
+ * <p>Controllers must read the version before loading the data it tags: a change committed in between
+ * then yields a newer version on the next request instead of a stale body under a current tag. The search
+ * versions are bumped after {@link PlaceSearchCache} has dropped the place's entries for the same reason.
+ * Versions live in memory and restart from zero, so every tag carries this instance's start time; like the
+ * other in-process indexes, it only sees the mutations made through this instance.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, AtomicLong> searchByPlace = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> lessonsByPlace = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> lessonsBySchool = new ConcurrentHashMap<>();
+    private final AtomicLong allLessons = new AtomicLong();
+
+    public String searchETag(Long placeId) {
+        return eTag("s" + placeId + "." + version(searchByPlace, placeId));
+    }
+
+    /**
+     * Tag for a lesson listing: the narrowest version covering every lesson the filters can match.
+     */
+    public String lessonsETag(Long placeId, Long schoolId) {
+        if (placeId == null && schoolId == null) {
+            return eTag("l." + allLessons.get());
+        }
+        return eTag("l" + (placeId != null ? "p" + placeId + "." + version(lessonsByPlace, placeId) : "")
+                + (schoolId != null ? "s" + schoolId + "." + version(lessonsBySchool, schoolId) : ""));
+    }
+
+    @TransactionalEventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onPlaceSearchDataChanged(PlaceSearchDataChangedEvent event) {
+        event.getPlaceIds().forEach(placeId -> bump(searchByPlace, placeId));
+    }
+
+    @TransactionalEventListener
+    public void onLessonAvailabilityChanged(LessonAvailabilityChangedEvent event) {
+        bump(lessonsByPlace, event.getPlaceId());
+        bump(lessonsBySchool, event.getSchoolId());
+        allLessons.incrementAndGet();
+    }
+
+    @TransactionalEventListener
+    public void onAvailabilityRuleChanged(AvailabilityRuleChangedEvent event) {
+        bump(lessonsByPlace, event.getPlaceId());
+        bump(lessonsBySchool, event.getSchoolId());
+        allLessons.incrementAndGet();
+    }
+
+    private String eTag(String version) {
+        return "\"" + version + "-" + epoch + "\"";
+    }
+
+    private static long version(Map<Long, AtomicLong> versions, Long id) {
+        AtomicLong version = versions.get(id);
+        return version != null ? version.get() : 0;
+    }
+
+    private static void bump(Map<Long, AtomicLong> versions, Long id) {
+        versions.computeIfAbsent(id, key -> new AtomicLong()).incrementAndGet();
+    }
+}
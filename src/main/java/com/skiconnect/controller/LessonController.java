@@ -2,8 +2,22 @@
 
 package com.skiconnect.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.skiconnect.cache.ResourceVersions;
+import com.skiconnect.event.ChangeEventRing;
+import com.skiconnect.index.FreeSlotFinder;
+import com.skiconnect.model.AvailabilityRule;
 import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.repository.LessonFilter;
+import com.skiconnect.repository.LessonRow;
+import com.skiconnect.service.BatchRowResult;
+import com.skiconnect.service.IdempotentRequests;
 import com.skiconnect.service.LessonAvailabilityService;
+import com.skiconnect.service.LessonHold;
+import com.skiconnect.service.RecurringSlots;
+import com.skiconnect.service.WaitlistPosition;
+import com.skiconnect.util.CursorCodec;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,15 +26,37 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,11 +64,42 @@ import java.util.stream.Collectors;
 @Tag(name = "Lesson", description = "Lesson management APIs")
 public class LessonController {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final int DEFAULT_SLOT_LIMIT = 10;
+    static final int MAX_SLOT_LIMIT = 100;
+    // About one season; also the window searched when no end is given
+    static final Duration MAX_SLOT_WINDOW = Duration.ofDays(183);
+    static final int MAX_BATCH_SIZE = 50_000;
+    static final int MAX_GROUP_BOOKING_SIZE = 500;
+    // Time a student has to finish checkout before a held lesson opens again
+    static final Duration HOLD_TTL = Duration.ofMinutes(2);
+
+    // Lets a client retry a POST without running it twice
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String CSV_HEADER = "id,schoolId,teacherId,placeId,studentId,startTime,endTime,status";
+
     private final LessonAvailabilityService lessonAvailabilityService;
+    private final IdempotentRequests idempotentRequests;
+    private final CursorCodec cursorCodec;
+    private final ResourceVersions resourceVersions;
+    private final ChangeEventRing changeEventRing;
+    private final ObjectWriter exportRowWriter;
+    private final ObjectWriter batchResultWriter;
 
     @Autowired
-    public LessonController(LessonAvailabilityService lessonAvailabilityService) {
+    public LessonController(LessonAvailabilityService lessonAvailabilityService, IdempotentRequests idempotentRequests,
+                            CursorCodec cursorCodec, ResourceVersions resourceVersions, ChangeEventRing changeEventRing,
+                            ObjectMapper objectMapper) {
         this.lessonAvailabilityService = lessonAvailabilityService;
+        this.idempotentRequests = idempotentRequests;
+        this.cursorCodec = cursorCodec;
+        this.resourceVersions = resourceVersions;
+        this.changeEventRing = changeEventRing;
+        this.exportRowWriter = objectMapper.writerFor(LessonRow.class);
+        this.batchResultWriter = objectMapper.writerFor(BatchLessonResult.class);
     }
 
     @PostMapping
@@ -41,78 +108,554 @@ public class LessonController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Lesson created",
                     content = @Content(schema = @Schema(implementation = LessonResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, or an idempotency key reused for a different request"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Ski school access required"),
+            @ApiResponse(responseCode = "409", description = "The teacher already has a lesson at that time")
+    })
+    public ResponseEntity<LessonResponse> createLesson(
+            @RequestBody LessonRequest request,
+            @Parameter(description = "Retries with the same key return the first response instead of creating the lesson again")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotently(idempotencyKey, "POST /lessons", request, LessonResponse.class, () -> {
+            LessonAvailability availability = lessonAvailabilityService.createAvailability(
+                    request.getTeacherId(),
+                    request.getSchoolId(),
+                    request.getPlaceId(),
+                    request.getDate(),
+                    request.getDate().plusMinutes(request.getDurationMinutes())
+            );
+                
+            return new ResponseEntity<>(mapToLessonResponse(availability), HttpStatus.CREATED);
+        });
+    }
+
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_SKI_SCHOOL')")
+    @Operation(summary = "Create lesson availabilities in bulk", description = "Create up to " + MAX_BATCH_SIZE + " lessons in chunks that commit one by one; invalid lessons are reported and skipped (ski_school only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Result of every lesson, in request order",
+                    content = @Content(schema = @Schema(implementation = BatchLessonResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
             @ApiResponse(responseCode = "403", description = "Forbidden - Ski school access required")
     })
-    public ResponseEntity<LessonResponse> createLesson(@RequestBody LessonRequest request) {
-        LessonAvailability availability = lessonAvailabilityService.createAvailability(
-                request.getTeacherId(),
-                request.getSchoolId(),
-                request.getPlaceId(),
-                request.getDate(),
-                request.getDate().plusMinutes(request.getDurationMinutes())
-        );
+    public ResponseEntity<BatchLessonResponse> createLessons(@RequestBody BatchLessonRequest request) {
+        List<LessonRow> slots = toSlots(request);
+        List<BatchLessonResult> results = new ArrayList<>(slots.size());
+        int created = lessonAvailabilityService.createAvailabilities(slots,
+                chunk -> chunk.forEach(result -> results.add(mapToBatchLessonResult(result))));
+        
+        BatchLessonResponse response = new BatchLessonResponse();
+        response.setCreated(created);
+        response.setRejected(slots.size() - created);
+        response.setResults(results);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/batch", produces = "application/x-ndjson")
+    @PreAuthorize("hasAuthority('ROLE_SKI_SCHOOL')")
+    @Operation(summary = "Create lesson availabilities in bulk, streaming progress", description = "Same as the JSON variant, but each chunk's results are written and flushed as soon as the chunk commits (ski_school only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One result per line, in request order"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Ski school access required")
+    })
+    public ResponseEntity<StreamingResponseBody> createLessonsStreaming(@RequestBody BatchLessonRequest request) {
+        List<LessonRow> slots = toSlots(request);
+        
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try {
+                lessonAvailabilityService.createAvailabilities(slots, chunk -> {
+                    try {
+                        for (BatchRowResult result : chunk) {
+                            writer.write(batchResultWriter.writeValueAsString(mapToBatchLessonResult(result)));
+                            writer.write('\n');
+                        }
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
         
-        return new ResponseEntity<>(mapToLessonResponse(availability), HttpStatus.CREATED);
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
     }
 
     @GetMapping
-    @Operation(summary = "List lessons", description = "List lessons (filtered by role in future)")
+    @Operation(summary = "List lessons", description = "List lessons matching all given filters one page at a time, ordered by start time; open slots of recurring rules are listed without an id and booked through their rule (filtered by role in future)")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "List of lessons",
-                    content = @Content(schema = @Schema(implementation = LessonListResponse.class)))
+            @ApiResponse(responseCode = "200", description = "Page of lessons",
+                    content = @Content(schema = @Schema(implementation = LessonListResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, or one issued for other filters")
     })
     public ResponseEntity<LessonListResponse> listLessons(
             @Parameter(description = "School ID") @RequestParam(required = false) Long schoolId,
             @Parameter(description = "Teacher ID") @RequestParam(required = false) Long teacherId,
             @Parameter(description = "Place ID") @RequestParam(required = false) Long placeId,
-            @Parameter(description = "Status (available, booked)") @RequestParam(required = false) String status) {
+            @Parameter(description = "Status (available, booked)") @RequestParam(required = false) String status,
+            @Parameter(description = "Student ID") @RequestParam(required = false) Long studentId,
+            @Parameter(description = "Lessons starting at or after") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Lessons starting before") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max " + MAX_PAGE_SIZE + ")") @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @Parameter(description = "Also count all matching lessons") @RequestParam(defaultValue = "false") boolean includeTotal,
+            WebRequest webRequest) {
         
-        List<LessonAvailability> availabilities = new ArrayList<>();
-        
-        if (schoolId != null) {
-            availabilities = lessonAvailabilityService.findBySchoolId(schoolId);
-        } else if (teacherId != null) {
-            availabilities = lessonAvailabilityService.findByTeacherId(teacherId);
-        } else if (placeId != null) {
-            availabilities = lessonAvailabilityService.findByPlaceId(placeId);
-        } else if (status != null) {
-            boolean isAvailable = "available".equals(status);
-            availabilities = lessonAvailabilityService.findByIsAvailable(isAvailable);
-        } else {
-            availabilities = lessonAvailabilityService.findAll();
+        // Read before the page so a concurrent change can only make the tag older than the body
+        if (webRequest.checkNotModified(resourceVersions.lessonsETag(placeId, schoolId))) {
+            return null;
         }
         
-        List<LessonResponse> lessonResponses = availabilities.stream()
+        LessonFilter filter = new LessonFilter();
+        filter.setSchoolId(schoolId);
+        filter.setTeacherId(teacherId);
+        filter.setPlaceId(placeId);
+        filter.setStudentId(studentId);
+        filter.setIsAvailable(status != null ? "available".equals(status) : null);
+        filter.setFrom(from);
+        filter.setTo(to);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        Window<LessonRow> page = lessonAvailabilityService.findRowPage(filter, decodeCursor(cursor, filter), pageSize);
+        
+        List<LessonResponse> lessonResponses = page.stream()
                 .map(this::mapToLessonResponse)
                 .collect(Collectors.toList());
         
         LessonListResponse response = new LessonListResponse();
         response.setLessons(lessonResponses);
-        response.setTotal(lessonResponses.size());
+        if (page.hasNext() && !page.isEmpty()) {
+            response.setNextCursor(cursorCodec.encode(page.positionAt(page.size() - 1), cursorFilters(filter)));
+        }
+        // Counting is a separate query, so it only runs when the client asks for it
+        if (includeTotal) {
+            response.setTotal(lessonAvailabilityService.count(filter));
+        }
+        
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/slots")
+    @Operation(summary = "Find free slots", description = "Earliest times a lesson of the given duration can start at a place, across all its teachers. A lesson may span several back-to-back availabilities of one teacher")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Free slots ordered by start time",
+                    content = @Content(schema = @Schema(implementation = FreeSlotsResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid duration or time window")
+    })
+    public ResponseEntity<FreeSlotsResponse> findFreeSlots(
+            @Parameter(description = "Place ID") @RequestParam Long placeId,
+            @Parameter(description = "School ID") @RequestParam(required = false) Long schoolId,
+            @Parameter(description = "Lesson duration in minutes") @RequestParam int durationMinutes,
+            @Parameter(description = "Slots starting at or after") @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Slots ending by (default and max: 183 days after from)") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Number of slots (max " + MAX_SLOT_LIMIT + ")") @RequestParam(defaultValue = "" + DEFAULT_SLOT_LIMIT) int limit,
+            WebRequest webRequest) {
+        
+        if (durationMinutes <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Duration must be positive");
+        }
+        LocalDateTime end = to != null ? to : from.plus(MAX_SLOT_WINDOW);
+        if (!end.isAfter(from) || Duration.between(from, end).compareTo(MAX_SLOT_WINDOW) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Time window must be positive and at most " + MAX_SLOT_WINDOW.toDays() + " days");
+        }
+        
+        if (webRequest.checkNotModified(resourceVersions.lessonsETag(placeId, schoolId))) {
+            return null;
+        }
+        
+        List<FreeSlotResponse> slots = lessonAvailabilityService.findEarliestFreeSlots(placeId, schoolId,
+                        Duration.ofMinutes(durationMinutes), from, end, Math.max(1, Math.min(limit, MAX_SLOT_LIMIT)))
+                .stream()
+                .map(this::mapToFreeSlotResponse)
+                .collect(Collectors.toList());
         
+        FreeSlotsResponse response = new FreeSlotsResponse();
+        response.setSlots(slots);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/teachers/{teacherId}/free")
+    @Operation(summary = "Check a teacher's time", description = "Whether the teacher has no lesson, open or booked, and no open recurring slot between the two times, at 5-minute granularity for lessons")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Whether the teacher is free",
+                    content = @Content(schema = @Schema(implementation = TeacherFreeResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Start after end")
+    })
+    public ResponseEntity<TeacherFreeResponse> isTeacherFree(
+            @Parameter(description = "Teacher ID") @PathVariable Long teacherId,
+            @Parameter(description = "Start of the time") @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the time") @RequestParam
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        TeacherFreeResponse response = new TeacherFreeResponse();
+        response.setTeacherId(teacherId);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setFree(lessonAvailabilityService.isTeacherFree(teacherId, from, to));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export lessons", description = "Stream every matching lesson as NDJSON or CSV (admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lesson rows, one per line"),
+            @ApiResponse(responseCode = "400", description = "Unsupported format"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    public ResponseEntity<StreamingResponseBody> exportLessons(
+            @Parameter(description = "Format (ndjson, csv)") @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Place ID") @RequestParam(required = false) Long placeId,
+            @Parameter(description = "Lessons starting at or after") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Lessons starting before") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        boolean csv = "csv".equals(format);
+        if (!csv && !"ndjson".equals(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            try {
+                lessonAvailabilityService.exportLessons(placeId, from, to, row -> writeExportRow(writer, row, csv));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(csv ? MediaType.parseMediaType("text/csv") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=lessons." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+
     @PostMapping("/{lessonId}/book")
     @PreAuthorize("hasAnyAuthority('ROLE_STUDENT', 'ROLE_STUDENT_GROUP')")
     @Operation(summary = "Book a lesson", description = "Book a lesson (student/student_group)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lesson booked",
                     content = @Content(schema = @Schema(implementation = LessonResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "400", description = "Invalid input, or an idempotency key reused for a different request"),
             @ApiResponse(responseCode = "403", description = "Forbidden - Student access required"),
-            @ApiResponse(responseCode = "404", description = "Lesson not found")
+            @ApiResponse(responseCode = "404", description = "Lesson not found"),
+            @ApiResponse(responseCode = "409", description = "Lesson is not available for booking")
     })
     public ResponseEntity<LessonResponse> bookLesson(
+            @Parameter(description = "Lesson ID") @PathVariable Long lessonId,
+            @RequestBody BookLessonRequest request,
+            @Parameter(description = "Retries with the same key return the first response instead of booking again")
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotently(idempotencyKey, "POST /lessons/" + lessonId + "/book", request, LessonResponse.class, () -> {
+            LessonAvailability availability = lessonAvailabilityService.bookLesson(lessonId, request.getStudentId());
+                
+            return new ResponseEntity<>(mapToLessonResponse(availability), HttpStatus.OK);
+        });
+    }
+
+    @PostMapping("/{lessonId}/hold")
+    @PreAuthorize("hasAnyAuthority('ROLE_STUDENT', 'ROLE_STUDENT_GROUP')")
+    @Operation(summary = "Hold a lesson", description = "Take an open lesson for checkout; it opens again unless confirmed within two minutes (student/student_group)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Lesson held",
+                    content = @Content(schema = @Schema(implementation = HoldResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Student access required"),
+            @ApiResponse(responseCode = "409", description = "Lesson is booked or held")
+    })
+    public ResponseEntity<HoldResponse> holdLesson(
             @Parameter(description = "Lesson ID") @PathVariable Long lessonId,
             @RequestBody BookLessonRequest request) {
-        
-        LessonAvailability availability = lessonAvailabilityService.bookLesson(lessonId, request.getStudentId());
-        
+        LessonHold hold = lessonAvailabilityService.holdLesson(lessonId, request.getStudentId(), HOLD_TTL);
+        HoldResponse response = new HoldResponse();
+        response.setLessonId(hold.getAvailabilityId());
+        response.setStudentId(hold.getStudentId());
+        response.setHeldUntil(hold.getHeldUntil());
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/{lessonId}/hold/confirm")
+    @PreAuthorize("hasAnyAuthority('ROLE_STUDENT', 'ROLE_STUDENT_GROUP')")
+    @Operation(summary = "Confirm a hold", description = "Turn the student's unexpired hold into a booking (student/student_group)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lesson booked",
+                    content = @Content(schema = @Schema(implementation = LessonResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Lesson not found"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Student access required"),
+            @ApiResponse(responseCode = "409", description = "The student holds no unexpired hold on the lesson")
+    })
+    public ResponseEntity<LessonResponse> confirmHold(
+            @Parameter(description = "Lesson ID") @PathVariable Long lessonId,
+            @RequestBody BookLessonRequest request) {
+        LessonAvailability availability = lessonAvailabilityService.confirmHold(lessonId, request.getStudentId());
+        return new ResponseEntity<>(mapToLessonResponse(availability), HttpStatus.OK);
+    }
+
+    @PostMapping("/{lessonId}/cancel")
+    @PreAuthorize("hasAnyAuthority('ROLE_STUDENT', 'ROLE_STUDENT_GROUP')")
+    @Operation(summary = "Cancel a booking", description = "Free a booked lesson; if students are waiting for it, the first of them gets it (student/student_group)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Booking cancelled",
+                    content = @Content(schema = @Schema(implementation = LessonResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Lesson not found"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Student access required"),
+            @ApiResponse(responseCode = "409", description = "Lesson is not booked")
+    })
+    public ResponseEntity<LessonResponse> cancelBooking(@Parameter(description = "Lesson ID") @PathVariable Long lessonId) {
+        LessonAvailability availability = lessonAvailabilityService.cancelBooking(lessonId);
+        return new ResponseEntity<>(mapToLessonResponse(availability), HttpStatus.OK);
+    }
+
+    @PostMapping("/{lessonId}/waitlist")
+    @PreAuthorize("hasAnyAuthority('ROLE_STUDENT', 'ROLE_STUDENT_GROUP')")
+    @Operation(summary = "Join the waitlist", description = "Queue for a booked lesson; it is booked for you when your turn comes with a cancellation (student/student_group)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Joined the waitlist",
+                    content = @Content(schema = @Schema(implementation = WaitlistResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Student access required"),
+            @ApiResponse(responseCode = "409", description = "Lesson is open for booking, or the student already holds or waits for it")
+    })
+    public ResponseEntity<WaitlistResponse> joinWaitlist(
+            @Parameter(description = "Lesson ID") @PathVariable Long lessonId,
+            @RequestBody BookLessonRequest request) {
+        WaitlistPosition position = lessonAvailabilityService.joinWaitlist(lessonId, request.getStudentId());
+        return new ResponseEntity<>(mapToWaitlistResponse(position), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{lessonId}/waitlist")
+    @Operation(summary = "Waitlist position", description = "A student's position in the waitlist of a lesson and the waitlist's length")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Position found",
+                    content = @Content(schema = @Schema(implementation = WaitlistResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Student is not on the waitlist")
+    })
+    public ResponseEntity<WaitlistResponse> getWaitlistPosition(
+            @Parameter(description = "Lesson ID") @PathVariable Long lessonId,
+            @Parameter(description = "Student ID") @RequestParam Long studentId) {
+        WaitlistPosition position = lessonAvailabilityService.findWaitlistPosition(lessonId, studentId);
+        return new ResponseEntity<>(mapToWaitlistResponse(position), HttpStatus.OK);
+    }
+
+    @GetMapping("/change-ring")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Change ring lags", description = "Committed changes each background consumer has yet to handle, and the ring's capacity; publishers wait once a consumer is a whole ring behind (admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Consumer lags",
+                    content = @Content(schema = @Schema(implementation = ChangeRingResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    public ResponseEntity<ChangeRingResponse> getChangeRingLags() {
+        ChangeRingResponse response = new ChangeRingResponse();
+        response.setCapacity(changeEventRing.capacity());
+        response.setConsumers(changeEventRing.lags().entrySet().stream()
+                .map(entry -> {
+                    ConsumerLagResponse consumer = new ConsumerLagResponse();
+                    consumer.setName(entry.getKey());
+                    consumer.setLag(entry.getValue());
+                    return consumer;
+                })
+                .collect(Collectors.toList()));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/book")
+    @PreAuthorize("hasAuthority('ROLE_STUDENT_GROUP')")
+    @Operation(summary = "Book lessons as a group", description = "Book all the given lessons at once, or none of them if any is missing or taken (student_group only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lessons booked",
+                    content = @Content(schema = @Schema(implementation = GroupBookingResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input or unknown lesson"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Student group access required"),
+            @ApiResponse(responseCode = "409", description = "A lesson is already booked; nothing was booked")
+    })
+    public ResponseEntity<GroupBookingResponse> bookLessons(@RequestBody GroupBookingRequest request) {
+        if (request.getLessonIds() == null || request.getLessonIds().isEmpty()
+                || request.getLessonIds().size() > MAX_GROUP_BOOKING_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A group booking must hold between 1 and " + MAX_GROUP_BOOKING_SIZE + " lessons");
+        }
+        List<LessonRow> booked = lessonAvailabilityService.bookLessons(request.getLessonIds(), request.getStudentId());
+        GroupBookingResponse response = new GroupBookingResponse();
+        response.setLessons(booked.stream().map(this::mapToLessonResponse).toList());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/rules")
+    @PreAuthorize("hasAuthority('ROLE_SKI_SCHOOL')")
+    @Operation(summary = "Create recurring availability", description = "Offer back-to-back slots on the given weekdays of a date range without storing each slot (ski_school only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Rule created",
+                    content = @Content(schema = @Schema(implementation = RuleResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Ski school access required"),
+            @ApiResponse(responseCode = "409", description = "The teacher already has a lesson or recurring slot in the rule's windows")
+    })
+    public ResponseEntity<RuleResponse> createRule(@RequestBody RuleRequest request) {
+        AvailabilityRule rule = lessonAvailabilityService.createRule(
+                request.getTeacherId(),
+                request.getSchoolId(),
+                request.getPlaceId(),
+                request.getWeekdays(),
+                request.getDailyStart(),
+                request.getDailyEnd(),
+                request.getSlotMinutes() != null ? request.getSlotMinutes() : 0,
+                request.getValidFrom(),
+                request.getValidUntil(),
+                request.getExceptions()
+        );
+        return new ResponseEntity<>(mapToRuleResponse(rule), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/rules")
+    @Operation(summary = "List recurring availability", description = "Rules matching all given filters whose date range overlaps [from, to]; their open slots are booked through the rule id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rules ordered by id",
+                    content = @Content(schema = @Schema(implementation = RulesResponse.class)))
+    })
+    public ResponseEntity<RulesResponse> listRules(
+            @Parameter(description = "Place ID") @RequestParam(required = false) Long placeId,
+            @Parameter(description = "School ID") @RequestParam(required = false) Long schoolId,
+            @Parameter(description = "Teacher ID") @RequestParam(required = false) Long teacherId,
+            @Parameter(description = "Rules valid on or after") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Rules valid on or before") @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        RulesResponse response = new RulesResponse();
+        response.setRules(lessonAvailabilityService.findRules(placeId, schoolId, teacherId, from, to).stream()
+                .map(this::mapToRuleResponse)
+                .collect(Collectors.toList()));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/rules/{ruleId}/exceptions")
+    @PreAuthorize("hasAuthority('ROLE_SKI_SCHOOL')")
+    @Operation(summary = "Cancel a day of recurring availability", description = "Remove the open slots of one day from a rule; booked ones stay (ski_school only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule updated",
+                    content = @Content(schema = @Schema(implementation = RuleResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Ski school access required")
+    })
+    public ResponseEntity<RuleResponse> addRuleException(
+            @Parameter(description = "Rule ID") @PathVariable Long ruleId,
+            @RequestBody RuleExceptionRequest request) {
+        if (request.getDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Date is required");
+        }
+        AvailabilityRule rule = lessonAvailabilityService.addRuleException(ruleId, request.getDate());
+        return new ResponseEntity<>(mapToRuleResponse(rule), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/rules/{ruleId}")
+    @PreAuthorize("hasAuthority('ROLE_SKI_SCHOOL')")
+    @Operation(summary = "Delete recurring availability", description = "Withdraw a rule's open slots; lessons already booked from it are kept (ski_school only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Rule deleted"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Ski school access required")
+    })
+    public ResponseEntity<Void> deleteRule(@Parameter(description = "Rule ID") @PathVariable Long ruleId) {
+        lessonAvailabilityService.deleteRule(ruleId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    @PostMapping("/rules/{ruleId}/book")
+    @PreAuthorize("hasAnyAuthority('ROLE_STUDENT', 'ROLE_STUDENT_GROUP')")
+    @Operation(summary = "Book a recurring slot", description = "Book the slot of a rule starting at the given time; the lesson is stored only now (student/student_group)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lesson booked",
+                    content = @Content(schema = @Schema(implementation = LessonResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input or no slot at that time"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Student access required"),
+            @ApiResponse(responseCode = "409", description = "Slot already booked")
+    })
+    public ResponseEntity<LessonResponse> bookRecurringSlot(
+            @Parameter(description = "Rule ID") @PathVariable Long ruleId,
+            @RequestBody BookRecurringSlotRequest request) {
+        if (request.getStartTime() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Start time is required");
+        }
+        LessonAvailability availability = lessonAvailabilityService.bookRecurringSlot(ruleId,
+                request.getStartTime(), request.getStudentId());
         return new ResponseEntity<>(mapToLessonResponse(availability), HttpStatus.OK);
     }
 
+    private List<LessonRow> toSlots(BatchLessonRequest request) {
+        if (request.getLessons() == null || request.getLessons().isEmpty() || request.getLessons().size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch must hold between 1 and " + MAX_BATCH_SIZE + " lessons");
+        }
+        List<LessonRow> slots = new ArrayList<>(request.getLessons().size());
+        for (LessonRequest lesson : request.getLessons()) {
+            // Incomplete lessons are passed on without an end and reported in their result
+            LocalDateTime end = lesson.getDate() != null && lesson.getDurationMinutes() != null
+                    ? lesson.getDate().plusMinutes(lesson.getDurationMinutes()) : null;
+            slots.add(new LessonRow(null, lesson.getSchoolId(), lesson.getTeacherId(), lesson.getPlaceId(), null,
+                    lesson.getDate(), end, true, null));
+        }
+        return slots;
+    }
+
+    private ScrollPosition decodeCursor(String cursor, LessonFilter filter) {
+        if (cursor == null || cursor.isEmpty()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            return cursorCodec.decode(cursor, cursorFilters(filter));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + e.getMessage(), e);
+        }
+    }
+
+    // Every filter in a fixed order, unset ones included, so a cursor resumes only the listing it came from
+    private static String cursorFilters(LessonFilter filter) {
+        return "place=" + filter.getPlaceId()
+                + "&school=" + filter.getSchoolId()
+                + "&teacher=" + filter.getTeacherId()
+                + "&student=" + filter.getStudentId()
+                + "&available=" + filter.getIsAvailable()
+                + "&from=" + filter.getFrom()
+                + "&to=" + filter.getTo();
+    }
+
+    private void writeExportRow(Writer writer, LessonRow row, boolean csv) {
+        try {
+            if (csv) {
+                writer.write(row.getId() + "," + row.getSchoolId() + "," + row.getTeacherId() + "," + row.getPlaceId() + ","
+                        + (row.getStudentId() != null ? row.getStudentId() : "") + ","
+                        + row.getStartTime() + "," + row.getEndTime() + "," + (row.isAvailable() ? "available" : "booked"));
+            } else {
+                writer.write(exportRowWriter.writeValueAsString(row));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> ResponseEntity<T> idempotently(String key, String operation, Object request, Class<T> responseType,
+                                               Supplier<ResponseEntity<T>> action) {
+        // Keys are scoped to the caller; an anonymous one has no key space of its own
+        Authentication caller = SecurityContextHolder.getContext().getAuthentication();
+        String principal = caller == null || caller instanceof AnonymousAuthenticationToken ? null : caller.getName();
+        return idempotentRequests.execute(principal, key, operation, request, responseType, action);
+    }
+
     private LessonResponse mapToLessonResponse(LessonAvailability availability) {
         LessonResponse response = new LessonResponse();
         response.setId(availability.getId());
@@ -120,17 +663,86 @@ public class LessonController {
         response.setTeacherId(availability.getTeacher().getId());
         response.setPlaceId(availability.getPlace().getId());
         response.setDate(availability.getStartTime());
-        response.setDurationMinutes((int) java.time.Duration.between(
+        response.setDurationMinutes((int) Duration.between(
                 availability.getStartTime(), availability.getEndTime()).toMinutes());
         response.setStatus(availability.isAvailable() ? "available" : "booked");
         
         if (availability.getStudent() != null) {
             response.setStudentId(availability.getStudent().getId());
         }
+        if (availability.getRule() != null) {
+            response.setRuleId(availability.getRule().getId());
+        }
         
         return response;
     }
 
+    private WaitlistResponse mapToWaitlistResponse(WaitlistPosition position) {
+        WaitlistResponse response = new WaitlistResponse();
+        response.setLessonId(position.getAvailabilityId());
+        response.setStudentId(position.getStudentId());
+        response.setPosition(position.getPosition());
+        response.setLength(position.getLength());
+        return response;
+    }
+
+    private BatchLessonResult mapToBatchLessonResult(BatchRowResult result) {
+        BatchLessonResult response = new BatchLessonResult();
+        response.setIndex(result.getIndex());
+        response.setId(result.getAvailabilityId());
+        response.setError(result.getError());
+        return response;
+    }
+
+    private RuleResponse mapToRuleResponse(AvailabilityRule rule) {
+        RuleResponse response = new RuleResponse();
+        response.setId(rule.getId());
+        response.setSchoolId(rule.getSchool().getId());
+        response.setTeacherId(rule.getTeacher().getId());
+        response.setPlaceId(rule.getPlace().getId());
+        response.setWeekdays(RecurringSlots.weekdays(rule.getWeekdays()));
+        response.setDailyStart(rule.getDailyStart());
+        response.setDailyEnd(rule.getDailyEnd());
+        response.setSlotMinutes(rule.getSlotMinutes());
+        response.setValidFrom(rule.getValidFrom());
+        response.setValidUntil(rule.getValidUntil());
+        response.setExceptions(Set.copyOf(rule.getExceptions()));
+        response.setOpenSlots(rule.getOpenSlots());
+        return response;
+    }
+
+    private LessonResponse mapToLessonResponse(LessonRow row) {
+        LessonResponse response = new LessonResponse();
+        response.setId(row.getId());
+        response.setSchoolId(row.getSchoolId());
+        response.setTeacherId(row.getTeacherId());
+        response.setPlaceId(row.getPlaceId());
+        response.setStudentId(row.getStudentId());
+        response.setDate(row.getStartTime());
+        response.setDurationMinutes((int) Duration.between(row.getStartTime(), row.getEndTime()).toMinutes());
+        response.setStatus(row.isAvailable() ? "available" : "booked");
+        response.setRuleId(row.getRuleId());
+        return response;
+    }
+
+    private FreeSlotResponse mapToFreeSlotResponse(FreeSlotFinder.FreeSlot slot) {
+        FreeSlotResponse response = new FreeSlotResponse();
+        response.setTeacherId(slot.getTeacherId());
+        response.setSchoolId(slot.getSchoolId());
+        response.setStartTime(slot.getStartTime());
+        response.setEndTime(slot.getEndTime());
+        response.setLessonIds(slot.getAvailabilityIds());
+        response.setRuleSlots(slot.getRuleSlots().stream()
+                .map(ruleSlot -> {
+                    RuleSlotResponse ruleSlotResponse = new RuleSlotResponse();
+                    ruleSlotResponse.setRuleId(ruleSlot.getRuleId());
+                    ruleSlotResponse.setStartTime(ruleSlot.getStartTime());
+                    return ruleSlotResponse;
+                })
+                .collect(Collectors.toList()));
+        return response;
+    }
+
     // Request and Response classes
     public static class LessonRequest {
         private Long schoolId;
@@ -193,6 +805,8 @@ public class LessonController {
         private LocalDateTime date;
         private String status;
         private Integer durationMinutes;
+        // The recurring rule the lesson belongs to; an open slot of a rule has no id and is booked through it
+        private Long ruleId;
 
         public Long getId() {
             return id;
@@ -257,11 +871,20 @@ public class LessonController {
         public void setDurationMinutes(Integer durationMinutes) {
             this.durationMinutes = durationMinutes;
         }
+
+        public Long getRuleId() {
+            return ruleId;
+        }
+
+        public void setRuleId(Long ruleId) {
+            this.ruleId = ruleId;
+        }
     }
 
     public static class LessonListResponse {
         private List<LessonResponse> lessons;
-        private Integer total;
+        private Long total;
+        private String nextCursor;
 
         public List<LessonResponse> getLessons() {
             return lessons;
@@ -271,13 +894,21 @@ public class LessonController {
             this.lessons = lessons;
         }
 
-        public Integer getTotal() {
+        public Long getTotal() {
             return total;
         }
 
-        public void setTotal(Integer total) {
+        public void setTotal(Long total) {
             this.total = total;
         }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
     }
 
     public static class BookLessonRequest {
@@ -291,4 +922,610 @@ public class LessonController {
             this.studentId = studentId;
         }
     }
+
+    public static class HoldResponse {
+        private Long lessonId;
+        private Long studentId;
+        private LocalDateTime heldUntil;
+
+        public Long getLessonId() {
+            return lessonId;
+        }
+
+        public void setLessonId(Long lessonId) {
+            this.lessonId = lessonId;
+        }
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        public LocalDateTime getHeldUntil() {
+            return heldUntil;
+        }
+
+        public void setHeldUntil(LocalDateTime heldUntil) {
+            this.heldUntil = heldUntil;
+        }
+    }
+
+    public static class WaitlistResponse {
+        private Long lessonId;
+        private Long studentId;
+        // 1 for the student who gets the next cancellation
+        private Long position;
+        private Long length;
+
+        public Long getLessonId() {
+            return lessonId;
+        }
+
+        public void setLessonId(Long lessonId) {
+            this.lessonId = lessonId;
+        }
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        public Long getPosition() {
+            return position;
+        }
+
+        public void setPosition(Long position) {
+            this.position = position;
+        }
+
+        public Long getLength() {
+            return length;
+        }
+
+        public void setLength(Long length) {
+            this.length = length;
+        }
+    }
+
+    public static class GroupBookingRequest {
+        private Long studentId;
+        private List<Long> lessonIds;
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        public List<Long> getLessonIds() {
+            return lessonIds;
+        }
+
+        public void setLessonIds(List<Long> lessonIds) {
+            this.lessonIds = lessonIds;
+        }
+    }
+
+    public static class GroupBookingResponse {
+        private List<LessonResponse> lessons;
+
+        public List<LessonResponse> getLessons() {
+            return lessons;
+        }
+
+        public void setLessons(List<LessonResponse> lessons) {
+            this.lessons = lessons;
+        }
+    }
+
+    public static class FreeSlotsResponse {
+        private List<FreeSlotResponse> slots;
+
+        public List<FreeSlotResponse> getSlots() {
+            return slots;
+        }
+
+        public void setSlots(List<FreeSlotResponse> slots) {
+            this.slots = slots;
+        }
+    }
+
+    public static class TeacherFreeResponse {
+        private Long teacherId;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private boolean free;
+
+        public Long getTeacherId() {
+            return teacherId;
+        }
+
+        public void setTeacherId(Long teacherId) {
+            this.teacherId = teacherId;
+        }
+
+        public LocalDateTime getFrom() {
+            return from;
+        }
+
+        public void setFrom(LocalDateTime from) {
+            this.from = from;
+        }
+
+        public LocalDateTime getTo() {
+            return to;
+        }
+
+        public void setTo(LocalDateTime to) {
+            this.to = to;
+        }
+
+        public boolean isFree() {
+            return free;
+        }
+
+        public void setFree(boolean free) {
+            this.free = free;
+        }
+    }
+
+    public static class FreeSlotResponse {
+        private Long teacherId;
+        private Long schoolId;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        // The availabilities the lesson would occupy, in start order
+        private List<Long> lessonIds;
+        // The open recurring slots the lesson would occupy, in start order, each booked through its rule
+        private List<RuleSlotResponse> ruleSlots;
+
+        public Long getTeacherId() {
+            return teacherId;
+        }
+
+        public void setTeacherId(Long teacherId) {
+            this.teacherId = teacherId;
+        }
+
+        public Long getSchoolId() {
+            return schoolId;
+        }
+
+        public void setSchoolId(Long schoolId) {
+            this.schoolId = schoolId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(LocalDateTime startTime) {
+            this.startTime = startTime;
+        }
+
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+
+        public void setEndTime(LocalDateTime endTime) {
+            this.endTime = endTime;
+        }
+
+        public List<Long> getLessonIds() {
+            return lessonIds;
+        }
+
+        public void setLessonIds(List<Long> lessonIds) {
+            this.lessonIds = lessonIds;
+        }
+
+        public List<RuleSlotResponse> getRuleSlots() {
+            return ruleSlots;
+        }
+
+        public void setRuleSlots(List<RuleSlotResponse> ruleSlots) {
+            this.ruleSlots = ruleSlots;
+        }
+    }
+
+    public static class RuleSlotResponse {
+        private Long ruleId;
+        private LocalDateTime startTime;
+
+        public Long getRuleId() {
+            return ruleId;
+        }
+
+        public void setRuleId(Long ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(LocalDateTime startTime) {
+            this.startTime = startTime;
+        }
+    }
+
+    public static class RuleRequest {
+        private Long schoolId;
+        private Long teacherId;
+        private Long placeId;
+        private Set<DayOfWeek> weekdays;
+        private LocalTime dailyStart;
+        private LocalTime dailyEnd;
+        private Integer slotMinutes;
+        private LocalDate validFrom;
+        // Inclusive
+        private LocalDate validUntil;
+        // Days without slots
+        private Set<LocalDate> exceptions;
+
+        public Long getSchoolId() {
+            return schoolId;
+        }
+
+        public void setSchoolId(Long schoolId) {
+            this.schoolId = schoolId;
+        }
+
+        public Long getTeacherId() {
+            return teacherId;
+        }
+
+        public void setTeacherId(Long teacherId) {
+            this.teacherId = teacherId;
+        }
+
+        public Long getPlaceId() {
+            return placeId;
+        }
+
+        public void setPlaceId(Long placeId) {
+            this.placeId = placeId;
+        }
+
+        public Set<DayOfWeek> getWeekdays() {
+            return weekdays;
+        }
+
+        public void setWeekdays(Set<DayOfWeek> weekdays) {
+            this.weekdays = weekdays;
+        }
+
+        public LocalTime getDailyStart() {
+            return dailyStart;
+        }
+
+        public void setDailyStart(LocalTime dailyStart) {
+            this.dailyStart = dailyStart;
+        }
+
+        public LocalTime getDailyEnd() {
+            return dailyEnd;
+        }
+
+        public void setDailyEnd(LocalTime dailyEnd) {
+            this.dailyEnd = dailyEnd;
+        }
+
+        public Integer getSlotMinutes() {
+            return slotMinutes;
+        }
+
+        public void setSlotMinutes(Integer slotMinutes) {
+            this.slotMinutes = slotMinutes;
+        }
+
+        public LocalDate getValidFrom() {
+            return validFrom;
+        }
+
+        public void setValidFrom(LocalDate validFrom) {
+            this.validFrom = validFrom;
+        }
+
+        public LocalDate getValidUntil() {
+            return validUntil;
+        }
+
+        public void setValidUntil(LocalDate validUntil) {
+            this.validUntil = validUntil;
+        }
+
+        public Set<LocalDate> getExceptions() {
+            return exceptions;
+        }
+
+        public void setExceptions(Set<LocalDate> exceptions) {
+            this.exceptions = exceptions;
+        }
+    }
+
+    public static class RuleResponse {
+        private Long id;
+        private Long schoolId;
+        private Long teacherId;
+        private Long placeId;
+        private Set<DayOfWeek> weekdays;
+        private LocalTime dailyStart;
+        private LocalTime dailyEnd;
+        private Integer slotMinutes;
+        private LocalDate validFrom;
+        // Inclusive
+        private LocalDate validUntil;
+        // Days without slots
+        private Set<LocalDate> exceptions;
+        // Slots neither booked nor cancelled yet
+        private Integer openSlots;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public Long getSchoolId() {
+            return schoolId;
+        }
+
+        public void setSchoolId(Long schoolId) {
+            this.schoolId = schoolId;
+        }
+
+        public Long getTeacherId() {
+            return teacherId;
+        }
+
+        public void setTeacherId(Long teacherId) {
+            this.teacherId = teacherId;
+        }
+
+        public Long getPlaceId() {
+            return placeId;
+        }
+
+        public void setPlaceId(Long placeId) {
+            this.placeId = placeId;
+        }
+
+        public Set<DayOfWeek> getWeekdays() {
+            return weekdays;
+        }
+
+        public void setWeekdays(Set<DayOfWeek> weekdays) {
+            this.weekdays = weekdays;
+        }
+
+        public LocalTime getDailyStart() {
+            return dailyStart;
+        }
+
+        public void setDailyStart(LocalTime dailyStart) {
+            this.dailyStart = dailyStart;
+        }
+
+        public LocalTime getDailyEnd() {
+            return dailyEnd;
+        }
+
+        public void setDailyEnd(LocalTime dailyEnd) {
+            this.dailyEnd = dailyEnd;
+        }
+
+        public Integer getSlotMinutes() {
+            return slotMinutes;
+        }
+
+        public void setSlotMinutes(Integer slotMinutes) {
+            this.slotMinutes = slotMinutes;
+        }
+
+        public LocalDate getValidFrom() {
+            return validFrom;
+        }
+
+        public void setValidFrom(LocalDate validFrom) {
+            this.validFrom = validFrom;
+        }
+
+        public LocalDate getValidUntil() {
+            return validUntil;
+        }
+
+        public void setValidUntil(LocalDate validUntil) {
+            this.validUntil = validUntil;
+        }
+
+        public Set<LocalDate> getExceptions() {
+            return exceptions;
+        }
+
+        public void setExceptions(Set<LocalDate> exceptions) {
+            this.exceptions = exceptions;
+        }
+
+        public Integer getOpenSlots() {
+            return openSlots;
+        }
+
+        public void setOpenSlots(Integer openSlots) {
+            this.openSlots = openSlots;
+        }
+    }
+
+    public static class RulesResponse {
+        private List<RuleResponse> rules;
+
+        public List<RuleResponse> getRules() {
+            return rules;
+        }
+
+        public void setRules(List<RuleResponse> rules) {
+            this.rules = rules;
+        }
+    }
+
+    public static class RuleExceptionRequest {
+        private LocalDate date;
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+    }
+
+    public static class BookRecurringSlotRequest {
+        private Long studentId;
+        private LocalDateTime startTime;
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        public void setStartTime(LocalDateTime startTime) {
+            this.startTime = startTime;
+        }
+    }
+
+    public static class BatchLessonRequest {
+        private List<LessonRequest> lessons;
+
+        public List<LessonRequest> getLessons() {
+            return lessons;
+        }
+
+        public void setLessons(List<LessonRequest> lessons) {
+            this.lessons = lessons;
+        }
+    }
+
+    public static class BatchLessonResponse {
+        private Integer created;
+        private Integer rejected;
+        private List<BatchLessonResult> results;
+
+        public Integer getCreated() {
+            return created;
+        }
+
+        public void setCreated(Integer created) {
+            this.created = created;
+        }
+
+        public Integer getRejected() {
+            return rejected;
+        }
+
+        public void setRejected(Integer rejected) {
+            this.rejected = rejected;
+        }
+
+        public List<BatchLessonResult> getResults() {
+            return results;
+        }
+
+        public void setResults(List<BatchLessonResult> results) {
+            this.results = results;
+        }
+    }
+
+    public static class BatchLessonResult {
+        // Position of the lesson in the request
+        private Integer index;
+        // Set once the lesson is stored
+        private Long id;
+        // Why the lesson was not stored
+        private String error;
+
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+
+    public static class ChangeRingResponse {
+        private Integer capacity;
+        private List<ConsumerLagResponse> consumers;
+
+        public Integer getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(Integer capacity) {
+            this.capacity = capacity;
+        }
+
+        public List<ConsumerLagResponse> getConsumers() {
+            return consumers;
+        }
+
+        public void setConsumers(List<ConsumerLagResponse> consumers) {
+            this.consumers = consumers;
+        }
+    }
+
+    public static class ConsumerLagResponse {
+        private String name;
+        // Events published but not yet handled by the consumer
+        private Long lag;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Long getLag() {
+            return lag;
+        }
+
+        public void setLag(Long lag) {
+            this.lag = lag;
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.skiconnect.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Maps the lesson service's exceptions to responses: an IllegalArgumentException is a bad request, an
+ * IllegalStateException a conflict with the lesson's current state. The error body is Spring Boot's usual one.
+ */
+@RestControllerAdvice(assignableTypes = LessonController.class)
+public class LessonControllerAdvice {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public void badRequest(IllegalArgumentException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public void conflict(IllegalStateException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+    }
+}
@@ -2,19 +2,35 @@
 
 package com.skiconnect.controller;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skiconnect.cache.ReferenceDataCache;
 import com.skiconnect.model.Place;
+import com.skiconnect.model.PlaceHourlyAvailability;
+import com.skiconnect.service.LessonAvailabilityService;
 import com.skiconnect.service.PlaceService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 
 @RestController
@@ -22,11 +38,19 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Place", description = "Place management APIs")
 public class PlaceController {
 
+    private static final int MAX_CALENDAR_DAYS = 92;
+    private static final int HOURS_PER_DAY = 24;
+
     private final PlaceService placeService;
+    private final LessonAvailabilityService lessonAvailabilityService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public PlaceController(PlaceService placeService) {
+    public PlaceController(PlaceService placeService, LessonAvailabilityService lessonAvailabilityService,
+                           ReferenceDataCache referenceDataCache) {
         this.placeService = placeService;
+        this.lessonAvailabilityService = lessonAvailabilityService;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @PostMapping
@@ -39,20 +63,120 @@ public class PlaceController {
             @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
     })
     public ResponseEntity<PlaceResponse> createPlace(@RequestBody PlaceRequest request) {
-        Place place = placeService.createPlace(request.getName(), request.getLocation());
+        Place place;
+        try {
+            place = placeService.createPlace(request.getName(), request.getLocation(),
+                    request.getLatitude(), request.getLongitude());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
         
         PlaceResponse response = new PlaceResponse();
         response.setId(place.getId());
         response.setName(place.getName());
         response.setLocation(place.getLocation());
+        response.setLatitude(place.getLatitude());
+        response.setLongitude(place.getLongitude());
         
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @GetMapping("/{placeId}/availability")
+    @Operation(summary = "Open-slot calendar", description = "Count open lesson slots per day at a place, optionally with a bitmap of the hours that have any")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Open slots per day",
+                    content = @Content(schema = @Schema(implementation = AvailabilityCalendarResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or resolution")
+    })
+    public ResponseEntity<AvailabilityCalendarResponse> getAvailabilityCalendar(
+            @Parameter(description = "Place ID") @PathVariable Long placeId,
+            @Parameter(description = "First day") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive (at most " + MAX_CALENDAR_DAYS + " days after from)")
+                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Resolution (day, hour)") @RequestParam(defaultValue = "day") String resolution) {
+        
+        boolean hourly = "hour".equals(resolution);
+        if (!hourly && !"day".equals(resolution)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported resolution: " + resolution);
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Date range must cover between 1 and " + MAX_CALENDAR_DAYS + " days");
+        }
+        
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        int[] dailyOpenSlots = new int[days];
+        BitSet openHours = new BitSet(days * HOURS_PER_DAY);
+        List<PlaceHourlyAvailability> rollups = lessonAvailabilityService.findOpenSlotsByPlace(placeId, from, to);
+        for (PlaceHourlyAvailability rollup : rollups) {
+            int day = (int) ChronoUnit.DAYS.between(from, rollup.getSlotDate());
+            dailyOpenSlots[day] += rollup.getOpenSlots();
+            openHours.set(day * HOURS_PER_DAY + rollup.getSlotHour());
+        }
+        
+        AvailabilityCalendarResponse response = new AvailabilityCalendarResponse();
+        response.setPlaceId(placeId);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setDailyOpenSlots(dailyOpenSlots);
+        if (hourly) {
+            // toByteArray() drops trailing empty bytes; pad so every day has its 3 bytes
+            byte[] bits = Arrays.copyOf(openHours.toByteArray(), days * HOURS_PER_DAY / 8);
+            response.setOpenHours(Base64.getEncoder().encodeToString(bits));
+        }
+        
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reference data cache statistics", description = "Second-level and query cache hits and misses for places, schools and teachers since startup; only the status 'disabled' while skiconnect.app.cacheStatistics is off (admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics",
+                    content = @Content(schema = @Schema(implementation = EntityCacheStatsResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    public ResponseEntity<EntityCacheStatsResponse> getEntityCacheStats() {
+        Statistics statistics = referenceDataCache.statistics();
+        
+        EntityCacheStatsResponse response = new EntityCacheStatsResponse();
+        if (!statistics.isStatisticsEnabled()) {
+            response.setStatus("disabled");
+            return new ResponseEntity<>(response, HttpStatus.OK);
+        }
+        response.setStatus("enabled");
+        response.setHitCount(statistics.getSecondLevelCacheHitCount());
+        response.setMissCount(statistics.getSecondLevelCacheMissCount());
+        response.setPutCount(statistics.getSecondLevelCachePutCount());
+        response.setHitRatio(hitRatio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        response.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        response.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        response.setQueryCacheHitRatio(hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        response.setRegions(referenceDataCache.regionStatistics().entrySet().stream()
+                .map(entry -> {
+                    CacheRegionResponse region = new CacheRegionResponse();
+                    region.setName(entry.getKey());
+                    region.setHitCount(entry.getValue().getHitCount());
+                    region.setMissCount(entry.getValue().getMissCount());
+                    region.setPutCount(entry.getValue().getPutCount());
+                    region.setSize(entry.getValue().getElementCountInMemory());
+                    return region;
+                })
+                .collect(Collectors.toList()));
+        
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
     // Request and Response classes
     public static class PlaceRequest {
         private String name;
         private String location;
+        private Double latitude;
+        private Double longitude;
 
         public String getName() {
             return name;
@@ -69,12 +193,30 @@ public class PlaceController {
         public void setLocation(String location) {
             this.location = location;
         }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(Double latitude) {
+            this.latitude = latitude;
+        }
+
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        public void setLongitude(Double longitude) {
+            this.longitude = longitude;
+        }
     }
 
     public static class PlaceResponse {
         private Long id;
         private String name;
         private String location;
+        private Double latitude;
+        private Double longitude;
 
         public Long getId() {
             return id;
@@ -99,5 +241,207 @@ public class PlaceController {
         public void setLocation(String location) {
             this.location = location;
         }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(Double latitude) {
+            this.latitude = latitude;
+        }
+
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        public void setLongitude(Double longitude) {
+            this.longitude = longitude;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class AvailabilityCalendarResponse {
+        private Long placeId;
+        private LocalDate from;
+        private LocalDate to;
+        @Schema(description = "Open slots starting on each day from 'from' to 'to'")
+        private int[] dailyOpenSlots;
+        @Schema(description = "Base64 bitmap for resolution=hour; bit (day * 24 + hour) is set when that hour has an " +
+                "open slot, where bit n is (byte[n / 8] >> (n % 8)) & 1")
+        private String openHours;
+
+        public Long getPlaceId() {
+            return placeId;
+        }
+
+        public void setPlaceId(Long placeId) {
+            this.placeId = placeId;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public void setFrom(LocalDate from) {
+            this.from = from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public void setTo(LocalDate to) {
+            this.to = to;
+        }
+
+        public int[] getDailyOpenSlots() {
+            return dailyOpenSlots;
+        }
+
+        public void setDailyOpenSlots(int[] dailyOpenSlots) {
+            this.dailyOpenSlots = dailyOpenSlots;
+        }
+
+        public String getOpenHours() {
+            return openHours;
+        }
+
+        public void setOpenHours(String openHours) {
+            this.openHours = openHours;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class EntityCacheStatsResponse {
+        @Schema(description = "'enabled', or 'disabled' with no counts while statistics are off")
+        private String status;
+        private Long hitCount;
+        private Long missCount;
+        private Long putCount;
+        private Double hitRatio;
+        private Long queryCacheHitCount;
+        private Long queryCacheMissCount;
+        private Double queryCacheHitRatio;
+        private List<CacheRegionResponse> regions;
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public Long getHitCount() {
+            return hitCount;
+        }
+
+        public void setHitCount(Long hitCount) {
+            this.hitCount = hitCount;
+        }
+
+        public Long getMissCount() {
+            return missCount;
+        }
+
+        public void setMissCount(Long missCount) {
+            this.missCount = missCount;
+        }
+
+        public Long getPutCount() {
+            return putCount;
+        }
+
+        public void setPutCount(Long putCount) {
+            this.putCount = putCount;
+        }
+
+        public Double getHitRatio() {
+            return hitRatio;
+        }
+
+        public void setHitRatio(Double hitRatio) {
+            this.hitRatio = hitRatio;
+        }
+
+        public Long getQueryCacheHitCount() {
+            return queryCacheHitCount;
+        }
+
+        public void setQueryCacheHitCount(Long queryCacheHitCount) {
+            this.queryCacheHitCount = queryCacheHitCount;
+        }
+
+        public Long getQueryCacheMissCount() {
+            return queryCacheMissCount;
+        }
+
+        public void setQueryCacheMissCount(Long queryCacheMissCount) {
+            this.queryCacheMissCount = queryCacheMissCount;
+        }
+
+        public Double getQueryCacheHitRatio() {
+            return queryCacheHitRatio;
+        }
+
+        public void setQueryCacheHitRatio(Double queryCacheHitRatio) {
+            this.queryCacheHitRatio = queryCacheHitRatio;
+        }
+
+        public List<CacheRegionResponse> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(List<CacheRegionResponse> regions) {
+            this.regions = regions;
+        }
+    }
+
+    public static class CacheRegionResponse {
+        private String name;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long size;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public void setHitCount(long hitCount) {
+            this.hitCount = hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public void setMissCount(long missCount) {
+            this.missCount = missCount;
+        }
+
+        public long getPutCount() {
+            return putCount;
+        }
+
+        public void setPutCount(long putCount) {
+            this.putCount = putCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
     }
 }
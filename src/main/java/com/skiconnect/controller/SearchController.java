@@ -2,10 +2,17 @@
 
 package com.skiconnect.controller;
 
-import com.skiconnect.model.LessonAvailability;
-import com.skiconnect.model.School;
-import com.skiconnect.model.Teacher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.skiconnect.cache.PlaceSearchCache;
+import com.skiconnect.cache.ResourceVersions;
+import com.skiconnect.event.SearchableEntityChangedEvent.Kind;
+import com.skiconnect.index.GeoGrid;
+import com.skiconnect.index.NameSearchIndex;
+import com.skiconnect.repository.PlaceSummary;
+import com.skiconnect.repository.SchoolAvailabilitySummary;
+import com.skiconnect.repository.TeacherAvailabilitySummary;
 import com.skiconnect.service.LessonAvailabilityService;
+import com.skiconnect.service.PlaceService;
 import com.skiconnect.service.SchoolService;
 import com.skiconnect.service.TeacherService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,9 +25,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -30,31 +44,88 @@ public class SearchController {
 
     private final SchoolService schoolService;
     private final TeacherService teacherService;
+    private final NameSearchIndex nameSearchIndex;
+    private final PlaceService placeService;
     private final LessonAvailabilityService lessonAvailabilityService;
+    private final PlaceSearchCache placeSearchCache;
+    private final ResourceVersions resourceVersions;
+
+    static final int DEFAULT_NAME_LIMIT = 10;
+    static final int MAX_NAME_LIMIT = 50;
+    static final int DEFAULT_NEARBY_LIMIT = 20;
+    static final int MAX_NEARBY_LIMIT = 100;
+    static final double MAX_RADIUS_KM = 500;
 
     @Autowired
     public SearchController(SchoolService schoolService, 
                            TeacherService teacherService,
-                           LessonAvailabilityService lessonAvailabilityService) {
+                           NameSearchIndex nameSearchIndex,
+                           PlaceService placeService,
+                           LessonAvailabilityService lessonAvailabilityService,
+                           PlaceSearchCache placeSearchCache,
+                           ResourceVersions resourceVersions) {
         this.schoolService = schoolService;
         this.teacherService = teacherService;
+        this.nameSearchIndex = nameSearchIndex;
+        this.placeService = placeService;
         this.lessonAvailabilityService = lessonAvailabilityService;
+        this.placeSearchCache = placeSearchCache;
+        this.resourceVersions = resourceVersions;
     }
 
     @GetMapping
     @Operation(summary = "Search schools and teachers by place", description = "Search schools and teachers by place")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search results with CVs",
-                    content = @Content(schema = @Schema(implementation = SearchResponse.class)))
+                    content = @Content(schema = @Schema(implementation = SearchResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match")
     })
     public ResponseEntity<SearchResponse> searchByPlace(
             @Parameter(description = "Place ID") @RequestParam Long placeId,
-            @Parameter(description = "Type (schools, teachers)") @RequestParam(required = false) String type) {
+            @Parameter(description = "Type (schools, teachers)") @RequestParam(required = false) String type,
+            WebRequest webRequest) {
+        
+        // Read before the results so a concurrent change can only make the tag older than the body
+        if (webRequest.checkNotModified(resourceVersions.searchETag(placeId))) {
+            return null;
+        }
+        
+        // Unknown types yield an empty result and are not worth a cache entry
+        boolean cacheable = type == null || "schools".equals(type) || "teachers".equals(type);
+        SearchResponse response = cacheable
+                ? placeSearchCache.get(placeId, type, () -> loadSearchResponse(placeId, type))
+                : loadSearchResponse(placeId, type);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Place search cache statistics", description = "Hit and miss rates of the place search cache since startup (admin only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics",
+                    content = @Content(schema = @Schema(implementation = SearchCacheStatsResponse.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin access required")
+    })
+    public ResponseEntity<SearchCacheStatsResponse> getSearchCacheStats() {
+        CacheStats stats = placeSearchCache.stats();
+        
+        SearchCacheStatsResponse response = new SearchCacheStatsResponse();
+        response.setSize(placeSearchCache.size());
+        response.setHitCount(stats.hitCount());
+        response.setMissCount(stats.missCount());
+        response.setHitRate(stats.hitRate());
+        response.setMissRate(stats.missRate());
+        response.setEvictionCount(stats.evictionCount());
         
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    private SearchResponse loadSearchResponse(Long placeId, String type) {
         SearchResponse response = new SearchResponse();
         
         if (type == null || "schools".equals(type)) {
-            List<School> schools = schoolService.findByPlaceId(placeId);
+            // One query returns every school of the place with its email and available-lesson counter
+            List<SchoolAvailabilitySummary> schools = schoolService.findAvailabilitySummariesByPlaceId(placeId);
             List<SchoolResponse> schoolResponses = schools.stream()
                     .map(this::mapToSchoolResponse)
                     .collect(Collectors.toList());
@@ -63,7 +134,7 @@ public class SearchController {
         }
         
         if (type == null || "teachers".equals(type)) {
-            List<Teacher> teachers = teacherService.findByPlaceId(placeId);
+            List<TeacherAvailabilitySummary> teachers = teacherService.findAvailabilitySummariesByPlaceId(placeId);
             List<TeacherResponse> teacherResponses = teachers.stream()
                     .map(this::mapToTeacherResponse)
                     .collect(Collectors.toList());
@@ -71,41 +142,130 @@ public class SearchController {
             response.setTotalTeachers(teacherResponses.size());
         }
         
+        return response;
+    }
+
+    @GetMapping("/names")
+    @Operation(summary = "Typeahead search by name", description = "Ranked prefix and fuzzy matches on place names and locations, school names and teacher names")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Best matches first",
+                    content = @Content(schema = @Schema(implementation = NameSearchResponse.class))),
+            @ApiResponse(responseCode = "503", description = "Search index is still being built")
+    })
+    public ResponseEntity<NameSearchResponse> searchByName(
+            @Parameter(description = "Text typed so far") @RequestParam String q,
+            @Parameter(description = "Type (places, schools, teachers)") @RequestParam(required = false) String type,
+            @Parameter(description = "Maximum number of matches") @RequestParam(defaultValue = "" + DEFAULT_NAME_LIMIT) int limit) {
+
+        if (!nameSearchIndex.isWarm()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index is still being built");
+        }
+
+        Set<Kind> kinds;
+        if (type == null) {
+            kinds = EnumSet.allOf(Kind.class);
+        } else if ("places".equals(type)) {
+            kinds = EnumSet.of(Kind.PLACE);
+        } else if ("schools".equals(type)) {
+            kinds = EnumSet.of(Kind.SCHOOL);
+        } else if ("teachers".equals(type)) {
+            kinds = EnumSet.of(Kind.TEACHER);
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown type: " + type);
+        }
+
+        List<NameMatchResponse> matches = nameSearchIndex.search(q, kinds, Math.max(1, Math.min(limit, MAX_NAME_LIMIT)))
+                .stream()
+                .map(this::mapToNameMatchResponse)
+                .collect(Collectors.toList());
+
+        NameSearchResponse response = new NameSearchResponse();
+        response.setMatches(matches);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/nearby")
+    @Operation(summary = "Find nearby places", description = "Places within a radius of a point, nearest first, with their schools and available-lesson totals")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Nearest places first",
+                    content = @Content(schema = @Schema(implementation = NearbySearchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid coordinates, radius or limit")
+    })
+    public ResponseEntity<NearbySearchResponse> searchNearby(
+            @Parameter(description = "Latitude in degrees") @RequestParam double latitude,
+            @Parameter(description = "Longitude in degrees") @RequestParam double longitude,
+            @Parameter(description = "Search radius in kilometres") @RequestParam(defaultValue = "30") double radiusKm,
+            @Parameter(description = "Maximum number of places") @RequestParam(defaultValue = "" + DEFAULT_NEARBY_LIMIT) int limit) {
+
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Coordinates out of range");
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Radius must be in (0, " + MAX_RADIUS_KM + "] km");
+        }
+
+        List<GeoGrid.Neighbor> nearby = placeService.findNearby(latitude, longitude, radiusKm,
+                Math.max(1, Math.min(limit, MAX_NEARBY_LIMIT)));
+        List<Long> placeIds = nearby.stream().map(GeoGrid.Neighbor::getId).collect(Collectors.toList());
+
+        // Three queries regardless of how many places are returned
+        Map<Long, PlaceSummary> places = placeService.findSummariesByIds(placeIds).stream()
+                .collect(Collectors.toMap(PlaceSummary::getId, Function.identity()));
+        Map<Long, List<SchoolAvailabilitySummary>> schoolsByPlace = placeIds.isEmpty() ? Map.of()
+                : schoolService.findAvailabilitySummariesByPlaceIds(placeIds).stream()
+                        .collect(Collectors.groupingBy(SchoolAvailabilitySummary::getPlaceId));
+        Map<Long, Long> availableLessons = lessonAvailabilityService.countAvailableByPlaceIds(placeIds);
+
+        NearbySearchResponse response = new NearbySearchResponse();
+        response.setPlaces(nearby.stream()
+                .filter(neighbor -> places.containsKey(neighbor.getId()))
+                .map(neighbor -> mapToNearbyPlaceResponse(places.get(neighbor.getId()), neighbor.getDistanceKm(),
+                        schoolsByPlace.getOrDefault(neighbor.getId(), List.of()),
+                        availableLessons.getOrDefault(neighbor.getId(), 0L)))
+                .collect(Collectors.toList()));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
-    private SchoolResponse mapToSchoolResponse(School school) {
+    private NearbyPlaceResponse mapToNearbyPlaceResponse(PlaceSummary place, double distanceKm,
+                                                         List<SchoolAvailabilitySummary> schools, long availableLessons) {
+        NearbyPlaceResponse response = new NearbyPlaceResponse();
+        response.setId(place.getId());
+        response.setName(place.getName());
+        response.setLocation(place.getLocation());
+        response.setLatitude(place.getLatitude());
+        response.setLongitude(place.getLongitude());
+        response.setDistanceKm(distanceKm);
+        response.setAvailableLessons(availableLessons);
+        response.setSchools(schools.stream().map(this::mapToSchoolResponse).collect(Collectors.toList()));
+        return response;
+    }
+
+    private NameMatchResponse mapToNameMatchResponse(NameSearchIndex.Match match) {
+        NameMatchResponse response = new NameMatchResponse();
+        response.setType(match.getKind().name().toLowerCase());
+        response.setId(match.getId());
+        response.setName(match.getName());
+        response.setDetail(match.getDetail());
+        return response;
+    }
+
+    private SchoolResponse mapToSchoolResponse(SchoolAvailabilitySummary school) {
         SchoolResponse response = new SchoolResponse();
         response.setId(school.getId());
         response.setName(school.getName());
-        response.setEmail(school.getUser().getEmail());
-        
-        // Count available lessons
-        List<LessonAvailability> availabilities = lessonAvailabilityService.findBySchoolId(school.getId());
-        long availableCount = availabilities.stream()
-                .filter(LessonAvailability::isAvailable)
-                .count();
-        response.setAvailableLessons((int) availableCount);
+        response.setEmail(school.getEmail());
+        response.setAvailableLessons(school.getAvailableLessons());
         
         return response;
     }
 
-    private TeacherResponse mapToTeacherResponse(Teacher teacher) {
+    private TeacherResponse mapToTeacherResponse(TeacherAvailabilitySummary teacher) {
         TeacherResponse response = new TeacherResponse();
         response.setId(teacher.getId());
         response.setName(teacher.getName());
-        response.setEmail(teacher.getUser().getEmail());
-        
-        if (teacher.getSchool() != null) {
-            response.setSchoolId(teacher.getSchool().getId());
-        }
-        
-        // Count available lessons
-        List<LessonAvailability> availabilities = lessonAvailabilityService.findByTeacherId(teacher.getId());
-        long availableCount = availabilities.stream()
-                .filter(LessonAvailability::isAvailable)
-                .count();
-        response.setAvailableLessons((int) availableCount);
+        response.setEmail(teacher.getEmail());
+        response.setSchoolId(teacher.getSchoolId());
+        response.setAvailableLessons(teacher.getAvailableLessons());
         
         return response;
     }
@@ -236,4 +396,199 @@ public class SearchController {
             this.availableLessons = availableLessons;
         }
     }
+
+    public static class NameSearchResponse {
+        private List<NameMatchResponse> matches;
+
+        public List<NameMatchResponse> getMatches() {
+            return matches;
+        }
+
+        public void setMatches(List<NameMatchResponse> matches) {
+            this.matches = matches;
+        }
+    }
+
+    public static class NameMatchResponse {
+        private String type;
+        private Long id;
+        private String name;
+        private String detail;
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+
+        public void setDetail(String detail) {
+            this.detail = detail;
+        }
+    }
+
+    public static class NearbySearchResponse {
+        private List<NearbyPlaceResponse> places;
+
+        public List<NearbyPlaceResponse> getPlaces() {
+            return places;
+        }
+
+        public void setPlaces(List<NearbyPlaceResponse> places) {
+            this.places = places;
+        }
+    }
+
+    public static class NearbyPlaceResponse {
+        private Long id;
+        private String name;
+        private String location;
+        private Double latitude;
+        private Double longitude;
+        private Double distanceKm;
+        private Long availableLessons;
+        private List<SchoolResponse> schools;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public void setLocation(String location) {
+            this.location = location;
+        }
+
+        public Double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(Double latitude) {
+            this.latitude = latitude;
+        }
+
+        public Double getLongitude() {
+            return longitude;
+        }
+
+        public void setLongitude(Double longitude) {
+            this.longitude = longitude;
+        }
+
+        public Double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public void setDistanceKm(Double distanceKm) {
+            this.distanceKm = distanceKm;
+        }
+
+        public Long getAvailableLessons() {
+            return availableLessons;
+        }
+
+        public void setAvailableLessons(Long availableLessons) {
+            this.availableLessons = availableLessons;
+        }
+
+        public List<SchoolResponse> getSchools() {
+            return schools;
+        }
+
+        public void setSchools(List<SchoolResponse> schools) {
+            this.schools = schools;
+        }
+    }
+
+    public static class SearchCacheStatsResponse {
+        private long size;
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+        private double missRate;
+        private long evictionCount;
+
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public void setHitCount(long hitCount) {
+            this.hitCount = hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public void setMissCount(long missCount) {
+            this.missCount = missCount;
+        }
+
+        public double getHitRate() {
+            return hitRate;
+        }
+
+        public void setHitRate(double hitRate) {
+            this.hitRate = hitRate;
+        }
+
+        public double getMissRate() {
+            return missRate;
+        }
+
+        public void setMissRate(double missRate) {
+            this.missRate = missRate;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public void setEvictionCount(long evictionCount) {
+            this.evictionCount = evictionCount;
+        }
+    }
 }
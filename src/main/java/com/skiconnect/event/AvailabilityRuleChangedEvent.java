@@ -0,0 +1,22 @@
+package com.skiconnect.event;
+
+import com.skiconnect.model.AvailabilityRule;
+import lombok.Value;
+
+/**
+ * Published when a recurring availability rule is created, gets an exception or is deleted, i.e. whenever
+ * the virtual slots it yields change without a lesson availability row changing.
+ */
+@Value
+public class AvailabilityRuleChangedEvent implements ChangeEvent {
+
+    Long ruleId;
+    Long placeId;
+    Long schoolId;
+    Long teacherId;
+
+    public static AvailabilityRuleChangedEvent of(AvailabilityRule rule) {
+        return new AvailabilityRuleChangedEvent(rule.getId(), rule.getPlace().getId(), rule.getSchool().getId(),
+                rule.getTeacher().getId());
+    }
+}
@@ -0,0 +1,8 @@
+package com.skiconnect.event;
+
+/**
+ * A committed change to lessons, rules, schools, teachers or places that {@link ChangeEventRing} hands to its
+ * consumers.
+ */
+public interface ChangeEvent {
+}
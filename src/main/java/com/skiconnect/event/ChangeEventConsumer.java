@@ -0,0 +1,19 @@
+package com.skiconnect.event;
+
+import com.skiconnect.util.EventRing;
+
+/**
+ * A bean that reacts to committed changes on a thread of its own, fed by {@link ChangeEventRing}. Events arrive
+ * one at a time in commit order; a slow consumer delays publishers only once it is a whole ring behind.
+ */
+public interface ChangeEventConsumer {
+
+    void onChange(ChangeEvent event);
+
+    /**
+     * How the consumer waits for events; null for the ring's configured strategy.
+     */
+    default EventRing.WaitStrategy waitStrategy() {
+        return null;
+    }
+}
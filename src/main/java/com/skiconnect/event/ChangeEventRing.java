@@ -0,0 +1,67 @@
+package com.skiconnect.event;
+
+import com.skiconnect.util.EventRing;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relays every committed {@link ChangeEvent} to the {@link ChangeEventConsumer} beans through an
+ * {@link EventRing}, so the committing request thread only pays for storing the event in a slot while each
+ * consumer handles it on its own thread. Without consumers nothing is published.
+ *
+ * <p>The caches and indexes that must reflect a change as soon as its request returns keep listening
+ * synchronously after commit; consumers here see the change a moment later.
+ */
+@Component
+public class ChangeEventRing {
+
+    private final EventRing<ChangeEvent> ring;
+    private final boolean active;
+
+    public ChangeEventRing(List<ChangeEventConsumer> consumers,
+                           @Value("${skiconnect.app.changeRingSize:4096}") int size,
+                           @Value("${skiconnect.app.changeRingWaitStrategy:SLEEPING}") EventRing.WaitStrategy waitStrategy) {
+        this.ring = new EventRing<>(size);
+        for (ChangeEventConsumer consumer : consumers) {
+            EventRing.WaitStrategy strategy = consumer.waitStrategy() != null ? consumer.waitStrategy() : waitStrategy;
+            ring.addConsumer(ClassUtils.getUserClass(consumer).getSimpleName(), strategy, consumer::onChange);
+        }
+        this.active = !consumers.isEmpty();
+    }
+
+    @PostConstruct
+    public void start() {
+        ring.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        ring.stop();
+    }
+
+    @TransactionalEventListener
+    public void onChange(ChangeEvent event) {
+        // Turned away once the ring stops at shutdown, when its consumers are gone too
+        if (active) {
+            ring.publish(event);
+        }
+    }
+
+    /**
+     * Events each consumer has yet to handle, by consumer class name.
+     */
+    public Map<String, Long> lags() {
+        return ring.lags();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+}
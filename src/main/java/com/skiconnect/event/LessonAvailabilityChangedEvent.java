@@ -0,0 +1,59 @@
+package com.skiconnect.event;
+
+import com.skiconnect.model.LessonAvailability;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by LessonAvailabilityServiceImpl for every mutation of a lesson availability.
+ * Carries only ids and times so listeners never touch a detached entity after commit.
+ */
+@Value
+public class LessonAvailabilityChangedEvent implements ChangeEvent {
+
+    public enum Type {
+        CREATED,
+        BOOKED,
+        // A checkout's hold on the lesson, then either its confirmation or its lapse
+        HELD,
+        CONFIRMED,
+        LAPSED,
+        CANCELLED,
+        // The lesson went with its waitlist; one per student who was queued
+        WAITLIST_CANCELLED,
+        DELETED
+    }
+
+    Type type;
+    Long availabilityId;
+    Long placeId;
+    Long schoolId;
+    Long teacherId;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    // The student booking, holding or losing the lesson; for DELETED, the student whose booking went with it
+    Long studentId;
+
+    public static LessonAvailabilityChangedEvent of(Type type, LessonAvailability availability) {
+        return of(type, availability, availability.getStudent() != null ? availability.getStudent().getId() : null);
+    }
+
+    public static LessonAvailabilityChangedEvent of(Type type, LessonAvailability availability, Long studentId) {
+        return new LessonAvailabilityChangedEvent(type,
+                availability.getId(),
+                availability.getPlace().getId(),
+                availability.getSchool().getId(),
+                availability.getTeacher().getId(),
+                availability.getStartTime(),
+                availability.getEndTime(),
+                studentId);
+    }
+
+    /**
+     * Whether the slot is open for booking once this change is applied.
+     */
+    public boolean isAvailableAfter() {
+        return type == Type.CREATED || type == Type.CANCELLED || type == Type.LAPSED;
+    }
+}
@@ -0,0 +1,14 @@
+package com.skiconnect.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by LessonAvailabilityServiceImpl when a student puts a hold on a lesson, so its expiry can be scheduled.
+ */
+@Value
+public class LessonHeldEvent {
+    Long availabilityId;
+    LocalDateTime heldUntil;
+}
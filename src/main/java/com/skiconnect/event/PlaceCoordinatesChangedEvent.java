@@ -0,0 +1,19 @@
+package com.skiconnect.event;
+
+import com.skiconnect.model.Place;
+import lombok.Value;
+
+/**
+ * Published when a place gets coordinates so the nearby-place grid can pick it up after commit.
+ */
+@Value
+public class PlaceCoordinatesChangedEvent {
+
+    Long placeId;
+    double latitude;
+    double longitude;
+
+    public static PlaceCoordinatesChangedEvent of(Place place) {
+        return new PlaceCoordinatesChangedEvent(place.getId(), place.getLatitude(), place.getLongitude());
+    }
+}
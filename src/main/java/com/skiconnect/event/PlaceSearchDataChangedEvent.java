@@ -0,0 +1,35 @@
+package com.skiconnect.event;
+
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import lombok.Value;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Published when the schools, teachers or available-lesson counters listed by a place search change,
+ * naming every place whose results are affected.
+ */
+@Value
+public class PlaceSearchDataChangedEvent implements ChangeEvent {
+
+    Set<Long> placeIds;
+
+    public static PlaceSearchDataChangedEvent of(Place... places) {
+        return new PlaceSearchDataChangedEvent(Stream.of(places)
+                .filter(place -> place != null && place.getId() != null)
+                .map(Place::getId)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    public static Place placeOf(School school) {
+        return school != null ? school.getPlace() : null;
+    }
+
+    public static Place placeOf(Teacher teacher) {
+        return teacher != null ? placeOf(teacher.getSchool()) : null;
+    }
+}
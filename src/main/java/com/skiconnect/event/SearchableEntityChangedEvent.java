@@ -0,0 +1,39 @@
+package com.skiconnect.event;
+
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import lombok.Value;
+
+/**
+ * Published when a place, school or teacher is created so the name search index can pick it up after commit.
+ * The detail is the secondary line shown with a match: a place's location, a school's place, a teacher's school.
+ */
+@Value
+public class SearchableEntityChangedEvent implements ChangeEvent {
+
+    public enum Kind {
+        PLACE,
+        SCHOOL,
+        TEACHER
+    }
+
+    Kind kind;
+    Long id;
+    String name;
+    String detail;
+
+    public static SearchableEntityChangedEvent of(Place place) {
+        return new SearchableEntityChangedEvent(Kind.PLACE, place.getId(), place.getName(), place.getLocation());
+    }
+
+    public static SearchableEntityChangedEvent of(School school) {
+        return new SearchableEntityChangedEvent(Kind.SCHOOL, school.getId(), school.getName(),
+                school.getPlace() != null ? school.getPlace().getName() : null);
+    }
+
+    public static SearchableEntityChangedEvent of(Teacher teacher) {
+        return new SearchableEntityChangedEvent(Kind.TEACHER, teacher.getId(), teacher.getName(),
+                teacher.getSchool() != null ? teacher.getSchool().getName() : null);
+    }
+}
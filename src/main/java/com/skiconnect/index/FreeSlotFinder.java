@@ -0,0 +1,208 @@
+package com.skiconnect.index;
+
+import com.skiconnect.repository.AvailabilitySlot;
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the earliest times a lesson of a given duration can start, across many teachers.
+ *
+ * <p>Each teacher contributes a lazily consumed stream of its available slots ordered by start time. Back-to-back
+ * slots of one teacher at one school form a run, and every slot start whose run still covers the duration is a
+ * candidate. The streams are merged through a priority queue holding one pending candidate per teacher, so after
+ * the queue is filled each of the k results costs O(log t) for t teachers plus the few slots of that teacher's
+ * run that the next candidate spans. Slots after the last returned candidate are never read. A teacher can
+ * appear several times with overlapping candidates, one for every slot its run can start at.
+ */
+public final class FreeSlotFinder {
+
+    private static final Comparator<Cursor> EARLIEST_FIRST = Comparator
+            .comparing((Cursor cursor) -> cursor.candidate.getStartTime())
+            .thenComparing(cursor -> cursor.candidate.getTeacherId());
+
+    private FreeSlotFinder() {
+    }
+
+    /**
+     * The {@code limit} earliest candidates starting at or after {@code from} and ending by {@code to}.
+     * Every stream must hold a single teacher's slots in ascending start order; slots starting before
+     * {@code from} are skipped.
+     */
+    public static List<FreeSlot> earliest(List<? extends Iterator<? extends AvailabilitySlot>> teacherSlots,
+                                          Duration duration, LocalDateTime from, LocalDateTime to, int limit) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+
+        LocalDateTime latestStart = to.minus(duration);
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(Math.max(1, teacherSlots.size()), EARLIEST_FIRST);
+        for (Iterator<? extends AvailabilitySlot> slots : teacherSlots) {
+            Cursor cursor = new Cursor(slots, duration, from, latestStart);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+
+        List<FreeSlot> found = new ArrayList<>(Math.min(limit, 64));
+        while (found.size() < limit && !queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            found.add(cursor.candidate);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Interleaves two start-ordered streams of one teacher's slots into one, reading both lazily.
+     */
+    public static Iterator<AvailabilitySlot> mergeByStart(Iterator<? extends AvailabilitySlot> first,
+                                                          Iterator<? extends AvailabilitySlot> second) {
+        return new Iterator<>() {
+            private AvailabilitySlot nextFirst = first.hasNext() ? first.next() : null;
+            private AvailabilitySlot nextSecond = second.hasNext() ? second.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextFirst != null || nextSecond != null;
+            }
+
+            @Override
+            public AvailabilitySlot next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                AvailabilitySlot next;
+                if (nextSecond == null || (nextFirst != null && !nextFirst.getStartTime().isAfter(nextSecond.getStartTime()))) {
+                    next = nextFirst;
+                    nextFirst = first.hasNext() ? first.next() : null;
+                } else {
+                    next = nextSecond;
+                    nextSecond = second.hasNext() ? second.next() : null;
+                }
+                return next;
+            }
+        };
+    }
+
+    @Value
+    public static class FreeSlot {
+        Long teacherId;
+        Long schoolId;
+        LocalDateTime startTime;
+        LocalDateTime endTime;
+        // The availability rows the lesson would occupy, in start order; recurring slots not booked yet have none
+        List<Long> availabilityIds;
+        // The open recurring slots the lesson would occupy, in start order, each booked through its rule
+        List<RuleSlotRef> ruleSlots;
+    }
+
+    @Value
+    public static class RuleSlotRef {
+        Long ruleId;
+        LocalDateTime startTime;
+    }
+
+    private static final class Cursor {
+        private final Iterator<? extends AvailabilitySlot> slots;
+        private final Duration duration;
+        private final LocalDateTime earliestStart;
+        private final LocalDateTime latestStart;
+        // Slots read from the stream but not yet passed; the one at head starts the next candidate
+        private final List<AvailabilitySlot> buffered = new ArrayList<>();
+        private int head;
+        private FreeSlot candidate;
+
+        Cursor(Iterator<? extends AvailabilitySlot> slots, Duration duration,
+               LocalDateTime earliestStart, LocalDateTime latestStart) {
+            this.slots = slots;
+            this.duration = duration;
+            this.earliestStart = earliestStart;
+            this.latestStart = latestStart;
+        }
+
+        /**
+         * Moves to the next candidate; false once the stream holds no further one.
+         */
+        boolean advance() {
+            if (candidate != null) {
+                // The previous candidate started at head
+                passed(1);
+                candidate = null;
+            }
+            while (true) {
+                AvailabilitySlot first = slotAt(head);
+                if (first == null || first.getStartTime().isAfter(latestStart)) {
+                    return false;
+                }
+
+                LocalDateTime end = first.getStartTime().plus(duration);
+                List<Long> ids = new ArrayList<>();
+                List<RuleSlotRef> ruleSlots = new ArrayList<>();
+                add(ids, ruleSlots, first);
+                int spanned = 1;
+                LocalDateTime covered = first.getEndTime();
+                while (covered.isBefore(end)) {
+                    AvailabilitySlot next = slotAt(head + spanned);
+                    if (next == null || next.getStartTime().isAfter(covered)
+                            || !next.getSchoolId().equals(first.getSchoolId())) {
+                        break;
+                    }
+                    add(ids, ruleSlots, next);
+                    spanned++;
+                    if (next.getEndTime().isAfter(covered)) {
+                        covered = next.getEndTime();
+                    }
+                }
+                if (!covered.isBefore(end)) {
+                    candidate = new FreeSlot(first.getTeacherId(), first.getSchoolId(), first.getStartTime(), end, ids, ruleSlots);
+                    return true;
+                }
+                // Every slot of the run starts later and reaches no further, so none of them can start a lesson
+                passed(spanned);
+            }
+        }
+
+        private static void add(List<Long> ids, List<RuleSlotRef> ruleSlots, AvailabilitySlot slot) {
+            if (slot.getId() != null) {
+                ids.add(slot.getId());
+            } else if (slot.getRuleId() != null) {
+                ruleSlots.add(new RuleSlotRef(slot.getRuleId(), slot.getStartTime()));
+            }
+        }
+
+        // The slot at the given buffer position, reading ahead from the stream as needed; null past its end
+        private AvailabilitySlot slotAt(int position) {
+            while (position >= buffered.size()) {
+                if (!slots.hasNext()) {
+                    return null;
+                }
+                AvailabilitySlot next = slots.next();
+                if (!next.getStartTime().isBefore(earliestStart)) {
+                    buffered.add(next);
+                }
+            }
+            return buffered.get(position);
+        }
+
+        private void passed(int count) {
+            head += count;
+            if (head == buffered.size()) {
+                buffered.clear();
+                head = 0;
+            } else if (head > 64 && head * 2 > buffered.size()) {
+                buffered.subList(0, head).clear();
+                head = 0;
+            }
+        }
+    }
+}
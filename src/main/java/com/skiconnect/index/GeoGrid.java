@@ -0,0 +1,159 @@
+package com.skiconnect.index;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform latitude/longitude grid of points for radius and k-nearest lookups.
+ *
+ * <p>A radius query only measures the points in the cells overlapping the circle's bounding box instead of
+ * every point. Longitude ranges wrap at the antimeridian and widen towards the poles, where every column is
+ * scanned. Distances are great-circle distances on a spherical earth. Writes must be serialized by the caller;
+ * reads may run concurrently with them.
+ */
+public final class GeoGrid {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private static final Comparator<Neighbor> NEAREST_FIRST = Comparator.comparingDouble(Neighbor::getDistanceKm)
+            .thenComparing(Neighbor::getId);
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Point>> cells = new ConcurrentHashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        double cellsAround = 360 / cellDegrees;
+        if (cellDegrees <= 0 || cellDegrees > 90 || Math.abs(cellsAround - Math.rint(cellsAround)) > 1e-9) {
+            throw new IllegalArgumentException("Cell size must divide 360 degrees and be at most 90 degrees");
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.rint(cellsAround);
+    }
+
+    public void put(Long id, double latitude, double longitude) {
+        remove(id);
+        Point point = new Point(id, latitude, longitude);
+        points.put(id, point);
+        cells.computeIfAbsent(cell(row(latitude), column(longitude)), key -> ConcurrentHashMap.newKeySet()).add(point);
+    }
+
+    public void remove(Long id) {
+        Point point = points.remove(id);
+        if (point != null) {
+            cells.get(cell(row(point.latitude), column(point.longitude))).remove(point);
+        }
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Points within {@code radiusKm} of the origin, nearest first.
+     */
+    public List<Neighbor> withinRadius(double latitude, double longitude, double radiusKm) {
+        List<Neighbor> neighbors = new ArrayList<>();
+        double latitudeSpan = radiusKm / KM_PER_DEGREE;
+        int firstRow = row(Math.max(-90, latitude - latitudeSpan));
+        int lastRow = row(Math.min(90, latitude + latitudeSpan));
+
+        // Longitude half-width of the circle's bounding box; a circle reaching a pole spans every longitude
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        double longitudeSpan = Math.abs(latitude) + latitudeSpan >= 90 || angularRadius >= Math.PI / 2 ? 180
+                : Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude))));
+        // Column numbers before wrapping, so a box crossing the antimeridian stays one contiguous range
+        int firstColumn = longitudeSpan >= 180 ? 0 : unwrappedColumn(longitude - longitudeSpan);
+        int columnCount = longitudeSpan >= 180 ? columns
+                : Math.min(columns, unwrappedColumn(longitude + longitudeSpan) - firstColumn + 1);
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int i = 0; i < columnCount; i++) {
+                Set<Point> cell = cells.get(cell(row, Math.floorMod(firstColumn + i, columns)));
+                if (cell == null) {
+                    continue;
+                }
+                for (Point point : cell) {
+                    double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+                    if (distance <= radiusKm) {
+                        neighbors.add(new Neighbor(point.id, distance));
+                    }
+                }
+            }
+        }
+
+        neighbors.sort(NEAREST_FIRST);
+        return neighbors;
+    }
+
+    /**
+     * The {@code k} points nearest to the origin and no further than {@code maxRadiusKm}, nearest first.
+     * The search radius starts at one cell and doubles until it holds k points.
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        double radiusKm = Math.min(maxRadiusKm, cellDegrees * KM_PER_DEGREE);
+        while (true) {
+            List<Neighbor> neighbors = withinRadius(latitude, longitude, radiusKm);
+            if (neighbors.size() >= k || radiusKm >= maxRadiusKm) {
+                return neighbors.size() > k ? new ArrayList<>(neighbors.subList(0, k)) : neighbors;
+            }
+            radiusKm = Math.min(maxRadiusKm, radiusKm * 2);
+        }
+    }
+
+    /**
+     * Haversine great-circle distance in kilometres.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, (int) Math.floor((latitude + 90) / cellDegrees));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod(unwrappedColumn(longitude), columns);
+    }
+
+    private int unwrappedColumn(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private int cell(int row, int column) {
+        return row * columns + column;
+    }
+
+    @Value
+    public static class Neighbor {
+        Long id;
+        double distanceKm;
+    }
+
+    private static final class Point {
+        private final Long id;
+        private final double latitude;
+        private final double longitude;
+
+        Point(Long id, double latitude, double longitude) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.skiconnect.index;
+
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.repository.AvailabilitySlot;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * In-process index of available lesson slots per place, school and teacher, ordered by start time.
+ *
+ * <p>A time-range lookup is a sub-set seek on the owner's start-ordered skip list followed by an end-time
+ * filter, i.e. O(log n + k) where k counts the owner's slots starting inside the window. The index is built
+ * from the table once the application is ready and kept current from {@link LessonAvailabilityChangedEvent}s
+ * delivered after commit. Until the first build completes it reports itself cold and callers fall back to
+ * JPA. Every instance keeps its own copy, so it must be disabled when several instances share a database.
+ * Slots are also grouped by place and teacher, so {@link FreeSlotFinder} can merge one stream per teacher.
+ */
+@Component
+public class LessonAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonAvailabilityIndex.class);
+
+    private final LessonAvailabilityRepository lessonAvailabilityRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile boolean warm;
+    // Changes that arrive while a rebuild is reading the table; replayed onto the new snapshot
+    private List<LessonAvailabilityChangedEvent> pendingDuringRebuild;
+
+    public LessonAvailabilityIndex(LessonAvailabilityRepository lessonAvailabilityRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${skiconnect.app.availabilityIndexEnabled:true}") boolean enabled) {
+        this.lessonAvailabilityRepository = lessonAvailabilityRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public List<Long> findAvailableByPlace(Long placeId, LocalDateTime startTime, LocalDateTime endTime) {
+        return find(snapshot.byPlace, placeId, startTime, endTime);
+    }
+
+    public List<Long> findAvailableBySchool(Long schoolId, LocalDateTime startTime, LocalDateTime endTime) {
+        return find(snapshot.bySchool, schoolId, startTime, endTime);
+    }
+
+    public List<Long> findAvailableByTeacher(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        return find(snapshot.byTeacher, teacherId, startTime, endTime);
+    }
+
+    /**
+     * The earliest times a lesson of the given duration can start at a place, optionally at one school only.
+     */
+    public List<FreeSlotFinder.FreeSlot> findEarliestFreeSlots(Long placeId, Long schoolId, Duration duration,
+                                                             LocalDateTime from, LocalDateTime to, int limit) {
+        return FreeSlotFinder.earliest(new ArrayList<>(findSlotsByTeacher(placeId, schoolId, from).values()),
+                duration, from, to, limit);
+    }
+
+    /**
+     * One lazily read stream per teacher at the place of its slots starting at or after {@code from}, in start order.
+     */
+    public Map<Long, Iterator<AvailabilitySlot>> findSlotsByTeacher(Long placeId, Long schoolId, LocalDateTime from) {
+        Map<Long, NavigableSet<Slot>> slotsByTeacher = snapshot.byPlaceAndTeacher.get(placeId);
+        if (slotsByTeacher == null) {
+            return new HashMap<>();
+        }
+
+        Map<Long, Iterator<AvailabilitySlot>> teacherSlots = new HashMap<>();
+        slotsByTeacher.forEach((teacherId, slots) -> {
+            NavigableSet<Slot> fromStart = slots.tailSet(Slot.lowerBound(from), true);
+            Collection<AvailabilitySlot> teacherFromStart = Collections.unmodifiableCollection(fromStart);
+            teacherSlots.put(teacherId, schoolId == null ? teacherFromStart.iterator()
+                    : teacherFromStart.stream().filter(slot -> schoolId.equals(slot.getSchoolId())).iterator());
+        });
+        return teacherSlots;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        Snapshot rebuilt = new Snapshot();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<AvailabilitySlot> slots = lessonAvailabilityRepository.streamAvailableSlots()) {
+                    slots.forEach(slot -> rebuilt.add(slot.getId(), slot.getPlaceId(), slot.getSchoolId(),
+                            slot.getTeacherId(), slot.getStartTime(), slot.getEndTime()));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pendingDuringRebuild.forEach(rebuilt::apply);
+            pendingDuringRebuild = null;
+            snapshot = rebuilt;
+            warm = true;
+        }
+        logger.info("Lesson availability index built with {} available slots", rebuilt.slotCount());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onLessonAvailabilityChanged(LessonAvailabilityChangedEvent event) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(event);
+        }
+        snapshot.apply(event);
+    }
+
+    private static List<Long> find(Map<Long, NavigableSet<Slot>> slotsByOwner, Long ownerId,
+                                   LocalDateTime startTime, LocalDateTime endTime) {
+        NavigableSet<Slot> slots = slotsByOwner.get(ownerId);
+        if (slots == null || startTime.isAfter(endTime)) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Slot slot : slots.subSet(Slot.lowerBound(startTime), true, Slot.upperBound(endTime), true)) {
+            if (!slot.endTime.isAfter(endTime)) {
+                ids.add(slot.id);
+            }
+        }
+        return ids;
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, Slot> slotsById = new ConcurrentHashMap<>();
+        private final Map<Long, NavigableSet<Slot>> byPlace = new ConcurrentHashMap<>();
+        private final Map<Long, NavigableSet<Slot>> bySchool = new ConcurrentHashMap<>();
+        private final Map<Long, NavigableSet<Slot>> byTeacher = new ConcurrentHashMap<>();
+        private final Map<Long, Map<Long, NavigableSet<Slot>>> byPlaceAndTeacher = new ConcurrentHashMap<>();
+
+        void apply(LessonAvailabilityChangedEvent event) {
+            if (event.isAvailableAfter()) {
+                add(event.getAvailabilityId(), event.getPlaceId(), event.getSchoolId(), event.getTeacherId(),
+                        event.getStartTime(), event.getEndTime());
+            } else {
+                remove(event.getAvailabilityId());
+            }
+        }
+
+        void add(Long id, Long placeId, Long schoolId, Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+            remove(id);
+            Slot slot = new Slot(id, placeId, schoolId, teacherId, startTime, endTime);
+            slotsById.put(id, slot);
+            byPlace.computeIfAbsent(placeId, key -> new ConcurrentSkipListSet<>()).add(slot);
+            bySchool.computeIfAbsent(schoolId, key -> new ConcurrentSkipListSet<>()).add(slot);
+            byTeacher.computeIfAbsent(teacherId, key -> new ConcurrentSkipListSet<>()).add(slot);
+            byPlaceAndTeacher.computeIfAbsent(placeId, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(teacherId, key -> new ConcurrentSkipListSet<>()).add(slot);
+        }
+
+        void remove(Long id) {
+            Slot slot = slotsById.remove(id);
+            if (slot != null) {
+                byPlace.get(slot.placeId).remove(slot);
+                bySchool.get(slot.schoolId).remove(slot);
+                byTeacher.get(slot.teacherId).remove(slot);
+                byPlaceAndTeacher.get(slot.placeId).get(slot.teacherId).remove(slot);
+            }
+        }
+
+        int slotCount() {
+            return slotsById.size();
+        }
+    }
+
+    private static final class Slot implements AvailabilitySlot, Comparable<Slot> {
+        private final Long id;
+        private final Long placeId;
+        private final Long schoolId;
+        private final Long teacherId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        Slot(Long id, Long placeId, Long schoolId, Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+            this.id = id;
+            this.placeId = placeId;
+            this.schoolId = schoolId;
+            this.teacherId = teacherId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getPlaceId() {
+            return placeId;
+        }
+
+        @Override
+        public Long getSchoolId() {
+            return schoolId;
+        }
+
+        @Override
+        public Long getTeacherId() {
+            return teacherId;
+        }
+
+        @Override
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        @Override
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+
+        static Slot lowerBound(LocalDateTime startTime) {
+            return new Slot(Long.MIN_VALUE, null, null, null, startTime, startTime);
+        }
+
+        static Slot upperBound(LocalDateTime startTime) {
+            return new Slot(Long.MAX_VALUE, null, null, null, startTime, startTime);
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = startTime.compareTo(other.startTime);
+            return byStart != 0 ? byStart : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Slot && compareTo((Slot) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package com.skiconnect.index;
+
+import com.skiconnect.event.SearchableEntityChangedEvent;
+import com.skiconnect.event.SearchableEntityChangedEvent.Kind;
+import com.skiconnect.repository.PlaceRepository;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.SearchableName;
+import com.skiconnect.repository.TeacherRepository;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-process typeahead index over place names and locations, school names and teacher names.
+ *
+ * <p>Matches are ranked by {@link Quality} first, then shorter names first. Each kind keeps a trie over whole
+ * names and one over single words, and every trie node holds the entries below it already in that order, so a
+ * lookup walks the query once and stops after the requested number of hits instead of scoring every entry
+ * sharing a prefix. Multi-word queries start from the rarest word. When prefixes yield too few hits the rest is
+ * filled from a trigram index that tolerates typos and infix matches.
+ *
+ * <p>The index is rebuilt from the database on the scheduler thread, first right after startup and then
+ * periodically so entries written by other instances or by SQL scripts are picked up; readiness never waits
+ * for it. Entities created through the services are added incrementally after commit. Until the first build
+ * completes the index reports itself cold.
+ */
+@Component
+public class NameSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(NameSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    // Share of the query's trigrams an entry must contain to count as a fuzzy match
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+
+    /**
+     * How a hit matched the query, best last.
+     */
+    public enum Quality {
+        // Shares enough trigrams with the query
+        FUZZY,
+        // Every query word starts a word of the name or, for places, of the location
+        LOCATION_PREFIX,
+        // Every query word starts a word of the name
+        WORD_PREFIX,
+        // The whole name starts with the query
+        NAME_PREFIX
+    }
+
+    private final PlaceRepository placeRepository;
+    private final SchoolRepository schoolRepository;
+    private final TeacherRepository teacherRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Serializes the scheduled refresh with rebuilds requested elsewhere
+    private final Object rebuildLock = new Object();
+
+    private volatile Map<Kind, Dictionary> dictionaries = emptyDictionaries();
+    private volatile boolean warm;
+    // Changes that arrive while a rebuild is reading the tables; replayed onto the new dictionaries
+    private List<SearchableEntityChangedEvent> pendingDuringRebuild;
+
+    public NameSearchIndex(PlaceRepository placeRepository,
+                           SchoolRepository schoolRepository,
+                           TeacherRepository teacherRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.placeRepository = placeRepository;
+        this.schoolRepository = schoolRepository;
+        this.teacherRepository = teacherRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Returns at most {@code limit} entries of the given kinds matching the query, best first.
+     */
+    public List<Match> search(String query, Set<Kind> kinds, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<String> words = words(normalized);
+        Map<Kind, Dictionary> current = dictionaries;
+        List<Hit> hits = new ArrayList<>();
+        for (Kind kind : kinds) {
+            hits.addAll(current.get(kind).search(normalized, words, limit));
+        }
+
+        return hits.stream()
+                .sorted(Hit.RANKING)
+                .limit(limit)
+                .map(Hit::toMatch)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${skiconnect.app.nameSearchRefreshMs:900000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildDictionaries();
+        }
+    }
+
+    private void rebuildDictionaries() {
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        Map<Kind, Dictionary> rebuilt = emptyDictionaries();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                addAll(rebuilt.get(Kind.PLACE), Kind.PLACE, placeRepository.findSearchableNames());
+                addAll(rebuilt.get(Kind.SCHOOL), Kind.SCHOOL, schoolRepository.findSearchableNames());
+                addAll(rebuilt.get(Kind.TEACHER), Kind.TEACHER, teacherRepository.findSearchableNames());
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pendingDuringRebuild.forEach(event -> apply(rebuilt, event));
+            pendingDuringRebuild = null;
+            dictionaries = rebuilt;
+            warm = true;
+        }
+        logger.debug("Name search index built with {} entries",
+                rebuilt.values().stream().mapToInt(Dictionary::size).sum());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onSearchableEntityChanged(SearchableEntityChangedEvent event) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(event);
+        }
+        apply(dictionaries, event);
+    }
+
+    private static void apply(Map<Kind, Dictionary> dictionaries, SearchableEntityChangedEvent event) {
+        dictionaries.get(event.getKind()).put(new Entry(event.getKind(), event.getId(), event.getName(), event.getDetail()));
+    }
+
+    private static void addAll(Dictionary dictionary, Kind kind, List<SearchableName> names) {
+        for (SearchableName name : names) {
+            dictionary.put(new Entry(kind, name.getId(), name.getName(), name.getDetail()));
+        }
+    }
+
+    private static Map<Kind, Dictionary> emptyDictionaries() {
+        Map<Kind, Dictionary> dictionaries = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            dictionaries.put(kind, new Dictionary());
+        }
+        return dictionaries;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WORD_SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static List<String> words(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    // Trigrams of each word padded with one leading and one trailing space, so short words still produce some
+    private static Set<String> trigrams(List<String> words) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : words) {
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static boolean allStartWords(List<String> words, List<String> queryWords) {
+        for (String queryWord : queryWords) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(queryWord)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A ranked search hit.
+     */
+    @Value
+    public static class Match {
+        Kind kind;
+        Long id;
+        String name;
+        String detail;
+        Quality quality;
+    }
+
+    /**
+     * The entries of one kind. Writes are serialized by the enclosing index; reads run concurrently.
+     */
+    private static final class Dictionary {
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        // Whole normalized names
+        private final TrieNode names = new TrieNode();
+        // Every searchable word on its own
+        private final TrieNode words = new TrieNode();
+        private final Map<String, Set<Entry>> byTrigram = new ConcurrentHashMap<>();
+
+        void put(Entry entry) {
+            Entry previous = entries.put(entry.id, entry);
+            if (previous != null) {
+                unlink(previous);
+            }
+            names.insert(entry.normalizedName, entry);
+            for (String word : new HashSet<>(entry.words)) {
+                words.insert(word, entry);
+            }
+            for (String trigram : entry.trigrams) {
+                byTrigram.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(entry);
+            }
+        }
+
+        private void unlink(Entry entry) {
+            names.delete(entry.normalizedName, entry);
+            for (String word : new HashSet<>(entry.words)) {
+                words.delete(word, entry);
+            }
+            for (String trigram : entry.trigrams) {
+                Set<Entry> posting = byTrigram.get(trigram);
+                if (posting != null) {
+                    posting.remove(entry);
+                }
+            }
+        }
+
+        List<Hit> search(String normalizedQuery, List<String> queryWords, int limit) {
+            List<Hit> hits = new ArrayList<>();
+            Set<Entry> seen = new HashSet<>();
+
+            for (Entry entry : names.entriesUnder(normalizedQuery)) {
+                if (hits.size() == limit) {
+                    return hits;
+                }
+                seen.add(entry);
+                hits.add(new Hit(entry, Quality.NAME_PREFIX, 1));
+            }
+
+            // Entries arrive shortest name first; location-only matches rank below every name match,
+            // so they are held back and the walk stops once the name matches alone fill the page
+            List<Hit> locationHits = new ArrayList<>();
+            for (Entry entry : words.rarest(queryWords)) {
+                if (hits.size() == limit) {
+                    break;
+                }
+                if (seen.contains(entry) || !allStartWords(entry.words, queryWords)) {
+                    continue;
+                }
+                seen.add(entry);
+                if (allStartWords(entry.nameWords, queryWords)) {
+                    hits.add(new Hit(entry, Quality.WORD_PREFIX, 1));
+                } else if (hits.size() + locationHits.size() < limit) {
+                    locationHits.add(new Hit(entry, Quality.LOCATION_PREFIX, 1));
+                }
+            }
+            for (Hit hit : locationHits) {
+                if (hits.size() == limit) {
+                    return hits;
+                }
+                hits.add(hit);
+            }
+
+            if (hits.size() < limit) {
+                hits.addAll(fuzzy(queryWords, seen, limit - hits.size()));
+            }
+            return hits;
+        }
+
+        private List<Hit> fuzzy(List<String> queryWords, Set<Entry> seen, int limit) {
+            Set<String> queryTrigrams = trigrams(queryWords);
+            Map<Entry, Integer> overlaps = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (Entry entry : byTrigram.getOrDefault(trigram, Set.of())) {
+                    overlaps.merge(entry, 1, Integer::sum);
+                }
+            }
+
+            return overlaps.entrySet().stream()
+                    .filter(overlap -> !seen.contains(overlap.getKey()))
+                    .map(overlap -> new Hit(overlap.getKey(), Quality.FUZZY,
+                            (double) overlap.getValue() / queryTrigrams.size()))
+                    .filter(hit -> hit.similarity >= MIN_TRIGRAM_SIMILARITY)
+                    .sorted(Hit.RANKING)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+
+        int size() {
+            return entries.size();
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new ConcurrentHashMap<>();
+        // Every entry with a key passing through this node, in Entry order
+        private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>();
+        // ConcurrentSkipListSet.size() walks the whole set, so the count is kept alongside
+        private volatile int size;
+
+        void insert(String key, Entry entry) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new TrieNode());
+                if (node.entries.add(entry)) {
+                    node.size++;
+                }
+            }
+        }
+
+        void delete(String key, Entry entry) {
+            TrieNode node = this;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                if (node != null && node.entries.remove(entry)) {
+                    node.size--;
+                }
+            }
+        }
+
+        Set<Entry> entriesUnder(String prefix) {
+            TrieNode node = find(prefix);
+            return node != null ? node.entries : Set.of();
+        }
+
+        // Entries under the query word with the fewest of them; callers still check the other words
+        Set<Entry> rarest(List<String> prefixes) {
+            TrieNode rarest = null;
+            for (String prefix : prefixes) {
+                TrieNode node = find(prefix);
+                if (node == null) {
+                    return Set.of();
+                }
+                if (rarest == null || node.size < rarest.size) {
+                    rarest = node;
+                }
+            }
+            return rarest.entries;
+        }
+
+        private TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node;
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final Kind kind;
+        private final Long id;
+        private final String name;
+        private final String detail;
+        private final String normalizedName;
+        private final List<String> nameWords;
+        // Searchable words: the name, plus the location for places
+        private final List<String> words;
+        private final Set<String> trigrams;
+
+        Entry(Kind kind, Long id, String name, String detail) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+            this.detail = detail;
+            this.normalizedName = normalize(name);
+            this.nameWords = words(normalizedName);
+            List<String> searchable = new ArrayList<>(nameWords);
+            if (kind == Kind.PLACE) {
+                searchable.addAll(words(normalize(detail)));
+            }
+            this.words = searchable;
+            this.trigrams = trigrams(searchable);
+        }
+
+        // Shorter names first, then alphabetical; the order of entries within a trie node
+        @Override
+        public int compareTo(Entry other) {
+            int byLength = Integer.compare(normalizedName.length(), other.normalizedName.length());
+            if (byLength != 0) {
+                return byLength;
+            }
+            int byName = normalizedName.compareTo(other.normalizedName);
+            return byName != 0 ? byName : id.compareTo(other.id);
+        }
+    }
+
+    private static final class Hit {
+        static final Comparator<Hit> RANKING = Comparator.<Hit, Quality>comparing(hit -> hit.quality).reversed()
+                .thenComparing(Comparator.<Hit>comparingDouble(hit -> hit.similarity).reversed())
+                .thenComparing(hit -> hit.entry)
+                .thenComparing(hit -> hit.entry.kind);
+
+        private final Entry entry;
+        private final Quality quality;
+        // Trigram similarity for fuzzy hits, 1 otherwise
+        private final double similarity;
+
+        Hit(Entry entry, Quality quality, double similarity) {
+            this.entry = entry;
+            this.quality = quality;
+            this.similarity = similarity;
+        }
+
+        Match toMatch() {
+            return new Match(entry.kind, entry.id, entry.name, entry.detail, quality);
+        }
+    }
+}
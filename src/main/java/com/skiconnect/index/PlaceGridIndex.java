@@ -0,0 +1,106 @@
+package com.skiconnect.index;
+
+import com.skiconnect.event.PlaceCoordinatesChangedEvent;
+import com.skiconnect.repository.PlaceCoordinates;
+import com.skiconnect.repository.PlaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process {@link GeoGrid} of every place with coordinates, serving nearby-place searches.
+ *
+ * <p>Rebuilt from the database on the scheduler thread right after startup and then periodically, and kept
+ * current from {@link PlaceCoordinatesChangedEvent}s delivered after commit. Until the first build completes
+ * it reports itself cold and callers fall back to the database.
+ */
+@Component
+public class PlaceGridIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaceGridIndex.class);
+
+    // About 28 km north-south, so a 30 km radius at Alpine latitudes covers a block of at most 4 x 5 cells
+    static final double CELL_DEGREES = 0.25;
+
+    private final PlaceRepository placeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    // Serializes the scheduled refresh with rebuilds requested elsewhere
+    private final Object rebuildLock = new Object();
+
+    private volatile GeoGrid grid = new GeoGrid(CELL_DEGREES);
+    private volatile boolean warm;
+    // Changes that arrive while a rebuild is reading the table; replayed onto the new grid
+    private List<PlaceCoordinatesChangedEvent> pendingDuringRebuild;
+
+    public PlaceGridIndex(PlaceRepository placeRepository, PlatformTransactionManager transactionManager) {
+        this.placeRepository = placeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public List<GeoGrid.Neighbor> nearest(double latitude, double longitude, int limit, double radiusKm) {
+        return grid.nearest(latitude, longitude, limit, radiusKm);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${skiconnect.app.placeGridRefreshMs:900000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildGrid();
+        }
+    }
+
+    private void rebuildGrid() {
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+
+        GeoGrid rebuilt = new GeoGrid(CELL_DEGREES);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (PlaceCoordinates place : placeRepository.findAllCoordinates()) {
+                    rebuilt.put(place.getId(), place.getLatitude(), place.getLongitude());
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            pendingDuringRebuild.forEach(event -> apply(rebuilt, event));
+            pendingDuringRebuild = null;
+            grid = rebuilt;
+            warm = true;
+        }
+        logger.debug("Place grid built with {} places", rebuilt.size());
+    }
+
+    @TransactionalEventListener
+    public synchronized void onPlaceCoordinatesChanged(PlaceCoordinatesChangedEvent event) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(event);
+        }
+        apply(grid, event);
+    }
+
+    private static void apply(GeoGrid grid, PlaceCoordinatesChangedEvent event) {
+        grid.put(event.getPlaceId(), event.getLatitude(), event.getLongitude());
+    }
+}
@@ -0,0 +1,279 @@
+package com.skiconnect.index;
+
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.repository.AvailabilitySlot;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process record of the time every teacher is taken by a lesson, one bitmap per teacher and day with a bit
+ * per 5-minute step.
+ *
+ * <p>A lesson covers the steps from its start rounded down to its end rounded up, so checking or taking a
+ * teacher's time is a few word-wide AND/OR operations per day the lesson touches, whatever the number of
+ * lessons the teacher already has. A teacher-day takes five longs. Time is taken when a lesson is created,
+ * whether or not it is booked, and given back once its deletion commits. The lessons already in the table are
+ * added once the application is ready; until then the schedule reports itself cold and callers check the table.
+ * Rows written before overlaps were refused may share steps; the days where loading met such rows are marked,
+ * and deleting a lesson on a marked day takes the teacher's remaining lessons there from the table again.
+ * Like {@link LessonAvailabilityIndex} it assumes a single application instance.
+ */
+@Component
+public class TeacherSchedule {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeacherSchedule.class);
+
+    static final int STEP_MINUTES = 5;
+    static final int STEPS_PER_DAY = 24 * 60 / STEP_MINUTES;
+    private static final int WORDS_PER_DAY = (STEPS_PER_DAY + 63) / 64;
+
+    private final LessonAvailabilityRepository lessonAvailabilityRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Map<Long, TeacherDays> teachers = new ConcurrentHashMap<>();
+    // Taken for reading by every check and change, and for writing while the table is loaded, so a deletion
+    // that commits during the load is applied after it
+    private final ReadWriteLock loadLock = new ReentrantReadWriteLock();
+    private volatile boolean warm;
+
+    public TeacherSchedule(LessonAvailabilityRepository lessonAvailabilityRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.lessonAvailabilityRepository = lessonAvailabilityRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Deletions are given back after their transaction committed, when it can no longer be joined
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Takes the teacher's time from start to end unless any of it is already taken; false if it is, in which
+     * case nothing changes.
+     */
+    public boolean tryReserve(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        loadLock.readLock().lock();
+        try {
+            TeacherDays days = teachers.computeIfAbsent(teacherId, key -> new TeacherDays());
+            synchronized (days) {
+                if (!days.isFree(startTime, endTime)) {
+                    return false;
+                }
+                days.set(startTime, endTime, true);
+                return true;
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    public void release(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        loadLock.readLock().lock();
+        try {
+            TeacherDays days = teachers.get(teacherId);
+            if (days != null) {
+                synchronized (days) {
+                    days.set(startTime, endTime, false);
+                }
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether none of the teacher's time from start to end is taken by a lesson.
+     */
+    public boolean isFree(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        loadLock.readLock().lock();
+        try {
+            TeacherDays days = teachers.get(teacherId);
+            if (days == null) {
+                return true;
+            }
+            synchronized (days) {
+                return days.isFree(startTime, endTime);
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        load();
+    }
+
+    /**
+     * Adds every lesson in the table. Time already taken stays taken, so lessons created meanwhile are kept.
+     */
+    public void load() {
+        loadLock.writeLock().lock();
+        try {
+            long[] lessons = new long[1];
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<AvailabilitySlot> slots = lessonAvailabilityRepository.streamAllSlots()) {
+                    slots.forEach(slot -> {
+                        teachers.computeIfAbsent(slot.getTeacherId(), key -> new TeacherDays())
+                                .add(slot.getStartTime(), slot.getEndTime());
+                        lessons[0]++;
+                    });
+                }
+            });
+            warm = true;
+            logger.info("Teacher schedule loaded with {} lessons of {} teachers", lessons[0], teachers.size());
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onLessonAvailabilityChanged(LessonAvailabilityChangedEvent event) {
+        if (event.getType() == LessonAvailabilityChangedEvent.Type.DELETED) {
+            releaseLesson(event.getTeacherId(), event.getStartTime(), event.getEndTime());
+        }
+    }
+
+    /**
+     * Gives back the time of a deleted lesson. Steps it shared with loaded rows are cleared with it, so on the
+     * days marked shared the teacher's remaining lessons around it are taken again from the table.
+     */
+    void releaseLesson(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        loadLock.readLock().lock();
+        try {
+            TeacherDays days = teachers.get(teacherId);
+            if (days == null) {
+                return;
+            }
+            // Held through the query, so a lesson whose deletion commits meanwhile is given back after it
+            synchronized (days) {
+                boolean shared = days.isShared(startTime, endTime);
+                days.set(startTime, endTime, false);
+                if (shared) {
+                    // Widened by a step, as the cleared steps are rounded outwards
+                    readOnlyTransaction.executeWithoutResult(status -> lessonAvailabilityRepository
+                            .findSlotsByTeacherOverlapping(teacherId, startTime.minusMinutes(STEP_MINUTES),
+                                    endTime.plusMinutes(STEP_MINUTES))
+                            .forEach(slot -> days.add(slot.getStartTime(), slot.getEndTime())));
+                }
+            }
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    private static final class TeacherDays {
+        private final Map<LocalDate, long[]> bitmaps = new HashMap<>();
+        // Days holding steps taken by more than one lesson
+        private final Set<LocalDate> sharedDays = new HashSet<>();
+
+        boolean isFree(LocalDateTime startTime, LocalDateTime endTime) {
+            for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(endTime); day = day.plusDays(1)) {
+                long[] words = bitmaps.get(day);
+                if (words == null) {
+                    continue;
+                }
+                int from = firstStep(day, startTime);
+                int to = endStep(day, endTime);
+                for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+                    if ((words[word] & mask(word, from, to)) != 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        boolean isShared(LocalDateTime startTime, LocalDateTime endTime) {
+            for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(endTime); day = day.plusDays(1)) {
+                if (sharedDays.contains(day)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Takes the time even where it is already taken, marking the days that then hold several lessons
+        void add(LocalDateTime startTime, LocalDateTime endTime) {
+            for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(endTime); day = day.plusDays(1)) {
+                LocalDateTime from = day.atStartOfDay().isAfter(startTime) ? day.atStartOfDay() : startTime;
+                LocalDateTime to = day.plusDays(1).atStartOfDay().isBefore(endTime) ? day.plusDays(1).atStartOfDay() : endTime;
+                if (!isFree(from, to)) {
+                    sharedDays.add(day);
+                }
+            }
+            set(startTime, endTime, true);
+        }
+
+        void set(LocalDateTime startTime, LocalDateTime endTime, boolean taken) {
+            for (LocalDate day = startTime.toLocalDate(); day.atStartOfDay().isBefore(endTime); day = day.plusDays(1)) {
+                int from = firstStep(day, startTime);
+                int to = endStep(day, endTime);
+                if (from >= to) {
+                    continue;
+                }
+                long[] words = taken ? bitmaps.computeIfAbsent(day, key -> new long[WORDS_PER_DAY]) : bitmaps.get(day);
+                if (words == null) {
+                    continue;
+                }
+                boolean empty = true;
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    if (word >= from >>> 6 && word <= (to - 1) >>> 6) {
+                        words[word] = taken ? words[word] | mask(word, from, to) : words[word] & ~mask(word, from, to);
+                    }
+                    empty &= words[word] == 0;
+                }
+                if (empty) {
+                    bitmaps.remove(day);
+                    sharedDays.remove(day);
+                }
+            }
+        }
+
+        // The step the time falls into on the given day, rounded down; 0 if it lies on an earlier day
+        private static int firstStep(LocalDate day, LocalDateTime startTime) {
+            if (startTime.toLocalDate().isBefore(day)) {
+                return 0;
+            }
+            return (startTime.getHour() * 60 + startTime.getMinute()) / STEP_MINUTES;
+        }
+
+        // The step after the one the time ends in, rounded up; the whole day if it lies on a later day
+        private static int endStep(LocalDate day, LocalDateTime endTime) {
+            if (endTime.toLocalDate().isAfter(day)) {
+                return STEPS_PER_DAY;
+            }
+            int minutes = endTime.getHour() * 60 + endTime.getMinute();
+            boolean partial = minutes % STEP_MINUTES != 0 || endTime.getSecond() != 0 || endTime.getNano() != 0;
+            return minutes / STEP_MINUTES + (partial ? 1 : 0);
+        }
+
+        // The bits of steps [from, to) that fall into the given word
+        private static long mask(int word, int from, int to) {
+            int low = Math.max(from - word * 64, 0);
+            int high = Math.min(to - word * 64, 64);
+            long upTo = high == 64 ? -1L : (1L << high) - 1;
+            return upTo & (-1L << low);
+        }
+    }
+}
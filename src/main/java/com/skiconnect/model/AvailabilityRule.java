@@ -0,0 +1,69 @@
+package com.skiconnect.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A teacher's recurring availability at a place: on the given weekdays of a date range, the daily window is
+ * cut into back-to-back slots of slotMinutes. The slots are never stored; they are expanded on read, and a
+ * slot becomes a LessonAvailability row linked to its rule only once it is booked.
+ */
+@Entity
+@Table(name = "availability_rules")
+@Data
+@NoArgsConstructor
+public class AvailabilityRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teacher_id", nullable = false)
+    private Teacher teacher;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "school_id", nullable = false)
+    private School school;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "place_id", nullable = false)
+    private Place place;
+
+    // One bit per day of week, Monday in bit 0
+    @Column(nullable = false)
+    private int weekdays;
+
+    @Column(nullable = false)
+    private LocalTime dailyStart;
+
+    @Column(nullable = false)
+    private LocalTime dailyEnd;
+
+    @Column(nullable = false)
+    private int slotMinutes;
+
+    @Column(nullable = false)
+    private LocalDate validFrom;
+
+    // Inclusive
+    @Column(nullable = false)
+    private LocalDate validUntil;
+
+    // Days within the range on which the rule yields no slots
+    @ElementCollection
+    @CollectionTable(name = "availability_rule_exceptions", joinColumns = @JoinColumn(name = "rule_id"))
+    @Column(name = "exception_date")
+    private Set<LocalDate> exceptions = new HashSet<>();
+
+    // Slots the rule yields that have not been materialized; changed only through relative updates after
+    // creation and included in the school and teacher available-lesson counters. Past slots stay counted,
+    // as past lessons nobody booked do
+    @Column(nullable = false, updatable = false)
+    private int openSlots;
+}
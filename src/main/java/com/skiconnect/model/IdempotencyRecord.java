@@ -0,0 +1,53 @@
+package com.skiconnect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The response a request sent with an Idempotency-Key received, stored in the same transaction as the request's
+ * own writes so a retry is answered from here instead of running again. Keys belong to the caller that sent them,
+ * so two callers using the same key never see each other's responses.
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyRecord.Key.class)
+@Data
+@NoArgsConstructor
+public class IdempotencyRecord {
+    // Name of the authenticated caller
+    @Id
+    @Column(name = "principal", length = 255)
+    private String principal;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // SHA-256 of the operation and request body; a retry must send the same request
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private int status;
+
+    // The response body as JSON
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String principal;
+        private String key;
+    }
+}
@@ -7,7 +7,8 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "lesson_availabilities")
+// A recurring slot is materialized at most once
+@Table(name = "lesson_availabilities", uniqueConstraints = @UniqueConstraint(columnNames = {"rule_id", "start_time"}))
 @Data
 @NoArgsConstructor
 public class LessonAvailability {
@@ -15,15 +16,15 @@ public class LessonAvailability {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id", nullable = false)
     private Teacher teacher;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "school_id", nullable = false)
     private School school;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "place_id", nullable = false)
     private Place place;
 
@@ -36,7 +37,16 @@ public class LessonAvailability {
     @Column(nullable = false)
     private boolean isAvailable = true;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private User student;
+
+    // Set while the student holds the lesson during checkout; it counts as taken until the hold is confirmed,
+    // which clears this, or lapses
+    private LocalDateTime heldUntil;
+
+    // Set when the row was materialized from a recurring rule's slot
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "rule_id")
+    private AvailabilityRule rule;
 } 
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.skiconnect.model;
+
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking change waiting to be delivered to the outbox sinks. Written in the transaction that books or cancels
+ * the lesson and deleted once every sink has received it. Holds plain ids rather than associations, so deleting a
+ * lesson never has to wait for its events to drain.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 24)
+    private LessonAvailabilityChangedEvent.Type type;
+
+    @Column(nullable = false)
+    private Long availabilityId;
+
+    @Column(nullable = false)
+    private Long placeId;
+
+    @Column(nullable = false)
+    private Long schoolId;
+
+    @Column(nullable = false)
+    private Long teacherId;
+
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+
+    // The student the booking or cancellation is for
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Failed deliveries so far
+    @Column(nullable = false)
+    private int attempts;
+
+    // Set after a failed delivery; the event and every later one of its lesson wait until then
+    private LocalDateTime nextAttemptAt;
+}
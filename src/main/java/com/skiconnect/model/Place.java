@@ -5,12 +5,16 @@ package com.skiconnect.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "places")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 public class Place {
@@ -24,7 +28,13 @@ public class Place {
     @Column(nullable = false)
     private String location;
 
+    // WGS84 coordinates in degrees; null for places created before they were recorded
+    private Double latitude;
+
+    private Double longitude;
+
     @OneToMany(mappedBy = "place", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<School> schools = new ArrayList<>();
 
     @OneToMany(mappedBy = "place", cascade = CascadeType.ALL)
@@ -0,0 +1,46 @@
+package com.skiconnect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Rollup of the open lesson slots at a place that start in one hour of one day. Maintained incrementally by
+ * LessonAvailabilityServiceImpl and repaired by AvailabilityCounterReconciler, so calendar views never
+ * scan lesson_availabilities.
+ */
+@Entity
+@Table(name = "place_hourly_availability")
+@IdClass(PlaceHourlyAvailability.Key.class)
+@Data
+@NoArgsConstructor
+public class PlaceHourlyAvailability {
+    @Id
+    @Column(name = "place_id")
+    private Long placeId;
+
+    @Id
+    @Column(name = "slot_date")
+    private LocalDate slotDate;
+
+    // Hour of day (0-23) in which the slots start
+    @Id
+    @Column(name = "slot_hour")
+    private int slotHour;
+
+    @Column(nullable = false)
+    private int openSlots;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long placeId;
+        private LocalDate slotDate;
+        private int slotHour;
+    }
+}
@@ -3,12 +3,17 @@ package com.skiconnect.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "schools")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 public class School {
@@ -19,17 +24,23 @@ public class School {
     @Column(nullable = false)
     private String name;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     @OneToMany(mappedBy = "school", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Teacher> teachers = new ArrayList<>();
 
     @OneToMany(mappedBy = "school", cascade = CascadeType.ALL)
     private List<LessonAvailability> lessonAvailabilities = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "place_id")
     private Place place;
+
+    // Denormalized count of available lessons, maintained only through relative updates in SchoolRepository
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int availableLessons;
 } 
\ No newline at end of file
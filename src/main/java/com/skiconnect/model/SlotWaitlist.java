@@ -0,0 +1,39 @@
+package com.skiconnect.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ticket counters of one lesson's waitlist. Entries leave only by promotion, in ticket order, so the queue length
+ * and every entry's position are differences of these counters and never require counting entries.
+ */
+@Entity
+@Table(name = "slot_waitlists")
+@Data
+@NoArgsConstructor
+public class SlotWaitlist {
+    @Id
+    @Column(name = "availability_id")
+    private Long availabilityId;
+
+    // Tickets handed out so far; the last one issued
+    @Column(nullable = false)
+    private long issued;
+
+    // Tickets promoted to a booking so far
+    @Column(nullable = false)
+    private long served;
+
+    public SlotWaitlist(Long availabilityId) {
+        this.availabilityId = availabilityId;
+    }
+
+    public long getLength() {
+        return issued - served;
+    }
+
+    public long positionOf(WaitlistEntry entry) {
+        return entry.getTicket() - served;
+    }
+}
@@ -35,17 +35,11 @@ public class User implements UserDetails {
     @Column(nullable = false, unique = true)
     private String email;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<String> roles = new HashSet<>();
 
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
-    private School school;
-
-    @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
-    private Teacher teacher;
-
     @Override
     public String getUsername() {
         return username;
@@ -0,0 +1,33 @@
+package com.skiconnect.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A student queued for a booked lesson. Tickets are issued in joining order by the lesson's SlotWaitlist, and a
+ * cancellation books the lesson for the entry with the lowest ticket.
+ */
+@Entity
+@Table(name = "waitlist_entries", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"availability_id", "student_id"}),
+        @UniqueConstraint(columnNames = {"availability_id", "ticket"})
+})
+@Data
+@NoArgsConstructor
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "availability_id", nullable = false)
+    private LessonAvailability availability;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    @Column(nullable = false)
+    private long ticket;
+}
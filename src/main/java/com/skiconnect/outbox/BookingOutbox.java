@@ -0,0 +1,93 @@
+package com.skiconnect.outbox;
+
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.model.OutboxEvent;
+import com.skiconnect.repository.OutboxEventRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every booking and cancellation to outbox_events in the transaction that makes it, each addressed to the
+ * student it concerns. A checkout's hold stays internal: the booking is written when the hold is confirmed, and a
+ * lapsed hold writes nothing. Deleting a booked lesson cancels the booking, and every student queued for it is told
+ * the waitlist is gone. The listener runs
+ * synchronously while the change is published and only collects the event; just before the transaction commits,
+ * all its events are inserted with one statement, so they commit or roll back with the bookings and a group
+ * booking costs no more than a single one. Delivery happens later on the dispatcher's thread, which the change
+ * ring wakes once the events commit.
+ *
+ * <p>Two changes of one lesson cannot interleave: the second waits on the row lock of the first's conditional
+ * update until it commits, and only then inserts its own event. Outbox ids therefore follow the order of the
+ * changes of each lesson.
+ */
+@Component
+public class BookingOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    public BookingOutbox(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @EventListener
+    public void onLessonAvailabilityChanged(LessonAvailabilityChangedEvent event) {
+        LessonAvailabilityChangedEvent.Type type = outboxType(event);
+        if (type == null) {
+            return;
+        }
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setType(type);
+        outboxEvent.setAvailabilityId(event.getAvailabilityId());
+        outboxEvent.setPlaceId(event.getPlaceId());
+        outboxEvent.setSchoolId(event.getSchoolId());
+        outboxEvent.setTeacherId(event.getTeacherId());
+        outboxEvent.setStartTime(event.getStartTime());
+        outboxEvent.setEndTime(event.getEndTime());
+        outboxEvent.setStudentId(event.getStudentId());
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        transactionEvents().add(outboxEvent);
+    }
+
+    // What the sinks are told of the change, or null if it does not concern a student's booking
+    static LessonAvailabilityChangedEvent.Type outboxType(LessonAvailabilityChangedEvent event) {
+        return switch (event.getType()) {
+            case BOOKED, CONFIRMED -> LessonAvailabilityChangedEvent.Type.BOOKED;
+            case CANCELLED -> LessonAvailabilityChangedEvent.Type.CANCELLED;
+            case WAITLIST_CANCELLED -> LessonAvailabilityChangedEvent.Type.WAITLIST_CANCELLED;
+            case DELETED -> event.getStudentId() != null ? LessonAvailabilityChangedEvent.Type.CANCELLED : null;
+            case CREATED, HELD, LAPSED -> null;
+        };
+    }
+
+    // The events collected in the current transaction, registering their write on the first one
+    @SuppressWarnings("unchecked")
+    private List<OutboxEvent> transactionEvents() {
+        List<OutboxEvent> events = (List<OutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events != null) {
+            return events;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Booking changes must be made inside a transaction");
+        }
+        List<OutboxEvent> collected = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, collected);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                outboxEventRepository.insertEvents(collected);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(BookingOutbox.this);
+            }
+        });
+        return collected;
+    }
+}
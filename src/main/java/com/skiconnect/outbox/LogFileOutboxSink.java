@@ -0,0 +1,89 @@
+package com.skiconnect.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skiconnect.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each booking event to a log file as one JSON line, flushing once per batch. Disabled when no file is
+ * configured.
+ */
+@Component
+public class LogFileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private Writer writer;
+
+    public LogFileOutboxSink(ObjectMapper objectMapper, @Value("${skiconnect.app.outboxLogFile:}") String file) {
+        this.objectMapper = objectMapper;
+        this.file = file.isBlank() ? null : Path.of(file);
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        if (file == null) {
+            return;
+        }
+        if (writer == null) {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        try {
+            write(events);
+        } catch (IOException e) {
+            // Reopened for the retry; the lines of the failed batch that made it out are written again
+            try {
+                close();
+            } catch (IOException closing) {
+                e.addSuppressed(closing);
+            }
+            throw e;
+        }
+    }
+
+    private void write(List<OutboxEvent> events) throws IOException {
+        for (OutboxEvent event : events) {
+            ObjectNode line = objectMapper.createObjectNode()
+                    .put("id", event.getId())
+                    .put("type", event.getType().name())
+                    .put("availabilityId", event.getAvailabilityId())
+                    .put("placeId", event.getPlaceId())
+                    .put("schoolId", event.getSchoolId())
+                    .put("teacherId", event.getTeacherId())
+                    .put("startTime", event.getStartTime().toString())
+                    .put("endTime", event.getEndTime().toString())
+                    .put("studentId", event.getStudentId())
+                    .put("createdAt", event.getCreatedAt().toString());
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                writer = null;
+            }
+        }
+    }
+}
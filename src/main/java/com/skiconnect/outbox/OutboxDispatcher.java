@@ -0,0 +1,184 @@
+package com.skiconnect.outbox;
+
+import com.skiconnect.event.ChangeEvent;
+import com.skiconnect.event.ChangeEventConsumer;
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.model.OutboxEvent;
+import com.skiconnect.repository.OutboxEventRepository;
+import com.skiconnect.util.EventRing;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains outbox_events to the sinks in batches, oldest first.
+ *
+ * <p>The outbox is read only after new events committed or a retry fell due, so an idle outbox costs no queries.
+ * Each run delivers full batches until the outbox holds less than one, then delivers the rest, so under load
+ * every read, delete and sink flush is shared by a whole batch, while a lone event waits at most one linger
+ * interval. A batch is deleted only after every sink took it. When a sink fails, the whole batch is retried
+ * after a delay that doubles per attempt, and until then later events of the same lessons are held back, so each
+ * lesson's events arrive in order. Events of other lessons keep flowing.
+ *
+ * <p>It is woken from the change ring: a run lingers anyway, so the moment the ring hands it a committed booking
+ * change a little after the commit costs nothing, and the committing thread never touches the dispatcher.
+ *
+ * <p>Runs are driven by a thread of its own, so a slow sink never delays the jobs on the shared scheduler, such as
+ * the release of lapsed holds.
+ *
+ * <p>Like the lesson index, it assumes a single application instance: two instances would deliver the same
+ * events twice.
+ */
+@Service
+public class OutboxDispatcher implements ChangeEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 300_000;
+    // How long shutdown waits for a running delivery to finish
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final long retryDelayMillis;
+    private final long lingerMillis;
+    private final ScheduledExecutorService runner;
+    // Raised when events commit; starts raised so events left from before a restart are delivered
+    private final AtomicBoolean woken = new AtomicBoolean(true);
+    // When the earliest failed batch may be retried, or null while none waits
+    private LocalDateTime nextRetryAt;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxSink> sinks,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${skiconnect.app.outboxBatchSize:100}") int batchSize,
+                            @Value("${skiconnect.app.outboxRetryDelayMs:1000}") long retryDelayMillis,
+                            @Value("${skiconnect.app.outboxLingerMs:200}") long lingerMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Outbox batch size must be positive");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = List.copyOf(sinks);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retryDelayMillis = retryDelayMillis;
+        this.lingerMillis = lingerMillis;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("outbox-dispatcher-");
+        threads.setDaemon(true);
+        this.runner = Executors.newSingleThreadScheduledExecutor(threads);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        runner.scheduleWithFixedDelay(this::run, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        runner.shutdown();
+        if (!runner.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            runner.shutdownNow();
+        }
+    }
+
+    /**
+     * Signals that new events committed, to be delivered by the next scheduled run.
+     */
+    public void wake() {
+        woken.set(true);
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (event instanceof LessonAvailabilityChangedEvent change && BookingOutbox.outboxType(change) != null) {
+            wake();
+        }
+    }
+
+    // Parked until a change arrives; the wake-up needs no spinning core
+    @Override
+    public EventRing.WaitStrategy waitStrategy() {
+        return EventRing.WaitStrategy.BLOCKING;
+    }
+
+    public synchronized int dispatchIfDue() {
+        LocalDateTime now = LocalDateTime.now();
+        boolean retryDue = nextRetryAt != null && !nextRetryAt.isAfter(now);
+        if (!woken.getAndSet(false) && !retryDue) {
+            return 0;
+        }
+        if (retryDue) {
+            // Batches that failed later wait for their own time
+            nextRetryAt = outboxEventRepository.findNextRetryAfter(now).orElse(null);
+        }
+        return dispatch();
+    }
+
+    /**
+     * Delivers every due event and returns how many were delivered. Runs one at a time, so a direct call made
+     * while the scheduled run is draining waits for it.
+     */
+    public synchronized int dispatch() {
+        int delivered = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty() || !deliver(batch)) {
+                return delivered;
+            }
+            delivered += batch.size();
+            if (batch.size() < batchSize) {
+                return delivered;
+            }
+        }
+    }
+
+    // An exception escaping a run, such as a failed query, would cancel every later one
+    private void run() {
+        try {
+            dispatchIfDue();
+        } catch (RuntimeException e) {
+            logger.error("Outbox dispatch failed", e);
+        }
+    }
+
+    private boolean deliver(List<OutboxEvent> batch) {
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).toList();
+        try {
+            for (OutboxSink sink : sinks) {
+                sink.deliver(batch);
+            }
+        } catch (IOException | RuntimeException e) {
+            int attempt = batch.stream().mapToInt(OutboxEvent::getAttempts).max().orElse(0) + 1;
+            long delay = Math.min(MAX_RETRY_DELAY_MILLIS, retryDelayMillis << Math.min(attempt - 1, 20));
+            logger.warn("Delivering {} booking events failed (attempt {}); retrying in {} ms", batch.size(), attempt, delay, e);
+            LocalDateTime retryAt = LocalDateTime.now().plus(delay, ChronoUnit.MILLIS);
+            transaction.executeWithoutResult(status -> outboxEventRepository.scheduleRetry(ids, retryAt));
+            if (nextRetryAt == null || retryAt.isBefore(nextRetryAt)) {
+                nextRetryAt = retryAt;
+            }
+            // The next run goes on with the events of other lessons
+            woken.set(true);
+            return false;
+        }
+        outboxEventRepository.deleteAllByIdInBatch(ids);
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.skiconnect.outbox;
+
+import com.skiconnect.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A destination of booking events, such as the mailer or a downstream integration. Every bean implementing it
+ * receives each batch the {@link OutboxDispatcher} drains, in outbox order.
+ *
+ * <p>Delivery is at least once: when any sink fails, the whole batch is delivered again to every sink, so a sink
+ * that must not act twice deduplicates by event id.
+ */
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events) throws IOException;
+}
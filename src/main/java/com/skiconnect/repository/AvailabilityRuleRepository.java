@@ -0,0 +1,59 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.AvailabilityRule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AvailabilityRuleRepository extends JpaRepository<AvailabilityRule, Long> {
+
+    // The rules whose date range overlaps [from, to], each with its exceptions, in one statement
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r WHERE r.place.id = ?1 AND (?2 IS NULL OR r.school.id = ?2) " +
+           "AND r.validFrom <= ?4 AND r.validUntil >= ?3")
+    List<AvailabilityRule> findByPlaceOverlapping(Long placeId, Long schoolId, LocalDate from, LocalDate to);
+
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r WHERE r.school.id = ?1 AND r.validFrom <= ?3 AND r.validUntil >= ?2")
+    List<AvailabilityRule> findBySchoolOverlapping(Long schoolId, LocalDate from, LocalDate to);
+
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r WHERE r.teacher.id = ?1 AND r.validFrom <= ?3 AND r.validUntil >= ?2")
+    List<AvailabilityRule> findByTeacherOverlapping(Long teacherId, LocalDate from, LocalDate to);
+
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r WHERE r.teacher.id IN ?1 AND r.validFrom <= ?3 AND r.validUntil >= ?2")
+    List<AvailabilityRule> findByTeacherIdInOverlapping(Collection<Long> teacherIds, LocalDate from, LocalDate to);
+
+    // Null filters are ignored, so a listing without any still finds every rule that can yield a slot in the range
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r WHERE (?1 IS NULL OR r.place.id = ?1) AND (?2 IS NULL OR r.school.id = ?2) " +
+           "AND (?3 IS NULL OR r.teacher.id = ?3) AND (?5 IS NULL OR r.validFrom <= ?5) AND (?4 IS NULL OR r.validUntil >= ?4) " +
+           "ORDER BY r.id")
+    List<AvailabilityRule> findMatching(Long placeId, Long schoolId, Long teacherId, LocalDate from, LocalDate to);
+
+    @EntityGraph(attributePaths = {"exceptions", "school", "teacher.school"})
+    Optional<AvailabilityRule> findWithExceptionsById(Long id);
+
+    List<AvailabilityRule> findByTeacherId(Long teacherId);
+
+    @EntityGraph(attributePaths = "exceptions")
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r ORDER BY r.id")
+    List<AvailabilityRule> findAllWithExceptions();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "availability_rules"))
+    @Query(value = "UPDATE availability_rules SET open_slots = open_slots + ?2 WHERE id = ?1", nativeQuery = true)
+    int adjustOpenSlots(Long ruleId, int delta);
+}
@@ -0,0 +1,21 @@
+package com.skiconnect.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id-only projection of a lesson availability, used to build in-memory indexes
+ * without loading entity graphs.
+ */
+public interface AvailabilitySlot {
+    Long getId();
+    Long getPlaceId();
+    Long getSchoolId();
+    Long getTeacherId();
+    LocalDateTime getStartTime();
+    LocalDateTime getEndTime();
+
+    // Set on the open slots of a recurring rule, which have no id until they are booked
+    default Long getRuleId() {
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.skiconnect.repository;
+
+/**
+ * A lesson whose booking changes in bulk, by a group booking or lapsed holds, with the places whose searches list
+ * the counters of its school and teacher.
+ */
+public interface BookedSlot extends AvailabilitySlot {
+    @Override
+    Long getRuleId();
+    Long getStudentId();
+    Long getSchoolPlaceId();
+    Long getTeacherPlaceId();
+}
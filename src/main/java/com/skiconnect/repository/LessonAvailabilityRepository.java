@@ -1,20 +1,36 @@
 package com.skiconnect.repository;
 
 import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface LessonAvailabilityRepository extends JpaRepository<LessonAvailability, Long> {
+public interface LessonAvailabilityRepository extends JpaRepository<LessonAvailability, Long>,
+        JpaSpecificationExecutor<LessonAvailability>, LessonRowQueries, LessonRowInserts {
     List<LessonAvailability> findByTeacherId(Long teacherId);
     List<LessonAvailability> findBySchoolId(Long schoolId);
     List<LessonAvailability> findByPlaceId(Long placeId);
     List<LessonAvailability> findByStudentId(Long studentId);
     List<LessonAvailability> findByIsAvailable(boolean isAvailable);
+    boolean existsByRuleIdAndStartTime(Long ruleId, LocalDateTime startTime);
+
+    // Booking changes publish the places of the lesson's school and teacher, so both come with the lesson
+    @EntityGraph(attributePaths = {"school", "teacher.school"})
+    Optional<LessonAvailability> findWithSchoolAndTeacherById(Long id);
     
     @Query("SELECT la FROM LessonAvailability la WHERE la.place.id = ?1 AND la.startTime >= ?2 AND la.endTime <= ?3 AND la.isAvailable = true")
     List<LessonAvailability> findAvailableLessonsByPlaceAndTimeRange(Long placeId, LocalDateTime startTime, LocalDateTime endTime);
@@ -24,4 +40,112 @@ public interface LessonAvailabilityRepository extends JpaRepository<LessonAvaila
     
     @Query("SELECT la FROM LessonAvailability la WHERE la.teacher.id = ?1 AND la.startTime >= ?2 AND la.endTime <= ?3 AND la.isAvailable = true")
     List<LessonAvailability> findAvailableLessonsByTeacherAndTimeRange(Long teacherId, LocalDateTime startTime, LocalDateTime endTime);
+
+    @Query("SELECT la.id AS id, la.place.id AS placeId, la.school.id AS schoolId, la.teacher.id AS teacherId, " +
+           "la.startTime AS startTime, la.endTime AS endTime FROM LessonAvailability la WHERE la.isAvailable = true")
+    Stream<AvailabilitySlot> streamAvailableSlots();
+
+    @Query("SELECT la.id AS id, la.place.id AS placeId, la.school.id AS schoolId, la.teacher.id AS teacherId, " +
+           "la.startTime AS startTime, la.endTime AS endTime FROM LessonAvailability la")
+    Stream<AvailabilitySlot> streamAllSlots();
+
+    @Query("SELECT COUNT(la) > 0 FROM LessonAvailability la WHERE la.teacher.id = ?1 AND la.startTime < ?3 AND la.endTime > ?2")
+    boolean existsOverlapping(Long teacherId, LocalDateTime startTime, LocalDateTime endTime);
+
+    @Query("SELECT la.id AS id, la.place.id AS placeId, la.school.id AS schoolId, la.teacher.id AS teacherId, " +
+           "la.startTime AS startTime, la.endTime AS endTime FROM LessonAvailability la " +
+           "WHERE la.teacher.id = ?1 AND la.startTime < ?3 AND la.endTime > ?2")
+    List<AvailabilitySlot> findSlotsByTeacherOverlapping(Long teacherId, LocalDateTime startTime, LocalDateTime endTime);
+
+    // Grouped by teacher, each teacher's slots in start order, as FreeSlotFinder consumes them
+    @Query("SELECT la.id AS id, la.place.id AS placeId, la.school.id AS schoolId, la.teacher.id AS teacherId, " +
+           "la.startTime AS startTime, la.endTime AS endTime FROM LessonAvailability la " +
+           "WHERE la.isAvailable = true AND la.place.id = ?1 AND (?2 IS NULL OR la.school.id = ?2) " +
+           "AND la.startTime >= ?3 AND la.startTime < ?4 ORDER BY la.teacher.id, la.startTime, la.id")
+    List<AvailabilitySlot> findAvailableSlotsByPlace(Long placeId, Long schoolId, LocalDateTime from, LocalDateTime to);
+
+    // Open rows plus the slots recurring rules still yield, in one statement
+    @Query(value = "SELECT c.place_id AS placeId, SUM(c.lessons) AS availableLessons FROM (" +
+                   "SELECT la.place_id, COUNT(*) AS lessons FROM lesson_availabilities la " +
+                   "WHERE la.is_available = TRUE AND la.place_id IN ?1 GROUP BY la.place_id " +
+                   "UNION ALL SELECT r.place_id, SUM(r.open_slots) FROM availability_rules r " +
+                   "WHERE r.open_slots > 0 AND r.place_id IN ?1 GROUP BY r.place_id) c GROUP BY c.place_id",
+           nativeQuery = true)
+    List<PlaceLessonCount> countAvailableByPlaceIdIn(Collection<Long> placeIds);
+
+    // Materialized slots of the given rules, booked or not, so expansion can skip them
+    @Query("SELECT la.rule.id AS ruleId, la.startTime AS startTime FROM LessonAvailability la " +
+           "WHERE la.rule.id IN ?1 AND la.startTime >= ?2 AND la.startTime < ?3")
+    List<RuleSlotStart> findRuleSlotStarts(Collection<Long> ruleIds, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.rule = null WHERE la.rule.id = ?1")
+    int detachFromRule(Long ruleId);
+
+    // Compare-and-set booking and cancellation: 1 if the row was in the expected state and is now changed, else 0
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.student = ?2, la.isAvailable = false WHERE la.id = ?1 AND la.isAvailable = true")
+    int bookIfAvailable(Long id, User student);
+
+    // Cancels only the booking of the given student, so the caller knows whose booking it cancelled
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.student = null, la.isAvailable = true " +
+           "WHERE la.id = ?1 AND la.student.id = ?2 AND la.isAvailable = false AND la.heldUntil IS NULL")
+    int releaseIfBookedBy(Long id, Long studentId);
+
+    @Query("SELECT la.student.id FROM LessonAvailability la WHERE la.id = ?1")
+    Optional<Long> findStudentIdById(Long id);
+
+    // A hold takes an open lesson like a booking, until the holder confirms it or the hold lapses
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.student = ?2, la.isAvailable = false, la.heldUntil = ?3 " +
+           "WHERE la.id = ?1 AND la.isAvailable = true")
+    int holdIfAvailable(Long id, User student, LocalDateTime heldUntil);
+
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.heldUntil = null WHERE la.id = ?1 AND la.student.id = ?2 AND la.heldUntil > ?3")
+    int confirmHold(Long id, Long studentId, LocalDateTime now);
+
+    // Holds among the given lessons that lapsed by now; confirmed ones no longer match, and a lapsed hold cannot be
+    // confirmed, so the same ids are released below
+    @Query("SELECT la.id AS id, la.place.id AS placeId, la.school.id AS schoolId, la.teacher.id AS teacherId, " +
+           "la.startTime AS startTime, la.endTime AS endTime, la.rule.id AS ruleId, la.student.id AS studentId, " +
+           "s.place.id AS schoolPlaceId, ts.place.id AS teacherPlaceId " +
+           "FROM LessonAvailability la JOIN la.school s JOIN la.teacher t LEFT JOIN t.school ts " +
+           "WHERE la.id IN ?1 AND la.heldUntil <= ?2")
+    List<BookedSlot> findLapsedHolds(Collection<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.student = null, la.isAvailable = true, la.heldUntil = null " +
+           "WHERE la.id IN ?1 AND la.heldUntil <= ?2")
+    int releaseLapsedHolds(Collection<Long> ids, LocalDateTime now);
+
+    @Query("SELECT la.id AS id, la.heldUntil AS heldUntil FROM LessonAvailability la WHERE la.heldUntil IS NOT NULL")
+    List<LessonHoldDeadline> findHoldDeadlines();
+
+    // Books only the rows still open; the caller compares the count with the number of ids
+    @Modifying
+    @Query("UPDATE LessonAvailability la SET la.student = ?2, la.isAvailable = false WHERE la.id IN ?1 AND la.isAvailable = true")
+    int bookAllAvailable(Collection<Long> ids, User student);
+
+    @Query("SELECT la.id AS id, la.place.id AS placeId, la.school.id AS schoolId, la.teacher.id AS teacherId, " +
+           "la.startTime AS startTime, la.endTime AS endTime, la.rule.id AS ruleId, la.student.id AS studentId, " +
+           "s.place.id AS schoolPlaceId, ts.place.id AS teacherPlaceId " +
+           "FROM LessonAvailability la JOIN la.school s JOIN la.teacher t LEFT JOIN t.school ts " +
+           "WHERE la.id IN ?1 ORDER BY la.startTime, la.id")
+    List<BookedSlot> findBookedSlotsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT la.id FROM LessonAvailability la WHERE la.id IN ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    // Null filters are ignored; rows are read through a JDBC cursor in fetch-size batches
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.skiconnect.repository.LessonRow(la.id, la.school.id, la.teacher.id, la.place.id, " +
+           "st.id, la.startTime, la.endTime, la.isAvailable, la.rule.id) FROM LessonAvailability la LEFT JOIN la.student st " +
+           "WHERE (?1 IS NULL OR la.place.id = ?1) AND (?2 IS NULL OR la.startTime >= ?2) AND (?3 IS NULL OR la.startTime < ?3) " +
+           "ORDER BY la.startTime, la.id")
+    Stream<LessonRow> streamForExport(Long placeId, LocalDateTime from, LocalDateTime to);
 } 
\ No newline at end of file
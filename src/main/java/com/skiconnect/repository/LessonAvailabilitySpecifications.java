@@ -0,0 +1,48 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.LessonAvailability;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a single query out of any subset of {@link LessonFilter} criteria. Association ids are compared
+ * on the foreign key columns, so no join is added and the composite indexes in schema.sql apply.
+ */
+public final class LessonAvailabilitySpecifications {
+
+    private LessonAvailabilitySpecifications() {
+    }
+
+    public static Specification<LessonAvailability> matching(LessonFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getSchoolId() != null) {
+                predicates.add(cb.equal(root.get("school").get("id"), filter.getSchoolId()));
+            }
+            if (filter.getTeacherId() != null) {
+                predicates.add(cb.equal(root.get("teacher").get("id"), filter.getTeacherId()));
+            }
+            if (filter.getPlaceId() != null) {
+                predicates.add(cb.equal(root.get("place").get("id"), filter.getPlaceId()));
+            }
+            if (filter.getStudentId() != null) {
+                predicates.add(cb.equal(root.get("student").get("id"), filter.getStudentId()));
+            }
+            if (filter.getIsAvailable() != null) {
+                predicates.add(cb.equal(root.get("isAvailable"), filter.getIsAvailable()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("startTime"), filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("startTime"), filter.getTo()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
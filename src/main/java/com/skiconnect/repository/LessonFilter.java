@@ -0,0 +1,22 @@
+package com.skiconnect.repository;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional lesson listing criteria. Every non-null field narrows the result; null fields are ignored.
+ */
+@Data
+@NoArgsConstructor
+public class LessonFilter {
+    private Long schoolId;
+    private Long teacherId;
+    private Long placeId;
+    private Long studentId;
+    private Boolean isAvailable;
+    // Lessons starting at or after from and strictly before to
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
@@ -0,0 +1,11 @@
+package com.skiconnect.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outstanding hold on a lesson and when it lapses.
+ */
+public interface LessonHoldDeadline {
+    Long getId();
+    LocalDateTime getHeldUntil();
+}
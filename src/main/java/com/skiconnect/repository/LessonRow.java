@@ -0,0 +1,23 @@
+package com.skiconnect.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, unmanaged lesson row read by the lesson listing and streamed by the export. Built with a constructor
+ * expression so no entity, association or dirty-checking snapshot is created per row.
+ */
+@Value
+public class LessonRow {
+    Long id;
+    Long schoolId;
+    Long teacherId;
+    Long placeId;
+    Long studentId;
+    LocalDateTime startTime;
+    LocalDateTime endTime;
+    boolean available;
+    // The recurring rule the row was materialized from; an open rule slot in the listing has a rule but no id
+    Long ruleId;
+}
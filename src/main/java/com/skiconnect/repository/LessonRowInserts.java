@@ -0,0 +1,14 @@
+package com.skiconnect.repository;
+
+import java.util.List;
+
+/**
+ * Bulk writes of lessons given as {@link LessonRow}s, for batches too large to persist entity by entity.
+ */
+public interface LessonRowInserts {
+
+    /**
+     * Inserts the rows, ignoring their ids, and returns the generated ids in the same order.
+     */
+    List<Long> insertRows(List<LessonRow> rows);
+}
@@ -0,0 +1,65 @@
+package com.skiconnect.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes up to {@link #ROWS_PER_STATEMENT} rows with one multi-row INSERT through the JDBC connection of the
+ * current transaction. Identity ids rule out Hibernate's JDBC batching, and persisting entities would also
+ * fill the persistence context with thousands of managed copies nobody reads back.
+ */
+public class LessonRowInsertsImpl implements LessonRowInserts {
+
+    static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT = "INSERT INTO lesson_availabilities " +
+            "(school_id, teacher_id, place_id, student_id, start_time, end_time, is_available) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LessonRowInsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> insertRows(List<LessonRow> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<LessonRow> statementRows = rows.subList(from, Math.min(rows.size(), from + ROWS_PER_STATEMENT));
+            String sql = INSERT + String.join(", ", Collections.nCopies(statementRows.size(), ROW));
+            KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql, new String[] {"id"});
+                int parameter = 1;
+                for (LessonRow row : statementRows) {
+                    statement.setLong(parameter++, row.getSchoolId());
+                    statement.setLong(parameter++, row.getTeacherId());
+                    statement.setLong(parameter++, row.getPlaceId());
+                    if (row.getStudentId() != null) {
+                        statement.setLong(parameter++, row.getStudentId());
+                    } else {
+                        statement.setNull(parameter++, Types.BIGINT);
+                    }
+                    statement.setTimestamp(parameter++, Timestamp.valueOf(row.getStartTime()));
+                    statement.setTimestamp(parameter++, Timestamp.valueOf(row.getEndTime()));
+                    statement.setBoolean(parameter++, row.isAvailable());
+                }
+                return statement;
+            }, keys);
+            for (Map<String, Object> key : keys.getKeyList()) {
+                ids.add(((Number) key.values().iterator().next()).longValue());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,18 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.LessonAvailability;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset-paged reads of lessons as {@link LessonRow}s, for listings that never need managed entities.
+ */
+public interface LessonRowQueries {
+
+    /**
+     * Up to {@code size} rows matching the specification after the given (startTime, id) keyset position,
+     * in start time order.
+     */
+    Window<LessonRow> findRows(Specification<LessonAvailability> specification, ScrollPosition position, int size);
+}
@@ -0,0 +1,63 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.LessonAvailability;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the row columns through a criteria constructor expression, so the persistence context stays
+ * empty and the many-to-one associations are read as foreign key columns instead of being fetched. The
+ * keyset predicate and ordering match the entity scroll in LessonAvailabilityServiceImpl, so cursors are
+ * interchangeable between the two.
+ */
+public class LessonRowQueriesImpl implements LessonRowQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Window<LessonRow> findRows(Specification<LessonAvailability> specification, ScrollPosition position, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LessonRow> query = cb.createQuery(LessonRow.class);
+        Root<LessonAvailability> root = query.from(LessonAvailability.class);
+        Path<LocalDateTime> startTime = root.get("startTime");
+        Path<Long> id = root.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(specification.toPredicate(root, query, cb));
+        if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+            LocalDateTime lastStartTime = (LocalDateTime) keyset.getKeys().get("startTime");
+            Long lastId = (Long) keyset.getKeys().get("id");
+            predicates.add(cb.or(cb.greaterThan(startTime, lastStartTime),
+                    cb.and(cb.equal(startTime, lastStartTime), cb.greaterThan(id, lastId))));
+        }
+
+        query.select(cb.construct(LessonRow.class, id, root.get("school").get("id"), root.get("teacher").get("id"),
+                        root.get("place").get("id"), root.get("student").get("id"), startTime, root.get("endTime"),
+                        root.get("isAvailable"), root.get("rule").get("id")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(startTime), cb.asc(id));
+
+        // One extra row tells whether another page follows
+        List<LessonRow> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = rows.size() > size;
+        List<LessonRow> page = hasNext ? rows.subList(0, size) : rows;
+        return Window.from(page, index -> ScrollPosition.forward(Map.of(
+                "startTime", page.get(index).getStartTime(),
+                "id", page.get(index).getId())), hasNext);
+    }
+}
@@ -0,0 +1,16 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Bulk writes of outbox events, so a transaction that changes many bookings adds one statement, not one per lesson.
+ */
+public interface OutboxEventInserts {
+
+    /**
+     * Inserts the events in list order, ignoring their ids.
+     */
+    void insertEvents(List<OutboxEvent> events);
+}
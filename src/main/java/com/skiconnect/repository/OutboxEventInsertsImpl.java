@@ -0,0 +1,52 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.OutboxEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes up to {@link #ROWS_PER_STATEMENT} events with one multi-row INSERT through the JDBC connection of the
+ * current transaction, like {@link LessonRowInsertsImpl}.
+ */
+public class OutboxEventInsertsImpl implements OutboxEventInserts {
+
+    static final int ROWS_PER_STATEMENT = 500;
+
+    private static final String INSERT = "INSERT INTO outbox_events " +
+            "(type, availability_id, place_id, school_id, teacher_id, start_time, end_time, student_id, created_at, attempts) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OutboxEventInsertsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertEvents(List<OutboxEvent> events) {
+        for (int from = 0; from < events.size(); from += ROWS_PER_STATEMENT) {
+            List<OutboxEvent> statementEvents = events.subList(from, Math.min(events.size(), from + ROWS_PER_STATEMENT));
+            String sql = INSERT + String.join(", ", Collections.nCopies(statementEvents.size(), ROW));
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                int parameter = 1;
+                for (OutboxEvent event : statementEvents) {
+                    statement.setString(parameter++, event.getType().name());
+                    statement.setLong(parameter++, event.getAvailabilityId());
+                    statement.setLong(parameter++, event.getPlaceId());
+                    statement.setLong(parameter++, event.getSchoolId());
+                    statement.setLong(parameter++, event.getTeacherId());
+                    statement.setTimestamp(parameter++, Timestamp.valueOf(event.getStartTime()));
+                    statement.setTimestamp(parameter++, Timestamp.valueOf(event.getEndTime()));
+                    statement.setLong(parameter++, event.getStudentId());
+                    statement.setTimestamp(parameter++, Timestamp.valueOf(event.getCreatedAt()));
+                }
+                return statement;
+            });
+        }
+    }
+}
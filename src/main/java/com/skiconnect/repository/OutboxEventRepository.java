@@ -0,0 +1,29 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventInserts {
+
+    // The oldest events whose lesson has no event, this one included, still waiting for a retry
+    @Query("SELECT e FROM OutboxEvent e WHERE NOT EXISTS (SELECT w.id FROM OutboxEvent w "
+            + "WHERE w.availabilityId = e.availabilityId AND w.id <= e.id AND w.nextAttemptAt > ?1) ORDER BY e.id")
+    List<OutboxEvent> findDue(LocalDateTime now, Pageable page);
+
+    @Query("SELECT MIN(e.nextAttemptAt) FROM OutboxEvent e WHERE e.nextAttemptAt > ?1")
+    Optional<LocalDateTime> findNextRetryAfter(LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.nextAttemptAt = ?2 WHERE e.id IN ?1")
+    int scheduleRetry(Collection<Long> ids, LocalDateTime nextAttemptAt);
+}
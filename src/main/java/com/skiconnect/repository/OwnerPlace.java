@@ -0,0 +1,9 @@
+package com.skiconnect.repository;
+
+/**
+ * Id of a school or teacher and the place it belongs to, read when validating lessons created in bulk.
+ */
+public interface OwnerPlace {
+    Long getId();
+    Long getPlaceId();
+}
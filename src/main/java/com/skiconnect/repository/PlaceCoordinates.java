@@ -0,0 +1,10 @@
+package com.skiconnect.repository;
+
+/**
+ * Id and coordinates of a place, read when the nearby-place grid is rebuilt.
+ */
+public interface PlaceCoordinates {
+    Long getId();
+    Double getLatitude();
+    Double getLongitude();
+}
@@ -0,0 +1,88 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.PlaceHourlyAvailability;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PlaceHourlyAvailabilityRepository extends JpaRepository<PlaceHourlyAvailability, PlaceHourlyAvailability.Key> {
+
+    // A primary-key range scan: at most 24 rows per day of the window
+    @Query("SELECT r FROM PlaceHourlyAvailability r WHERE r.placeId = ?1 AND r.slotDate BETWEEN ?2 AND ?3 " +
+           "AND r.openSlots > 0 ORDER BY r.slotDate, r.slotHour")
+    List<PlaceHourlyAvailability> findOpenByPlaceIdAndSlotDateBetween(Long placeId, LocalDate from, LocalDate to);
+
+    // Relative upsert, so concurrent bookings in the same hour never overwrite each other's change
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "place_hourly_availability"))
+    @Query(value = "MERGE INTO place_hourly_availability r " +
+                   "USING (SELECT CAST(?1 AS BIGINT) AS place_id, CAST(?2 AS DATE) AS slot_date, " +
+                   "CAST(?3 AS INTEGER) AS slot_hour) v " +
+                   "ON r.place_id = v.place_id AND r.slot_date = v.slot_date AND r.slot_hour = v.slot_hour " +
+                   "WHEN MATCHED THEN UPDATE SET open_slots = r.open_slots + ?4 " +
+                   "WHEN NOT MATCHED THEN INSERT (place_id, slot_date, slot_hour, open_slots) " +
+                   "VALUES (v.place_id, v.slot_date, v.slot_hour, ?4)",
+           nativeQuery = true)
+    int adjustOpenSlots(Long placeId, LocalDate slotDate, int slotHour, int delta);
+
+    // The same upsert for many new open lessons at once, grouped by hour so each rollup is written once
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "place_hourly_availability"))
+    @Query(value = "MERGE INTO place_hourly_availability r " +
+                   "USING (SELECT la.place_id, CAST(la.start_time AS DATE) AS slot_date, " +
+                   "CAST(EXTRACT(HOUR FROM la.start_time) AS INTEGER) AS slot_hour, COUNT(*) AS lessons " +
+                   "FROM lesson_availabilities la WHERE la.id IN ?1 AND la.is_available = TRUE " +
+                   "GROUP BY la.place_id, CAST(la.start_time AS DATE), CAST(EXTRACT(HOUR FROM la.start_time) AS INTEGER)) v " +
+                   "ON r.place_id = v.place_id AND r.slot_date = v.slot_date AND r.slot_hour = v.slot_hour " +
+                   "WHEN MATCHED THEN UPDATE SET open_slots = r.open_slots + v.lessons " +
+                   "WHEN NOT MATCHED THEN INSERT (place_id, slot_date, slot_hour, open_slots) " +
+                   "VALUES (v.place_id, v.slot_date, v.slot_hour, v.lessons)",
+           nativeQuery = true)
+    int addOpenLessons(Collection<Long> lessonIds);
+
+    // Takes lessons that were just booked out of the open slots of their hours, writing each rollup once
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "place_hourly_availability"))
+    @Query(value = "MERGE INTO place_hourly_availability r " +
+                   "USING (SELECT la.place_id, CAST(la.start_time AS DATE) AS slot_date, " +
+                   "CAST(EXTRACT(HOUR FROM la.start_time) AS INTEGER) AS slot_hour, COUNT(*) AS lessons " +
+                   "FROM lesson_availabilities la WHERE la.id IN ?1 " +
+                   "GROUP BY la.place_id, CAST(la.start_time AS DATE), CAST(EXTRACT(HOUR FROM la.start_time) AS INTEGER)) v " +
+                   "ON r.place_id = v.place_id AND r.slot_date = v.slot_date AND r.slot_hour = v.slot_hour " +
+                   "WHEN MATCHED THEN UPDATE SET open_slots = r.open_slots - v.lessons",
+           nativeQuery = true)
+    int removeBookedLessons(Collection<Long> lessonIds);
+
+    // Rewrites only the rollups that drifted from lesson_availabilities and returns how many were repaired
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "place_hourly_availability"))
+    @Query(value = "UPDATE place_hourly_availability r SET open_slots = " +
+                   "(SELECT COUNT(*) FROM lesson_availabilities la WHERE la.place_id = r.place_id AND la.is_available = TRUE " +
+                   "AND CAST(la.start_time AS DATE) = r.slot_date AND EXTRACT(HOUR FROM la.start_time) = r.slot_hour) " +
+                   "WHERE r.open_slots <> " +
+                   "(SELECT COUNT(*) FROM lesson_availabilities la WHERE la.place_id = r.place_id AND la.is_available = TRUE " +
+                   "AND CAST(la.start_time AS DATE) = r.slot_date AND EXTRACT(HOUR FROM la.start_time) = r.slot_hour)",
+           nativeQuery = true)
+    int reconcileOpenSlots();
+
+    // Adds the hours that have open slots but no rollup row yet, e.g. lessons created before the rollup existed
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "place_hourly_availability"))
+    @Query(value = "INSERT INTO place_hourly_availability (place_id, slot_date, slot_hour, open_slots) " +
+                   "SELECT la.place_id, CAST(la.start_time AS DATE), EXTRACT(HOUR FROM la.start_time), COUNT(*) " +
+                   "FROM lesson_availabilities la WHERE la.is_available = TRUE AND NOT EXISTS " +
+                   "(SELECT 1 FROM place_hourly_availability r WHERE r.place_id = la.place_id " +
+                   "AND r.slot_date = CAST(la.start_time AS DATE) AND r.slot_hour = EXTRACT(HOUR FROM la.start_time)) " +
+                   "GROUP BY la.place_id, CAST(la.start_time AS DATE), EXTRACT(HOUR FROM la.start_time)",
+           nativeQuery = true)
+    int insertMissingOpenSlots();
+}
@@ -0,0 +1,9 @@
+package com.skiconnect.repository;
+
+/**
+ * Number of lessons still open for booking at a place.
+ */
+public interface PlaceLessonCount {
+    Long getPlaceId();
+    Long getAvailableLessons();
+}
@@ -1,13 +1,40 @@
 package com.skiconnect.repository;
 
 import com.skiconnect.model.Place;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PlaceRepository extends JpaRepository<Place, Long> {
+    // Reference lookups served from the query cache; results are invalidated whenever the queried tables change
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Place> findByName(String name);
     boolean existsByName(String name);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.location AS location, p.latitude AS latitude, p.longitude AS longitude " +
+           "FROM Place p WHERE p.id IN ?1")
+    List<PlaceSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Place p WHERE p.id IN ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.location AS detail FROM Place p")
+    List<SearchableName> findSearchableNames();
+
+    @Query("SELECT p.id AS id, p.latitude AS latitude, p.longitude AS longitude FROM Place p " +
+           "WHERE p.latitude IS NOT NULL AND p.longitude IS NOT NULL")
+    List<PlaceCoordinates> findAllCoordinates();
+
+    // Latitude band around a search origin, served by idx_place_lat_lon
+    @Query("SELECT p.id AS id, p.latitude AS latitude, p.longitude AS longitude FROM Place p " +
+           "WHERE p.latitude BETWEEN ?1 AND ?2 AND p.longitude IS NOT NULL")
+    List<PlaceCoordinates> findCoordinatesByLatitudeBetween(double minLatitude, double maxLatitude);
 } 
\ No newline at end of file
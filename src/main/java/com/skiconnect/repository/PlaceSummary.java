@@ -0,0 +1,12 @@
+package com.skiconnect.repository;
+
+/**
+ * Read-only projection of a place as shown in nearby-place search results.
+ */
+public interface PlaceSummary {
+    Long getId();
+    String getName();
+    String getLocation();
+    Double getLatitude();
+    Double getLongitude();
+}
@@ -0,0 +1,11 @@
+package com.skiconnect.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Start of a recurring rule's slot that already has its own lesson availability row.
+ */
+public interface RuleSlotStart {
+    Long getRuleId();
+    LocalDateTime getStartTime();
+}
@@ -0,0 +1,13 @@
+package com.skiconnect.repository;
+
+/**
+ * Read-only projection of a school as shown in search results, with its
+ * denormalized available-lesson count.
+ */
+public interface SchoolAvailabilitySummary {
+    Long getId();
+    String getName();
+    String getEmail();
+    Long getPlaceId();
+    Integer getAvailableLessons();
+}
@@ -1,16 +1,57 @@
 package com.skiconnect.repository;
 
 import com.skiconnect.model.School;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SchoolRepository extends JpaRepository<School, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<School> findByName(String name);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<School> findByPlaceId(Long placeId);
     Optional<School> findByUserId(Long userId);
     boolean existsByName(String name);
+
+    @Query("SELECT s.id AS id, s.name AS name, u.email AS email, s.place.id AS placeId, s.availableLessons AS availableLessons " +
+           "FROM School s JOIN s.user u WHERE s.place.id = ?1")
+    List<SchoolAvailabilitySummary> findAvailabilitySummariesByPlaceId(Long placeId);
+
+    @Query("SELECT s.id AS id, s.name AS name, u.email AS email, s.place.id AS placeId, s.availableLessons AS availableLessons " +
+           "FROM School s JOIN s.user u WHERE s.place.id IN ?1")
+    List<SchoolAvailabilitySummary> findAvailabilitySummariesByPlaceIdIn(Collection<Long> placeIds);
+
+    @Query("SELECT s.id AS id, s.place.id AS placeId FROM School s WHERE s.id IN ?1")
+    List<OwnerPlace> findPlacesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT s.id AS id, s.name AS name, p.name AS detail FROM School s LEFT JOIN s.place p")
+    List<SearchableName> findSearchableNames();
+
+    // Declared as its own query space so Hibernate leaves the School cache region alone; only the
+    // adjusted entry is evicted, by ReferenceDataCache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schools.available_lessons"))
+    @Query(value = "UPDATE schools SET available_lessons = available_lessons + ?2 WHERE id = ?1", nativeQuery = true)
+    int adjustAvailableLessons(Long schoolId, int delta);
+
+    // Rewrites only the counters that drifted from open rows plus recurring slots; returns how many were repaired
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "schools"))
+    @Query(value = "UPDATE schools s SET available_lessons = " +
+                   "(SELECT COUNT(*) FROM lesson_availabilities la WHERE la.school_id = s.id AND la.is_available = TRUE) + " +
+                   "(SELECT COALESCE(SUM(r.open_slots), 0) FROM availability_rules r WHERE r.school_id = s.id) " +
+                   "WHERE s.available_lessons <> " +
+                   "(SELECT COUNT(*) FROM lesson_availabilities la WHERE la.school_id = s.id AND la.is_available = TRUE) + " +
+                   "(SELECT COALESCE(SUM(r.open_slots), 0) FROM availability_rules r WHERE r.school_id = s.id)",
+           nativeQuery = true)
+    int reconcileAvailableLessons();
 } 
\ No newline at end of file
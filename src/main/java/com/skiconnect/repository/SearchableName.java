@@ -0,0 +1,10 @@
+package com.skiconnect.repository;
+
+/**
+ * Id, name and display detail of a place, school or teacher, read when the name search index is rebuilt.
+ */
+public interface SearchableName {
+    Long getId();
+    String getName();
+    String getDetail();
+}
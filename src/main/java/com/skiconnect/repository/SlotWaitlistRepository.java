@@ -0,0 +1,15 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.SlotWaitlist;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SlotWaitlistRepository extends JpaRepository<SlotWaitlist, Long> {
+
+    @Modifying
+    @Query("DELETE FROM SlotWaitlist w WHERE w.availabilityId = ?1")
+    int deleteByAvailabilityId(Long availabilityId);
+}
@@ -0,0 +1,13 @@
+package com.skiconnect.repository;
+
+/**
+ * Read-only projection of a teacher as shown in search results, with its
+ * denormalized available-lesson count.
+ */
+public interface TeacherAvailabilitySummary {
+    Long getId();
+    String getName();
+    String getEmail();
+    Long getSchoolId();
+    Integer getAvailableLessons();
+}
@@ -1,17 +1,57 @@
 package com.skiconnect.repository;
 
 import com.skiconnect.model.Teacher;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TeacherRepository extends JpaRepository<Teacher, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Teacher> findBySchoolId(Long schoolId);
     Optional<Teacher> findByUserId(Long userId);
     List<Teacher> findByIsFreelancer(boolean isFreelancer);
     boolean existsByUserId(Long userId);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Teacher> findBySchoolPlaceId(Long placeId);
+
+    @EntityGraph(attributePaths = "school")
+    Optional<Teacher> findWithSchoolById(Long id);
+
+    @Query("SELECT t.id AS id, t.name AS name, u.email AS email, s.id AS schoolId, t.availableLessons AS availableLessons " +
+           "FROM Teacher t JOIN t.user u JOIN t.school s WHERE s.place.id = ?1")
+    List<TeacherAvailabilitySummary> findAvailabilitySummariesByPlaceId(Long placeId);
+
+    @Query("SELECT t.id AS id, s.place.id AS placeId FROM Teacher t LEFT JOIN t.school s WHERE t.id IN ?1")
+    List<OwnerPlace> findPlacesByIdIn(Collection<Long> ids);
+
+    @Query("SELECT t.id AS id, t.name AS name, s.name AS detail FROM Teacher t LEFT JOIN t.school s")
+    List<SearchableName> findSearchableNames();
+
+    // Own query space, see SchoolRepository.adjustAvailableLessons
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "teachers.available_lessons"))
+    @Query(value = "UPDATE teachers SET available_lessons = available_lessons + ?2 WHERE id = ?1", nativeQuery = true)
+    int adjustAvailableLessons(Long teacherId, int delta);
+
+    // Rewrites only the counters that drifted from open rows plus recurring slots; returns how many were repaired
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "teachers"))
+    @Query(value = "UPDATE teachers t SET available_lessons = " +
+                   "(SELECT COUNT(*) FROM lesson_availabilities la WHERE la.teacher_id = t.id AND la.is_available = TRUE) + " +
+                   "(SELECT COALESCE(SUM(r.open_slots), 0) FROM availability_rules r WHERE r.teacher_id = t.id) " +
+                   "WHERE t.available_lessons <> " +
+                   "(SELECT COUNT(*) FROM lesson_availabilities la WHERE la.teacher_id = t.id AND la.is_available = TRUE) + " +
+                   "(SELECT COALESCE(SUM(r.open_slots), 0) FROM availability_rules r WHERE r.teacher_id = t.id)",
+           nativeQuery = true)
+    int reconcileAvailableLessons();
 } 
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.skiconnect.repository;
+
+import com.skiconnect.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    boolean existsByAvailabilityIdAndStudentId(Long availabilityId, Long studentId);
+    Optional<WaitlistEntry> findByAvailabilityIdAndStudentId(Long availabilityId, Long studentId);
+
+    // The head of the queue, read through the (availability_id, ticket) unique index
+    Optional<WaitlistEntry> findFirstByAvailabilityIdOrderByTicket(Long availabilityId);
+
+    @Query("SELECT e.student.id FROM WaitlistEntry e WHERE e.availability.id = ?1 ORDER BY e.ticket")
+    List<Long> findStudentIdsByAvailabilityId(Long availabilityId);
+
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry e WHERE e.availability.id = ?1")
+    int deleteByAvailabilityId(Long availabilityId);
+}
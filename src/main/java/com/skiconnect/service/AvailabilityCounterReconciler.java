@@ -0,0 +1,98 @@
+package com.skiconnect.service;
+
+import com.skiconnect.model.AvailabilityRule;
+import com.skiconnect.repository.AvailabilityRuleRepository;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.repository.PlaceHourlyAvailabilityRepository;
+import com.skiconnect.repository.RuleSlotStart;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically recomputes the denormalized available-lesson counters on schools and teachers and the
+ * per-place hourly open-slot rollups from lesson_availabilities and repairs any that drifted (e.g. after
+ * manual data fixes). The open-slot counts of recurring rules go into the school and teacher counters, so they
+ * are recounted from the rules first.
+ */
+@Service
+public class AvailabilityCounterReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityCounterReconciler.class);
+
+    private final SchoolRepository schoolRepository;
+    private final TeacherRepository teacherRepository;
+    private final PlaceHourlyAvailabilityRepository placeHourlyAvailabilityRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+    private final LessonAvailabilityRepository lessonAvailabilityRepository;
+
+    public AvailabilityCounterReconciler(SchoolRepository schoolRepository, TeacherRepository teacherRepository,
+                                         PlaceHourlyAvailabilityRepository placeHourlyAvailabilityRepository,
+                                         AvailabilityRuleRepository availabilityRuleRepository,
+                                         LessonAvailabilityRepository lessonAvailabilityRepository) {
+        this.schoolRepository = schoolRepository;
+        this.teacherRepository = teacherRepository;
+        this.placeHourlyAvailabilityRepository = placeHourlyAvailabilityRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
+        this.lessonAvailabilityRepository = lessonAvailabilityRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${skiconnect.app.counterReconciliationMs:600000}",
+               initialDelayString = "${skiconnect.app.counterReconciliationMs:600000}")
+    @Transactional
+    public int reconcile() {
+        int rules = reconcileRuleOpenSlots();
+        int schools = schoolRepository.reconcileAvailableLessons();
+        int teachers = teacherRepository.reconcileAvailableLessons();
+        int hours = placeHourlyAvailabilityRepository.reconcileOpenSlots()
+                + placeHourlyAvailabilityRepository.insertMissingOpenSlots();
+
+        if (rules > 0) {
+            logger.warn("Repaired open-slot drift on {} recurring availability rules", rules);
+        }
+        if (schools > 0 || teachers > 0) {
+            logger.warn("Repaired available-lesson counter drift on {} schools and {} teachers", schools, teachers);
+        }
+        if (hours > 0) {
+            logger.warn("Repaired open-slot rollup drift on {} place hours", hours);
+        }
+        return rules + schools + teachers + hours;
+    }
+
+    // Every slot of the rule's range, past ones included, less those that have a row. A row at a time that is no
+    // longer a slot, such as a booking on a day made an exception afterwards, takes nothing away
+    private int reconcileRuleOpenSlots() {
+        List<AvailabilityRule> rules = availabilityRuleRepository.findAllWithExceptions();
+        if (rules.isEmpty()) {
+            return 0;
+        }
+        LocalDate from = rules.stream().map(AvailabilityRule::getValidFrom).min(LocalDate::compareTo).orElseThrow();
+        LocalDate until = rules.stream().map(AvailabilityRule::getValidUntil).max(LocalDate::compareTo).orElseThrow();
+        Map<Long, List<RuleSlotStart>> materialized = lessonAvailabilityRepository.findRuleSlotStarts(
+                        rules.stream().map(AvailabilityRule::getId).toList(), from.atStartOfDay(), until.plusDays(1).atStartOfDay())
+                .stream()
+                .collect(Collectors.groupingBy(RuleSlotStart::getRuleId));
+
+        int repaired = 0;
+        for (AvailabilityRule rule : rules) {
+            long taken = materialized.getOrDefault(rule.getId(), List.of()).stream()
+                    .filter(slot -> RecurringSlots.isSlotStart(rule, slot.getStartTime()))
+                    .count();
+            int open = RecurringSlots.countSlots(rule) - (int) taken;
+            if (open != rule.getOpenSlots()) {
+                availabilityRuleRepository.adjustOpenSlots(rule.getId(), open - rule.getOpenSlots());
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,26 @@
+package com.skiconnect.service;
+
+import lombok.Value;
+
+/**
+ * Outcome of one slot of a bulk creation, by its position in the request: the id of the new lesson, or why
+ * the slot was not stored.
+ */
+@Value
+public class BatchRowResult {
+    int index;
+    Long availabilityId;
+    String error;
+
+    public static BatchRowResult created(int index, Long availabilityId) {
+        return new BatchRowResult(index, availabilityId, null);
+    }
+
+    public static BatchRowResult rejected(int index, String error) {
+        return new BatchRowResult(index, null, error);
+    }
+
+    public boolean isCreated() {
+        return availabilityId != null;
+    }
+}
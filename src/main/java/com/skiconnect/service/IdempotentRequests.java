@@ -0,0 +1,235 @@
+package com.skiconnect.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skiconnect.model.IdempotencyRecord;
+import com.skiconnect.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an Idempotency-Key at most once and answers its retries with the stored response.
+ *
+ * <p>A successful response is written to idempotency_keys in the transaction of the request itself, so the
+ * two commit together, and kept in a bounded in-memory cache that evicts by size and after the key's time to
+ * live. A retry is answered from the cache, or from the table after a restart or eviction, without running the
+ * request again. Requests with the same key that arrive while the first is still running wait for it and get
+ * its outcome, failures included; a failure is not stored, so a later retry runs the request again. Keys are
+ * scoped to the authenticated caller: another caller sending the same key runs its own request. Reusing a key for a
+ * different request is rejected. With several instances, concurrent duplicates on different instances
+ * are settled by the table's primary key.
+ */
+@Service
+public class IdempotentRequests {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentRequests.class);
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+    private final Duration ttl;
+    private final Cache<IdempotencyRecord.Key, StoredResponse> responses;
+    // One pending outcome per key being run on this instance
+    private final Map<IdempotencyRecord.Key, CompletableFuture<StoredResponse>> running = new ConcurrentHashMap<>();
+
+    public IdempotentRequests(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${skiconnect.app.idempotencyCacheMaxEntries:100000}") long maxEntries,
+                              @Value("${skiconnect.app.idempotencyKeyTtlMs:86400000}") long ttlMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs the action once for the principal's key, or returns the response it produced before. Without a key the
+     * action simply runs. The operation names the endpoint and, together with the request body, must match on
+     * every use of a key; otherwise an IllegalArgumentException is thrown, as it is for a key sent without an
+     * authenticated principal.
+     */
+    public <T> ResponseEntity<T> execute(String principal, String idempotencyKey, String operation, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        if (principal == null || principal.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency keys need an authenticated caller");
+        }
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(principal, idempotencyKey);
+        String requestHash = hash(operation, request);
+
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            return replay(stored, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> outcome = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> earlier = running.putIfAbsent(key, outcome);
+        if (earlier != null) {
+            return replay(await(earlier), requestHash, responseType);
+        }
+        try {
+            StoredResponse previous = findStored(key);
+            if (previous != null) {
+                outcome.complete(previous);
+                return replay(previous, requestHash, responseType);
+            }
+
+            ResponseEntity<T> response;
+            try {
+                response = transaction.execute(status -> runAndStore(key, requestHash, action));
+            } catch (DataIntegrityViolationException e) {
+                // Another instance stored the key first; this run was rolled back
+                previous = findStored(key);
+                if (previous == null) {
+                    throw e;
+                }
+                outcome.complete(previous);
+                return replay(previous, requestHash, responseType);
+            }
+            StoredResponse fresh = new StoredResponse(requestHash, response.getStatusCode().value(), toJson(response.getBody()));
+            if (response.getStatusCode().is2xxSuccessful()) {
+                responses.put(key, fresh);
+            }
+            outcome.complete(fresh);
+            return response;
+        } catch (RuntimeException e) {
+            outcome.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(key, outcome);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${skiconnect.app.idempotencyPurgeMs:3600000}",
+               initialDelayString = "${skiconnect.app.idempotencyPurgeMs:3600000}")
+    @Transactional
+    public int purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            logger.debug("Purged {} expired idempotency keys", purged);
+        }
+        return purged;
+    }
+
+    private <T> ResponseEntity<T> runAndStore(IdempotencyRecord.Key key, String requestHash,
+                                              Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response = action.get();
+        if (response.getStatusCode().is2xxSuccessful()) {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setPrincipal(key.getPrincipal());
+            record.setKey(key.getKey());
+            record.setRequestHash(requestHash);
+            record.setStatus(response.getStatusCode().value());
+            record.setBody(toJson(response.getBody()));
+            record.setCreatedAt(LocalDateTime.now());
+            // Flushed here so a key stored concurrently fails this transaction rather than its commit
+            idempotencyRecordRepository.saveAndFlush(record);
+        }
+        return response;
+    }
+
+    // Records past their time to live are ignored until the purge removes them
+    private StoredResponse findStored(IdempotencyRecord.Key key) {
+        return idempotencyRecordRepository.findById(key)
+                .filter(record -> record.getCreatedAt().isAfter(LocalDateTime.now().minus(ttl)))
+                .map(record -> {
+                    StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatus(), record.getBody());
+                    responses.put(key, stored);
+                    return stored;
+                })
+                .orElse(null);
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency key was already used for a different request");
+        }
+        try {
+            return ResponseEntity.status(stored.status)
+                    .header(REPLAYED_HEADER, "true")
+                    .body(objectMapper.readValue(stored.body, responseType));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> outcome) {
+        try {
+            return outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String requestHash;
+        private final int status;
+        private final String body;
+
+        StoredResponse(String requestHash, int status, String body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
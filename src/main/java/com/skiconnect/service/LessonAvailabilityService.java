@@ -1,9 +1,24 @@
 package com.skiconnect.service;
 
+import com.skiconnect.index.FreeSlotFinder;
+import com.skiconnect.model.AvailabilityRule;
 import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.PlaceHourlyAvailability;
+import com.skiconnect.repository.LessonFilter;
+import com.skiconnect.repository.LessonRow;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface LessonAvailabilityService extends BaseService<LessonAvailability, Long> {
     List<LessonAvailability> findByTeacherId(Long teacherId);
@@ -11,10 +26,66 @@ public interface LessonAvailabilityService extends BaseService<LessonAvailabilit
     List<LessonAvailability> findByPlaceId(Long placeId);
     List<LessonAvailability> findByStudentId(Long studentId);
     List<LessonAvailability> findByIsAvailable(boolean isAvailable);
+    Window<LessonAvailability> findPage(LessonFilter filter, ScrollPosition position, int size);
+    Window<LessonRow> findRowPage(LessonFilter filter, ScrollPosition position, int size);
+    long count(LessonFilter filter);
+    Map<Long, Long> countAvailableByPlaceIds(Collection<Long> placeIds);
+    List<PlaceHourlyAvailability> findOpenSlotsByPlace(Long placeId, LocalDate from, LocalDate to);
+    long exportLessons(Long placeId, LocalDateTime from, LocalDateTime to, Consumer<LessonRow> sink);
+
+    /**
+     * Creates the given open slots in chunks that commit one after another, passing each chunk's results to the
+     * sink once it has committed. A rejected slot does not stop the others; returns how many were created.
+     */
+    int createAvailabilities(List<LessonRow> slots, Consumer<List<BatchRowResult>> sink);
     List<LessonAvailability> findAvailableLessonsByPlaceAndTimeRange(Long placeId, LocalDateTime startTime, LocalDateTime endTime);
     List<LessonAvailability> findAvailableLessonsBySchoolAndTimeRange(Long schoolId, LocalDateTime startTime, LocalDateTime endTime);
     List<LessonAvailability> findAvailableLessonsByTeacherAndTimeRange(Long teacherId, LocalDateTime startTime, LocalDateTime endTime);
+    List<FreeSlotFinder.FreeSlot> findEarliestFreeSlots(Long placeId, Long schoolId, Duration duration, LocalDateTime from, LocalDateTime to, int limit);
+    /**
+     * Creates an open lesson; rejected with an IllegalStateException if the teacher already has a lesson in any
+     * 5-minute step of the time.
+     */
     LessonAvailability createAvailability(Long teacherId, Long schoolId, Long placeId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * Whether the teacher has no lesson, open or booked, in any 5-minute step between the two times.
+     */
+    boolean isTeacherFree(Long teacherId, LocalDateTime startTime, LocalDateTime endTime);
     LessonAvailability bookLesson(Long availabilityId, Long studentId);
+
+    /**
+     * Books all the given lessons for the student in one transaction, or none of them if any is missing or taken.
+     * Returns the booked lessons in start order.
+     */
+    List<LessonRow> bookLessons(Collection<Long> availabilityIds, Long studentId);
+
+    /**
+     * Takes an open lesson for the student for the given time, so nobody else can book it during checkout.
+     * The hold lapses and the lesson opens again unless confirmed in time.
+     */
+    LessonHold holdLesson(Long availabilityId, Long studentId, Duration ttl);
+    LessonAvailability confirmHold(Long availabilityId, Long studentId);
+
+    /**
+     * Opens the given lessons again whose holds have lapsed, ignoring the others; returns how many were opened.
+     */
+    int releaseLapsedHolds(Collection<Long> availabilityIds);
+
+    /**
+     * Frees a booked lesson, or books it straight away for the head of its waitlist if anyone is queued.
+     */
     LessonAvailability cancelBooking(Long availabilityId);
+
+    /**
+     * Queues the student for a booked lesson; cancellations book it for the queue in joining order.
+     */
+    WaitlistPosition joinWaitlist(Long availabilityId, Long studentId);
+    WaitlistPosition findWaitlistPosition(Long availabilityId, Long studentId);
+    AvailabilityRule createRule(Long teacherId, Long schoolId, Long placeId, Set<DayOfWeek> weekdays, LocalTime dailyStart,
+                                LocalTime dailyEnd, int slotMinutes, LocalDate validFrom, LocalDate validUntil, Set<LocalDate> exceptions);
+    AvailabilityRule addRuleException(Long ruleId, LocalDate day);
+    void deleteRule(Long ruleId);
+    List<AvailabilityRule> findRules(Long placeId, Long schoolId, Long teacherId, LocalDate from, LocalDate to);
+    LessonAvailability bookRecurringSlot(Long ruleId, LocalDateTime startTime, Long studentId);
 } 
\ No newline at end of file
@@ -1,44 +1,154 @@
 package com.skiconnect.service;
 
+import com.skiconnect.cache.ReferenceDataCache;
+import com.skiconnect.event.AvailabilityRuleChangedEvent;
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.event.LessonHeldEvent;
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import com.skiconnect.index.FreeSlotFinder;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.index.TeacherSchedule;
+import com.skiconnect.model.AvailabilityRule;
 import com.skiconnect.model.LessonAvailability;
 import com.skiconnect.model.Place;
+import com.skiconnect.model.PlaceHourlyAvailability;
 import com.skiconnect.model.School;
+import com.skiconnect.model.SlotWaitlist;
 import com.skiconnect.model.Teacher;
 import com.skiconnect.model.User;
+import com.skiconnect.model.WaitlistEntry;
+import com.skiconnect.repository.AvailabilityRuleRepository;
+import com.skiconnect.repository.AvailabilitySlot;
+import com.skiconnect.repository.BookedSlot;
 import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.repository.LessonAvailabilitySpecifications;
+import com.skiconnect.repository.LessonFilter;
+import com.skiconnect.repository.LessonRow;
+import com.skiconnect.repository.OwnerPlace;
+import com.skiconnect.repository.PlaceHourlyAvailabilityRepository;
+import com.skiconnect.repository.PlaceLessonCount;
 import com.skiconnect.repository.PlaceRepository;
+import com.skiconnect.repository.RuleSlotStart;
 import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.SlotWaitlistRepository;
 import com.skiconnect.repository.TeacherRepository;
 import com.skiconnect.repository.UserRepository;
+import com.skiconnect.repository.WaitlistEntryRepository;
+import com.skiconnect.util.StripedLocks;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 @Transactional
 public class LessonAvailabilityServiceImpl extends BaseServiceImpl<LessonAvailability, Long> implements LessonAvailabilityService {
 
+    private static final Logger logger = LoggerFactory.getLogger(LessonAvailabilityServiceImpl.class);
+
+    private static final Sort PAGE_ORDER = Sort.by("startTime", "id");
+    // Transaction resource naming the rules whose windows the transaction holds in the teacher schedule
+    private static final Object RULE_HOLDS = new Object();
+    // PAGE_ORDER with open rule slots, which have no id, after the rows starting at the same time
+    private static final Comparator<LessonRow> ROW_ORDER = Comparator.comparing(LessonRow::getStartTime)
+            .thenComparing(LessonRow::getId, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(LessonRow::getRuleId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    // Bounds the per-day work of counting a rule's slots
+    private static final int MAX_RULE_DAYS = 366;
+    // Slots written and committed together by a bulk creation
+    static final int BATCH_CHUNK_SIZE = 1000;
+    // Lessons whose waitlists are changed at the same time without waiting for each other, at best
+    private static final int WAITLIST_LOCK_STRIPES = 256;
+
     private final LessonAvailabilityRepository lessonAvailabilityRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
     private final TeacherRepository teacherRepository;
     private final SchoolRepository schoolRepository;
     private final PlaceRepository placeRepository;
+    private final PlaceHourlyAvailabilityRepository placeHourlyAvailabilityRepository;
     private final UserRepository userRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final SlotWaitlistRepository slotWaitlistRepository;
+    private final LessonAvailabilityIndex lessonAvailabilityIndex;
+    private final TeacherSchedule teacherSchedule;
+    private final ReferenceDataCache referenceDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate chunkTransaction;
+    private final StripedLocks waitlistLocks = new StripedLocks(WAITLIST_LOCK_STRIPES);
 
     @Autowired
     public LessonAvailabilityServiceImpl(LessonAvailabilityRepository lessonAvailabilityRepository,
+                                       AvailabilityRuleRepository availabilityRuleRepository,
                                        TeacherRepository teacherRepository,
                                        SchoolRepository schoolRepository,
                                        PlaceRepository placeRepository,
-                                       UserRepository userRepository) {
+                                       PlaceHourlyAvailabilityRepository placeHourlyAvailabilityRepository,
+                                       UserRepository userRepository,
+                                       WaitlistEntryRepository waitlistEntryRepository,
+                                       SlotWaitlistRepository slotWaitlistRepository,
+                                       LessonAvailabilityIndex lessonAvailabilityIndex,
+                                       TeacherSchedule teacherSchedule,
+                                       ReferenceDataCache referenceDataCache,
+                                       ApplicationEventPublisher eventPublisher,
+                                       PlatformTransactionManager transactionManager) {
         super(lessonAvailabilityRepository);
         this.lessonAvailabilityRepository = lessonAvailabilityRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
         this.teacherRepository = teacherRepository;
         this.schoolRepository = schoolRepository;
         this.placeRepository = placeRepository;
+        this.placeHourlyAvailabilityRepository = placeHourlyAvailabilityRepository;
         this.userRepository = userRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.slotWaitlistRepository = slotWaitlistRepository;
+        this.lessonAvailabilityIndex = lessonAvailabilityIndex;
+        this.teacherSchedule = teacherSchedule;
+        this.referenceDataCache = referenceDataCache;
+        this.eventPublisher = eventPublisher;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -66,19 +176,316 @@ public class LessonAvailabilityServiceImpl extends BaseServiceImpl<LessonAvailab
         return lessonAvailabilityRepository.findByIsAvailable(isAvailable);
     }
 
+    // The position carries the (startTime, id) of the last row already returned
+    @Override
+    @Transactional(readOnly = true)
+    public Window<LessonAvailability> findPage(LessonFilter filter, ScrollPosition position, int size) {
+        return lessonAvailabilityRepository.findBy(LessonAvailabilitySpecifications.matching(filter),
+                query -> query.sortBy(PAGE_ORDER).limit(size).scroll(position));
+    }
+
+    // Same order and cursors as findPage, but reads unmanaged rows instead of entities and their associations.
+    // Open slots of matching rules follow the rows starting at the same time, ordered by rule; a cursor after
+    // one of them carries its rule id instead of a row id
+    @Override
+    @Transactional(readOnly = true)
+    public Window<LessonRow> findRowPage(LessonFilter filter, ScrollPosition position, int size) {
+        Specification<LessonAvailability> specification = LessonAvailabilitySpecifications.matching(filter);
+        Map<String, Object> keys = position instanceof KeysetScrollPosition keyset ? keyset.getKeys() : Map.of();
+        LocalDateTime lastStart = (LocalDateTime) keys.get("startTime");
+        Long lastRuleId = (Long) keys.get("ruleId");
+        List<AvailabilityRule> rules = rulesMatching(filter, lastStart);
+        if (rules.isEmpty() && lastRuleId == null) {
+            return lessonAvailabilityRepository.findRows(specification, position, size);
+        }
+
+        // Every row starting at a rule slot's time was returned before it
+        ScrollPosition rowPosition = lastRuleId == null ? position
+                : ScrollPosition.forward(Map.of("startTime", lastStart, "id", Long.MAX_VALUE));
+        Window<LessonRow> rows = lessonAvailabilityRepository.findRows(specification, rowPosition, size);
+        List<LessonRow> merged = new ArrayList<>(rows.getContent());
+        merged.addAll(openRuleRows(rules, filter, lastStart, lastRuleId, size + 1));
+        merged.sort(ROW_ORDER);
+
+        boolean hasNext = rows.hasNext() || merged.size() > size;
+        List<LessonRow> page = merged.size() > size ? merged.subList(0, size) : merged;
+        return Window.from(page, index -> {
+            LessonRow row = page.get(index);
+            return ScrollPosition.forward(row.getId() != null
+                    ? Map.of("startTime", row.getStartTime(), "id", row.getId())
+                    : Map.of("startTime", row.getStartTime(), "ruleId", row.getRuleId()));
+        }, hasNext);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(LessonFilter filter) {
+        long count = lessonAvailabilityRepository.count(LessonAvailabilitySpecifications.matching(filter));
+        List<AvailabilityRule> rules = rulesMatching(filter, null);
+        if (rules.isEmpty()) {
+            return count;
+        }
+        LocalDateTime from = windowStart(rules, filter.getFrom());
+        LocalDateTime to = windowEnd(rules, filter.getTo());
+        Map<Long, Set<LocalDateTime>> materialized = materializedStarts(rules, from, to);
+        for (AvailabilityRule rule : rules) {
+            for (Iterator<LocalDateTime> starts = openStarts(rule, from, to, materialized); starts.hasNext(); starts.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AvailabilityRule> findRules(Long placeId, Long schoolId, Long teacherId, LocalDate from, LocalDate to) {
+        return availabilityRuleRepository.findMatching(placeId, schoolId, teacherId, from, to);
+    }
+
+    // Rules whose open slots can match the filter; a student or a booked status excludes all of them
+    private List<AvailabilityRule> rulesMatching(LessonFilter filter, LocalDateTime after) {
+        if (filter.getStudentId() != null || Boolean.FALSE.equals(filter.getIsAvailable())) {
+            return List.of();
+        }
+        LocalDateTime from = after != null && (filter.getFrom() == null || after.isAfter(filter.getFrom())) ? after : filter.getFrom();
+        return availabilityRuleRepository.findMatching(filter.getPlaceId(), filter.getSchoolId(), filter.getTeacherId(),
+                from != null ? from.toLocalDate() : null, filter.getTo() != null ? filter.getTo().toLocalDate() : null);
+    }
+
+    // At most limit open slots of each rule from the cursor on, as rows without an id
+    private List<LessonRow> openRuleRows(List<AvailabilityRule> rules, LessonFilter filter, LocalDateTime lastStart,
+                                         Long lastRuleId, int limit) {
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        LocalDateTime from = windowStart(rules, lastStart != null && (filter.getFrom() == null
+                || lastStart.isAfter(filter.getFrom())) ? lastStart : filter.getFrom());
+        LocalDateTime to = windowEnd(rules, filter.getTo());
+        Map<Long, Set<LocalDateTime>> materialized = materializedStarts(rules, from, to);
+        List<LessonRow> slots = new ArrayList<>();
+        for (AvailabilityRule rule : rules) {
+            Iterator<LocalDateTime> starts = openStarts(rule, from, to, materialized);
+            int taken = 0;
+            while (taken < limit && starts.hasNext()) {
+                LocalDateTime start = starts.next();
+                // At the cursor's time only the rules after the last one returned are left
+                if (lastRuleId != null && start.equals(lastStart) && rule.getId() <= lastRuleId) {
+                    continue;
+                }
+                slots.add(new LessonRow(null, rule.getSchool().getId(), rule.getTeacher().getId(), rule.getPlace().getId(),
+                        null, start, RecurringSlots.endOf(rule, start), true, rule.getId()));
+                taken++;
+            }
+        }
+        return slots;
+    }
+
+    private static LocalDateTime windowStart(List<AvailabilityRule> rules, LocalDateTime from) {
+        return from != null ? from : rules.stream().map(AvailabilityRule::getValidFrom)
+                .min(Comparator.naturalOrder()).orElseThrow().atStartOfDay();
+    }
+
+    private static LocalDateTime windowEnd(List<AvailabilityRule> rules, LocalDateTime to) {
+        return to != null ? to : rules.stream().map(AvailabilityRule::getValidUntil)
+                .max(Comparator.naturalOrder()).orElseThrow().plusDays(1).atStartOfDay();
+    }
+
+    // Places without open lessons are absent from the map
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> countAvailableByPlaceIds(Collection<Long> placeIds) {
+        if (placeIds.isEmpty()) {
+            return Map.of();
+        }
+        return lessonAvailabilityRepository.countAvailableByPlaceIdIn(placeIds).stream()
+                .collect(Collectors.toMap(PlaceLessonCount::getPlaceId, PlaceLessonCount::getAvailableLessons));
+    }
+
+    // Hours without open slots are absent from the list; recurring slots are added to the stored rollups
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlaceHourlyAvailability> findOpenSlotsByPlace(Long placeId, LocalDate from, LocalDate to) {
+        List<PlaceHourlyAvailability> rollups = placeHourlyAvailabilityRepository.findOpenByPlaceIdAndSlotDateBetween(placeId, from, to);
+        List<AvailabilityRule> rules = availabilityRuleRepository.findByPlaceOverlapping(placeId, null, from, to);
+        if (rules.isEmpty()) {
+            return rollups;
+        }
+
+        Map<PlaceHourlyAvailability.Key, Integer> openSlots = new TreeMap<>(Comparator
+                .comparing(PlaceHourlyAvailability.Key::getSlotDate)
+                .thenComparingInt(PlaceHourlyAvailability.Key::getSlotHour));
+        rollups.forEach(rollup -> openSlots.merge(new PlaceHourlyAvailability.Key(placeId, rollup.getSlotDate(),
+                rollup.getSlotHour()), rollup.getOpenSlots(), Integer::sum));
+        LocalDateTime windowStart = from.atStartOfDay();
+        LocalDateTime windowEnd = to.plusDays(1).atStartOfDay();
+        Map<Long, Set<LocalDateTime>> materialized = materializedStarts(rules, windowStart, windowEnd);
+        for (AvailabilityRule rule : rules) {
+            openStarts(rule, windowStart, windowEnd, materialized).forEachRemaining(start -> openSlots.merge(
+                    new PlaceHourlyAvailability.Key(placeId, start.toLocalDate(), start.getHour()), 1, Integer::sum));
+        }
+
+        List<PlaceHourlyAvailability> merged = new ArrayList<>(openSlots.size());
+        openSlots.forEach((key, slots) -> {
+            PlaceHourlyAvailability hour = new PlaceHourlyAvailability();
+            hour.setPlaceId(placeId);
+            hour.setSlotDate(key.getSlotDate());
+            hour.setSlotHour(key.getSlotHour());
+            hour.setOpenSlots(slots);
+            merged.add(hour);
+        });
+        return merged;
+    }
+
+    // Rows are handed to the sink one by one while the cursor is open, so nothing accumulates in memory
+    @Override
+    @Transactional(readOnly = true)
+    public long exportLessons(Long placeId, LocalDateTime from, LocalDateTime to, Consumer<LessonRow> sink) {
+        long rows = 0;
+        try (Stream<LessonRow> stream = lessonAvailabilityRepository.streamForExport(placeId, from, to)) {
+            for (LessonRow row : (Iterable<LessonRow>) stream::iterator) {
+                sink.accept(row);
+                rows++;
+            }
+        }
+        return rows;
+    }
+
     @Override
     public List<LessonAvailability> findAvailableLessonsByPlaceAndTimeRange(Long placeId, LocalDateTime startTime, LocalDateTime endTime) {
-        return lessonAvailabilityRepository.findAvailableLessonsByPlaceAndTimeRange(placeId, startTime, endTime);
+        List<LessonAvailability> rows = lessonAvailabilityIndex.isWarm()
+                ? loadAvailable(lessonAvailabilityIndex.findAvailableByPlace(placeId, startTime, endTime))
+                : lessonAvailabilityRepository.findAvailableLessonsByPlaceAndTimeRange(placeId, startTime, endTime);
+        return withRecurringSlots(rows, availabilityRuleRepository.findByPlaceOverlapping(placeId, null,
+                startTime.toLocalDate(), endTime.toLocalDate()), startTime, endTime);
     }
 
     @Override
     public List<LessonAvailability> findAvailableLessonsBySchoolAndTimeRange(Long schoolId, LocalDateTime startTime, LocalDateTime endTime) {
-        return lessonAvailabilityRepository.findAvailableLessonsBySchoolAndTimeRange(schoolId, startTime, endTime);
+        List<LessonAvailability> rows = lessonAvailabilityIndex.isWarm()
+                ? loadAvailable(lessonAvailabilityIndex.findAvailableBySchool(schoolId, startTime, endTime))
+                : lessonAvailabilityRepository.findAvailableLessonsBySchoolAndTimeRange(schoolId, startTime, endTime);
+        return withRecurringSlots(rows, availabilityRuleRepository.findBySchoolOverlapping(schoolId, 
+                startTime.toLocalDate(), endTime.toLocalDate()), startTime, endTime);
     }
 
     @Override
     public List<LessonAvailability> findAvailableLessonsByTeacherAndTimeRange(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
-        return lessonAvailabilityRepository.findAvailableLessonsByTeacherAndTimeRange(teacherId, startTime, endTime);
+        List<LessonAvailability> rows = lessonAvailabilityIndex.isWarm()
+                ? loadAvailable(lessonAvailabilityIndex.findAvailableByTeacher(teacherId, startTime, endTime))
+                : lessonAvailabilityRepository.findAvailableLessonsByTeacherAndTimeRange(teacherId, startTime, endTime);
+        return withRecurringSlots(rows, availabilityRuleRepository.findByTeacherOverlapping(teacherId, 
+                startTime.toLocalDate(), endTime.toLocalDate()), startTime, endTime);
+    }
+
+    // Served from the index when warm; otherwise only the requested window is read, already grouped by teacher
+    @Override
+    @Transactional(readOnly = true)
+    public List<FreeSlotFinder.FreeSlot> findEarliestFreeSlots(Long placeId, Long schoolId, Duration duration,
+                                                               LocalDateTime from, LocalDateTime to, int limit) {
+        Map<Long, Iterator<AvailabilitySlot>> teacherSlots;
+        if (lessonAvailabilityIndex.isWarm()) {
+            teacherSlots = lessonAvailabilityIndex.findSlotsByTeacher(placeId, schoolId, from);
+        } else {
+            List<AvailabilitySlot> slots = lessonAvailabilityRepository.findAvailableSlotsByPlace(placeId, schoolId, from, to);
+            teacherSlots = new HashMap<>();
+            int teacherStart = 0;
+            for (int i = 1; i <= slots.size(); i++) {
+                if (i == slots.size() || !slots.get(i).getTeacherId().equals(slots.get(teacherStart).getTeacherId())) {
+                    teacherSlots.put(slots.get(teacherStart).getTeacherId(), slots.subList(teacherStart, i).iterator());
+                    teacherStart = i;
+                }
+            }
+        }
+
+        // Each rule's slots are interleaved with its teacher's rows as the finder reads them
+        List<AvailabilityRule> rules = availabilityRuleRepository.findByPlaceOverlapping(placeId, schoolId,
+                from.toLocalDate(), to.toLocalDate());
+        Map<Long, Set<LocalDateTime>> materialized = materializedStarts(rules, from, to);
+        for (AvailabilityRule rule : rules) {
+            Iterator<LocalDateTime> starts = openStarts(rule, from, to, materialized);
+            Iterator<AvailabilitySlot> ruleSlots = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return starts.hasNext();
+                }
+
+                @Override
+                public AvailabilitySlot next() {
+                    LocalDateTime start = starts.next();
+                    return new RuleSlot(null, rule.getPlace().getId(), rule.getSchool().getId(), rule.getTeacher().getId(),
+                            start, RecurringSlots.endOf(rule, start), rule.getId());
+                }
+            };
+            teacherSlots.merge(rule.getTeacher().getId(), ruleSlots, FreeSlotFinder::mergeByStart);
+        }
+        return FreeSlotFinder.earliest(new ArrayList<>(teacherSlots.values()), duration, from, to, limit);
+    }
+
+    // Loads the slots the index selected by primary key; a slot booked since the lookup is dropped
+    private List<LessonAvailability> loadAvailable(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return lessonAvailabilityRepository.findAllById(ids).stream()
+                .filter(LessonAvailability::isAvailable)
+                .sorted(Comparator.comparing(LessonAvailability::getStartTime).thenComparing(LessonAvailability::getId))
+                .collect(Collectors.toList());
+    }
+
+    // Adds the unsaved stand-ins of the rules' open slots that fit the window and orders everything by start
+    private List<LessonAvailability> withRecurringSlots(List<LessonAvailability> rows, List<AvailabilityRule> rules,
+                                                        LocalDateTime startTime, LocalDateTime endTime) {
+        if (rules.isEmpty()) {
+            return rows;
+        }
+        List<LessonAvailability> slots = new ArrayList<>(rows);
+        Map<Long, Set<LocalDateTime>> materialized = materializedStarts(rules, startTime, endTime);
+        for (AvailabilityRule rule : rules) {
+            openStarts(rule, startTime, endTime, materialized).forEachRemaining(start -> {
+                if (!RecurringSlots.endOf(rule, start).isAfter(endTime)) {
+                    slots.add(recurringSlot(rule, start));
+                }
+            });
+        }
+        slots.sort(Comparator.comparing(LessonAvailability::getStartTime)
+                .thenComparing(LessonAvailability::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return slots;
+    }
+
+    // Slot starts of the rules in [from, to) that already have a row, booked or not
+    private Map<Long, Set<LocalDateTime>> materializedStarts(List<AvailabilityRule> rules, LocalDateTime from, LocalDateTime to) {
+        if (rules.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ruleIds = rules.stream().map(AvailabilityRule::getId).collect(Collectors.toList());
+        return lessonAvailabilityRepository.findRuleSlotStarts(ruleIds, from, to).stream()
+                .collect(Collectors.groupingBy(RuleSlotStart::getRuleId,
+                        Collectors.mapping(RuleSlotStart::getStartTime, Collectors.toSet())));
+    }
+
+    private static Iterator<LocalDateTime> openStarts(AvailabilityRule rule, LocalDateTime from, LocalDateTime to,
+                                                      Map<Long, Set<LocalDateTime>> materialized) {
+        Iterator<LocalDateTime> starts = RecurringSlots.starts(rule, from, to);
+        Set<LocalDateTime> taken = materialized.getOrDefault(rule.getId(), Set.of());
+        if (taken.isEmpty()) {
+            return starts;
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(starts, Spliterator.ORDERED), false)
+                .filter(start -> !taken.contains(start))
+                .iterator();
+    }
+
+    // An unsaved availability standing for a recurring slot; it only gets a row and an id once booked
+    private static LessonAvailability recurringSlot(AvailabilityRule rule, LocalDateTime start) {
+        LessonAvailability slot = new LessonAvailability();
+        slot.setTeacher(rule.getTeacher());
+        slot.setSchool(rule.getSchool());
+        slot.setPlace(rule.getPlace());
+        slot.setStartTime(start);
+        slot.setEndTime(RecurringSlots.endOf(rule, start));
+        slot.setAvailable(true);
+        slot.setRule(rule);
+        return slot;
     }
 
     @Override
@@ -95,6 +502,9 @@ public class LessonAvailabilityServiceImpl extends BaseServiceImpl<LessonAvailab
         if (startTime.isAfter(endTime)) {
             throw new IllegalArgumentException("Start time must be before end time");
         }
+        if (!reserveTeacherTime(teacherId, startTime, endTime, null)) {
+            throw new IllegalStateException(overlapMessage(startTime, endTime));
+        }
 
         LessonAvailability availability = new LessonAvailability();
         availability.setTeacher(teacher);
@@ -104,39 +514,736 @@ public class LessonAvailabilityServiceImpl extends BaseServiceImpl<LessonAvailab
         availability.setEndTime(endTime);
         availability.setAvailable(true);
 
-        return save(availability);
+        LessonAvailability saved = save(availability);
+        adjustAvailableLessonCounters(saved, 1);
+        publish(LessonAvailabilityChangedEvent.Type.CREATED, saved);
+        return saved;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isTeacherFree(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("Start time must be before end time");
+        }
+        boolean free = teacherSchedule.isWarm() ? teacherSchedule.isFree(teacherId, startTime, endTime)
+                : !lessonAvailabilityRepository.existsOverlapping(teacherId, startTime, endTime);
+        return free && !overlapsRule(availabilityRuleRepository.findByTeacherOverlapping(teacherId,
+                startTime.toLocalDate(), endTime.toLocalDate()), null, startTime, endTime);
+    }
+
+    // Runs without a transaction of its own so each chunk commits separately; inside a caller's transaction the
+    // chunks join it instead
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public int createAvailabilities(List<LessonRow> slots, Consumer<List<BatchRowResult>> sink) {
+        // Every referenced owner is checked with one IN query per table, whatever the size of the batch
+        Map<Long, Long> teacherPlaces = placesById(teacherRepository.findPlacesByIdIn(
+                distinctIds(slots, LessonRow::getTeacherId)));
+        Map<Long, Long> schoolPlaces = placesById(schoolRepository.findPlacesByIdIn(
+                distinctIds(slots, LessonRow::getSchoolId)));
+        Set<Long> placeIds = new HashSet<>(placeRepository.findIdsByIdIn(distinctIds(slots, LessonRow::getPlaceId)));
+
+        int created = 0;
+        for (int from = 0; from < slots.size(); from += BATCH_CHUNK_SIZE) {
+            int to = Math.min(slots.size(), from + BATCH_CHUNK_SIZE);
+            List<BatchRowResult> results = new ArrayList<>(to - from);
+            List<LessonRow> valid = new ArrayList<>(to - from);
+            List<Integer> validIndexes = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                String error = validateSlot(slots.get(i), teacherPlaces, schoolPlaces, placeIds);
+                if (error != null) {
+                    results.add(BatchRowResult.rejected(i, error));
+                } else {
+                    valid.add(slots.get(i));
+                    validIndexes.add(i);
+                }
+            }
+
+            if (!valid.isEmpty()) {
+                try {
+                    List<BatchRowResult> inserted = chunkTransaction.execute(
+                            status -> insertChunk(valid, validIndexes, teacherPlaces, schoolPlaces));
+                    results.addAll(inserted);
+                    created += (int) inserted.stream().filter(BatchRowResult::isCreated).count();
+                } catch (DataAccessException e) {
+                    // The chunk was rolled back as a whole; earlier chunks stay committed
+                    for (Integer index : validIndexes) {
+                        results.add(BatchRowResult.rejected(index, "Not stored: " + e.getMostSpecificCause().getMessage()));
+                    }
+                }
+            }
+            results.sort(Comparator.comparingInt(BatchRowResult::getIndex));
+            sink.accept(results);
+        }
+        return created;
+    }
+
+    // Each row takes its teacher's time before the chunk is inserted, so overlaps within the batch are caught too.
+    // The rules of the chunk's teachers are read once, after all of its time was taken, as reserveTeacherTime does
+    private List<BatchRowResult> insertChunk(List<LessonRow> slots, List<Integer> indexes,
+                                             Map<Long, Long> teacherPlaces, Map<Long, Long> schoolPlaces) {
+        List<BatchRowResult> results = new ArrayList<>(slots.size());
+        List<LessonRow> taken = new ArrayList<>(slots.size());
+        List<Integer> takenIndexes = new ArrayList<>(slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            LessonRow slot = slots.get(i);
+            if (takeTeacherTime(slot.getTeacherId(), slot.getStartTime(), slot.getEndTime())) {
+                taken.add(slot);
+                takenIndexes.add(indexes.get(i));
+            } else {
+                results.add(BatchRowResult.rejected(indexes.get(i), overlapMessage(slot.getStartTime(), slot.getEndTime())));
+            }
+        }
+        if (taken.isEmpty()) {
+            return results;
+        }
+
+        Map<Long, List<AvailabilityRule>> teacherRules = availabilityRuleRepository.findByTeacherIdInOverlapping(
+                        distinctIds(taken, LessonRow::getTeacherId),
+                        taken.stream().map(row -> row.getStartTime().toLocalDate()).min(Comparator.naturalOrder()).orElseThrow(),
+                        taken.stream().map(row -> row.getEndTime().toLocalDate()).max(Comparator.naturalOrder()).orElseThrow())
+                .stream()
+                .collect(Collectors.groupingBy(rule -> rule.getTeacher().getId()));
+        List<LessonRow> rows = new ArrayList<>(taken.size());
+        List<Integer> rowIndexes = new ArrayList<>(taken.size());
+        for (int i = 0; i < taken.size(); i++) {
+            LessonRow row = taken.get(i);
+            if (overlapsRule(teacherRules.getOrDefault(row.getTeacherId(), List.of()), null, row.getStartTime(), row.getEndTime())) {
+                teacherSchedule.release(row.getTeacherId(), row.getStartTime(), row.getEndTime());
+                results.add(BatchRowResult.rejected(takenIndexes.get(i), overlapMessage(row.getStartTime(), row.getEndTime())));
+            } else {
+                releaseTeacherTimeUnlessCommitted(row.getTeacherId(), row.getStartTime(), row.getEndTime());
+                rows.add(row);
+                rowIndexes.add(takenIndexes.get(i));
+            }
+        }
+        if (rows.isEmpty()) {
+            return results;
+        }
+
+        List<Long> ids = lessonAvailabilityRepository.insertRows(rows);
+        for (int i = 0; i < ids.size(); i++) {
+            results.add(BatchRowResult.created(rowIndexes.get(i), ids.get(i)));
+        }
+        placeHourlyAvailabilityRepository.addOpenLessons(ids);
+
+        Map<Long, Integer> perSchool = new HashMap<>();
+        Map<Long, Integer> perTeacher = new HashMap<>();
+        for (LessonRow row : rows) {
+            perSchool.merge(row.getSchoolId(), 1, Integer::sum);
+            perTeacher.merge(row.getTeacherId(), 1, Integer::sum);
+        }
+        adjustOwnerCounters(perSchool, perTeacher);
+
+        Set<Long> searchPlaces = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            LessonRow row = rows.get(i);
+            eventPublisher.publishEvent(new LessonAvailabilityChangedEvent(LessonAvailabilityChangedEvent.Type.CREATED,
+                    ids.get(i), row.getPlaceId(), row.getSchoolId(), row.getTeacherId(), row.getStartTime(), row.getEndTime(), null));
+        }
+        perSchool.keySet().forEach(schoolId -> addIfPresent(searchPlaces, schoolPlaces.get(schoolId)));
+        perTeacher.keySet().forEach(teacherId -> addIfPresent(searchPlaces, teacherPlaces.get(teacherId)));
+        eventPublisher.publishEvent(new PlaceSearchDataChangedEvent(Set.copyOf(searchPlaces)));
+        return results;
+    }
+
+    // Same checks and messages as createAvailability
+    private static String validateSlot(LessonRow slot, Map<Long, Long> teacherPlaces, Map<Long, Long> schoolPlaces,
+                                       Set<Long> placeIds) {
+        if (slot.getTeacherId() == null || slot.getSchoolId() == null || slot.getPlaceId() == null
+                || slot.getStartTime() == null || slot.getEndTime() == null) {
+            return "Teacher, school, place, start and end are required";
+        }
+        if (!teacherPlaces.containsKey(slot.getTeacherId())) {
+            return "Teacher not found with id: " + slot.getTeacherId();
+        }
+        if (!schoolPlaces.containsKey(slot.getSchoolId())) {
+            return "School not found with id: " + slot.getSchoolId();
+        }
+        if (!placeIds.contains(slot.getPlaceId())) {
+            return "Place not found with id: " + slot.getPlaceId();
+        }
+        if (slot.getStartTime().isAfter(slot.getEndTime())) {
+            return "Start time must be before end time";
+        }
+        return null;
+    }
+
+    // Takes the teacher's time for a lesson about to be stored; given back if the transaction does not commit.
+    // The teacher's rules other than the excluded one are read only after the time was taken, so a rule
+    // committing meanwhile either found the time taken or is seen here
+    private boolean reserveTeacherTime(Long teacherId, LocalDateTime startTime, LocalDateTime endTime, Long excludedRuleId) {
+        if (!takeTeacherTime(teacherId, startTime, endTime)) {
+            return false;
+        }
+        if (overlapsRule(availabilityRuleRepository.findByTeacherOverlapping(teacherId, startTime.toLocalDate(),
+                endTime.toLocalDate()), excludedRuleId, startTime, endTime)) {
+            teacherSchedule.release(teacherId, startTime, endTime);
+            return false;
+        }
+        releaseTeacherTimeUnlessCommitted(teacherId, startTime, endTime);
+        return true;
+    }
+
+    // Until the schedule has loaded the table, the table is asked as well
+    private boolean takeTeacherTime(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!teacherSchedule.isWarm() && lessonAvailabilityRepository.existsOverlapping(teacherId, startTime, endTime)) {
+            return false;
+        }
+        return teacherSchedule.tryReserve(teacherId, startTime, endTime);
+    }
+
+    private void releaseTeacherTimeUnlessCommitted(Long teacherId, LocalDateTime startTime, LocalDateTime endTime) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    teacherSchedule.release(teacherId, startTime, endTime);
+                }
+            }
+        });
+    }
+
+    private static boolean overlapsRule(List<AvailabilityRule> rules, Long excludedRuleId,
+                                        LocalDateTime startTime, LocalDateTime endTime) {
+        return rules.stream().anyMatch(rule -> !rule.getId().equals(excludedRuleId)
+                && RecurringSlots.overlaps(rule, startTime, endTime));
+    }
+
+    private static String overlapMessage(LocalDateTime startTime, LocalDateTime endTime) {
+        return "Teacher already has a lesson between " + startTime + " and " + endTime;
+    }
+
+    private static Set<Long> distinctIds(List<LessonRow> slots, Function<LessonRow, Long> id) {
+        return slots.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    // Owners without a place map to null, so containsKey still tells whether the owner exists
+    private static Map<Long, Long> placesById(List<OwnerPlace> owners) {
+        Map<Long, Long> places = new HashMap<>();
+        owners.forEach(owner -> places.put(owner.getId(), owner.getPlaceId()));
+        return places;
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    // A compare-and-set on is_available: of concurrent bookings of one lesson exactly one updates the row,
+    // without reading it first or holding a lock beyond that single statement
     @Override
     public LessonAvailability bookLesson(Long availabilityId, Long studentId) {
-        LessonAvailability availability = findById(availabilityId)
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
+
+        if (lessonAvailabilityRepository.bookIfAvailable(availabilityId, student) == 0) {
+            throw notUpdated(availabilityId, "Lesson is not available for booking");
+        }
+
+        LessonAvailability availability = lessonAvailabilityRepository.findWithSchoolAndTeacherById(availabilityId)
                 .orElseThrow(() -> new IllegalArgumentException("Lesson availability not found with id: " + availabilityId));
+        // An instance already managed in this transaction predates the update
+        availability.setStudent(student);
+        availability.setAvailable(false);
 
-        if (!availability.isAvailable()) {
-            throw new IllegalStateException("Lesson is not available for booking");
+        adjustAvailableLessonCounters(availability, -1);
+        publish(LessonAvailabilityChangedEvent.Type.BOOKED, availability);
+        return availability;
+    }
+
+    // One conditional UPDATE books every lesson; if any was taken or missing, the exception rolls it back
+    @Override
+    public List<LessonRow> bookLessons(Collection<Long> availabilityIds, Long studentId) {
+        if (availabilityIds == null || availabilityIds.isEmpty() || availabilityIds.contains(null)) {
+            throw new IllegalArgumentException("At least one lesson id is required");
         }
+        Set<Long> ids = new LinkedHashSet<>(availabilityIds);
 
         User student = userRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
 
+        int booked = lessonAvailabilityRepository.bookAllAvailable(ids, student);
+        if (booked != ids.size()) {
+            Set<Long> missing = new LinkedHashSet<>(ids);
+            lessonAvailabilityRepository.findIdsByIdIn(ids).forEach(missing::remove);
+            if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Lesson availability not found with id: " + missing.iterator().next());
+            }
+            throw new IllegalStateException((ids.size() - booked) + " of the " + ids.size()
+                    + " lessons are not available for booking");
+        }
+
+        List<BookedSlot> slots = lessonAvailabilityRepository.findBookedSlotsByIdIn(ids);
+        placeHourlyAvailabilityRepository.removeBookedLessons(ids);
+
+        Map<Long, Integer> perSchool = new HashMap<>();
+        Map<Long, Integer> perTeacher = new HashMap<>();
+        Set<Long> searchPlaces = new HashSet<>();
+        List<LessonRow> rows = new ArrayList<>(slots.size());
+        for (BookedSlot slot : slots) {
+            perSchool.merge(slot.getSchoolId(), -1, Integer::sum);
+            perTeacher.merge(slot.getTeacherId(), -1, Integer::sum);
+            addIfPresent(searchPlaces, slot.getSchoolPlaceId());
+            addIfPresent(searchPlaces, slot.getTeacherPlaceId());
+            eventPublisher.publishEvent(new LessonAvailabilityChangedEvent(LessonAvailabilityChangedEvent.Type.BOOKED,
+                    slot.getId(), slot.getPlaceId(), slot.getSchoolId(), slot.getTeacherId(), slot.getStartTime(), slot.getEndTime(),
+                    studentId));
+            rows.add(new LessonRow(slot.getId(), slot.getSchoolId(), slot.getTeacherId(), slot.getPlaceId(), studentId,
+                    slot.getStartTime(), slot.getEndTime(), false, slot.getRuleId()));
+        }
+        adjustOwnerCounters(perSchool, perTeacher);
+        eventPublisher.publishEvent(new PlaceSearchDataChangedEvent(Set.copyOf(searchPlaces)));
+        return rows;
+    }
+
+    @Override
+    public LessonHold holdLesson(Long availabilityId, Long studentId, Duration ttl) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Hold duration must be positive");
+        }
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
+
+        // Whole milliseconds, the resolution the expiry wheel schedules at
+        LocalDateTime heldUntil = LocalDateTime.now().plus(ttl).truncatedTo(ChronoUnit.MILLIS);
+        if (lessonAvailabilityRepository.holdIfAvailable(availabilityId, student, heldUntil) == 0) {
+            throw notUpdated(availabilityId, "Lesson is not available for booking");
+        }
+
+        LessonAvailability availability = lessonAvailabilityRepository.findWithSchoolAndTeacherById(availabilityId)
+                .orElseThrow(() -> new IllegalArgumentException("Lesson availability not found with id: " + availabilityId));
         availability.setStudent(student);
         availability.setAvailable(false);
+        availability.setHeldUntil(heldUntil);
 
-        return save(availability);
+        // Counted and indexed as booked from now on; a lapsed hold is released like a cancellation
+        adjustAvailableLessonCounters(availability, -1);
+        publish(LessonAvailabilityChangedEvent.Type.HELD, availability);
+        eventPublisher.publishEvent(new LessonHeldEvent(availabilityId, heldUntil));
+        return new LessonHold(availabilityId, studentId, heldUntil);
     }
 
     @Override
-    public LessonAvailability cancelBooking(Long availabilityId) {
-        LessonAvailability availability = findById(availabilityId)
+    public LessonAvailability confirmHold(Long availabilityId, Long studentId) {
+        if (lessonAvailabilityRepository.confirmHold(availabilityId, studentId, LocalDateTime.now()) == 0) {
+            throw notUpdated(availabilityId, "Student holds no unexpired hold on this lesson");
+        }
+        LessonAvailability availability = lessonAvailabilityRepository.findWithSchoolAndTeacherById(availabilityId)
                 .orElseThrow(() -> new IllegalArgumentException("Lesson availability not found with id: " + availabilityId));
+        availability.setHeldUntil(null);
+        publish(LessonAvailabilityChangedEvent.Type.CONFIRMED, availability);
+        return availability;
+    }
 
-        if (availability.isAvailable()) {
-            throw new IllegalStateException("Lesson is not booked");
+    // The lapsed holds are read and released with the same cut-off, so both statements see the same lessons
+    @Override
+    public int releaseLapsedHolds(Collection<Long> availabilityIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookedSlot> lapsed = lessonAvailabilityRepository.findLapsedHolds(availabilityIds, now);
+        if (lapsed.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = lapsed.stream().map(BookedSlot::getId).toList();
+        int released = lessonAvailabilityRepository.releaseLapsedHolds(ids, now);
+        placeHourlyAvailabilityRepository.addOpenLessons(ids);
+
+        Map<Long, Integer> perSchool = new HashMap<>();
+        Map<Long, Integer> perTeacher = new HashMap<>();
+        Set<Long> searchPlaces = new HashSet<>();
+        for (BookedSlot slot : lapsed) {
+            perSchool.merge(slot.getSchoolId(), 1, Integer::sum);
+            perTeacher.merge(slot.getTeacherId(), 1, Integer::sum);
+            addIfPresent(searchPlaces, slot.getSchoolPlaceId());
+            addIfPresent(searchPlaces, slot.getTeacherPlaceId());
+            eventPublisher.publishEvent(new LessonAvailabilityChangedEvent(LessonAvailabilityChangedEvent.Type.LAPSED,
+                    slot.getId(), slot.getPlaceId(), slot.getSchoolId(), slot.getTeacherId(), slot.getStartTime(), slot.getEndTime(),
+                    slot.getStudentId()));
+        }
+        adjustOwnerCounters(perSchool, perTeacher);
+        eventPublisher.publishEvent(new PlaceSearchDataChangedEvent(Set.copyOf(searchPlaces)));
+        if (released != lapsed.size()) {
+            logger.warn("Released {} of {} lapsed holds; the counter reconciliation repairs the difference",
+                    released, lapsed.size());
+        }
+        return released;
+    }
+
+    // Under the lesson's waitlist lock, so a student joining the waitlist sees either the booking or the
+    // cancellation, never a freed lesson that still has a queue
+    @Override
+    public LessonAvailability cancelBooking(Long availabilityId) {
+        lockWaitlist(availabilityId);
+        // The student read first is the one whose booking the update cancels, or nothing is cancelled
+        Long cancelledStudentId = lessonAvailabilityRepository.findStudentIdById(availabilityId).orElse(null);
+        if (cancelledStudentId == null
+                || lessonAvailabilityRepository.releaseIfBookedBy(availabilityId, cancelledStudentId) == 0) {
+            throw notUpdated(availabilityId, "Lesson is not booked");
         }
 
+        LessonAvailability availability = lessonAvailabilityRepository.findWithSchoolAndTeacherById(availabilityId)
+                .orElseThrow(() -> new IllegalArgumentException("Lesson availability not found with id: " + availabilityId));
         availability.setStudent(null);
         availability.setAvailable(true);
+        publish(LessonAvailabilityChangedEvent.Type.CANCELLED, availability, cancelledStudentId);
+
+        Optional<WaitlistEntry> head = waitlistEntryRepository.findFirstByAvailabilityIdOrderByTicket(availabilityId);
+        if (head.isEmpty()) {
+            adjustAvailableLessonCounters(availability, 1);
+            return availability;
+        }
+
+        // The lesson goes straight to the head of the queue; it never counts as available. Should anyone have
+        // booked it in between, the cancellation is rolled back rather than the head losing its place
+        User student = head.get().getStudent();
+        if (lessonAvailabilityRepository.bookIfAvailable(availabilityId, student) == 0) {
+            throw notUpdated(availabilityId, "Lesson was booked before the waitlist could take it");
+        }
+        waitlistEntryRepository.delete(head.get());
+        SlotWaitlist waitlist = slotWaitlistRepository.findById(availabilityId).orElseThrow();
+        waitlist.setServed(waitlist.getServed() + 1);
+
+        availability.setStudent(student);
+        availability.setAvailable(false);
+        publish(LessonAvailabilityChangedEvent.Type.BOOKED, availability);
+        return availability;
+    }
+
+    @Override
+    public WaitlistPosition joinWaitlist(Long availabilityId, Long studentId) {
+        lockWaitlist(availabilityId);
+        LessonAvailability availability = lessonAvailabilityRepository.findById(availabilityId)
+                .orElseThrow(() -> new IllegalArgumentException("Lesson availability not found with id: " + availabilityId));
+
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
+
+        if (availability.isAvailable()) {
+            throw new IllegalStateException("Lesson is available for booking");
+        }
+        if (availability.getHeldUntil() != null) {
+            throw new IllegalStateException("Lesson is held for a checkout; try booking it once the hold lapses");
+        }
+        if (availability.getStudent() != null && studentId.equals(availability.getStudent().getId())) {
+            throw new IllegalStateException("Student has already booked this lesson");
+        }
+        if (waitlistEntryRepository.existsByAvailabilityIdAndStudentId(availabilityId, studentId)) {
+            throw new IllegalStateException("Student is already on the waitlist");
+        }
+
+        SlotWaitlist waitlist = slotWaitlistRepository.findById(availabilityId)
+                .orElseGet(() -> new SlotWaitlist(availabilityId));
+        waitlist.setIssued(waitlist.getIssued() + 1);
+        waitlist = slotWaitlistRepository.save(waitlist);
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setAvailability(availability);
+        entry.setStudent(student);
+        entry.setTicket(waitlist.getIssued());
+        waitlistEntryRepository.save(entry);
+        return new WaitlistPosition(availabilityId, studentId, waitlist.positionOf(entry), waitlist.getLength());
+    }
+
+    // Two lookups by key whatever the queue length
+    @Override
+    @Transactional(readOnly = true)
+    public WaitlistPosition findWaitlistPosition(Long availabilityId, Long studentId) {
+        WaitlistEntry entry = waitlistEntryRepository.findByAvailabilityIdAndStudentId(availabilityId, studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student " + studentId
+                        + " is not on the waitlist of lesson " + availabilityId));
+        SlotWaitlist waitlist = slotWaitlistRepository.findById(availabilityId).orElseThrow();
+        return new WaitlistPosition(availabilityId, studentId, waitlist.positionOf(entry), waitlist.getLength());
+    }
+
+    // Held until the transaction completes, so the next holder reads what this one committed
+    private void lockWaitlist(Long availabilityId) {
+        Lock lock = waitlistLocks.get(availabilityId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    // A conditional update that matched no row: the lesson is either missing or not in the expected state
+    private RuntimeException notUpdated(Long availabilityId, String conflict) {
+        if (!lessonAvailabilityRepository.existsById(availabilityId)) {
+            return new IllegalArgumentException("Lesson availability not found with id: " + availabilityId);
+        }
+        return new IllegalStateException(conflict);
+    }
+
+    // Under the lesson's waitlist lock, so nobody joins between reading the queue and deleting it
+    @Override
+    public void deleteById(Long id) {
+        lockWaitlist(id);
+        lessonAvailabilityRepository.findWithSchoolAndTeacherById(id).ifPresent(availability -> {
+            if (availability.isAvailable()) {
+                adjustAvailableLessonCounters(availability, -1);
+            }
+            // Without its row, the slot of a recurring rule is expanded again; exceptions remove it for good
+            AvailabilityRule rule = availability.getRule() != null ? findRule(availability.getRule().getId()) : null;
+            if (rule != null && RecurringSlots.isSlotStart(rule, availability.getStartTime())) {
+                adjustOpenSlots(rule, 1);
+                adjustOwnerCounters(availability.getSchool().getId(), availability.getTeacher().getId(), 1);
+            }
+            // A booking, unlike a hold, is cancelled with the lesson, and so is every place on its waitlist
+            boolean booked = availability.getStudent() != null && availability.getHeldUntil() == null;
+            for (Long studentId : waitlistEntryRepository.findStudentIdsByAvailabilityId(id)) {
+                eventPublisher.publishEvent(LessonAvailabilityChangedEvent.of(
+                        LessonAvailabilityChangedEvent.Type.WAITLIST_CANCELLED, availability, studentId));
+            }
+            publish(LessonAvailabilityChangedEvent.Type.DELETED, availability,
+                    booked ? availability.getStudent().getId() : null);
+        });
+        waitlistEntryRepository.deleteByAvailabilityId(id);
+        slotWaitlistRepository.deleteByAvailabilityId(id);
+        super.deleteById(id);
+    }
+
+    // The rule's slots are counted, not stored, and count towards the school and teacher right away
+    @Override
+    public AvailabilityRule createRule(Long teacherId, Long schoolId, Long placeId, Set<DayOfWeek> weekdays, LocalTime dailyStart,
+                                       LocalTime dailyEnd, int slotMinutes, LocalDate validFrom, LocalDate validUntil, Set<LocalDate> exceptions) {
+        Teacher teacher = teacherRepository.findById(teacherId)
+                .orElseThrow(() -> new IllegalArgumentException("Teacher not found with id: " + teacherId));
+
+        School school = schoolRepository.findById(schoolId)
+                .orElseThrow(() -> new IllegalArgumentException("School not found with id: " + schoolId));
+
+        Place place = placeRepository.findById(placeId)
+                .orElseThrow(() -> new IllegalArgumentException("Place not found with id: " + placeId));
+
+        if (weekdays == null || weekdays.isEmpty() || dailyStart == null || dailyEnd == null
+                || validFrom == null || validUntil == null) {
+            throw new IllegalArgumentException("Weekdays, daily window and date range are required");
+        }
+        if (!dailyStart.isBefore(dailyEnd)) {
+            throw new IllegalArgumentException("Daily start must be before daily end");
+        }
+        if (slotMinutes <= 0 || Duration.between(dailyStart, dailyEnd).toMinutes() < slotMinutes) {
+            throw new IllegalArgumentException("Slot length must be positive and fit the daily window");
+        }
+        if (validUntil.isBefore(validFrom) || ChronoUnit.DAYS.between(validFrom, validUntil) >= MAX_RULE_DAYS) {
+            throw new IllegalArgumentException("Date range must cover between 1 and " + MAX_RULE_DAYS + " days");
+        }
+
+        AvailabilityRule rule = new AvailabilityRule();
+        rule.setTeacher(teacher);
+        rule.setSchool(school);
+        rule.setPlace(place);
+        rule.setWeekdays(RecurringSlots.weekdayMask(weekdays));
+        rule.setDailyStart(dailyStart);
+        rule.setDailyEnd(dailyEnd);
+        rule.setSlotMinutes(slotMinutes);
+        rule.setValidFrom(validFrom);
+        rule.setValidUntil(validUntil);
+        if (exceptions != null) {
+            rule.setExceptions(new HashSet<>(exceptions));
+        }
+        rule.setOpenSlots(RecurringSlots.countSlots(rule));
+        holdRuleTime(rule);
+
+        AvailabilityRule saved = availabilityRuleRepository.save(rule);
+        adjustOwnerCounters(schoolId, teacherId, saved.getOpenSlots());
+        publishRuleChange(saved);
+        return saved;
+    }
+
+    // Every day's window of the unsaved rule is held in the teacher schedule until the transaction ends, so a lesson
+    // created meanwhile either finds the time taken or, after the commit, reads the rule. Lessons already stored and
+    // the teacher's other rules make the rule fail
+    @SuppressWarnings("unchecked")
+    private void holdRuleTime(AvailabilityRule rule) {
+        Long teacherId = rule.getTeacher().getId();
+        List<LocalDateTime[]> held = new ArrayList<>();
+        for (LocalDate day = rule.getValidFrom(); !day.isAfter(rule.getValidUntil()); day = day.plusDays(1)) {
+            if (!RecurringSlots.runsOn(rule, day)) {
+                continue;
+            }
+            LocalDateTime start = RecurringSlots.dayStart(rule, day);
+            LocalDateTime end = RecurringSlots.dayEnd(rule, day);
+            if (!takeTeacherTime(teacherId, start, end)) {
+                held.forEach(window -> teacherSchedule.release(teacherId, window[0], window[1]));
+                throw new IllegalStateException(overlapMessage(start, end));
+            }
+            held.add(new LocalDateTime[] {start, end});
+        }
+        // The rules themselves are kept, as they only get their ids when saved
+        List<AvailabilityRule> heldRules = (List<AvailabilityRule>) TransactionSynchronizationManager.getResource(RULE_HOLDS);
+        if (heldRules == null) {
+            heldRules = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(RULE_HOLDS, heldRules);
+        }
+        heldRules.add(rule);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(RULE_HOLDS);
+                held.forEach(window -> teacherSchedule.release(teacherId, window[0], window[1]));
+            }
+        });
+
+        List<AvailabilityRule> others = availabilityRuleRepository.findByTeacherOverlapping(teacherId,
+                rule.getValidFrom(), rule.getValidUntil());
+        for (LocalDateTime[] window : held) {
+            if (overlapsRule(others, null, window[0], window[1])) {
+                throw new IllegalStateException("Teacher already has recurring availability between "
+                        + window[0] + " and " + window[1]);
+            }
+        }
+    }
+
+    // Booked slots on that day keep their rows; only the open ones disappear
+    @Override
+    public AvailabilityRule addRuleException(Long ruleId, LocalDate day) {
+        AvailabilityRule rule = findRule(ruleId);
+        if (!RecurringSlots.runsOn(rule, day)) {
+            return rule;
+        }
+
+        LocalDateTime dayStart = day.atStartOfDay();
+        Iterator<LocalDateTime> open = openStarts(rule, dayStart, dayStart.plusDays(1),
+                materializedStarts(List.of(rule), dayStart, dayStart.plusDays(1)));
+        int removed = 0;
+        for (; open.hasNext(); open.next()) {
+            removed++;
+        }
+
+        rule.getExceptions().add(day);
+        AvailabilityRule saved = availabilityRuleRepository.save(rule);
+        adjustOpenSlots(saved, -removed);
+        adjustOwnerCounters(rule.getSchool().getId(), rule.getTeacher().getId(), -removed);
+        publishRuleChange(saved);
+        return saved;
+    }
+
+    // Slots booked from the rule stay as ordinary lessons
+    @Override
+    public void deleteRule(Long ruleId) {
+        AvailabilityRule rule = findRule(ruleId);
+        lessonAvailabilityRepository.detachFromRule(ruleId);
+        adjustOwnerCounters(rule.getSchool().getId(), rule.getTeacher().getId(), -rule.getOpenSlots());
+        availabilityRuleRepository.delete(rule);
+        publishRuleChange(rule);
+    }
+
+    // The slot gets its row only now; the unique (rule, start) key turns a concurrent double booking into a failure
+    @Override
+    @SuppressWarnings("unchecked")
+    public LessonAvailability bookRecurringSlot(Long ruleId, LocalDateTime startTime, Long studentId) {
+        AvailabilityRule rule = findRule(ruleId);
+        if (!RecurringSlots.isSlotStart(rule, startTime)) {
+            throw new IllegalArgumentException("Rule " + ruleId + " has no slot starting at " + startTime);
+        }
+        if (lessonAvailabilityRepository.existsByRuleIdAndStartTime(ruleId, startTime)) {
+            throw new IllegalStateException("Lesson is not available for booking");
+        }
+
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found with id: " + studentId));
+
+        LessonAvailability availability = recurringSlot(rule, startTime);
+        List<AvailabilityRule> heldRules = (List<AvailabilityRule>) TransactionSynchronizationManager.getResource(RULE_HOLDS);
+        if (heldRules != null && heldRules.stream().anyMatch(held -> ruleId.equals(held.getId()))) {
+            // This transaction created the rule and holds its windows; the slot keeps its time once they are given back
+            Long teacherId = rule.getTeacher().getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        teacherSchedule.tryReserve(teacherId, availability.getStartTime(), availability.getEndTime());
+                    }
+                }
+            });
+        } else if (!reserveTeacherTime(rule.getTeacher().getId(), availability.getStartTime(), availability.getEndTime(), ruleId)) {
+            throw new IllegalStateException(overlapMessage(availability.getStartTime(), availability.getEndTime()));
+        }
+        availability.setStudent(student);
+        availability.setAvailable(false);
+
+        LessonAvailability saved;
+        try {
+            saved = lessonAvailabilityRepository.saveAndFlush(availability);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Lesson is not available for booking", e);
+        }
+        adjustOpenSlots(rule, -1);
+        adjustOwnerCounters(rule.getSchool().getId(), rule.getTeacher().getId(), -1);
+        publish(LessonAvailabilityChangedEvent.Type.BOOKED, saved);
+        return saved;
+    }
+
+    private AvailabilityRule findRule(Long ruleId) {
+        return availabilityRuleRepository.findWithExceptionsById(ruleId)
+                .orElseThrow(() -> new IllegalArgumentException("Availability rule not found with id: " + ruleId));
+    }
+
+    // The column is changed only by the relative update; the loaded rule is kept in step without writing it back
+    private void adjustOpenSlots(AvailabilityRule rule, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        availabilityRuleRepository.adjustOpenSlots(rule.getId(), delta);
+        rule.setOpenSlots(rule.getOpenSlots() + delta);
+    }
+
+    private void publishRuleChange(AvailabilityRule rule) {
+        eventPublisher.publishEvent(AvailabilityRuleChangedEvent.of(rule));
+        eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(
+                PlaceSearchDataChangedEvent.placeOf(rule.getSchool()),
+                PlaceSearchDataChangedEvent.placeOf(rule.getTeacher())));
+    }
+
+    private void adjustAvailableLessonCounters(LessonAvailability availability, int delta) {
+        adjustOwnerCounters(availability.getSchool().getId(), availability.getTeacher().getId(), delta);
+        LocalDateTime startTime = availability.getStartTime();
+        placeHourlyAvailabilityRepository.adjustOpenSlots(availability.getPlace().getId(),
+                startTime.toLocalDate(), startTime.getHour(), delta);
+    }
+
+    // Recurring slots count here but have no hourly rollups; those are expanded when the calendar is read
+    private void adjustOwnerCounters(Long schoolId, Long teacherId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        schoolRepository.adjustAvailableLessons(schoolId, delta);
+        teacherRepository.adjustAvailableLessons(teacherId, delta);
+        referenceDataCache.evictCounters(schoolId, teacherId);
+    }
+
+    // One relative update per school and teacher rather than one per lesson
+    private void adjustOwnerCounters(Map<Long, Integer> perSchool, Map<Long, Integer> perTeacher) {
+        perSchool.forEach(schoolRepository::adjustAvailableLessons);
+        perTeacher.forEach(teacherRepository::adjustAvailableLessons);
+        referenceDataCache.evictCounters(perSchool.keySet(), perTeacher.keySet());
+    }
+
+    // Listeners such as LessonAvailabilityIndex receive the event only after the transaction commits
+    private void publish(LessonAvailabilityChangedEvent.Type type, LessonAvailability availability) {
+        publish(type, availability, availability.getStudent() != null ? availability.getStudent().getId() : null);
+    }
+
+    private void publish(LessonAvailabilityChangedEvent.Type type, LessonAvailability availability, Long studentId) {
+        eventPublisher.publishEvent(LessonAvailabilityChangedEvent.of(type, availability, studentId));
+        // Place searches list the counters of the lesson's school and teacher, which sit at their own place
+        eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(
+                PlaceSearchDataChangedEvent.placeOf(availability.getSchool()),
+                PlaceSearchDataChangedEvent.placeOf(availability.getTeacher())));
+    }
 
-        return save(availability);
+    @Value
+    private static class RuleSlot implements AvailabilitySlot {
+        Long id;
+        Long placeId;
+        Long schoolId;
+        Long teacherId;
+        LocalDateTime startTime;
+        LocalDateTime endTime;
+        Long ruleId;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.skiconnect.service;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A lesson taken for a student's checkout until heldUntil, unless confirmed before.
+ */
+@Value
+public class LessonHold {
+    Long availabilityId;
+    Long studentId;
+    LocalDateTime heldUntil;
+}
@@ -0,0 +1,126 @@
+package com.skiconnect.service;
+
+import com.skiconnect.event.LessonHeldEvent;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.repository.LessonHoldDeadline;
+import com.skiconnect.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases lapsed lesson holds. Every hold is filed in a hierarchical timing wheel when it commits, and each tick
+ * releases only the holds whose deadline the wheel passed, in batched updates, so neither a task per hold nor a
+ * scan of lesson_availabilities is needed. The wheel is refilled from the table once at startup.
+ *
+ * <p>The wheel ticks on a thread of its own rather than on the shared scheduler, so an index rebuild or an outbox
+ * delivery running there cannot hold back the release of holds.
+ */
+@Service
+public class LessonHoldExpiry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonHoldExpiry.class);
+
+    // Lessons released per statement
+    static final int RELEASE_BATCH_SIZE = 500;
+    // A batch that failed to release is tried again after this delay
+    private static final long RETRY_DELAY_MILLIS = 1_000;
+    // 64^4 ticks of 100 ms cover 19 days before a deadline is parked in the top level
+    private static final int WHEEL_LEVELS = 4;
+    // How long shutdown waits for a running tick to finish its release
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+
+    private final LessonAvailabilityService lessonAvailabilityService;
+    private final LessonAvailabilityRepository lessonAvailabilityRepository;
+    private final TimingWheel wheel;
+    private final long tickMillis;
+    private final ScheduledExecutorService ticker;
+
+    public LessonHoldExpiry(LessonAvailabilityService lessonAvailabilityService,
+                            LessonAvailabilityRepository lessonAvailabilityRepository,
+                            @Value("${skiconnect.app.holdExpiryTickMs:100}") long tickMillis) {
+        this.lessonAvailabilityService = lessonAvailabilityService;
+        this.lessonAvailabilityRepository = lessonAvailabilityRepository;
+        this.wheel = new TimingWheel(tickMillis, WHEEL_LEVELS, System.currentTimeMillis());
+        this.tickMillis = tickMillis;
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("hold-expiry-");
+        threads.setDaemon(true);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(threads);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<LessonHoldDeadline> holds = lessonAvailabilityRepository.findHoldDeadlines();
+        synchronized (wheel) {
+            holds.forEach(hold -> wheel.schedule(hold.getId(), toMillis(hold.getHeldUntil())));
+        }
+        logger.info("Scheduled the expiry of {} outstanding lesson holds", holds.size());
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        ticker.shutdown();
+        if (!ticker.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onLessonHeld(LessonHeldEvent event) {
+        synchronized (wheel) {
+            wheel.schedule(event.getAvailabilityId(), toMillis(event.getHeldUntil()));
+        }
+    }
+
+    public int releaseLapsedHolds() {
+        List<Long> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        int released = 0;
+        for (int from = 0; from < due.size(); from += RELEASE_BATCH_SIZE) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + RELEASE_BATCH_SIZE));
+            try {
+                // Holds confirmed in the meantime fire too and are skipped by the release
+                released += lessonAvailabilityService.releaseLapsedHolds(batch);
+            } catch (RuntimeException e) {
+                logger.warn("Releasing {} lapsed lesson holds failed; retrying shortly", batch.size(), e);
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                synchronized (wheel) {
+                    batch.forEach(id -> wheel.schedule(id, retryAt));
+                }
+            }
+        }
+        if (released > 0) {
+            logger.debug("Released {} lapsed lesson holds", released);
+        }
+        return released;
+    }
+
+    // An exception escaping a tick would cancel every later one
+    private void tick() {
+        try {
+            releaseLapsedHolds();
+        } catch (RuntimeException e) {
+            logger.error("Lesson hold expiry tick failed", e);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
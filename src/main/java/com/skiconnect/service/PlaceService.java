@@ -1,11 +1,18 @@
 package com.skiconnect.service;
 
+import com.skiconnect.index.GeoGrid;
 import com.skiconnect.model.Place;
+import com.skiconnect.repository.PlaceSummary;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PlaceService extends BaseService<Place, Long> {
     Optional<Place> findByName(String name);
     boolean existsByName(String name);
     Place createPlace(String name, String location);
+    Place createPlace(String name, String location, Double latitude, Double longitude);
+    List<PlaceSummary> findSummariesByIds(Collection<Long> ids);
+    List<GeoGrid.Neighbor> findNearby(double latitude, double longitude, double radiusKm, int limit);
 } 
\ No newline at end of file
@@ -1,21 +1,37 @@
 package com.skiconnect.service;
 
+import com.skiconnect.event.PlaceCoordinatesChangedEvent;
+import com.skiconnect.event.SearchableEntityChangedEvent;
+import com.skiconnect.index.GeoGrid;
+import com.skiconnect.index.PlaceGridIndex;
 import com.skiconnect.model.Place;
+import com.skiconnect.repository.PlaceCoordinates;
 import com.skiconnect.repository.PlaceRepository;
+import com.skiconnect.repository.PlaceSummary;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class PlaceServiceImpl extends BaseServiceImpl<Place, Long> implements PlaceService {
 
     private final PlaceRepository placeRepository;
+    private final PlaceGridIndex placeGridIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PlaceServiceImpl(PlaceRepository placeRepository) {
+    public PlaceServiceImpl(PlaceRepository placeRepository, PlaceGridIndex placeGridIndex,
+                            ApplicationEventPublisher eventPublisher) {
         super(placeRepository);
         this.placeRepository = placeRepository;
+        this.placeGridIndex = placeGridIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -30,14 +46,61 @@ public class PlaceServiceImpl extends BaseServiceImpl<Place, Long> implements Pl
 
     @Override
     public Place createPlace(String name, String location) {
+        return createPlace(name, location, null, null);
+    }
+
+    @Override
+    public Place createPlace(String name, String location, Double latitude, Double longitude) {
         if (existsByName(name)) {
             throw new IllegalArgumentException("Place with name " + name + " already exists");
         }
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
+        }
+        if (latitude != null && (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
 
         Place place = new Place();
         place.setName(name);
         place.setLocation(location);
+        place.setLatitude(latitude);
+        place.setLongitude(longitude);
+
+        Place savedPlace = save(place);
+        eventPublisher.publishEvent(SearchableEntityChangedEvent.of(savedPlace));
+        if (latitude != null) {
+            eventPublisher.publishEvent(PlaceCoordinatesChangedEvent.of(savedPlace));
+        }
+        return savedPlace;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PlaceSummary> findSummariesByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return placeRepository.findSummariesByIdIn(ids);
+    }
+
+    // Served from the in-memory grid once it is built, from a latitude band scan before that
+    @Override
+    @Transactional(readOnly = true)
+    public List<GeoGrid.Neighbor> findNearby(double latitude, double longitude, double radiusKm, int limit) {
+        if (placeGridIndex.isWarm()) {
+            return placeGridIndex.nearest(latitude, longitude, limit, radiusKm);
+        }
 
-        return save(place);
+        double latitudeSpan = Math.toDegrees(radiusKm / GeoGrid.EARTH_RADIUS_KM);
+        List<PlaceCoordinates> band = placeRepository.findCoordinatesByLatitudeBetween(
+                latitude - latitudeSpan, latitude + latitudeSpan);
+        return band.stream()
+                .map(place -> new GeoGrid.Neighbor(place.getId(),
+                        GeoGrid.distanceKm(latitude, longitude, place.getLatitude(), place.getLongitude())))
+                .filter(neighbor -> neighbor.getDistanceKm() <= radiusKm)
+                .sorted(Comparator.comparingDouble(GeoGrid.Neighbor::getDistanceKm).thenComparing(GeoGrid.Neighbor::getId))
+                .limit(limit)
+                .collect(Collectors.toList());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.skiconnect.service;
+
+import com.skiconnect.model.AvailabilityRule;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Expands an {@link AvailabilityRule} into the start times of its slots, one day at a time, so a window
+ * over a long rule costs only the days it covers.
+ */
+public final class RecurringSlots {
+
+    private RecurringSlots() {
+    }
+
+    public static int weekdayMask(Collection<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    public static Set<DayOfWeek> weekdays(int mask) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & (1 << (day.getValue() - 1))) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public static int slotsPerDay(AvailabilityRule rule) {
+        return (int) (Duration.between(rule.getDailyStart(), rule.getDailyEnd()).toMinutes() / rule.getSlotMinutes());
+    }
+
+    public static boolean runsOn(AvailabilityRule rule, LocalDate day) {
+        return !day.isBefore(rule.getValidFrom()) && !day.isAfter(rule.getValidUntil())
+                && (rule.getWeekdays() & (1 << (day.getDayOfWeek().getValue() - 1))) != 0
+                && !rule.getExceptions().contains(day);
+    }
+
+    /**
+     * Every slot over the whole date range, counted without expanding the slots themselves.
+     */
+    public static int countSlots(AvailabilityRule rule) {
+        int perDay = slotsPerDay(rule);
+        int slots = 0;
+        for (LocalDate day = rule.getValidFrom(); !day.isAfter(rule.getValidUntil()); day = day.plusDays(1)) {
+            if (runsOn(rule, day)) {
+                slots += perDay;
+            }
+        }
+        return slots;
+    }
+
+    public static LocalDateTime endOf(AvailabilityRule rule, LocalDateTime start) {
+        return start.plusMinutes(rule.getSlotMinutes());
+    }
+
+    /**
+     * When the first slot of the day starts.
+     */
+    public static LocalDateTime dayStart(AvailabilityRule rule, LocalDate day) {
+        return day.atTime(rule.getDailyStart());
+    }
+
+    /**
+     * When the last slot of the day ends, which is before the daily end if the window is not a whole number of slots.
+     */
+    public static LocalDateTime dayEnd(AvailabilityRule rule, LocalDate day) {
+        return dayStart(rule, day).plusMinutes((long) slotsPerDay(rule) * rule.getSlotMinutes());
+    }
+
+    /**
+     * Whether any slot of the rule overlaps the time from start to end. A day's slots are back to back, so each
+     * day the rule runs on is checked as a single window.
+     */
+    public static boolean overlaps(AvailabilityRule rule, LocalDateTime start, LocalDateTime end) {
+        LocalDate lastDay = min(rule.getValidUntil(), end.toLocalDate());
+        for (LocalDate day = max(rule.getValidFrom(), start.toLocalDate()); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (runsOn(rule, day) && dayStart(rule, day).isBefore(end) && dayEnd(rule, day).isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the rule yields a slot starting exactly at the given time.
+     */
+    public static boolean isSlotStart(AvailabilityRule rule, LocalDateTime start) {
+        long minutes = Duration.between(rule.getDailyStart(), start.toLocalTime()).toMinutes();
+        return runsOn(rule, start.toLocalDate())
+                && start.toLocalTime().getSecond() == 0 && start.toLocalTime().getNano() == 0
+                && minutes >= 0 && minutes % rule.getSlotMinutes() == 0
+                && minutes / rule.getSlotMinutes() < slotsPerDay(rule);
+    }
+
+    /**
+     * Slot starts at or after {@code from} and before {@code to}, in ascending order, computed as they are read.
+     */
+    public static Iterator<LocalDateTime> starts(AvailabilityRule rule, LocalDateTime from, LocalDateTime to) {
+        return new Iterator<>() {
+            private final int perDay = slotsPerDay(rule);
+            private final LocalDate lastDay = min(rule.getValidUntil(), to.toLocalDate());
+            private LocalDate day = max(rule.getValidFrom(), from.toLocalDate());
+            private int slot = 0;
+            private LocalDateTime next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                LocalDateTime current = next;
+                next = advance();
+                return current;
+            }
+
+            private LocalDateTime advance() {
+                while (!day.isAfter(lastDay)) {
+                    if (slot < perDay && runsOn(rule, day)) {
+                        LocalDateTime start = day.atTime(rule.getDailyStart()).plusMinutes((long) slot * rule.getSlotMinutes());
+                        slot++;
+                        if (!start.isBefore(to)) {
+                            return null;
+                        }
+                        if (!start.isBefore(from)) {
+                            return start;
+                        }
+                        continue;
+                    }
+                    day = day.plusDays(1);
+                    slot = 0;
+                }
+                return null;
+            }
+        };
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
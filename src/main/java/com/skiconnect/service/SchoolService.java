@@ -1,13 +1,17 @@
 package com.skiconnect.service;
 
 import com.skiconnect.model.School;
+import com.skiconnect.repository.SchoolAvailabilitySummary;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SchoolService extends BaseService<School, Long> {
     Optional<School> findByName(String name);
     List<School> findByPlaceId(Long placeId);
+    List<SchoolAvailabilitySummary> findAvailabilitySummariesByPlaceId(Long placeId);
+    List<SchoolAvailabilitySummary> findAvailabilitySummariesByPlaceIds(Collection<Long> placeIds);
     Optional<School> findByUserId(Long userId);
     boolean existsByName(String name);
     School createSchool(String name, Long userId, Long placeId);
@@ -1,11 +1,16 @@
 package com.skiconnect.service;
 
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import com.skiconnect.event.SearchableEntityChangedEvent;
 import com.skiconnect.model.School;
 import com.skiconnect.model.User;
+import com.skiconnect.repository.SchoolAvailabilitySummary;
 import com.skiconnect.repository.SchoolRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,13 +21,15 @@ public class SchoolServiceImpl extends BaseServiceImpl<School, Long> implements
     private final SchoolRepository schoolRepository;
     private final UserService userService;
     private final PlaceService placeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SchoolServiceImpl(SchoolRepository schoolRepository, UserService userService, 
-                            PlaceService placeService) {
+                            PlaceService placeService, ApplicationEventPublisher eventPublisher) {
         super(schoolRepository);
         this.schoolRepository = schoolRepository;
         this.userService = userService;
         this.placeService = placeService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -35,6 +42,16 @@ public class SchoolServiceImpl extends BaseServiceImpl<School, Long> implements
         return schoolRepository.findByPlaceId(placeId);
     }
 
+    @Override
+    public List<SchoolAvailabilitySummary> findAvailabilitySummariesByPlaceId(Long placeId) {
+        return schoolRepository.findAvailabilitySummariesByPlaceId(placeId);
+    }
+
+    @Override
+    public List<SchoolAvailabilitySummary> findAvailabilitySummariesByPlaceIds(Collection<Long> placeIds) {
+        return schoolRepository.findAvailabilitySummariesByPlaceIdIn(placeIds);
+    }
+
     @Override
     public Optional<School> findByUserId(Long userId) {
         return schoolRepository.findByUserId(userId);
@@ -63,6 +80,9 @@ public class SchoolServiceImpl extends BaseServiceImpl<School, Long> implements
                     .orElseThrow(() -> new IllegalArgumentException("Place not found with id: " + placeId)));
         }
 
-        return save(school);
+        School savedSchool = save(school);
+        eventPublisher.publishEvent(SearchableEntityChangedEvent.of(savedSchool));
+        eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(savedSchool.getPlace()));
+        return savedSchool;
     }
 } 
\ No newline at end of file
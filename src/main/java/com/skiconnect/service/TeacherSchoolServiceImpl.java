@@ -1,10 +1,14 @@
 package com.skiconnect.service;
 
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import com.skiconnect.event.SearchableEntityChangedEvent;
+import com.skiconnect.model.Place;
 import com.skiconnect.model.School;
 import com.skiconnect.model.Teacher;
 import com.skiconnect.model.User;
 import com.skiconnect.repository.SchoolRepository;
 import com.skiconnect.repository.TeacherRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,15 +22,18 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
     private final SchoolRepository schoolRepository;
     private final UserService userService;
     private final PlaceService placeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TeacherSchoolServiceImpl(TeacherRepository teacherRepository, 
                                    SchoolRepository schoolRepository,
                                    UserService userService,
-                                   PlaceService placeService) {
+                                   PlaceService placeService,
+                                   ApplicationEventPublisher eventPublisher) {
         this.teacherRepository = teacherRepository;
         this.schoolRepository = schoolRepository;
         this.userService = userService;
         this.placeService = placeService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -38,10 +45,13 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
                 .orElseThrow(() -> new IllegalArgumentException("School not found with id: " + schoolId));
         
         if (!school.getTeachers().contains(teacher)) {
+            // The teacher leaves the listing of its previous school's place
+            Place previousPlace = PlaceSearchDataChangedEvent.placeOf(teacher);
             school.getTeachers().add(teacher);
             teacher.setSchool(school);
             teacherRepository.save(teacher);
             schoolRepository.save(school);
+            eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(previousPlace, school.getPlace()));
         }
         
         return teacher;
@@ -59,6 +69,7 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
             teacher.setSchool(null);
             teacherRepository.save(teacher);
             schoolRepository.save(school);
+            eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(school.getPlace()));
         }
         
         return teacher;
@@ -66,14 +77,15 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
 
     @Override
     public List<Teacher> getSchoolTeachers(Long schoolId) {
-        School school = schoolRepository.findById(schoolId)
-                .orElseThrow(() -> new IllegalArgumentException("School not found with id: " + schoolId));
-        return school.getTeachers();
+        if (!schoolRepository.existsById(schoolId)) {
+            throw new IllegalArgumentException("School not found with id: " + schoolId);
+        }
+        return teacherRepository.findBySchoolId(schoolId);
     }
 
     @Override
     public School getTeacherSchool(Long teacherId) {
-        Teacher teacher = teacherRepository.findById(teacherId)
+        Teacher teacher = teacherRepository.findWithSchoolById(teacherId)
                 .orElseThrow(() -> new IllegalArgumentException("Teacher not found with id: " + teacherId));
         return teacher.getSchool();
     }
@@ -106,6 +118,8 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
             schoolRepository.save(school);
         }
 
+        eventPublisher.publishEvent(SearchableEntityChangedEvent.of(savedTeacher));
+        eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(PlaceSearchDataChangedEvent.placeOf(school)));
         return savedTeacher;
     }
 
@@ -129,6 +143,7 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
         }
         
         freelancerSchool = schoolRepository.save(freelancerSchool);
+        eventPublisher.publishEvent(SearchableEntityChangedEvent.of(freelancerSchool));
 
         // Create the teacher as a freelancer
         Teacher teacher = new Teacher();
@@ -143,6 +158,8 @@ public class TeacherSchoolServiceImpl implements TeacherSchoolService {
         freelancerSchool.getTeachers().add(savedTeacher);
         schoolRepository.save(freelancerSchool);
 
+        eventPublisher.publishEvent(SearchableEntityChangedEvent.of(savedTeacher));
+        eventPublisher.publishEvent(PlaceSearchDataChangedEvent.of(freelancerSchool.getPlace()));
         return savedTeacher;
     }
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.skiconnect.service;
 
 import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.TeacherAvailabilitySummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +11,7 @@ public interface TeacherService extends BaseService<Teacher, Long> {
     Optional<Teacher> findByUserId(Long userId);
     List<Teacher> findByIsFreelancer(boolean isFreelancer);
     List<Teacher> findByPlaceId(Long placeId);
+    List<TeacherAvailabilitySummary> findAvailabilitySummariesByPlaceId(Long placeId);
     boolean existsByUserId(Long userId);
     Teacher createTeacher(String name, Long userId, Long schoolId, boolean isFreelancer);
     Teacher createFreelancer(String name, Long userId, Long placeId);
@@ -1,6 +1,7 @@
 package com.skiconnect.service;
 
 import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.TeacherAvailabilitySummary;
 import com.skiconnect.repository.TeacherRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +43,11 @@ public class TeacherServiceImpl extends BaseServiceImpl<Teacher, Long> implement
         return teacherRepository.findBySchoolPlaceId(placeId);
     }
 
+    @Override
+    public List<TeacherAvailabilitySummary> findAvailabilitySummariesByPlaceId(Long placeId) {
+        return teacherRepository.findAvailabilitySummariesByPlaceId(placeId);
+    }
+
     @Override
     public boolean existsByUserId(Long userId) {
         return teacherRepository.existsByUserId(userId);
@@ -84,7 +84,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long> implements User
 
     @Override
     public User assignRole(Long userId, String role) {
-        User user = findById(userId)
+        User user = userRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
         
         user.getRoles().add(role);
@@ -93,7 +93,7 @@ public class UserServiceImpl extends BaseServiceImpl<User, Long> implements User
 
     @Override
     public User removeRole(Long userId, String role) {
-        User user = findById(userId)
+        User user = userRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
         
         user.getRoles().remove(role);
@@ -0,0 +1,14 @@
+package com.skiconnect.service;
+
+import lombok.Value;
+
+/**
+ * Where a student stands in a lesson's waitlist: position 1 is booked by the next cancellation.
+ */
+@Value
+public class WaitlistPosition {
+    Long availabilityId;
+    Long studentId;
+    long position;
+    long length;
+}
@@ -0,0 +1,97 @@
+package com.skiconnect.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Encodes keyset positions on (startTime, id) as opaque, HMAC-signed page cursors so clients
+ * cannot forge or tamper with the position they resume from. A position after an open recurring slot
+ * carries (startTime, ruleId) instead. The signed payload also holds a hash of the listing's normalized
+ * filters, so a cursor only resumes the listing it was issued for.
+ */
+@Component
+public class CursorCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    public CursorCodec(@Value("${skiconnect.app.cursorSecret:${skiconnect.app.jwtSecret}}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String encode(ScrollPosition position, String filters) {
+        Map<String, Object> keys = ((KeysetScrollPosition) position).getKeys();
+        String payload = keys.get("startTime") + "|" + (keys.containsKey("ruleId") ? "r" + keys.get("ruleId") : keys.get("id"))
+                + "|" + filterHash(filters);
+        return ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public ScrollPosition decode(String cursor, String filters) {
+        try {
+            String[] parts = cursor.split("\\.");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+
+            String payload = new String(DECODER.decode(parts[0]), StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(parts[1]))) {
+                throw new IllegalArgumentException("Invalid cursor signature");
+            }
+
+            String[] keys = payload.split("\\|");
+            if (keys.length != 3) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            if (!keys[2].equals(filterHash(filters))) {
+                throw new IllegalArgumentException("Cursor was issued for other filters");
+            }
+            if (keys[1].startsWith("r")) {
+                return ScrollPosition.forward(Map.of(
+                        "startTime", LocalDateTime.parse(keys[0]),
+                        "ruleId", Long.valueOf(keys[1].substring(1))));
+            }
+            return ScrollPosition.forward(Map.of(
+                    "startTime", LocalDateTime.parse(keys[0]),
+                    "id", Long.valueOf(keys[1])));
+        } catch (DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            // Base64 decoding failures and NumberFormatException are already IllegalArgumentExceptions
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    // The first 8 bytes of the SHA-256 digest: the signature already keeps it from being forged
+    private static String filterHash(String filters) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(filters.getBytes(StandardCharsets.UTF_8));
+            return ENCODER.encodeToString(Arrays.copyOf(digest, 8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot hash cursor filters", e);
+        }
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign cursor", e);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.skiconnect.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A bounded ring of events in the style of the LMAX Disruptor, read by consumers on threads of their own.
+ *
+ * <p>The slots are allocated once. A producer claims the next sequence with one atomic increment, stores its
+ * event in the sequence's slot and marks the slot published with a single volatile write; no lock is taken and
+ * nothing is allocated per event. Every consumer follows the ring at its own sequence and hands each event to
+ * its handler in publication order, taking whatever has been published since its last pass as one batch. A
+ * producer that would overwrite an event the slowest consumer has not handled yet waits for it, so a stalled
+ * consumer slows publishers down instead of losing events. Only a {@link WaitStrategy#BLOCKING} consumer makes
+ * producers take a lock, to signal it.
+ *
+ * <p>Consumers are added before {@link #start()}. A handler that throws is logged and the event skipped. Once
+ * {@link #stop()} is called the ring takes no more events, and a producer waiting for room gives up.
+ */
+public final class EventRing<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventRing.class);
+
+    /**
+     * How a consumer waits for the next event, trading wake-up latency against CPU while the ring is idle.
+     */
+    public enum WaitStrategy {
+        // Spins without pause; the lowest latency, at the cost of a core per consumer
+        BUSY_SPIN,
+        // Spins briefly, then yields the processor between checks
+        YIELDING,
+        // Spins, yields, then parks 100 us between checks
+        SLEEPING,
+        // Sleeps until a producer signals; no CPU while idle, the slowest wake-up
+        BLOCKING
+    }
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long SLEEP_NANOS = 100_000;
+
+    private final Object[] entries;
+    // The sequence last published in each slot, -1 before the first
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Follower> followers = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition publishedCondition = lock.newCondition();
+    // The slowest consumer's sequence when a producer last looked; only ever behind the real one
+    private volatile long gate = -1;
+    private volatile boolean signalPublishes;
+    private volatile boolean running;
+    // Set by stop(); publishers are turned away from then on
+    private volatile boolean stopped;
+    private boolean started;
+
+    public EventRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two");
+        }
+        this.entries = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    public synchronized void addConsumer(String name, WaitStrategy waitStrategy, Consumer<? super T> handler) {
+        if (started) {
+            throw new IllegalStateException("Consumers must be added before the ring starts");
+        }
+        followers.add(new Follower(name, waitStrategy, handler));
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+            signalPublishes = true;
+        }
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        running = true;
+        for (Follower follower : followers) {
+            follower.thread = new Thread(follower, "event-ring-" + follower.name);
+            follower.thread.setDaemon(true);
+            follower.thread.start();
+        }
+    }
+
+    /**
+     * Stops the consumers once they have handled every event published so far.
+     */
+    public void stop() throws InterruptedException {
+        List<Follower> stopping;
+        synchronized (this) {
+            stopped = true;
+            running = false;
+            stopping = List.copyOf(followers);
+        }
+        signal();
+        for (Follower follower : stopping) {
+            if (follower.thread != null) {
+                follower.thread.join();
+            }
+        }
+    }
+
+    /**
+     * Publishes the event, waiting while the ring is full. Returns false without publishing once the ring is
+     * stopped, also when it stops during the wait; an event published while it stops may go unhandled.
+     */
+    public boolean publish(T event) {
+        if (stopped) {
+            return false;
+        }
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > gate) {
+            long slowest;
+            while (wrapPoint > (slowest = slowestSequence(sequence))) {
+                // Full: the slot still holds an event a consumer has not handled
+                if (stopped) {
+                    return false;
+                }
+                LockSupport.parkNanos(1);
+            }
+            gate = slowest;
+        }
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        published.set(index, sequence);
+        if (signalPublishes) {
+            signal();
+        }
+        return true;
+    }
+
+    /**
+     * How many claimed events each consumer has yet to handle, by consumer name.
+     */
+    public Map<String, Long> lags() {
+        long head = claimed.get();
+        Map<String, Long> lags = new LinkedHashMap<>();
+        for (Follower follower : followers) {
+            lags.put(follower.name, head - follower.sequence.get());
+        }
+        return lags;
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    private long slowestSequence(long fallback) {
+        long slowest = fallback;
+        for (Follower follower : followers) {
+            slowest = Math.min(slowest, follower.sequence.get());
+        }
+        return slowest;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            publishedCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Follower implements Runnable {
+        private final String name;
+        private final WaitStrategy waitStrategy;
+        private final Consumer<? super T> handler;
+        // The last sequence handled
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private Thread thread;
+
+        Follower(String name, WaitStrategy waitStrategy, Consumer<? super T> handler) {
+            this.name = name;
+            this.waitStrategy = waitStrategy;
+            this.handler = handler;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            long next = sequence.get() + 1;
+            int idle = 0;
+            while (true) {
+                if (!isPublished(next)) {
+                    if (!running) {
+                        return;
+                    }
+                    idle = await(next, idle);
+                    continue;
+                }
+                idle = 0;
+                long last = next;
+                while (isPublished(last + 1)) {
+                    last++;
+                }
+                for (long current = next; current <= last; current++) {
+                    try {
+                        handler.accept((T) entries[(int) current & mask]);
+                    } catch (RuntimeException e) {
+                        logger.warn("Consumer {} failed on event {}; skipping it", name, current, e);
+                    }
+                }
+                // Frees the batch's slots for the producers
+                sequence.set(last);
+                next = last + 1;
+            }
+        }
+
+        private int await(long next, int idle) {
+            switch (waitStrategy) {
+                case BUSY_SPIN -> Thread.onSpinWait();
+                case YIELDING -> {
+                    if (idle < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                case SLEEPING -> {
+                    if (idle < SPIN_TRIES) {
+                        Thread.onSpinWait();
+                    } else if (idle < YIELD_TRIES) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(SLEEP_NANOS);
+                    }
+                }
+                case BLOCKING -> {
+                    lock.lock();
+                    try {
+                        while (running && !isPublished(next)) {
+                            publishedCondition.awaitUninterruptibly();
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+            return idle == Integer.MAX_VALUE ? idle : idle + 1;
+        }
+    }
+}
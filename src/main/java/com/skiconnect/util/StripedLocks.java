@@ -0,0 +1,37 @@
+package com.skiconnect.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed number of fair locks that ids are hashed onto. Work on one id is serialized and granted in arrival
+ * order, work on ids of different stripes never waits for each other, and memory stays constant however many
+ * ids are locked over time. Two ids can share a stripe, so a holder must never wait for another id's lock.
+ */
+public final class StripedLocks {
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    public StripedLocks(int minimumStripes) {
+        if (minimumStripes <= 0) {
+            throw new IllegalArgumentException("At least one stripe is required");
+        }
+        int count = Integer.highestOneBit(minimumStripes - 1) << 1;
+        stripes = new Lock[Math.max(1, count)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        mask = stripes.length - 1;
+    }
+
+    public Lock get(long id) {
+        // Spreads the high bits so ids that differ only there still land on different stripes
+        int hash = Long.hashCode(id);
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,146 @@
+package com.skiconnect.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel of ids with deadlines, driven by calls to {@link #advance(long)}.
+ *
+ * <p>Level 0 has one bucket per tick; each higher level has buckets as wide as a full turn of the level below.
+ * An id is filed in the lowest level whose turn reaches its deadline, and a higher-level bucket is re-filed into
+ * the levels below when the wheel reaches it. Scheduling is O(1), a tick touches a single bucket at each level
+ * whose turn it completes, and each id is moved at most once per level, however many ids are outstanding.
+ * Deadlines beyond the top level's turn wait in its last bucket and are re-filed once per turn.
+ *
+ * <p>Ids cannot be removed; callers treat a fired id as a hint and check its state. Not thread-safe.
+ */
+public final class TimingWheel {
+
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int WHEEL_SIZE = 1 << BITS_PER_LEVEL;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long tickMillis;
+    private final Bucket[][] levels;
+    // Ids whose deadline had already passed when they were scheduled
+    private final Bucket due = new Bucket();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || levelCount <= 0 || levelCount * BITS_PER_LEVEL >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("Tick must be positive and levels between 1 and 10");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = new Bucket[levelCount][WHEEL_SIZE];
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Files the id to fire on the first {@link #advance(long)} at or after the deadline, rounded up to a tick.
+     */
+    public void schedule(long id, long deadlineMillis) {
+        file(id, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        size++;
+    }
+
+    /**
+     * Moves the wheel to the given time and returns the ids whose deadline it passed, in no particular order.
+     */
+    public List<Long> advance(long nowMillis) {
+        List<Long> fired = new ArrayList<>();
+        due.drainTo(fired);
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Top-down, so ids cascading from a higher level can still land in a lower bucket of this tick
+            for (int level = levels.length - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS_PER_LEVEL * level)) - 1)) == 0) {
+                    Bucket bucket = levels[level][(int) (currentTick >>> (BITS_PER_LEVEL * level)) & MASK];
+                    bucket.refile(this);
+                }
+            }
+            levels[0][(int) currentTick & MASK].drainTo(fired);
+            due.drainTo(fired);
+        }
+        size -= fired.size();
+        return fired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void file(long id, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(id, deadlineTick);
+            return;
+        }
+        for (int level = 0; level < levels.length; level++) {
+            int shift = BITS_PER_LEVEL * level;
+            if (delta < 1L << (shift + BITS_PER_LEVEL)) {
+                levels[level][(int) (deadlineTick >>> shift) & MASK].add(id, deadlineTick);
+                return;
+            }
+        }
+        // Past the top level's turn: park in the bucket the wheel reaches last and file again from there
+        int top = levels.length - 1;
+        levels[top][(int) ((currentTick >>> (BITS_PER_LEVEL * top)) + MASK) & MASK].add(id, deadlineTick);
+    }
+
+    // Parallel primitive arrays, so 100k outstanding ids are two long arrays rather than 100k objects
+    private static final class Bucket {
+        private long[] ids = new long[0];
+        private long[] deadlineTicks = new long[0];
+        private int count;
+
+        void add(long id, long deadlineTick) {
+            if (count == ids.length) {
+                int capacity = Math.max(4, count * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                deadlineTicks = Arrays.copyOf(deadlineTicks, capacity);
+            }
+            ids[count] = id;
+            deadlineTicks[count] = deadlineTick;
+            count++;
+        }
+
+        void drainTo(List<Long> fired) {
+            for (int i = 0; i < count; i++) {
+                fired.add(ids[i]);
+            }
+            clear();
+        }
+
+        void refile(TimingWheel wheel) {
+            if (count == 0) {
+                return;
+            }
+            long[] refiledIds = ids;
+            long[] refiledDeadlines = deadlineTicks;
+            int refiledCount = count;
+            ids = new long[0];
+            deadlineTicks = new long[0];
+            count = 0;
+            for (int i = 0; i < refiledCount; i++) {
+                wheel.file(refiledIds[i], refiledDeadlines[i]);
+            }
+        }
+
+        private void clear() {
+            count = 0;
+            // Let a bucket that once held a burst shrink back
+            if (ids.length > 1024) {
+                ids = new long[0];
+                deadlineTicks = new long[0];
+            }
+        }
+    }
+}
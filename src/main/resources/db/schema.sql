@@ -1,10 +1,55 @@
 -- Additional indexes for performance optimization
 CREATE INDEX IF NOT EXISTS idx_lesson_availability_date ON lesson_availabilities (start_time, end_time);
-CREATE INDEX IF NOT EXISTS idx_lesson_availability_status ON lesson_availabilities (is_available);
+-- is_available alone is too unselective to be worth an index; it leads the status + start time index below
+DROP INDEX IF EXISTS idx_lesson_availability_status;
 CREATE INDEX IF NOT EXISTS idx_place_name ON places (name);
 CREATE INDEX IF NOT EXISTS idx_school_name ON schools (name);
 CREATE INDEX IF NOT EXISTS idx_teacher_name ON teachers (name);
 
+-- Composite indexes for the lesson listing filters: equality columns first, then (start_time, id) so the
+-- time window and the keyset page order are served from the same index. H2 has no partial indexes, so the
+-- available-only shape is covered by putting is_available right after the owner column.
+CREATE INDEX IF NOT EXISTS idx_lesson_place_status_start ON lesson_availabilities (place_id, is_available, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_school_status_start ON lesson_availabilities (school_id, is_available, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_teacher_status_start ON lesson_availabilities (teacher_id, is_available, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_place_start ON lesson_availabilities (place_id, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_school_start ON lesson_availabilities (school_id, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_teacher_start ON lesson_availabilities (teacher_id, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_student_start ON lesson_availabilities (student_id, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_lesson_status_start ON lesson_availabilities (is_available, start_time, id);
+
+-- Place coordinates and denormalized available-lesson counters (created by Hibernate when ddl-auto is enabled)
+ALTER TABLE IF EXISTS places ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE IF EXISTS places ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+ALTER TABLE IF EXISTS schools ADD COLUMN IF NOT EXISTS available_lessons INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE IF EXISTS teachers ADD COLUMN IF NOT EXISTS available_lessons INTEGER DEFAULT 0 NOT NULL;
+
+-- Serves the bounding-box prefilter of nearby-place searches while the in-memory grid is cold
+CREATE INDEX IF NOT EXISTS idx_place_lat_lon ON places (latitude, longitude);
+
+-- Open lesson slots per place and start hour, kept current by the lesson service; the primary key serves
+-- calendar range reads (created by Hibernate when ddl-auto is enabled)
+CREATE TABLE IF NOT EXISTS place_hourly_availability (
+    place_id BIGINT NOT NULL,
+    slot_date DATE NOT NULL,
+    slot_hour INTEGER NOT NULL,
+    open_slots INTEGER NOT NULL,
+    PRIMARY KEY (place_id, slot_date, slot_hour)
+);
+
+-- Recurring availability is looked up by owner and overlapping date range; the exceptions table is keyed by
+-- rule_id through its foreign key (tables created by Hibernate when ddl-auto is enabled)
+CREATE INDEX IF NOT EXISTS idx_rule_place_valid ON availability_rules (place_id, valid_from, valid_until);
+CREATE INDEX IF NOT EXISTS idx_rule_school_valid ON availability_rules (school_id, valid_from, valid_until);
+CREATE INDEX IF NOT EXISTS idx_rule_teacher_valid ON availability_rules (teacher_id, valid_from, valid_until);
+
+-- Expired idempotency keys are purged by creation time (table created by Hibernate when ddl-auto is enabled)
+CREATE INDEX IF NOT EXISTS idx_idempotency_created ON idempotency_keys (created_at);
+
+-- The outbox is drained in id order, holding back the later events of a lesson whose delivery is retried
+-- (table created by Hibernate when ddl-auto is enabled)
+CREATE INDEX IF NOT EXISTS idx_outbox_availability ON outbox_events (availability_id, id);
+
 -- Additional constraints if needed
 ALTER TABLE IF EXISTS lesson_availabilities ADD CONSTRAINT IF NOT EXISTS check_dates 
     CHECK (end_time > start_time);
@@ -13,4 +58,5 @@ ALTER TABLE IF EXISTS lesson_availabilities ADD CONSTRAINT IF NOT EXISTS check_d
 COMMENT ON TABLE lesson_availabilities IS 'Stores available time slots for ski lessons';
 COMMENT ON TABLE places IS 'Ski resorts and locations where lessons are offered';
 COMMENT ON TABLE schools IS 'Ski schools that offer lessons';
-COMMENT ON TABLE teachers IS 'Ski instructors who teach lessons'; 
\ No newline at end of file
+COMMENT ON TABLE teachers IS 'Ski instructors who teach lessons';
+COMMENT ON TABLE place_hourly_availability IS 'Open lesson slots per place, day and start hour'; 
\ No newline at end of file
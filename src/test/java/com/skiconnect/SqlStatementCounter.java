@@ -0,0 +1,31 @@
+package com.skiconnect;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the JDBC statements Hibernate prepares between {@link #start()} and {@link #stop()}.
+ * Used by tests that pin the number of SQL round-trips of an endpoint.
+ */
+public class SqlStatementCounter {
+
+    private final Statistics statistics;
+    private boolean wasEnabled;
+
+    public SqlStatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public void start() {
+        wasEnabled = statistics.isStatisticsEnabled();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    public long stop() {
+        long count = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(wasEnabled);
+        return count;
+    }
+}
@@ -0,0 +1,142 @@
+package com.skiconnect;
+
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.PlaceRepository;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import com.skiconnect.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the places, schools, teachers and users integration tests start from.
+ *
+ * <p>Tests running in a rolled-back test transaction leave nothing behind, so only fixtures saved outside a
+ * transaction are remembered. Tests that have to commit, because what they check happens after commit or on other
+ * threads, call {@link #deleteAll()} after each test: it removes everything remembered and every lesson, rule and
+ * rollup row at the remembered places.
+ */
+@Component
+public class TestFixtures {
+
+    private final PlaceRepository placeRepository;
+    private final SchoolRepository schoolRepository;
+    private final TeacherRepository teacherRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<Long> placeIds = new ArrayList<>();
+    private final List<Long> schoolIds = new ArrayList<>();
+    private final List<Long> teacherIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+
+    public TestFixtures(PlaceRepository placeRepository, SchoolRepository schoolRepository,
+                        TeacherRepository teacherRepository, UserRepository userRepository, JdbcTemplate jdbcTemplate) {
+        this.placeRepository = placeRepository;
+        this.schoolRepository = schoolRepository;
+        this.teacherRepository = teacherRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A user with the given display name; the username and email are derived from it.
+     */
+    public synchronized User user(String name) {
+        String slug = name.toLowerCase().replace(' ', '-');
+        User user = new User();
+        user.setUsername(slug);
+        user.setName(name);
+        user.setPassword("password");
+        user.setEmail(slug + "@example.com");
+        user = userRepository.save(user);
+        remember(userIds, user.getId());
+        return user;
+    }
+
+    public synchronized Place place(String name, String location) {
+        Place place = new Place();
+        place.setName(name);
+        place.setLocation(location);
+        place = placeRepository.save(place);
+        remember(placeIds, place.getId());
+        return place;
+    }
+
+    /**
+     * A school run by a new user of the same name.
+     */
+    public School school(Place place, String name) {
+        return school(place, name, user(name));
+    }
+
+    public synchronized School school(Place place, String name, User user) {
+        School school = new School();
+        school.setName(name);
+        school.setPlace(place);
+        school.setUser(user);
+        school = schoolRepository.save(school);
+        remember(schoolIds, school.getId());
+        return school;
+    }
+
+    /**
+     * A teacher of the school, signed in as a new user of the same name.
+     */
+    public Teacher teacher(School school, String name) {
+        return teacher(school, name, user(name));
+    }
+
+    public synchronized Teacher teacher(School school, String name, User user) {
+        Teacher teacher = new Teacher();
+        teacher.setName(name);
+        teacher.setSchool(school);
+        teacher.setUser(user);
+        teacher = teacherRepository.save(teacher);
+        remember(teacherIds, teacher.getId());
+        return teacher;
+    }
+
+    /**
+     * Deletes the committed fixtures, children first, and forgets them.
+     */
+    public synchronized void deleteAll() {
+        for (Long placeId : placeIds) {
+            String lessons = "SELECT id FROM lesson_availabilities WHERE place_id = ?";
+            String rules = "SELECT id FROM availability_rules WHERE place_id = ?";
+            jdbcTemplate.update("DELETE FROM waitlist_entries WHERE availability_id IN (" + lessons + ")", placeId);
+            jdbcTemplate.update("DELETE FROM slot_waitlists WHERE availability_id IN (" + lessons + ")", placeId);
+            jdbcTemplate.update("DELETE FROM lesson_availabilities WHERE place_id = ?", placeId);
+            jdbcTemplate.update("DELETE FROM availability_rule_exceptions WHERE rule_id IN (" + rules + ")", placeId);
+            jdbcTemplate.update("DELETE FROM availability_rules WHERE place_id = ?", placeId);
+            jdbcTemplate.update("DELETE FROM place_hourly_availability WHERE place_id = ?", placeId);
+            // Schools and teachers created through the services land here too
+            jdbcTemplate.update("DELETE FROM teachers WHERE school_id IN (SELECT id FROM schools WHERE place_id = ?)", placeId);
+            jdbcTemplate.update("DELETE FROM schools WHERE place_id = ?", placeId);
+        }
+        teacherIds.forEach(id -> jdbcTemplate.update("DELETE FROM teachers WHERE id = ?", id));
+        schoolIds.forEach(id -> jdbcTemplate.update("DELETE FROM schools WHERE id = ?", id));
+        placeIds.forEach(id -> jdbcTemplate.update("DELETE FROM places WHERE id = ?", id));
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        placeIds.clear();
+        schoolIds.clear();
+        teacherIds.clear();
+        userIds.clear();
+    }
+
+    private static void remember(List<Long> ids, Long id) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            ids.add(id);
+        }
+    }
+}
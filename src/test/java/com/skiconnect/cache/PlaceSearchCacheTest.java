@@ -0,0 +1,169 @@
+package com.skiconnect.cache;
+
+import com.skiconnect.SqlStatementCounter;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.service.LessonAvailabilityService;
+import com.skiconnect.service.TeacherSchoolService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@RecordApplicationEvents
+@WithMockUser(authorities = "ROLE_STUDENT")
+public class PlaceSearchCacheTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private PlaceSearchCache placeSearchCache;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private TeacherSchoolService teacherSchoolService;
+
+    private Place alpha;
+    private Place beta;
+    private Teacher alphaTeacher;
+    private School betaSchool;
+
+    @BeforeEach
+    void setUp() {
+        placeSearchCache.invalidateAll();
+
+        alpha = fixtures.place("Cache Alpha", "Cache Valley");
+        beta = fixtures.place("Cache Beta", "Cache Valley");
+        alphaTeacher = fixtures.teacher(fixtures.school(alpha, "Cache Alpha School"), "Cache Alpha Teacher");
+        betaSchool = fixtures.school(beta, "Cache Beta School");
+        fixtures.teacher(betaSchool, "Cache Beta Teacher");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testRepeatedSearchesAreServedFromTheCache() throws Exception {
+        long hits = placeSearchCache.stats().hitCount();
+        long misses = placeSearchCache.stats().missCount();
+
+        assertEquals(2, countStatements(alpha, null));
+        assertEquals(0, countStatements(alpha, null));
+        assertEquals(0, countStatements(alpha, null));
+        // Each result type is cached on its own
+        assertEquals(1, countStatements(alpha, "schools"));
+
+        assertEquals(hits + 2, placeSearchCache.stats().hitCount());
+        assertEquals(misses + 2, placeSearchCache.stats().missCount());
+    }
+
+    @Test
+    void testLessonChangesInvalidateOnlyTheirPlace() throws Exception {
+        search(alpha, null).andExpect(jsonPath("$.teachers[0].availableLessons").value(0));
+        search(beta, null);
+
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        lessonAvailabilityService.createAvailability(alphaTeacher.getId(), alphaTeacher.getSchool().getId(),
+                alpha.getId(), start, start.plusHours(1));
+        commitEvents();
+
+        search(alpha, null)
+                .andExpect(jsonPath("$.schools[0].availableLessons").value(1))
+                .andExpect(jsonPath("$.teachers[0].availableLessons").value(1));
+        assertEquals(0, countStatements(beta, null));
+    }
+
+    @Test
+    void testMovingATeacherInvalidatesBothPlaces() throws Exception {
+        search(alpha, "teachers").andExpect(jsonPath("$.totalTeachers").value(1));
+        search(beta, "teachers").andExpect(jsonPath("$.totalTeachers").value(1));
+
+        teacherSchoolService.assignTeacherToSchool(alphaTeacher.getId(), betaSchool.getId());
+        assertEquals(Set.of(alpha.getId(), beta.getId()),
+                events.stream(PlaceSearchDataChangedEvent.class).findFirst().orElseThrow().getPlaceIds());
+        commitEvents();
+
+        search(alpha, "teachers").andExpect(jsonPath("$.totalTeachers").value(0));
+        search(beta, "teachers").andExpect(jsonPath("$.totalTeachers").value(2));
+    }
+
+    @Test
+    void testUnknownTypesBypassTheCache() throws Exception {
+        long size = placeSearchCache.size();
+
+        search(alpha, "lifts").andExpect(jsonPath("$.schools").doesNotExist());
+
+        assertEquals(size, placeSearchCache.size());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void testStatsAreExposedToAdmins() throws Exception {
+        search(alpha, null);
+        search(alpha, null);
+
+        mockMvc.perform(get("/api/v1/search/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.hitRate").isNumber())
+                .andExpect(jsonPath("$.missRate").isNumber());
+    }
+
+    // After-commit listeners do not run inside the test transaction, so hand the published events over directly
+    private void commitEvents() {
+        entityManager.flush();
+        entityManager.clear();
+        events.stream(PlaceSearchDataChangedEvent.class).forEach(placeSearchCache::onPlaceSearchDataChanged);
+    }
+
+    private long countStatements(Place place, String type) throws Exception {
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+        counter.start();
+        search(place, type);
+        return counter.stop();
+    }
+
+    private ResultActions search(Place place, String type) throws Exception {
+        return mockMvc.perform(type == null
+                        ? get("/api/v1/search").param("placeId", place.getId().toString())
+                        : get("/api/v1/search").param("placeId", place.getId().toString()).param("type", type))
+                .andExpect(status().isOk());
+    }
+}
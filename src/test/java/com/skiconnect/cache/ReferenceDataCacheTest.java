@@ -0,0 +1,200 @@
+package com.skiconnect.cache;
+
+import com.skiconnect.SqlStatementCounter;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.PlaceRepository;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import com.skiconnect.service.LessonAvailabilityService;
+import com.skiconnect.service.TeacherSchoolService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Hibernate never caches rows inserted by the reading transaction, and evictions
+// after commit must really run
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = "ROLE_ADMIN")
+public class ReferenceDataCacheTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private TeacherSchoolService teacherSchoolService;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    private Cache cache;
+    private boolean statisticsEnabled;
+    private Place place;
+    private School firstSchool;
+    private School secondSchool;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        cache = entityManagerFactory.getCache();
+        cache.evictAll();
+        statisticsEnabled = referenceDataCache.statistics().isStatisticsEnabled();
+        referenceDataCache.statistics().setStatisticsEnabled(true);
+
+        place = fixtures.place("Cache Resort", "Cache Valley");
+        firstSchool = fixtures.school(place, "First Cache School");
+        secondSchool = fixtures.school(place, "Second Cache School");
+        teacher = fixtures.teacher(firstSchool, "Cache Teacher");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        cache.evictAll();
+        referenceDataCache.statistics().setStatisticsEnabled(statisticsEnabled);
+    }
+
+    @Test
+    void testSecondLookupIsServedWithoutSql() {
+        placeRepository.findById(place.getId()).orElseThrow();
+        schoolRepository.findById(firstSchool.getId()).orElseThrow();
+        teacherRepository.findById(teacher.getId()).orElseThrow();
+
+        assertTrue(cache.contains(Place.class, place.getId()));
+        assertTrue(cache.contains(School.class, firstSchool.getId()));
+        assertTrue(cache.contains(Teacher.class, teacher.getId()));
+
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+        counter.start();
+        assertEquals("Cache Resort", placeRepository.findById(place.getId()).orElseThrow().getName());
+        assertEquals("First Cache School", schoolRepository.findById(firstSchool.getId()).orElseThrow().getName());
+        assertEquals("Cache Teacher", teacherRepository.findById(teacher.getId()).orElseThrow().getName());
+        assertEquals(0, counter.stop());
+    }
+
+    @Test
+    void testCounterUpdatesEvictOnlyTheAffectedEntries() {
+        schoolRepository.findById(firstSchool.getId()).orElseThrow();
+        schoolRepository.findById(secondSchool.getId()).orElseThrow();
+        teacherRepository.findById(teacher.getId()).orElseThrow();
+
+        // The writing transaction reads its own counter change
+        int counterInTransaction = transactionTemplate.execute(status -> {
+            lessonAvailabilityService.createAvailability(teacher.getId(), firstSchool.getId(), place.getId(),
+                    LocalDateTime.of(2025, 2, 1, 9, 0), LocalDateTime.of(2025, 2, 1, 10, 0));
+            entityManager.clear();
+            return schoolRepository.findById(firstSchool.getId()).orElseThrow().getAvailableLessons();
+        });
+        assertEquals(1, counterInTransaction);
+
+        // The after-commit eviction drops the row the transaction itself cached before committing
+        assertFalse(cache.contains(School.class, firstSchool.getId()));
+        assertFalse(cache.contains(Teacher.class, teacher.getId()));
+        assertTrue(cache.contains(School.class, secondSchool.getId()));
+        assertEquals(1, schoolRepository.findById(firstSchool.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(1, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+    }
+
+    @Test
+    void testReassignmentRefreshesBothSchoolsTeacherCollections() {
+        assertEquals(List.of("Cache Teacher"), teacherNames(firstSchool.getId()));
+        assertEquals(List.of(), teacherNames(secondSchool.getId()));
+
+        teacherSchoolService.assignTeacherToSchool(teacher.getId(), secondSchool.getId());
+
+        assertEquals(List.of(), teacherNames(firstSchool.getId()));
+        assertEquals(List.of("Cache Teacher"), teacherNames(secondSchool.getId()));
+        assertEquals(secondSchool.getId(), teacherSchoolService.getTeacherSchool(teacher.getId()).getId());
+    }
+
+    @Test
+    void testQueryCacheIsInvalidatedByReassignment() {
+        long hits = referenceDataCache.statistics().getQueryCacheHitCount();
+        assertEquals(1, teacherRepository.findBySchoolId(firstSchool.getId()).size());
+        assertEquals(1, teacherRepository.findBySchoolId(firstSchool.getId()).size());
+        assertEquals(hits + 1, referenceDataCache.statistics().getQueryCacheHitCount());
+
+        teacherSchoolService.assignTeacherToSchool(teacher.getId(), secondSchool.getId());
+
+        assertEquals(0, teacherRepository.findBySchoolId(firstSchool.getId()).size());
+        assertEquals(1, teacherRepository.findBySchoolId(secondSchool.getId()).size());
+    }
+
+    @Test
+    void testStatisticsEndpointReportsRegions() throws Exception {
+        placeRepository.findById(place.getId()).orElseThrow();
+        placeRepository.findById(place.getId()).orElseThrow();
+
+        mockMvc.perform(get("/api/v1/places/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitCount").isNumber())
+                .andExpect(jsonPath("$.hitRatio").isNumber())
+                .andExpect(jsonPath("$.regions[*].name", hasItem(Place.class.getName())));
+    }
+
+    @Test
+    void testStatisticsEndpointReportsDisabledStatistics() throws Exception {
+        referenceDataCache.statistics().setStatisticsEnabled(false);
+
+        mockMvc.perform(get("/api/v1/places/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("disabled"))
+                .andExpect(jsonPath("$.hitCount").doesNotExist())
+                .andExpect(jsonPath("$.regions").doesNotExist());
+    }
+
+    private List<String> teacherNames(Long schoolId) {
+        return transactionTemplate.execute(status -> schoolRepository.findById(schoolId).orElseThrow()
+                .getTeachers().stream()
+                .map(Teacher::getName)
+                .collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,153 @@
+package com.skiconnect.controller;
+
+import com.skiconnect.SqlStatementCounter;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.cache.ResourceVersions;
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.event.PlaceSearchDataChangedEvent;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.service.LessonAvailabilityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@RecordApplicationEvents
+@WithMockUser(authorities = "ROLE_STUDENT")
+public class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    private Place place;
+    private Place otherPlace;
+    private School school;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("ETag Resort", "ETag Valley");
+        otherPlace = fixtures.place("Other ETag Resort", "ETag Valley");
+        school = fixtures.school(place, "ETag School");
+        teacher = fixtures.teacher(school, "ETag Teacher");
+
+        createLesson(place, 9);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testLessonRevalidationHitRunsNoSql() throws Exception {
+        MockHttpServletRequestBuilder lessons = get("/api/v1/lessons").param("placeId", place.getId().toString());
+        String eTag = getETag(lessons);
+
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+        counter.start();
+        mockMvc.perform(get("/api/v1/lessons").param("placeId", place.getId().toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertEquals(0, counter.stop());
+    }
+
+    @Test
+    void testLessonTagsChangeOnlyWithTheirPlaceOrSchool() throws Exception {
+        String placeTag = getETag(get("/api/v1/lessons").param("placeId", place.getId().toString()));
+        String schoolTag = getETag(get("/api/v1/lessons").param("schoolId", school.getId().toString()));
+        String otherTag = getETag(get("/api/v1/lessons").param("placeId", otherPlace.getId().toString()));
+
+        createLesson(place, 11);
+        commitEvents();
+
+        assertNotEquals(placeTag, getETag(get("/api/v1/lessons").param("placeId", place.getId().toString())));
+        assertNotEquals(schoolTag, getETag(get("/api/v1/lessons").param("schoolId", school.getId().toString())));
+        mockMvc.perform(get("/api/v1/lessons").param("placeId", otherPlace.getId().toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, otherTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testSearchRevalidationHitRunsNoSqlUntilThePlaceChanges() throws Exception {
+        String eTag = getETag(search());
+
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+        counter.start();
+        mockMvc.perform(search().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, counter.stop());
+
+        createLesson(place, 13);
+        commitEvents();
+
+        mockMvc.perform(search().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+
+    // After-commit listeners do not run inside the test transaction, so hand the published events over directly
+    private void commitEvents() {
+        entityManager.flush();
+        entityManager.clear();
+        events.stream(LessonAvailabilityChangedEvent.class).forEach(resourceVersions::onLessonAvailabilityChanged);
+        events.stream(PlaceSearchDataChangedEvent.class).forEach(resourceVersions::onPlaceSearchDataChanged);
+    }
+
+    private MockHttpServletRequestBuilder search() {
+        return get("/api/v1/search").param("placeId", place.getId().toString());
+    }
+
+    private String getETag(MockHttpServletRequestBuilder request) throws Exception {
+        String eTag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    private void createLesson(Place lessonPlace, int hour) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, hour, 0);
+        lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), lessonPlace.getId(),
+                start, start.plusHours(1));
+    }
+}
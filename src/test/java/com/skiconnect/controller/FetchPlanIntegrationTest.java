@@ -0,0 +1,195 @@
+package com.skiconnect.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skiconnect.SqlStatementCounter;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.cache.PlaceSearchCache;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.security.LoginRequest;
+import com.skiconnect.service.LessonAvailabilityService;
+import com.skiconnect.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each endpoint issues against a cleared persistence context, so an
+ * association that turns eager again or a lookup that loses its fetch plan shows up as a failing count.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(authorities = {"ROLE_STUDENT", "ROLE_ADMIN"})
+public class FetchPlanIntegrationTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlaceSearchCache placeSearchCache;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private LessonAvailabilityRepository lessonAvailabilityRepository;
+
+    private Place place;
+    private User student;
+    private LessonAvailability lesson;
+    private final List<Long> lessonIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Fetch Plan Resort", "Fetch Plan Valley");
+        School school = fixtures.school(place, "Fetch Plan School");
+        Teacher teacher = fixtures.teacher(school, "Fetch Plan Teacher");
+        student = fixtures.user("fetchplanstudent");
+
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 9, 0);
+        for (int i = 0; i < 5; i++) {
+            LessonAvailability created = lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(),
+                    place.getId(), start.plusHours(i), start.plusHours(i).plusMinutes(45));
+            lessonIds.add(created.getId());
+            if (i == 0) {
+                lesson = created;
+            }
+        }
+        placeSearchCache.invalidateAll();
+    }
+
+    @Test
+    void testLessonListingReadsRowsAndRulesInTwoStatements() throws Exception {
+        // Without matching rules no slot starts are read for them
+        assertStatements(2, get("/api/v1/lessons").param("placeId", place.getId().toString()),
+                jsonPath("$.lessons.length()").value(5));
+    }
+
+    @Test
+    void testPlaceSearchIsOneStatementPerSection() throws Exception {
+        assertStatements(2, get("/api/v1/search").param("placeId", place.getId().toString()),
+                jsonPath("$.schools[0].name").value("Fetch Plan School"));
+    }
+
+    @Test
+    void testAvailabilityCalendarIsRollupsPlusRules() throws Exception {
+        // The hourly rollups, then the recurring rules whose slots are added to them
+        assertStatements(2, get("/api/v1/places/" + place.getId() + "/availability")
+                        .param("from", "2025-02-01").param("to", "2025-02-07"),
+                jsonPath("$.dailyOpenSlots[0]").value(5));
+    }
+
+    @Test
+    void testBookingLoadsLessonWithItsSchoolAndTeacherInOneStatement() throws Exception {
+        // Student, the conditional lesson update, lesson with school and teacher and the three counter updates
+        assertStatements(6, post("/api/v1/lessons/" + lesson.getId() + "/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":" + student.getId() + "}"),
+                jsonPath("$.studentId").value(student.getId()));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_STUDENT_GROUP")
+    void testGroupBookingCostsTheSameStatementsAsOneBooking() throws Exception {
+        // Student, the conditional update of all lessons, their owners, the rollups and the two counter updates
+        assertStatements(6, post("/api/v1/lessons/book")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":" + student.getId() + ",\"lessonIds\":" + lessonIds + "}"),
+                jsonPath("$.lessons.length()").value(5));
+    }
+
+    @Test
+    void testLoginLoadsUserWithRolesInOneStatement() throws Exception {
+        userService.createUser("fetchplanlogin", "Fetch Plan Login", "password123", "fetchplanlogin@example.com",
+                Set.of("ROLE_STUDENT"));
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("fetchplanlogin");
+        loginRequest.setPassword("password123");
+
+        assertStatements(1, post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)),
+                jsonPath("$.roles[0]").value("ROLE_STUDENT"));
+    }
+
+    @Test
+    void testAssignRoleReturnsInitializedRoles() throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+
+        User user = userService.assignRole(student.getId(), "ROLE_STUDENT_GROUP");
+
+        assertTrue(Hibernate.isInitialized(user.getRoles()));
+        assertEquals(Set.of("ROLE_STUDENT_GROUP"), user.getRoles());
+    }
+
+    @Test
+    void testLessonAssociationsStayUninitialized() {
+        entityManager.flush();
+        entityManager.clear();
+
+        LessonAvailability loaded = lessonAvailabilityRepository.findById(lesson.getId()).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(loaded.getSchool()));
+        assertFalse(Hibernate.isInitialized(loaded.getTeacher()));
+        assertFalse(Hibernate.isInitialized(loaded.getPlace()));
+    }
+
+    private void assertStatements(long expected, RequestBuilder request, ResultMatcher body) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+
+        counter.start();
+        mockMvc.perform(request).andExpect(status().isOk()).andExpect(body);
+        // The test transaction defers the writes; flush them so they are counted too
+        entityManager.flush();
+        long statements = counter.stop();
+
+        assertEquals(expected, statements);
+    }
+}
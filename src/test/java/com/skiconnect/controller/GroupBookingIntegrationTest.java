@@ -0,0 +1,146 @@
+package com.skiconnect.controller;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import com.skiconnect.service.LessonAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A failed group booking must roll back its own transaction, which a test transaction would hide
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = "ROLE_STUDENT_GROUP")
+public class GroupBookingIntegrationTest {
+
+    private static final LocalDateTime COURSE_START = LocalDateTime.of(2025, 2, 3, 9, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private final List<Long> lessonIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Group Resort", "Group Valley");
+        school = fixtures.school(place, "Group School");
+        teacher = fixtures.teacher(school, "Group Teacher");
+
+        // A week-long course: six lessons a day for five days
+        for (int day = 0; day < 5; day++) {
+            for (int hour = 0; hour < 6; hour++) {
+                LocalDateTime start = COURSE_START.plusDays(day).plusHours(hour);
+                lessonIds.add(lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(),
+                        place.getId(), start, start.plusHours(1)).getId());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testGroupBooksTheWholeCourse() throws Exception {
+        User group = fixtures.user("groupclass");
+
+        mockMvc.perform(groupBooking(group, lessonIds))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lessons.length()").value(30))
+                .andExpect(jsonPath("$.lessons[0].id").value(lessonIds.get(0)))
+                .andExpect(jsonPath("$.lessons[29].status").value("booked"))
+                .andExpect(jsonPath("$.lessons[29].studentId").value(group.getId()));
+
+        assertEquals(30, bookedBy(group));
+        assertEquals(0, schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(0, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT SUM(open_slots) FROM place_hourly_availability WHERE place_id = ?", Integer.class, place.getId()));
+    }
+
+    @Test
+    void testOneTakenLessonBooksNothing() throws Exception {
+        lessonAvailabilityService.bookLesson(lessonIds.get(17), fixtures.user("earlybird").getId());
+        User group = fixtures.user("lateclass");
+
+        mockMvc.perform(groupBooking(group, lessonIds))
+                .andExpect(status().isConflict());
+
+        assertEquals(0, bookedBy(group));
+        assertEquals(29, schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(29, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(29, jdbcTemplate.queryForObject(
+                "SELECT SUM(open_slots) FROM place_hourly_availability WHERE place_id = ?", Integer.class, place.getId()));
+    }
+
+    @Test
+    void testUnknownLessonBooksNothing() throws Exception {
+        User group = fixtures.user("lostclass");
+        List<Long> ids = new ArrayList<>(lessonIds.subList(0, 3));
+        ids.add(-1L);
+
+        mockMvc.perform(groupBooking(group, ids))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(groupBooking(group, List.of()))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, bookedBy(group));
+    }
+
+    private MockHttpServletRequestBuilder groupBooking(User group, List<Long> ids) {
+        return post("/api/v1/lessons/book")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"studentId\":" + group.getId() + ",\"lessonIds\":" + ids + "}");
+    }
+
+    private int bookedBy(User student) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lesson_availabilities WHERE student_id = ?",
+                Integer.class, student.getId());
+    }
+}
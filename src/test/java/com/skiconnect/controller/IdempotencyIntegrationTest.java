@@ -0,0 +1,230 @@
+package com.skiconnect.controller;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.service.IdempotentRequests;
+import com.skiconnect.service.LessonAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The stored response commits with the booking, and the duplicates run on their own threads
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IdempotencyIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 29, 10, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private LessonAvailability lesson;
+    private final List<String> keys = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Retry Resort", "Retry Valley");
+        school = fixtures.school(place, "Retry School");
+        teacher = fixtures.teacher(school, "Retry Teacher");
+
+        lesson = lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), place.getId(),
+                START, START.plusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keys.forEach(key -> jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idempotency_key = ?", key));
+        fixtures.deleteAll();
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testRetriedBookingGetsTheFirstResponse() throws Exception {
+        User student = fixtures.user("retrystudent");
+        String key = newKey();
+
+        mockMvc.perform(booking(student, key))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotentRequests.REPLAYED_HEADER))
+                .andExpect(jsonPath("$.studentId").value(student.getId()));
+        // Without the key the retry would find the lesson taken
+        mockMvc.perform(booking(student, key))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotentRequests.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(lesson.getId()))
+                .andExpect(jsonPath("$.status").value("booked"))
+                .andExpect(jsonPath("$.studentId").value(student.getId()));
+        mockMvc.perform(booking(student, null)).andExpect(status().isConflict());
+
+        // The response is stored with the booking; the key cannot be reused for another request
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key = ?", Integer.class, key));
+        mockMvc.perform(booking(fixtures.user("otherretrystudent"), key)).andExpect(status().isBadRequest());
+        mockMvc.perform(booking(student, "x".repeat(256))).andExpect(status().isBadRequest());
+        assertEquals(0, availableLessons());
+    }
+
+    @Test
+    void testRetriedCreationStoresOneLesson() throws Exception {
+        String key = newKey();
+        String body = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + school.getId() + ",\"placeId\":" + place.getId()
+                + ",\"date\":\"2025-12-29T12:00:00\",\"durationMinutes\":60}";
+
+        String first = mockMvc.perform(creation(body, key))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String retried = mockMvc.perform(creation(body, key))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotentRequests.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retried);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lesson_availabilities WHERE place_id = ?", Integer.class, place.getId()));
+        assertEquals(2, availableLessons());
+    }
+
+    @Test
+    void testKeysAreScopedToTheCaller() throws Exception {
+        User student = fixtures.user("retrystudent");
+        User other = fixtures.user("otherretrystudent");
+        String key = newKey();
+
+        mockMvc.perform(booking(student, key)).andExpect(status().isOk());
+        // Another caller's identical request runs on its own and finds the lesson taken, never the first response
+        mockMvc.perform(booking("otherretrystudent", student, key))
+                .andExpect(status().isConflict())
+                .andExpect(header().doesNotExist(IdempotentRequests.REPLAYED_HEADER));
+        mockMvc.perform(booking("otherretrystudent", other, key)).andExpect(status().isConflict());
+
+        // Each caller stores its own response under the shared key
+        String body = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + school.getId() + ",\"placeId\":" + place.getId()
+                + ",\"date\":\"2025-12-29T12:00:00\",\"durationMinutes\":60}";
+        mockMvc.perform(creation("retryschool", body, key)).andExpect(status().isCreated());
+        mockMvc.perform(creation("otherretryschool", body.replace("12:00", "14:00"), key))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotentRequests.REPLAYED_HEADER))
+                .andExpect(jsonPath("$.date").value("2025-12-29T14:00:00"));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key = ?", Integer.class, key));
+    }
+
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        User student = fixtures.user("impatientstudent");
+        String key = newKey();
+        int duplicates = 8;
+
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < duplicates; i++) {
+                responses.add(executor.submit(() -> {
+                    go.await();
+                    return mockMvc.perform(booking(student, key)).andReturn().getResponse();
+                }));
+            }
+            go.countDown();
+
+            // Every duplicate sees the one booking; none of them finds the lesson already taken
+            int replayed = 0;
+            for (Future<MockHttpServletResponse> response : responses) {
+                MockHttpServletResponse result = response.get(30, TimeUnit.SECONDS);
+                assertEquals(200, result.getStatus(), result.getContentAsString());
+                if (result.getHeader(IdempotentRequests.REPLAYED_HEADER) != null) {
+                    replayed++;
+                }
+            }
+            assertEquals(duplicates - 1, replayed);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(student.getId(), jdbcTemplate.queryForObject(
+                "SELECT student_id FROM lesson_availabilities WHERE id = ?", Long.class, lesson.getId()));
+        assertEquals(0, availableLessons());
+    }
+
+    private MockHttpServletRequestBuilder booking(User student, String key) {
+        return booking("retrystudent", student, key);
+    }
+
+    private MockHttpServletRequestBuilder booking(String caller, User student, String key) {
+        MockHttpServletRequestBuilder request = post("/api/v1/lessons/" + lesson.getId() + "/book")
+                .with(user(caller).authorities(() -> "ROLE_STUDENT"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"studentId\":" + student.getId() + "}");
+        return key == null ? request : request.header(LessonController.IDEMPOTENCY_KEY_HEADER, key);
+    }
+
+    private MockHttpServletRequestBuilder creation(String body, String key) {
+        return creation("retryschool", body, key);
+    }
+
+    private MockHttpServletRequestBuilder creation(String caller, String body, String key) {
+        return post("/api/v1/lessons")
+                .with(user(caller).authorities(() -> "ROLE_SKI_SCHOOL"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body)
+                .header(LessonController.IDEMPOTENCY_KEY_HEADER, key);
+    }
+
+    private String newKey() {
+        String key = UUID.randomUUID().toString();
+        keys.add(key);
+        return key;
+    }
+
+    private int availableLessons() {
+        return schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons();
+    }
+}
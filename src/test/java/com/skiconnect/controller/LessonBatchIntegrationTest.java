@@ -0,0 +1,187 @@
+package com.skiconnect.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every chunk commits on its own, and the streaming variant runs on an async thread
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = "ROLE_SKI_SCHOOL")
+public class LessonBatchIntegrationTest {
+
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2025, 12, 1, 9, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Batch Resort", "Batch Valley");
+        // The school's account also signs in as its only teacher
+        school = fixtures.school(place, "Batch School");
+        teacher = fixtures.teacher(school, "Batch Teacher", school.getUser());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testBatchReportsEveryLessonInOrder() throws Exception {
+        ObjectNode body = batch(3);
+        ((ObjectNode) body.get("lessons").get(1)).put("teacherId", -1);
+
+        mockMvc.perform(batchRequest(body).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.results[0].id").isNumber())
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].id").isEmpty())
+                .andExpect(jsonPath("$.results[1].error").value("Teacher not found with id: -1"))
+                .andExpect(jsonPath("$.results[2].error").isEmpty());
+
+        assertEquals(2, schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(2, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+    }
+
+    @Test
+    void testLargeBatchStreamsOneLinePerLesson() throws Exception {
+        int lessons = 2_500;
+        MvcResult result = mockMvc.perform(batchRequest(batch(lessons)).accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(lessons, lines.length);
+        for (int i = 0; i < lessons; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertEquals(i, line.get("index").asInt());
+            assertTrue(line.get("id").isNumber(), lines[i]);
+        }
+        assertEquals(lessons, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM lesson_availabilities WHERE place_id = ?", Integer.class, place.getId()));
+    }
+
+    @Test
+    void testLessonsOverlappingTheTeachersTimeAreRejected() throws Exception {
+        ObjectNode body = batch(3);
+        // Overlaps the first lesson of the same batch
+        ((ObjectNode) body.get("lessons").get(1)).put("date", SEASON_START.plusMinutes(15).toString());
+
+        mockMvc.perform(batchRequest(body).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].id").isEmpty())
+                .andExpect(jsonPath("$.results[1].error").value(
+                        "Teacher already has a lesson between 2025-12-01T09:15 and 2025-12-01T09:45"));
+
+        // Overlaps a lesson committed by the first batch
+        mockMvc.perform(batchRequest(batch(1)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.rejected").value(1));
+        assertEquals(2, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+    }
+
+    @Test
+    void testLessonsOverlappingTheTeachersRecurringSlotsAreRejected() throws Exception {
+        String rule = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + school.getId() + ",\"placeId\":" + place.getId()
+                + ",\"weekdays\":[\"MONDAY\"],\"dailyStart\":\"10:00:00\",\"dailyEnd\":\"12:00:00\",\"slotMinutes\":60"
+                + ",\"validFrom\":\"2025-12-01\",\"validUntil\":\"2025-12-01\"}";
+        mockMvc.perform(post("/api/v1/lessons/rules").contentType(MediaType.APPLICATION_JSON).content(rule))
+                .andExpect(status().isCreated());
+
+        // The last three lessons start at 10:00, 10:30 and 11:00, inside the rule's open slots
+        mockMvc.perform(batchRequest(batch(5)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[1].id").isNumber())
+                .andExpect(jsonPath("$.results[2].error").value(
+                        "Teacher already has a lesson between 2025-12-01T10:00 and 2025-12-01T10:30"))
+                .andExpect(jsonPath("$.results[4].id").isEmpty());
+    }
+
+    @Test
+    void testEmptyAndOversizedBatchesAreRejected() throws Exception {
+        mockMvc.perform(batchRequest(batch(0))).andExpect(status().isBadRequest());
+        mockMvc.perform(batchRequest(batch(LessonController.MAX_BATCH_SIZE + 1))).andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder batchRequest(JsonNode body) throws Exception {
+        return post("/api/v1/lessons/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
+
+    private ObjectNode batch(int count) {
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode lessons = body.putArray("lessons");
+        for (int i = 0; i < count; i++) {
+            lessons.addObject()
+                    .put("teacherId", teacher.getId())
+                    .put("schoolId", school.getId())
+                    .put("placeId", place.getId())
+                    .put("date", SEASON_START.plusMinutes(30L * i).toString())
+                    .put("durationMinutes", 30);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,452 @@
+package com.skiconnect.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.service.LessonAvailabilityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(authorities = "ROLE_STUDENT")
+public class LessonControllerIntegrationTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private Teacher otherTeacher;
+    private final List<Long> lessonIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Paging Resort", "Paging Valley");
+        school = fixtures.school(place, "Paging School");
+        teacher = fixtures.teacher(school, "Paging Teacher");
+        otherTeacher = fixtures.teacher(school, "Other Paging Teacher");
+
+        // Two lessons, one per teacher, share each start time so the id tie-breaker is exercised
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 9, 0);
+        for (int i = 0; i < 7; i++) {
+            LocalDateTime slotStart = start.plusHours(i / 2);
+            Teacher owner = i % 2 == 0 ? teacher : otherTeacher;
+            LessonAvailability availability = lessonAvailabilityService.createAvailability(
+                    owner.getId(), school.getId(), place.getId(), slotStart, slotStart.plusMinutes(45));
+            lessonIds.add(availability.getId());
+        }
+    }
+
+    @Test
+    void testCursorWalksAllLessonsInStartOrder() throws Exception {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            JsonNode page = getJson(lessons().param("size", "3").param("cursor", cursor == null ? "" : cursor));
+            page.get("lessons").forEach(lesson -> seen.add(lesson.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(lessonIds, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testTotalIsOnlyComputedOnRequest() throws Exception {
+        assertTrue(getJson(lessons().param("size", "2")).get("total").isNull());
+
+        mockMvc.perform(lessons().param("size", "2").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lessons.length()").value(2))
+                .andExpect(jsonPath("$.total").value(7));
+    }
+
+    @Test
+    void testPageSizeIsCapped() throws Exception {
+        mockMvc.perform(lessons().param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lessons.length()").value(7))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+        assertTrue(LessonController.MAX_PAGE_SIZE < 100000);
+    }
+
+    @Test
+    void testFiltersAreCombined() throws Exception {
+        User student = fixtures.user("pagingstudent");
+        for (int i : new int[] {2, 5, 6}) {
+            lessonAvailabilityService.bookLesson(lessonIds.get(i), student.getId());
+        }
+
+        JsonNode page = getJson(lessons()
+                .param("status", "booked")
+                .param("studentId", student.getId().toString())
+                .param("from", "2025-01-10T10:00:00")
+                .param("to", "2025-01-10T12:00:00")
+                .param("includeTotal", "true"));
+
+        List<Long> ids = new ArrayList<>();
+        page.get("lessons").forEach(lesson -> ids.add(lesson.get("id").asLong()));
+        assertEquals(List.of(lessonIds.get(2), lessonIds.get(5)), ids);
+        assertEquals(2, page.get("total").asLong());
+
+        mockMvc.perform(lessons().param("status", "available").param("studentId", student.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lessons.length()").value(0));
+    }
+
+    @Test
+    void testListingReadsRowsWithoutLoadingEntities() throws Exception {
+        lessonAvailabilityService.bookLesson(lessonIds.get(0), fixtures.user("rowstudent").getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean wasEnabled = statistics.isStatisticsEnabled();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            mockMvc.perform(lessons().param("size", "4"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.lessons.length()").value(4))
+                    .andExpect(jsonPath("$.lessons[0].status").value("booked"))
+                    .andExpect(jsonPath("$.lessons[0].studentId").isNumber())
+                    .andExpect(jsonPath("$.lessons[1].studentId").isEmpty());
+
+            // One statement for the rows and one for the rules whose open slots would be merged in
+            assertEquals(0, statistics.getEntityLoadCount());
+            assertEquals(2, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(wasEnabled);
+        }
+    }
+
+    @Test
+    void testTamperedCursorIsRejected() throws Exception {
+        String cursor = getJson(lessons().param("size", "3")).get("nextCursor").asText();
+        String payload = cursor.substring(0, cursor.indexOf('.'));
+        String forged = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2025-01-10T09:00|0".getBytes()) + cursor.substring(payload.length());
+
+        mockMvc.perform(lessons().param("cursor", forged)).andExpect(status().isBadRequest());
+        mockMvc.perform(lessons().param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testCursorOnlyResumesItsOwnFilters() throws Exception {
+        String cursor = getJson(lessons().param("size", "3")).get("nextCursor").asText();
+
+        mockMvc.perform(lessons().param("cursor", cursor).param("teacherId", teacher.getId().toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(lessons().param("cursor", cursor).param("status", "available"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/lessons").param("cursor", cursor)).andExpect(status().isBadRequest());
+        mockMvc.perform(lessons().param("cursor", cursor)).andExpect(status().isOk());
+    }
+
+    @Test
+    void testFreeSlotsAreEarliestFirstAcrossTheIndex() throws Exception {
+        // The fixture is not committed, so the index must read it through the test transaction
+        lessonAvailabilityIndex.rebuild();
+
+        mockMvc.perform(freeSlots(45).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots.length()").value(3))
+                .andExpect(jsonPath("$.slots[0].startTime").value("2025-01-10T09:00:00"))
+                .andExpect(jsonPath("$.slots[0].lessonIds[0]").value(lessonIds.get(0)))
+                .andExpect(jsonPath("$.slots[1].lessonIds[0]").value(lessonIds.get(1)))
+                .andExpect(jsonPath("$.slots[2].startTime").value("2025-01-10T10:00:00"));
+
+        // The lessons are 45 minutes with 15-minute gaps, so none can be joined into an hour
+        mockMvc.perform(freeSlots(60))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots.length()").value(0));
+    }
+
+    @Test
+    void testFreeSlotsRejectInvalidDurationAndWindow() throws Exception {
+        mockMvc.perform(freeSlots(0)).andExpect(status().isBadRequest());
+        mockMvc.perform(freeSlots(45).param("to", "2025-01-09T00:00:00")).andExpect(status().isBadRequest());
+        mockMvc.perform(freeSlots(45).param("to", "2026-01-10T00:00:00")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_SKI_SCHOOL")
+    void testRecurringSlotsAreOfferedUntilBooked() throws Exception {
+        lessonAvailabilityIndex.rebuild();
+        String rule = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + school.getId() + ",\"placeId\":" + place.getId()
+                + ",\"weekdays\":[\"SATURDAY\"],\"dailyStart\":\"09:00:00\",\"dailyEnd\":\"11:00:00\",\"slotMinutes\":60"
+                + ",\"validFrom\":\"2025-01-11\",\"validUntil\":\"2025-01-11\"}";
+        mockMvc.perform(post("/api/v1/lessons/rules").contentType(MediaType.APPLICATION_JSON).content(rule))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.openSlots").value(2))
+                .andExpect(jsonPath("$.weekdays[0]").value("SATURDAY"));
+
+        // Only the rule yields back-to-back hours; its slots have no rows yet
+        mockMvc.perform(freeSlots(60))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slots.length()").value(2))
+                .andExpect(jsonPath("$.slots[0].startTime").value("2025-01-11T09:00:00"))
+                .andExpect(jsonPath("$.slots[0].lessonIds.length()").value(0))
+                .andExpect(jsonPath("$.slots[0].ruleSlots[0].ruleId").isNumber())
+                .andExpect(jsonPath("$.slots[0].ruleSlots[0].startTime").value("2025-01-11T09:00:00"));
+
+        mockMvc.perform(get("/api/v1/lessons/rules").param("teacherId", teacher.getId().toString())
+                        .param("from", "2025-01-11").param("to", "2025-01-11"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rules.length()").value(1))
+                .andExpect(jsonPath("$.rules[0].openSlots").value(2));
+        mockMvc.perform(get("/api/v1/lessons/rules").param("teacherId", teacher.getId().toString()).param("from", "2025-01-12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rules.length()").value(0));
+
+        mockMvc.perform(post("/api/v1/lessons/rules").contentType(MediaType.APPLICATION_JSON)
+                        .content(rule.replace("\"slotMinutes\":60", "\"slotMinutes\":180")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBookingARecurringSlotStoresIt() throws Exception {
+        Long ruleId = lessonAvailabilityService.createRule(teacher.getId(), school.getId(), place.getId(),
+                Set.of(DayOfWeek.SATURDAY), LocalTime.of(9, 0), LocalTime.of(11, 0), 60,
+                LocalDate.of(2025, 1, 11), LocalDate.of(2025, 1, 11), null).getId();
+        String booking = "{\"studentId\":" + fixtures.user("rulestudent").getId() + ",\"startTime\":\"2025-01-11T10:00:00\"}";
+
+        mockMvc.perform(post("/api/v1/lessons/rules/" + ruleId + "/book").contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andExpect(jsonPath("$.status").value("booked"))
+                .andExpect(jsonPath("$.durationMinutes").value(60));
+        mockMvc.perform(post("/api/v1/lessons/rules/" + ruleId + "/book").contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/v1/lessons/rules/" + ruleId + "/book").contentType(MediaType.APPLICATION_JSON)
+                        .content(booking.replace("10:00", "10:30")))
+                .andExpect(status().isBadRequest());
+
+        // The open slot is listed without an id next to the booked row, both with their rule
+        mockMvc.perform(lessons().param("from", "2025-01-11T00:00:00").param("includeTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lessons.length()").value(2))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.lessons[0].date").value("2025-01-11T09:00:00"))
+                .andExpect(jsonPath("$.lessons[0].id").isEmpty())
+                .andExpect(jsonPath("$.lessons[0].status").value("available"))
+                .andExpect(jsonPath("$.lessons[0].ruleId").value(ruleId))
+                .andExpect(jsonPath("$.lessons[1].date").value("2025-01-11T10:00:00"))
+                .andExpect(jsonPath("$.lessons[1].status").value("booked"))
+                .andExpect(jsonPath("$.lessons[1].ruleId").value(ruleId));
+        mockMvc.perform(lessons().param("from", "2025-01-11T00:00:00").param("status", "booked"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lessons.length()").value(1));
+    }
+
+    @Test
+    void testCursorWalksRowsAndRecurringSlotsInStartOrder() throws Exception {
+        // Both teachers' rules share every start time, and a row starts at the first one
+        for (Teacher owner : List.of(teacher, otherTeacher)) {
+            lessonAvailabilityService.createRule(owner.getId(), school.getId(), place.getId(),
+                    Set.of(DayOfWeek.SATURDAY), LocalTime.of(10, 0), LocalTime.of(13, 0), 60,
+                    LocalDate.of(2025, 1, 11), LocalDate.of(2025, 1, 11), null);
+        }
+        Teacher thirdTeacher = fixtures.teacher(school, "Third Paging Teacher");
+        Long rowId = lessonAvailabilityService.createAvailability(thirdTeacher.getId(), school.getId(), place.getId(),
+                LocalDateTime.of(2025, 1, 11, 10, 0), LocalDateTime.of(2025, 1, 11, 11, 0)).getId();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = getJson(lessons().param("from", "2025-01-11T00:00:00").param("size", "2")
+                    .param("cursor", cursor == null ? "" : cursor));
+            page.get("lessons").forEach(lesson -> seen.add(lesson.get("date").asText() + " "
+                    + (lesson.get("id").isNull() ? "rule " + lesson.get("teacherId").asLong() : "row")));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        List<String> expected = new ArrayList<>(List.of("2025-01-11T10:00:00 row"));
+        for (String start : List.of("2025-01-11T10:00:00", "2025-01-11T11:00:00", "2025-01-11T12:00:00")) {
+            expected.add(start + " rule " + teacher.getId());
+            expected.add(start + " rule " + otherTeacher.getId());
+        }
+        assertEquals(expected, seen);
+        assertEquals(7, getJson(lessons().param("from", "2025-01-11T00:00:00").param("includeTotal", "true"))
+                .get("total").asLong());
+        assertEquals(rowId, getJson(lessons().param("from", "2025-01-11T00:00:00")).get("lessons").get(0).get("id").asLong());
+    }
+
+    @Test
+    void testWaitlistedStudentGetsTheCancelledLesson() throws Exception {
+        Long lessonId = lessonIds.get(0);
+        mockMvc.perform(post("/api/v1/lessons/" + lessonId + "/waitlist").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":" + fixtures.user("tooearly").getId() + "}"))
+                .andExpect(status().isConflict());
+        lessonAvailabilityService.bookLesson(lessonId, fixtures.user("firstbooker").getId());
+        Long waiting = fixtures.user("waitingstudent").getId();
+
+        mockMvc.perform(post("/api/v1/lessons/" + lessonId + "/waitlist").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":" + waiting + "}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.position").value(1))
+                .andExpect(jsonPath("$.length").value(1));
+        mockMvc.perform(get("/api/v1/lessons/" + lessonId + "/waitlist").param("studentId", waiting.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value(1));
+
+        mockMvc.perform(post("/api/v1/lessons/" + lessonId + "/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("booked"))
+                .andExpect(jsonPath("$.studentId").value(waiting));
+        mockMvc.perform(get("/api/v1/lessons/" + lessonId + "/waitlist").param("studentId", waiting.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_SKI_SCHOOL")
+    void testTeacherCannotGetOverlappingLessons() throws Exception {
+        School otherSchool = fixtures.school(place, "Other Paging School");
+
+        // The teacher teaches 9:00 to 9:45 at the fixture's school, whichever school asks
+        String lesson = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + otherSchool.getId() + ",\"placeId\":" + place.getId()
+                + ",\"date\":\"2025-01-10T09:30:00\",\"durationMinutes\":30}";
+        mockMvc.perform(post("/api/v1/lessons").contentType(MediaType.APPLICATION_JSON).content(lesson))
+                .andExpect(status().isConflict());
+        mockMvc.perform(teacherFree("2025-01-10T09:40:00", "2025-01-10T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.free").value(false));
+        mockMvc.perform(teacherFree("2025-01-10T09:45:00", "2025-01-10T10:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.free").value(true));
+
+        mockMvc.perform(post("/api/v1/lessons").contentType(MediaType.APPLICATION_JSON)
+                        .content(lesson.replace("09:30", "09:45").replace("30}", "15}")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(teacherFree("2025-01-10T09:45:00", "2025-01-10T10:00:00"))
+                .andExpect(jsonPath("$.free").value(false));
+        mockMvc.perform(teacherFree("2025-01-10T10:00:00", "2025-01-10T09:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_SKI_SCHOOL")
+    void testRulesAndLessonsOfATeacherCannotOverlap() throws Exception {
+        String rule = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + school.getId() + ",\"placeId\":" + place.getId()
+                + ",\"weekdays\":[\"FRIDAY\",\"SATURDAY\"],\"dailyStart\":\"09:00:00\",\"dailyEnd\":\"11:00:00\",\"slotMinutes\":60"
+                + ",\"validFrom\":\"2025-01-10\",\"validUntil\":\"2025-01-11\"}";
+        // The teacher's fixture lessons fill Friday morning
+        mockMvc.perform(post("/api/v1/lessons/rules").contentType(MediaType.APPLICATION_JSON).content(rule))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/v1/lessons/rules").contentType(MediaType.APPLICATION_JSON)
+                        .content(rule.replace("\"FRIDAY\",", "")))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/v1/lessons/rules").contentType(MediaType.APPLICATION_JSON)
+                        .content(rule.replace("\"FRIDAY\",", "").replace("09:00:00", "10:30:00").replace("11:00:00", "12:30:00")))
+                .andExpect(status().isConflict());
+
+        // The open slots take the teacher's Saturday morning although they have no rows
+        mockMvc.perform(teacherFree("2025-01-11T10:30:00", "2025-01-11T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.free").value(false));
+        mockMvc.perform(teacherFree("2025-01-11T11:00:00", "2025-01-11T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.free").value(true));
+        String lesson = "{\"teacherId\":" + teacher.getId() + ",\"schoolId\":" + school.getId() + ",\"placeId\":" + place.getId()
+                + ",\"date\":\"2025-01-11T10:30:00\",\"durationMinutes\":60}";
+        mockMvc.perform(post("/api/v1/lessons").contentType(MediaType.APPLICATION_JSON).content(lesson))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/v1/lessons").contentType(MediaType.APPLICATION_JSON).content(lesson.replace("10:30", "11:00")))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_ADMIN")
+    void testChangeRingReportsConsumerLags() throws Exception {
+        mockMvc.perform(get("/api/v1/lessons/change-ring"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.capacity").value(4096))
+                .andExpect(jsonPath("$.consumers[*].name", hasItem("OutboxDispatcher")))
+                .andExpect(jsonPath("$.consumers[0].lag").isNumber());
+    }
+
+    @AfterTransaction
+    void restoreIndex() {
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    private MockHttpServletRequestBuilder freeSlots(int durationMinutes) {
+        return get("/api/v1/lessons/slots")
+                .param("placeId", place.getId().toString())
+                .param("durationMinutes", String.valueOf(durationMinutes))
+                .param("from", "2025-01-10T00:00:00");
+    }
+
+    private MockHttpServletRequestBuilder teacherFree(String from, String to) {
+        return get("/api/v1/lessons/teachers/{teacherId}/free", teacher.getId()).param("from", from).param("to", to);
+    }
+
+    private MockHttpServletRequestBuilder lessons() {
+        return get("/api/v1/lessons").param("placeId", place.getId().toString());
+    }
+
+    private JsonNode getJson(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
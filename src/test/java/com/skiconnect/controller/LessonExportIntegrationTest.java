@@ -0,0 +1,151 @@
+package com.skiconnect.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.service.LessonAvailabilityService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The export streams on an async thread and must see committed rows
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+public class LessonExportIntegrationTest {
+
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2025, 12, 1, 9, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Export Resort", "Export Valley");
+        // The school's account also signs in as its only teacher
+        school = fixtures.school(place, "Export School");
+        teacher = fixtures.teacher(school, "Export Teacher", school.getUser());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void testNdjsonExport() throws Exception {
+        insertLessons(25);
+
+        String body = export("ndjson");
+        String[] lines = body.split("\n");
+
+        assertEquals(25, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(place.getId().longValue(), first.get("placeId").asLong());
+        assertEquals("2025-12-01T09:00:00", first.get("startTime").asText());
+        assertTrue(first.get("available").asBoolean());
+    }
+
+    @Test
+    void testCsvExport() throws Exception {
+        insertLessons(10);
+
+        String[] lines = export("csv").split("\n");
+
+        assertEquals(11, lines.length);
+        assertEquals("id,schoolId,teacherId,placeId,studentId,startTime,endTime,status", lines[0]);
+        assertTrue(lines[1].endsWith(",2025-12-01T09:00,2025-12-01T10:00,available"));
+    }
+
+    @Test
+    void testUnknownFormatIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/lessons/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportKeepsPersistenceContextEmptyRegardlessOfSize() {
+        insertLessons(1_000);
+        assertEquals(0, maxManagedEntitiesDuringExport(1_000));
+
+        insertLessons(20_000);
+        assertEquals(0, maxManagedEntitiesDuringExport(21_000));
+    }
+
+    // Samples the persistence context the export cursor runs in while rows are being streamed
+    private int maxManagedEntitiesDuringExport(int expectedRows) {
+        AtomicInteger maxManaged = new AtomicInteger();
+        long rows = lessonAvailabilityService.exportLessons(place.getId(), null, null, row -> {
+            int managed = entityManager.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities();
+            maxManaged.accumulateAndGet(managed, Math::max);
+        });
+        assertEquals(expectedRows, rows);
+        return maxManaged.get();
+    }
+
+    private String export(String format) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/lessons/export")
+                        .param("format", format)
+                        .param("placeId", place.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private void insertLessons(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = SEASON_START.plusMinutes(i);
+            rows.add(new Object[]{teacher.getId(), school.getId(), place.getId(),
+                    Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO lesson_availabilities (teacher_id, school_id, place_id, start_time, end_time, is_available) " +
+                "VALUES (?, ?, ?, ?, ?, TRUE)", rows);
+    }
+}
@@ -0,0 +1,105 @@
+package com.skiconnect.controller;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.LessonFilter;
+import com.skiconnect.service.LessonAvailabilityService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap allocated per page of the lesson listing when it loads entities versus unmanaged rows.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class LessonListingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonListingBenchmarkTest.class);
+
+    private static final int LESSONS = 2_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 300;
+    private static final int RUNS = 1_000;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void benchmarkEntityPageAgainstRowPage() {
+        Place place = fixtures.place("Benchmark Resort", "Benchmark Valley");
+        School school = fixtures.school(place, "Benchmark School");
+        Teacher teacher = fixtures.teacher(school, "Benchmark Teacher");
+
+        try {
+            // Every other lesson is booked by one of ten students, so the entity path also resolves students
+            List<User> students = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                students.add(fixtures.user("benchmarkstudent" + i));
+            }
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+            for (int i = 0; i < LESSONS; i++) {
+                LessonAvailability availability = lessonAvailabilityService.createAvailability(teacher.getId(),
+                        school.getId(), place.getId(), start.plusMinutes(30L * i), start.plusMinutes(30L * i + 30));
+                if (i % 2 == 0) {
+                    lessonAvailabilityService.bookLesson(availability.getId(), students.get(i % 10).getId());
+                }
+            }
+
+            LessonFilter filter = new LessonFilter();
+            filter.setPlaceId(place.getId());
+            assertEquals(
+                    lessonAvailabilityService.findPage(filter, ScrollPosition.keyset(), PAGE_SIZE).stream()
+                            .map(LessonAvailability::getId).toList(),
+                    lessonAvailabilityService.findRowPage(filter, ScrollPosition.keyset(), PAGE_SIZE).stream()
+                            .map(row -> row.getId()).toList());
+
+            long[] entities = measure(() -> lessonAvailabilityService.findPage(filter, ScrollPosition.keyset(), PAGE_SIZE));
+            long[] rows = measure(() -> lessonAvailabilityService.findRowPage(filter, ScrollPosition.keyset(), PAGE_SIZE));
+
+            logger.info("Page of {} lessons: entities {} KB and {} µs per request, rows {} KB and {} µs per request",
+                    PAGE_SIZE, entities[0] / 1024, entities[1] / 1000, rows[0] / 1024, rows[1] / 1000);
+            assertTrue(rows[0] * 2 < entities[0], "rows should allocate less than half of what entities do");
+        } finally {
+            fixtures.deleteAll();
+        }
+    }
+
+    // Bytes allocated and nanoseconds spent per call on this thread
+    private long[] measure(Supplier<?> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+        }
+        long threadId = Thread.currentThread().getId();
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            request.get();
+        }
+        return new long[] {(threads.getThreadAllocatedBytes(threadId) - bytes) / RUNS, (System.nanoTime() - start) / RUNS};
+    }
+}
@@ -0,0 +1,147 @@
+package com.skiconnect.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.skiconnect.SqlStatementCounter;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.service.LessonAvailabilityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.BitSet;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(authorities = "ROLE_STUDENT")
+public class PlaceControllerIntegrationTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Calendar Resort", "Calendar Valley");
+        school = fixtures.school(place, "Calendar School");
+        teacher = fixtures.teacher(school, "Calendar Teacher");
+        student = fixtures.user("calendarstudent");
+    }
+
+    @Test
+    void testDailyCountsFollowBookingsAndCancellations() throws Exception {
+        LessonAvailability booked = createLesson(LocalDateTime.of(2025, 3, 1, 9, 0));
+        LessonAvailability cancelled = createLesson(LocalDateTime.of(2025, 3, 1, 10, 0));
+        createLesson(LocalDateTime.of(2025, 3, 1, 14, 0));
+        LessonAvailability deleted = createLesson(LocalDateTime.of(2025, 3, 3, 10, 0));
+        createLesson(LocalDateTime.of(2025, 3, 4, 23, 0));
+        // Outside the requested range
+        createLesson(LocalDateTime.of(2025, 3, 5, 0, 0));
+
+        lessonAvailabilityService.bookLesson(booked.getId(), student.getId());
+        lessonAvailabilityService.bookLesson(cancelled.getId(), student.getId());
+        lessonAvailabilityService.cancelBooking(cancelled.getId());
+        lessonAvailabilityService.deleteById(deleted.getId());
+
+        mockMvc.perform(calendar("2025-03-01", "2025-03-04"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.placeId").value(place.getId()))
+                .andExpect(jsonPath("$.from").value("2025-03-01"))
+                .andExpect(jsonPath("$.dailyOpenSlots", contains(2, 0, 0, 1)))
+                .andExpect(jsonPath("$.openHours").doesNotExist());
+    }
+
+    @Test
+    void testHourlyBitmapMarksHoursWithOpenSlots() throws Exception {
+        createLesson(LocalDateTime.of(2025, 3, 1, 9, 0));
+        createLesson(LocalDateTime.of(2025, 3, 1, 9, 45));
+        createLesson(LocalDateTime.of(2025, 3, 2, 15, 0));
+
+        String json = mockMvc.perform(calendar("2025-03-01", "2025-03-31").param("resolution", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dailyOpenSlots.length()").value(31))
+                .andReturn().getResponse().getContentAsString();
+        String openHours = JsonPath.read(json, "$.openHours");
+
+        byte[] bytes = Base64.getDecoder().decode(openHours);
+        assertEquals(31 * 3, bytes.length);
+        BitSet bits = BitSet.valueOf(bytes);
+        assertEquals(2, bits.cardinality());
+        assertTrue(bits.get(9));
+        assertTrue(bits.get(24 + 15));
+        // A month of days and hours stays a few hundred bytes
+        assertTrue(json.length() < 400, json);
+    }
+
+    @Test
+    void testCalendarIsReadFromTheRollupAndTheRules() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            createLesson(LocalDateTime.of(2025, 3, 1 + i % 10, 8 + i / 10, 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+        counter.start();
+        mockMvc.perform(calendar("2025-03-01", "2025-03-10").param("resolution", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dailyOpenSlots", contains(2, 2, 2, 2, 2, 2, 2, 2, 2, 2)));
+        // One query for the rollup and one for recurring rules; the lessons themselves are never scanned
+        assertEquals(2, counter.stop());
+    }
+
+    @Test
+    void testInvalidRangesAndResolutionsAreRejected() throws Exception {
+        mockMvc.perform(calendar("2025-03-10", "2025-03-01")).andExpect(status().isBadRequest());
+        mockMvc.perform(calendar("2025-01-01", "2025-12-31")).andExpect(status().isBadRequest());
+        mockMvc.perform(calendar("2025-03-01", "2025-03-02").param("resolution", "minute"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder calendar(String from, String to) {
+        return get("/api/v1/places/{placeId}/availability", place.getId()).param("from", from).param("to", to);
+    }
+
+    private LessonAvailability createLesson(LocalDateTime start) {
+        return lessonAvailabilityService.createAvailability(
+                teacher.getId(), school.getId(), place.getId(), start, start.plusMinutes(45));
+    }
+}
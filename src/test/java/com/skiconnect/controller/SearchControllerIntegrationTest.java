@@ -0,0 +1,196 @@
+package com.skiconnect.controller;
+
+import com.skiconnect.SqlStatementCounter;
+import com.skiconnect.TestFixtures;
+import com.skiconnect.event.PlaceCoordinatesChangedEvent;
+import com.skiconnect.index.PlaceGridIndex;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.PlaceRepository;
+import com.skiconnect.service.LessonAvailabilityService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(authorities = "ROLE_STUDENT")
+public class SearchControllerIntegrationTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private PlaceGridIndex placeGridIndex;
+
+    private int lessonSequence;
+
+    @Test
+    void testSearchReturnsAvailableLessonCountsAndEmails() throws Exception {
+        Place place = fixtures.place("Count Resort", "Test Location");
+        School school = fixtures.school(place, "Count School");
+        Teacher teacher = fixtures.teacher(school, "Count Teacher");
+        createLesson(teacher, true);
+        createLesson(teacher, true);
+        createLesson(teacher, false);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/v1/search").param("placeId", place.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSchools").value(1))
+                .andExpect(jsonPath("$.schools[0].email").value("count-school@example.com"))
+                .andExpect(jsonPath("$.schools[0].availableLessons").value(2))
+                .andExpect(jsonPath("$.totalTeachers").value(1))
+                .andExpect(jsonPath("$.teachers[0].email").value("count-teacher@example.com"))
+                .andExpect(jsonPath("$.teachers[0].schoolId").value(school.getId()))
+                .andExpect(jsonPath("$.teachers[0].availableLessons").value(2));
+    }
+
+    @Test
+    void testSearchStatementCountDoesNotGrowWithResultSize() throws Exception {
+        Place smallPlace = createPopulatedPlace("Small Resort", 1);
+        Place largePlace = createPopulatedPlace("Large Resort", 12);
+        entityManager.flush();
+        entityManager.clear();
+
+        long smallCount = countStatementsForSearch(smallPlace);
+        long largeCount = countStatementsForSearch(largePlace);
+
+        assertEquals(2, smallCount);
+        assertEquals(smallCount, largeCount);
+    }
+
+    @Test
+    void testNearbyReturnsPlacesWithinRadiusNearestFirst() throws Exception {
+        placeGridIndex.rebuild();
+        Place near = createPopulatedPlaceAt("Near Resort", 2, -45.045, 170.0);
+        Place middle = createPopulatedPlaceAt("Middle Resort", 1, -45.18, 170.0);
+        createPopulatedPlaceAt("Far Resort", 1, -45.54, 170.0);
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(nearby(30))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.places.length()").value(2))
+                .andExpect(jsonPath("$.places[0].id").value(near.getId()))
+                .andExpect(jsonPath("$.places[0].distanceKm").value(closeTo(5.0, 0.1)))
+                .andExpect(jsonPath("$.places[0].schools.length()").value(2))
+                .andExpect(jsonPath("$.places[0].availableLessons").value(2))
+                .andExpect(jsonPath("$.places[1].id").value(middle.getId()))
+                .andExpect(jsonPath("$.places[1].schools[0].availableLessons").value(1))
+                .andExpect(jsonPath("$.places[1].availableLessons").value(1));
+
+        mockMvc.perform(nearby(30).param("limit", "1"))
+                .andExpect(jsonPath("$.places.length()").value(1))
+                .andExpect(jsonPath("$.places[0].id").value(near.getId()));
+
+        mockMvc.perform(get("/api/v1/search/nearby").param("latitude", "91").param("longitude", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(nearby(0)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testNearbyStatementCountDoesNotGrowWithResultSize() throws Exception {
+        placeGridIndex.rebuild();
+        createPopulatedPlaceAt("Near Resort", 1, -45.045, 170.0);
+        createPopulatedPlaceAt("Middle Resort", 3, -45.18, 170.0);
+        createPopulatedPlaceAt("Far Resort", 3, -45.54, 170.0);
+        entityManager.flush();
+        entityManager.clear();
+
+        long oneCount = countStatements(nearby(10));
+        long threeCount = countStatements(nearby(100));
+
+        assertEquals(3, oneCount);
+        assertEquals(oneCount, threeCount);
+    }
+
+    private MockHttpServletRequestBuilder nearby(double radiusKm) {
+        return get("/api/v1/search/nearby")
+                .param("latitude", "-45.0")
+                .param("longitude", "170.0")
+                .param("radiusKm", Double.toString(radiusKm));
+    }
+
+    private long countStatementsForSearch(Place place) throws Exception {
+        return countStatements(get("/api/v1/search").param("placeId", place.getId().toString()));
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        SqlStatementCounter counter = new SqlStatementCounter(entityManagerFactory);
+        counter.start();
+        try {
+            mockMvc.perform(request).andExpect(status().isOk());
+        } finally {
+            entityManager.clear();
+        }
+        return counter.stop();
+    }
+
+    private Place createPopulatedPlace(String name, int schools) {
+        Place place = fixtures.place(name, "Test Location");
+        for (int i = 0; i < schools; i++) {
+            School school = fixtures.school(place, name + " School " + i);
+            Teacher teacher = fixtures.teacher(school, name + " Teacher " + i);
+            createLesson(teacher, true);
+            createLesson(teacher, false);
+        }
+        return place;
+    }
+
+    // After-commit listeners do not run inside the test transaction, so the grid is fed directly
+    private Place createPopulatedPlaceAt(String name, int schools, double latitude, double longitude) {
+        Place place = createPopulatedPlace(name, schools);
+        place.setLatitude(latitude);
+        place.setLongitude(longitude);
+        place = placeRepository.save(place);
+        placeGridIndex.onPlaceCoordinatesChanged(PlaceCoordinatesChangedEvent.of(place));
+        return place;
+    }
+
+    private LessonAvailability createLesson(Teacher teacher, boolean available) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0).plusHours(lessonSequence++);
+        LessonAvailability availability = lessonAvailabilityService.createAvailability(teacher.getId(),
+                teacher.getSchool().getId(), teacher.getSchool().getPlace().getId(), start, start.plusHours(1));
+        if (!available) {
+            User student = fixtures.user("Student " + lessonSequence);
+            availability = lessonAvailabilityService.bookLesson(availability.getId(), student.getId());
+        }
+        return availability;
+    }
+}
@@ -0,0 +1,120 @@
+package com.skiconnect.event;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.User;
+import com.skiconnect.service.SchoolService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Changes reach the ring only once they commit
+@SpringBootTest
+@Import(ChangeEventRingTest.RecordingConsumer.class)
+public class ChangeEventRingTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private SchoolService schoolService;
+
+    @Autowired
+    private RecordingConsumer consumer;
+
+    @Autowired
+    private ChangeEventRing changeEventRing;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Place place;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Ring Resort", "Ring Valley");
+        user = fixtures.user("Ring School");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void testCommittedChangesReachConsumersOnTheirOwnThread() throws Exception {
+        // Rolled back, so never published
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            schoolService.createSchool("Ring Rolled Back School", user.getId(), place.getId());
+            status.setRollbackOnly();
+        });
+        School school = schoolService.createSchool("Ring School", user.getId(), place.getId());
+
+        List<ChangeEvent> events = consumer.awaitEvents(event -> event instanceof PlaceSearchDataChangedEvent placeEvent
+                && placeEvent.getPlaceIds().contains(place.getId()), 2);
+        assertEquals(new SearchableEntityChangedEvent(SearchableEntityChangedEvent.Kind.SCHOOL, school.getId(),
+                "Ring School", place.getName()), events.get(0));
+        assertEquals(new PlaceSearchDataChangedEvent(Set.of(place.getId())), events.get(1));
+        // Nothing of the rolled back school
+        assertEquals(2, consumer.threads().size());
+        assertTrue(consumer.threads().stream().allMatch(thread -> thread.startsWith("event-ring-RecordingConsumer")));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (changeEventRing.lags().get("RecordingConsumer") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0L, changeEventRing.lags().get("RecordingConsumer"));
+    }
+
+    @Component
+    static class RecordingConsumer implements ChangeEventConsumer {
+
+        private final List<ChangeEvent> events = new ArrayList<>();
+        private final List<String> threads = new ArrayList<>();
+
+        @Override
+        public synchronized void onChange(ChangeEvent event) {
+            events.add(event);
+            threads.add(Thread.currentThread().getName());
+            notifyAll();
+        }
+
+        // The events from the first one that matches, once that many have arrived
+        synchronized List<ChangeEvent> awaitEvents(Predicate<ChangeEvent> last, int count)
+                throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (true) {
+                for (int i = count - 1; i < events.size(); i++) {
+                    if (last.test(events.get(i))) {
+                        return List.copyOf(events.subList(i - count + 1, i + 1));
+                    }
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new AssertionError("Events not delivered: " + events);
+                }
+                wait(remaining);
+            }
+        }
+
+        synchronized List<String> threads() {
+            return List.copyOf(threads);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.skiconnect.index;
+
+import com.skiconnect.repository.AvailabilitySlot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Earliest free slots over 10k teachers with a season of hourly slots each, against materializing every
+ * candidate in the window and sorting them.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class FreeSlotFinderBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FreeSlotFinderBenchmarkTest.class);
+
+    private static final int TEACHERS = 10_000;
+    private static final int SEASON_DAYS = 120;
+    private static final int SLOTS_PER_DAY = 8;
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2025, 12, 1, 9, 0);
+    private static final int QUERIES = 20;
+    private static final int LIMIT = 10;
+
+    @Test
+    void benchmarkEarliestAgainstNaiveScan() {
+        Random random = new Random(2025);
+        // Shared start times keep the season small enough to hold every slot at once
+        LocalDateTime[] hours = new LocalDateTime[SEASON_DAYS * SLOTS_PER_DAY + 1];
+        for (int i = 0; i < hours.length; i++) {
+            hours[i] = SEASON_START.plusDays(i / SLOTS_PER_DAY).plusHours(i % SLOTS_PER_DAY);
+        }
+
+        // Most of the season is booked, so free runs are short and scattered
+        List<List<AvailabilitySlot>> schedules = new ArrayList<>(TEACHERS);
+        long id = 1;
+        int slotCount = 0;
+        for (long teacherId = 1; teacherId <= TEACHERS; teacherId++) {
+            List<AvailabilitySlot> slots = new ArrayList<>();
+            for (int i = 0; i < SEASON_DAYS * SLOTS_PER_DAY; i++) {
+                if (random.nextInt(100) < 15) {
+                    slots.add(FreeSlotFinderTest.slot(id++, teacherId, 1 + teacherId % 50, hours[i], hours[i].plusHours(1)));
+                }
+            }
+            slotCount += slots.size();
+            schedules.add(slots);
+        }
+
+        LocalDateTime[] froms = new LocalDateTime[QUERIES];
+        Duration[] durations = new Duration[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            froms[i] = hours[random.nextInt(SEASON_DAYS - 7) * SLOTS_PER_DAY];
+            durations[i] = Duration.ofHours(1 + random.nextInt(3));
+        }
+        LocalDateTime to = hours[hours.length - 1];
+
+        // Warm up both paths and check they agree before timing
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FreeSlotFinderTest.describe(FreeSlotFinderTest.naiveEarliest(schedules, durations[i], froms[i], to, LIMIT)),
+                    FreeSlotFinderTest.describe(FreeSlotFinder.earliest(FreeSlotFinderTest.iterators(schedules), durations[i], froms[i], to, LIMIT)));
+        }
+
+        long naiveNanos = 0;
+        long finderNanos = 0;
+        long checksum = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            checksum += FreeSlotFinderTest.naiveEarliest(schedules, durations[i], froms[i], to, LIMIT).size();
+            naiveNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            checksum -= FreeSlotFinder.earliest(FreeSlotFinderTest.iterators(schedules), durations[i], froms[i], to, LIMIT).size();
+            finderNanos += System.nanoTime() - start;
+        }
+
+        logger.info("{} teachers, {} available slots, {} earliest: naive scan {} ms/query, merge {} ms/query",
+                TEACHERS, slotCount, LIMIT, naiveNanos / QUERIES / 1_000_000, finderNanos / QUERIES / 1_000_000);
+        assertEquals(0, checksum);
+        assertTrue(finderNanos * 5 < naiveNanos, "merging per-teacher streams should be at least 5x faster than a full scan");
+    }
+}
@@ -0,0 +1,241 @@
+package com.skiconnect.index;
+
+import com.skiconnect.repository.AvailabilitySlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FreeSlotFinderTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 1, 6, 9, 0);
+
+    @Test
+    void testEarliestMatchesNaiveScanOnRandomSchedules() {
+        Random random = new Random(17);
+        for (int round = 0; round < 200; round++) {
+            List<List<AvailabilitySlot>> schedules = randomSchedules(random, 1 + random.nextInt(30), 3);
+            Duration duration = Duration.ofMinutes(30L * (1 + random.nextInt(6)));
+            LocalDateTime from = MONDAY.plusMinutes(30L * random.nextInt(48));
+            LocalDateTime to = from.plusHours(1 + random.nextInt(72));
+            int limit = 1 + random.nextInt(40);
+
+            assertEquals(describe(naiveEarliest(schedules, duration, from, to, limit)),
+                    describe(FreeSlotFinder.earliest(iterators(schedules), duration, from, to, limit)),
+                    "round " + round + ": " + duration + " from " + from + " to " + to + ", limit " + limit);
+        }
+    }
+
+    @Test
+    void testLessonSpansBackToBackSlotsOfOneTeacher() {
+        List<AvailabilitySlot> teacher = List.of(
+                slot(1L, 1L, 1L, MONDAY, MONDAY.plusHours(1)),
+                slot(2L, 1L, 1L, MONDAY.plusHours(1), MONDAY.plusHours(2)),
+                slot(3L, 1L, 1L, MONDAY.plusHours(2), MONDAY.plusHours(3)));
+
+        List<FreeSlotFinder.FreeSlot> found = FreeSlotFinder.earliest(List.of(teacher.iterator()),
+                Duration.ofMinutes(90), MONDAY, MONDAY.plusDays(1), 10);
+
+        assertEquals(2, found.size());
+        assertEquals(MONDAY, found.get(0).getStartTime());
+        assertEquals(MONDAY.plusMinutes(90), found.get(0).getEndTime());
+        assertEquals(List.of(1L, 2L), found.get(0).getAvailabilityIds());
+        assertEquals(List.of(2L, 3L), found.get(1).getAvailabilityIds());
+    }
+
+    @Test
+    void testGapsAndSchoolChangesBreakARun() {
+        List<AvailabilitySlot> withGap = List.of(
+                slot(1L, 1L, 1L, MONDAY, MONDAY.plusHours(1)),
+                slot(2L, 1L, 1L, MONDAY.plusMinutes(70), MONDAY.plusMinutes(130)));
+        List<AvailabilitySlot> changingSchool = List.of(
+                slot(3L, 2L, 1L, MONDAY, MONDAY.plusHours(1)),
+                slot(4L, 2L, 2L, MONDAY.plusHours(1), MONDAY.plusHours(2)));
+
+        assertTrue(FreeSlotFinder.earliest(List.of(withGap.iterator(), changingSchool.iterator()),
+                Duration.ofMinutes(90), MONDAY, MONDAY.plusDays(1), 10).isEmpty());
+    }
+
+    @Test
+    void testOverlappingSlotsDoNotBridgeAGap() {
+        List<AvailabilitySlot> teacher = List.of(
+                slot(1L, 1L, 1L, MONDAY, MONDAY.plusHours(3)),
+                slot(2L, 1L, 1L, MONDAY.plusMinutes(30), MONDAY.plusHours(1)),
+                slot(3L, 1L, 1L, MONDAY.plusHours(3), MONDAY.plusHours(4)));
+
+        // Without the first slot, the second one is followed by a two-hour gap
+        List<FreeSlotFinder.FreeSlot> found = FreeSlotFinder.earliest(List.of(teacher.iterator()),
+                Duration.ofMinutes(210), MONDAY, MONDAY.plusDays(1), 10);
+
+        assertEquals(1, found.size());
+        assertEquals(List.of(1L, 2L, 3L), found.get(0).getAvailabilityIds());
+    }
+
+    @Test
+    void testWindowBoundsApplyToTheWholeLesson() {
+        List<AvailabilitySlot> teacher = List.of(
+                slot(1L, 1L, 1L, MONDAY.minusHours(1), MONDAY),
+                slot(2L, 1L, 1L, MONDAY, MONDAY.plusHours(1)),
+                slot(3L, 1L, 1L, MONDAY.plusHours(1), MONDAY.plusHours(2)));
+
+        // The slot before the window is skipped, and the last one would end after it
+        List<FreeSlotFinder.FreeSlot> found = FreeSlotFinder.earliest(List.of(teacher.iterator()),
+                Duration.ofHours(1), MONDAY, MONDAY.plusMinutes(90), 10);
+
+        assertEquals(1, found.size());
+        assertEquals(List.of(2L), found.get(0).getAvailabilityIds());
+    }
+
+    @Test
+    void testTiesAreOrderedByTeacherAndLimitStopsTheMerge() {
+        List<AvailabilitySlot> second = List.of(slot(1L, 2L, 1L, MONDAY, MONDAY.plusHours(1)));
+        List<AvailabilitySlot> first = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            first.add(slot(2L + i, 1L, 1L, MONDAY.plusHours(i), MONDAY.plusHours(i + 1)));
+        }
+        int[] read = {0};
+        Iterator<AvailabilitySlot> counted = first.stream().peek(slot -> read[0]++).iterator();
+
+        List<FreeSlotFinder.FreeSlot> found = FreeSlotFinder.earliest(List.of(second.iterator(), counted),
+                Duration.ofHours(1), MONDAY, MONDAY.plusDays(100), 2);
+
+        assertEquals(List.of(1L, 2L), found.stream().map(FreeSlotFinder.FreeSlot::getTeacherId).collect(Collectors.toList()));
+        assertTrue(read[0] <= 2, "read " + read[0] + " slots of a teacher whose first slot was enough");
+    }
+
+    @Test
+    void testRejectsNonPositiveDuration() {
+        assertThrows(IllegalArgumentException.class, () -> FreeSlotFinder.earliest(List.of(),
+                Duration.ZERO, MONDAY, MONDAY.plusDays(1), 10));
+    }
+
+    /**
+     * Every slot start whose back-to-back, same-school successors cover the duration, earliest first.
+     */
+    static List<FreeSlotFinder.FreeSlot> naiveEarliest(List<List<AvailabilitySlot>> schedules, Duration duration,
+                                                       LocalDateTime from, LocalDateTime to, int limit) {
+        List<FreeSlotFinder.FreeSlot> candidates = new ArrayList<>();
+        for (List<AvailabilitySlot> slots : schedules) {
+            for (int i = 0; i < slots.size(); i++) {
+                AvailabilitySlot first = slots.get(i);
+                LocalDateTime end = first.getStartTime().plus(duration);
+                if (first.getStartTime().isBefore(from) || end.isAfter(to)) {
+                    continue;
+                }
+                List<Long> ids = new ArrayList<>();
+                LocalDateTime covered = first.getStartTime();
+                for (int j = i; j < slots.size() && covered.isBefore(end); j++) {
+                    AvailabilitySlot next = slots.get(j);
+                    if (next.getStartTime().isAfter(covered) || !next.getSchoolId().equals(first.getSchoolId())) {
+                        break;
+                    }
+                    ids.add(next.getId());
+                    covered = next.getEndTime().isAfter(covered) ? next.getEndTime() : covered;
+                }
+                if (!covered.isBefore(end)) {
+                    candidates.add(new FreeSlotFinder.FreeSlot(first.getTeacherId(), first.getSchoolId(),
+                            first.getStartTime(), end, ids, List.of()));
+                }
+            }
+        }
+        return candidates.stream()
+                .sorted(Comparator.comparing(FreeSlotFinder.FreeSlot::getStartTime)
+                        .thenComparing(FreeSlotFinder.FreeSlot::getTeacherId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Three days of half-hour and hour slots per teacher, with random gaps and school changes.
+     */
+    static List<List<AvailabilitySlot>> randomSchedules(Random random, int teachers, int schools) {
+        List<List<AvailabilitySlot>> schedules = new ArrayList<>();
+        long id = 1;
+        for (long teacherId = 1; teacherId <= teachers; teacherId++) {
+            List<AvailabilitySlot> slots = new ArrayList<>();
+            long schoolId = 1 + random.nextInt(schools);
+            LocalDateTime start = MONDAY.minusHours(2);
+            while (start.isBefore(MONDAY.plusDays(3))) {
+                start = start.plusMinutes(random.nextInt(5) == 0 ? 30L * (1 + random.nextInt(4)) : 0);
+                if (random.nextInt(10) == 0) {
+                    schoolId = 1 + random.nextInt(schools);
+                }
+                LocalDateTime end = start.plusMinutes(random.nextBoolean() ? 30 : 60);
+                slots.add(slot(id++, teacherId, schoolId, start, end));
+                start = end;
+            }
+            schedules.add(slots);
+        }
+        return schedules;
+    }
+
+    static List<Iterator<AvailabilitySlot>> iterators(List<List<AvailabilitySlot>> schedules) {
+        return schedules.stream().map(List::iterator).collect(Collectors.toList());
+    }
+
+    static List<String> describe(List<FreeSlotFinder.FreeSlot> slots) {
+        return slots.stream()
+                .map(slot -> slot.getTeacherId() + "@" + slot.getStartTime() + slot.getAvailabilityIds())
+                .collect(Collectors.toList());
+    }
+
+    static AvailabilitySlot slot(Long id, Long teacherId, Long schoolId, LocalDateTime startTime, LocalDateTime endTime) {
+        return new TestSlot(id, teacherId, schoolId, startTime, endTime);
+    }
+
+    private static final class TestSlot implements AvailabilitySlot {
+        private final Long id;
+        private final Long teacherId;
+        private final Long schoolId;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        TestSlot(Long id, Long teacherId, Long schoolId, LocalDateTime startTime, LocalDateTime endTime) {
+            this.id = id;
+            this.teacherId = teacherId;
+            this.schoolId = schoolId;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getPlaceId() {
+            return 1L;
+        }
+
+        @Override
+        public Long getSchoolId() {
+            return schoolId;
+        }
+
+        @Override
+        public Long getTeacherId() {
+            return teacherId;
+        }
+
+        @Override
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        @Override
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+    }
+}
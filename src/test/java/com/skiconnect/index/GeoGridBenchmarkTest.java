@@ -0,0 +1,61 @@
+package com.skiconnect.index;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Grid lookups against a full scan over 100k synthetic places spread across the Alps.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class GeoGridBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeoGridBenchmarkTest.class);
+
+    private static final int PLACES = 100_000;
+    private static final int QUERIES = 2_000;
+    private static final double RADIUS_KM = 30;
+
+    @Test
+    void benchmarkRadiusSearchAgainstNaiveScan() {
+        Random random = new Random(2024);
+        List<double[]> places = GeoGridTest.randomPlaces(random, PLACES, 44, 48, 5, 16);
+        GeoGrid grid = GeoGridTest.gridOf(places);
+        double[][] origins = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            origins[i] = new double[] {44 + random.nextDouble() * 4, 5 + random.nextDouble() * 11};
+        }
+
+        // Warm up both paths and check they agree before timing
+        for (int i = 0; i < 200; i++) {
+            assertEquals(GeoGridTest.ids(GeoGridTest.naiveWithinRadius(places, origins[i][0], origins[i][1], RADIUS_KM)),
+                    GeoGridTest.ids(grid.withinRadius(origins[i][0], origins[i][1], RADIUS_KM)));
+        }
+
+        long naiveNanos = 0;
+        long gridNanos = 0;
+        long checksum = 0;
+        for (double[] origin : origins) {
+            long start = System.nanoTime();
+            checksum += GeoGridTest.naiveWithinRadius(places, origin[0], origin[1], RADIUS_KM).size();
+            naiveNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            checksum -= grid.withinRadius(origin[0], origin[1], RADIUS_KM).size();
+            gridNanos += System.nanoTime() - start;
+        }
+
+        logger.info("{} places, {} km radius: naive scan {} µs/query, grid {} µs/query",
+                PLACES, RADIUS_KM, naiveNanos / QUERIES / 1000, gridNanos / QUERIES / 1000);
+        assertEquals(0, checksum);
+        assertTrue(gridNanos * 10 < naiveNanos, "grid should be at least 10x faster than a full scan");
+    }
+}
@@ -0,0 +1,110 @@
+package com.skiconnect.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridTest {
+
+    @Test
+    void testRadiusSearchMatchesNaiveScanEverywhere() {
+        Random random = new Random(7);
+        List<double[]> places = randomPlaces(random, 5000, -90, 90, -180, 180);
+        GeoGrid grid = gridOf(places);
+
+        for (int i = 0; i < 300; i++) {
+            // Origins are biased towards the poles and the antimeridian where the box logic is most delicate
+            double latitude = i % 3 == 0 ? 89.5 * (random.nextBoolean() ? 1 : -1) : random.nextDouble() * 180 - 90;
+            double longitude = i % 3 == 1 ? 179.9 * (random.nextBoolean() ? 1 : -1) : random.nextDouble() * 360 - 180;
+            double radiusKm = 1 + random.nextDouble() * 800;
+
+            assertEquals(ids(naiveWithinRadius(places, latitude, longitude, radiusKm)),
+                    ids(grid.withinRadius(latitude, longitude, radiusKm)),
+                    "radius " + radiusKm + " around " + latitude + ", " + longitude);
+        }
+    }
+
+    @Test
+    void testNearestReturnsKClosestWithinMaxRadius() {
+        Random random = new Random(11);
+        List<double[]> places = randomPlaces(random, 3000, 44, 48, 5, 16);
+        GeoGrid grid = gridOf(places);
+
+        for (int i = 0; i < 200; i++) {
+            double latitude = 44 + random.nextDouble() * 4;
+            double longitude = 5 + random.nextDouble() * 11;
+            int k = 1 + random.nextInt(25);
+            double maxRadiusKm = 5 + random.nextDouble() * 100;
+
+            List<GeoGrid.Neighbor> expected = naiveWithinRadius(places, latitude, longitude, maxRadiusKm);
+            assertEquals(ids(expected.subList(0, Math.min(k, expected.size()))),
+                    ids(grid.nearest(latitude, longitude, k, maxRadiusKm)));
+        }
+    }
+
+    @Test
+    void testPutReplacesAndRemoveForgetsAPoint() {
+        GeoGrid grid = new GeoGrid(0.25);
+        grid.put(1L, 46.0, 7.75);
+        grid.put(1L, 47.0, 11.0);
+
+        assertTrue(grid.withinRadius(46.0, 7.75, 5).isEmpty());
+        assertEquals(List.of(1L), ids(grid.withinRadius(47.0, 11.0, 5)));
+
+        grid.remove(1L);
+        assertEquals(0, grid.size());
+        assertTrue(grid.withinRadius(47.0, 11.0, 5).isEmpty());
+    }
+
+    @Test
+    void testDistanceAndCellSizeValidation() {
+        // Paris to London is about 343.5 km along the great circle
+        assertEquals(343.5, GeoGrid.distanceKm(48.8566, 2.3522, 51.5074, -0.1278), 1);
+        assertThrows(IllegalArgumentException.class, () -> new GeoGrid(0.7));
+    }
+
+    static List<GeoGrid.Neighbor> naiveWithinRadius(List<double[]> places, double latitude, double longitude,
+                                                    double radiusKm) {
+        List<GeoGrid.Neighbor> neighbors = new ArrayList<>();
+        for (int id = 0; id < places.size(); id++) {
+            double[] place = places.get(id);
+            double distance = GeoGrid.distanceKm(latitude, longitude, place[0], place[1]);
+            if (distance <= radiusKm) {
+                neighbors.add(new GeoGrid.Neighbor((long) id, distance));
+            }
+        }
+        neighbors.sort(Comparator.comparingDouble(GeoGrid.Neighbor::getDistanceKm).thenComparing(GeoGrid.Neighbor::getId));
+        return neighbors;
+    }
+
+    static List<double[]> randomPlaces(Random random, int count, double minLatitude, double maxLatitude,
+                                       double minLongitude, double maxLongitude) {
+        List<double[]> places = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            places.add(new double[] {
+                    minLatitude + random.nextDouble() * (maxLatitude - minLatitude),
+                    minLongitude + random.nextDouble() * (maxLongitude - minLongitude)});
+        }
+        return places;
+    }
+
+    static GeoGrid gridOf(List<double[]> places) {
+        GeoGrid grid = new GeoGrid(PlaceGridIndex.CELL_DEGREES);
+        for (int id = 0; id < places.size(); id++) {
+            grid.put((long) id, places.get(id)[0], places.get(id)[1]);
+        }
+        return grid;
+    }
+
+    static List<Long> ids(List<GeoGrid.Neighbor> neighbors) {
+        return neighbors.stream().map(GeoGrid.Neighbor::getId).collect(Collectors.toList());
+    }
+}
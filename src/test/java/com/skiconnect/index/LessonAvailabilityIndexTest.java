@@ -0,0 +1,169 @@
+package com.skiconnect.index;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.AvailabilitySlot;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.service.LessonAvailabilityService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+public class LessonAvailabilityIndexTest {
+
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2025, 12, 1, 8, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LessonAvailabilityIndex index;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private LessonAvailabilityRepository lessonAvailabilityRepository;
+
+    private final Random random = new Random(42);
+    private final List<Place> places = new ArrayList<>();
+    private final List<School> schools = new ArrayList<>();
+    private final List<Teacher> teachers = new ArrayList<>();
+    private final List<LessonAvailability> lessons = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int p = 0; p < 2; p++) {
+            places.add(fixtures.place("Index Resort " + p, "Index Valley"));
+        }
+        for (int s = 0; s < 3; s++) {
+            schools.add(fixtures.school(places.get(s % places.size()), "Index School " + s));
+        }
+        for (int t = 0; t < 6; t++) {
+            teachers.add(fixtures.teacher(schools.get(t % schools.size()), "Index Teacher " + t));
+        }
+        for (int i = 0; i < 400; i++) {
+            Teacher teacher = teachers.get(random.nextInt(teachers.size()));
+            LocalDateTime start = SEASON_START.plusDays(random.nextInt(30)).plusMinutes(30L * random.nextInt(18));
+            LessonAvailability availability = new LessonAvailability();
+            availability.setTeacher(teacher);
+            availability.setSchool(teacher.getSchool());
+            availability.setPlace(teacher.getSchool().getPlace());
+            availability.setStartTime(start);
+            availability.setEndTime(start.plusMinutes(30L * (1 + random.nextInt(6))));
+            availability.setAvailable(random.nextInt(10) < 7);
+            lessons.add(lessonAvailabilityRepository.save(availability));
+        }
+    }
+
+    @AfterTransaction
+    void restoreIndex() {
+        // The randomized rows are rolled back, so rebuild from what is actually committed
+        index.rebuild();
+    }
+
+    @Test
+    void testIndexMatchesJpaOnRandomizedData() {
+        index.rebuild();
+        assertTrue(index.isWarm());
+
+        assertRandomWindowsMatchJpa(300);
+    }
+
+    @Test
+    void testIndexStaysConsistentAcrossMutations() {
+        index.rebuild();
+
+        for (int i = 0; i < 150; i++) {
+            LessonAvailability availability = lessons.get(random.nextInt(lessons.size()));
+            availability.setAvailable(!availability.isAvailable());
+            lessonAvailabilityRepository.save(availability);
+            index.onLessonAvailabilityChanged(LessonAvailabilityChangedEvent.of(availability.isAvailable()
+                    ? LessonAvailabilityChangedEvent.Type.CANCELLED
+                    : LessonAvailabilityChangedEvent.Type.BOOKED, availability));
+        }
+
+        assertRandomWindowsMatchJpa(300);
+    }
+
+    @Test
+    void testServiceRangeQueriesMatchRepository() {
+        index.rebuild();
+
+        for (int i = 0; i < 50; i++) {
+            Place place = places.get(random.nextInt(places.size()));
+            LocalDateTime from = SEASON_START.plusDays(random.nextInt(30));
+            LocalDateTime to = from.plusHours(1 + random.nextInt(96));
+
+            assertEquals(ids(lessonAvailabilityRepository.findAvailableLessonsByPlaceAndTimeRange(place.getId(), from, to)),
+                    ids(lessonAvailabilityService.findAvailableLessonsByPlaceAndTimeRange(place.getId(), from, to)));
+        }
+    }
+
+    @Test
+    void testFreeSlotsMatchNaiveScanOverRepositorySlots() {
+        index.rebuild();
+
+        for (int i = 0; i < 100; i++) {
+            Place place = places.get(random.nextInt(places.size()));
+            Long schoolId = random.nextBoolean() ? null : schools.get(random.nextInt(schools.size())).getId();
+            Duration duration = Duration.ofMinutes(30L * (1 + random.nextInt(8)));
+            LocalDateTime from = SEASON_START.plusDays(random.nextInt(30)).plusMinutes(30L * random.nextInt(18));
+            LocalDateTime to = from.plusHours(1 + random.nextInt(240));
+            int limit = 1 + random.nextInt(30);
+
+            List<AvailabilitySlot> slots = lessonAvailabilityRepository.findAvailableSlotsByPlace(place.getId(), schoolId, from, to);
+            List<List<AvailabilitySlot>> schedules = new ArrayList<>(slots.stream()
+                    .collect(Collectors.groupingBy(AvailabilitySlot::getTeacherId, Collectors.toList()))
+                    .values());
+            assertEquals(FreeSlotFinderTest.describe(FreeSlotFinderTest.naiveEarliest(schedules, duration, from, to, limit)),
+                    FreeSlotFinderTest.describe(index.findEarliestFreeSlots(place.getId(), schoolId, duration, from, to, limit)));
+        }
+    }
+
+    private void assertRandomWindowsMatchJpa(int queries) {
+        for (int i = 0; i < queries; i++) {
+            LocalDateTime from = SEASON_START.plusDays(random.nextInt(30)).plusMinutes(30L * random.nextInt(18));
+            LocalDateTime to = from.plusMinutes(30L * random.nextInt(200));
+
+            Place place = places.get(random.nextInt(places.size()));
+            assertEquals(ids(lessonAvailabilityRepository.findAvailableLessonsByPlaceAndTimeRange(place.getId(), from, to)),
+                    sorted(index.findAvailableByPlace(place.getId(), from, to)));
+
+            School school = schools.get(random.nextInt(schools.size()));
+            assertEquals(ids(lessonAvailabilityRepository.findAvailableLessonsBySchoolAndTimeRange(school.getId(), from, to)),
+                    sorted(index.findAvailableBySchool(school.getId(), from, to)));
+
+            Teacher teacher = teachers.get(random.nextInt(teachers.size()));
+            assertEquals(ids(lessonAvailabilityRepository.findAvailableLessonsByTeacherAndTimeRange(teacher.getId(), from, to)),
+                    sorted(index.findAvailableByTeacher(teacher.getId(), from, to)));
+        }
+    }
+
+    private static List<Long> ids(List<LessonAvailability> availabilities) {
+        return sorted(availabilities.stream().map(LessonAvailability::getId).collect(Collectors.toList()));
+    }
+
+    private static List<Long> sorted(List<Long> ids) {
+        return ids.stream().sorted().collect(Collectors.toList());
+    }
+}
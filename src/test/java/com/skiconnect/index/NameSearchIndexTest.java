@@ -0,0 +1,159 @@
+package com.skiconnect.index;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.event.SearchableEntityChangedEvent;
+import com.skiconnect.event.SearchableEntityChangedEvent.Kind;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.service.PlaceService;
+import com.skiconnect.service.SchoolService;
+import com.skiconnect.service.TeacherService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@RecordApplicationEvents
+@WithMockUser(authorities = "ROLE_STUDENT")
+public class NameSearchIndexTest {
+
+    private static final EnumSet<Kind> ALL = EnumSet.allOf(Kind.class);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private NameSearchIndex index;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private PlaceService placeService;
+
+    @Autowired
+    private SchoolService schoolService;
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @BeforeEach
+    void setUp() {
+        // Drops entries left behind by other tests; their rows were rolled back
+        index.rebuild();
+
+        Place zermatt = placeService.createPlace("Zermatt Matterhorn", "Valais");
+        placeService.createPlace("Zell am See", "Salzburg");
+        School school = schoolService.createSchool("Zermatt Ski School", fixtures.user("zermattschool").getId(), zermatt.getId());
+        teacherService.createTeacher("Zoë Zimmermann", fixtures.user("zimmermann").getId(), school.getId(), false);
+        teacherService.createFreelancer("Zacharias Brunner", fixtures.user("brunner").getId(), zermatt.getId());
+
+        // After-commit listeners do not run inside the test transaction, so hand the published events over directly
+        events.stream(SearchableEntityChangedEvent.class).forEach(index::onSearchableEntityChanged);
+    }
+
+    @Test
+    void testCreationPathsPublishEveryEntity() {
+        assertEquals(6, events.stream(SearchableEntityChangedEvent.class).count());
+    }
+
+    @Test
+    void testPrefixMatchesRankWholeNamePrefixesFirst() {
+        List<String> names = names(index.search("zer", ALL, 10));
+
+        assertEquals(List.of("Zermatt Matterhorn", "Zermatt Ski School"), names);
+    }
+
+    @Test
+    void testEveryQueryWordMustMatchAPrefix() {
+        assertEquals(List.of("Zermatt Ski School"), names(index.search("ski zerm", ALL, 10)).subList(0, 1));
+        assertEquals("Zacharias Brunner Freelancer School", index.search("brun free", ALL, 10).get(0).getName());
+    }
+
+    @Test
+    void testPlacesMatchOnLocationAndIgnoreAccentsAndCase() {
+        NameSearchIndex.Match match = index.search("VALAIS", EnumSet.of(Kind.PLACE), 5).get(0);
+        assertEquals("Zermatt Matterhorn", match.getName());
+        assertEquals("Valais", match.getDetail());
+        assertEquals(NameSearchIndex.Quality.LOCATION_PREFIX, match.getQuality());
+
+        assertEquals("Zoë Zimmermann", index.search("zoe zim", ALL, 5).get(0).getName());
+    }
+
+    @Test
+    void testTyposFallBackToTrigrams() {
+        List<NameSearchIndex.Match> matches = index.search("matterhron", ALL, 5);
+
+        assertEquals("Zermatt Matterhorn", matches.get(0).getName());
+        assertEquals(NameSearchIndex.Quality.FUZZY, matches.get(0).getQuality());
+    }
+
+    @Test
+    void testKindsAndLimitAreHonoured() {
+        List<NameSearchIndex.Match> teachers = index.search("z", EnumSet.of(Kind.TEACHER), 10);
+        assertTrue(teachers.stream().allMatch(match -> match.getKind() == Kind.TEACHER));
+        assertEquals(List.of("Zoë Zimmermann", "Zacharias Brunner"), names(teachers));
+
+        assertEquals(1, index.search("z", ALL, 1).size());
+        assertTrue(index.search("   ", ALL, 10).isEmpty());
+    }
+
+    @Test
+    void testLookupsStayWellUnderAMillisecond() {
+        for (int i = 0; i < 20000; i++) {
+            index.onSearchableEntityChanged(new SearchableEntityChangedEvent(
+                    Kind.values()[i % 3], 1_000_000L + i, "Instructor " + Integer.toString(i, 36) + " Alpine", null));
+        }
+        String[] queries = {"zer", "instr 9", "alp", "zermat ski", "matterhron", "instructor 1a"};
+        for (int i = 0; i < 2000; i++) {
+            index.search(queries[i % queries.length], ALL, 10);
+        }
+
+        int runs = 3000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            index.search(queries[i % queries.length], ALL, 10);
+        }
+        long averageMicros = (System.nanoTime() - start) / runs / 1000;
+
+        assertTrue(averageMicros < 1000, "average lookup took " + averageMicros + "µs");
+    }
+
+    @Test
+    void testEndpointReturnsRankedMatches() throws Exception {
+        mockMvc.perform(get("/api/v1/search/names").param("q", "zermatt").param("type", "schools"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matches[0].name").value("Zermatt Ski School"))
+                .andExpect(jsonPath("$.matches[0].type").value("school"))
+                .andExpect(jsonPath("$.matches[0].detail").value("Zermatt Matterhorn"));
+
+        mockMvc.perform(get("/api/v1/search/names").param("q", "zermatt").param("type", "lifts"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static List<String> names(List<NameSearchIndex.Match> matches) {
+        return matches.stream().map(NameSearchIndex.Match::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,82 @@
+package com.skiconnect.index;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.service.LessonAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Deleted lessons are given back after commit
+@SpringBootTest
+public class TeacherScheduleLoadTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2025, 2, 3, 10, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private TeacherSchedule teacherSchedule;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Schedule Resort", "Schedule Valley");
+        school = fixtures.school(place, "Schedule School");
+        teacher = fixtures.teacher(school, "Schedule Teacher");
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+    }
+
+    @Test
+    void testDeletingOneOfTwoOverlappingRowsKeepsTheOther() {
+        // Written before overlaps were refused, so only the table holds them until the schedule is loaded
+        Long first = insertLesson(TEN, TEN.plusHours(1));
+        Long second = insertLesson(TEN.plusMinutes(30), TEN.plusMinutes(90));
+        teacherSchedule.load();
+        assertFalse(teacherSchedule.isFree(teacher.getId(), TEN, TEN.plusMinutes(5)));
+
+        lessonAvailabilityService.deleteById(first);
+
+        assertTrue(teacherSchedule.isFree(teacher.getId(), TEN, TEN.plusMinutes(30)));
+        assertFalse(teacherSchedule.isFree(teacher.getId(), TEN.plusMinutes(30), TEN.plusMinutes(35)));
+        assertFalse(teacherSchedule.isFree(teacher.getId(), TEN.plusMinutes(55), TEN.plusMinutes(60)));
+        assertFalse(teacherSchedule.isFree(teacher.getId(), TEN.plusMinutes(85), TEN.plusMinutes(90)));
+
+        lessonAvailabilityService.deleteById(second);
+
+        assertTrue(teacherSchedule.isFree(teacher.getId(), TEN, TEN.plusMinutes(90)));
+    }
+
+    private Long insertLesson(LocalDateTime startTime, LocalDateTime endTime) {
+        jdbcTemplate.update("INSERT INTO lesson_availabilities (teacher_id, school_id, place_id, start_time, end_time, is_available) " +
+                "VALUES (?, ?, ?, ?, ?, TRUE)", teacher.getId(), school.getId(), place.getId(),
+                Timestamp.valueOf(startTime), Timestamp.valueOf(endTime));
+        return jdbcTemplate.queryForObject("SELECT id FROM lesson_availabilities WHERE teacher_id = ? AND start_time = ?",
+                Long.class, teacher.getId(), Timestamp.valueOf(startTime));
+    }
+}
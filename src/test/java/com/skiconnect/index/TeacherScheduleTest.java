@@ -0,0 +1,87 @@
+package com.skiconnect.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TeacherScheduleTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 1, 6, 0, 0);
+    private static final Long TEACHER = 1L;
+
+    // Only the bitmaps are exercised; the table is never loaded
+    private final TeacherSchedule schedule = new TeacherSchedule(null, null);
+
+    @Test
+    void testReservationsMatchNaiveOverlapCheck() {
+        Random random = new Random(22);
+        List<LocalDateTime[]> taken = new ArrayList<>();
+        for (int round = 0; round < 20_000; round++) {
+            LocalDateTime start = MONDAY.plusMinutes(random.nextInt(3 * 24 * 60)).plusSeconds(random.nextInt(2) * 30);
+            LocalDateTime end = start.plusMinutes(1 + random.nextInt(random.nextInt(20) == 0 ? 2 * 24 * 60 : 180));
+
+            if (!taken.isEmpty() && random.nextInt(3) == 0) {
+                LocalDateTime[] released = taken.remove(random.nextInt(taken.size()));
+                schedule.release(TEACHER, released[0], released[1]);
+            }
+            boolean free = taken.stream().noneMatch(lesson -> overlaps(lesson, start, end));
+            assertEquals(free, schedule.isFree(TEACHER, start, end), "round " + round + ": " + start + " - " + end);
+            assertEquals(free, schedule.tryReserve(TEACHER, start, end), "round " + round + ": " + start + " - " + end);
+            if (free) {
+                taken.add(new LocalDateTime[] {start, end});
+            }
+        }
+    }
+
+    @Test
+    void testTimeIsTakenInFiveMinuteSteps() {
+        LocalDateTime nine = MONDAY.withHour(9);
+        assertTrue(schedule.tryReserve(TEACHER, nine, nine.plusMinutes(45)));
+        assertFalse(schedule.tryReserve(TEACHER, nine.plusMinutes(30), nine.plusMinutes(75)));
+        // Back to back fits; so does another teacher at the same time
+        assertTrue(schedule.tryReserve(TEACHER, nine.plusMinutes(45), nine.plusMinutes(60)));
+        assertTrue(schedule.tryReserve(2L, nine, nine.plusMinutes(45)));
+
+        // Ends are rounded up, so a lesson ending inside a step takes all of it
+        assertTrue(schedule.tryReserve(TEACHER, nine.plusMinutes(60), nine.plusMinutes(62)));
+        assertFalse(schedule.isFree(TEACHER, nine.plusMinutes(63), nine.plusMinutes(70)));
+        assertTrue(schedule.isFree(TEACHER, nine.plusMinutes(65), nine.plusMinutes(70)));
+        assertTrue(schedule.isFree(TEACHER, nine.plusMinutes(30), nine.plusMinutes(30)));
+
+        schedule.release(TEACHER, nine, nine.plusMinutes(45));
+        assertTrue(schedule.isFree(TEACHER, nine, nine.plusMinutes(45)));
+        assertFalse(schedule.isFree(TEACHER, nine, nine.plusMinutes(46)));
+    }
+
+    @Test
+    void testLessonOverMidnightTakesBothDays() {
+        LocalDateTime evening = MONDAY.withHour(23);
+        assertTrue(schedule.tryReserve(TEACHER, evening, evening.plusHours(2)));
+        assertFalse(schedule.isFree(TEACHER, MONDAY.plusDays(1), MONDAY.plusDays(1).plusMinutes(5)));
+        assertFalse(schedule.isFree(TEACHER, evening.minusMinutes(5), evening.plusMinutes(1)));
+        assertTrue(schedule.isFree(TEACHER, evening.plusHours(2), evening.plusHours(3)));
+
+        // A lesson of several days only fails on the days it shares
+        assertFalse(schedule.tryReserve(TEACHER, MONDAY.minusDays(2), MONDAY.plusDays(1)));
+        assertTrue(schedule.tryReserve(TEACHER, MONDAY.minusDays(2), evening));
+    }
+
+    // The steps from the start rounded down to the end rounded up
+    private static boolean overlaps(LocalDateTime[] lesson, LocalDateTime start, LocalDateTime end) {
+        return step(lesson[0], false) < step(end, true) && step(start, false) < step(lesson[1], true);
+    }
+
+    private static long step(LocalDateTime time, boolean roundUp) {
+        long seconds = Duration.between(MONDAY, time).getSeconds();
+        long stepSeconds = TeacherSchedule.STEP_MINUTES * 60L;
+        return roundUp ? Math.floorDiv(seconds + stepSeconds - 1, stepSeconds) : Math.floorDiv(seconds, stepSeconds);
+    }
+}
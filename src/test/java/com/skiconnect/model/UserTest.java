@@ -62,11 +62,10 @@ class UserTest {
         School school = new School();
         school.setName("Test School");
         school.setUser(user);
-        
-        user.setSchool(school);
 
-        assertNotNull(user.getSchool());
-        assertEquals("Test School", user.getSchool().getName());
+        // The school owns the link; users carry no back-reference
+        assertSame(user, school.getUser());
+        assertEquals("schooluser", school.getUser().getUsername());
     }
 
     @Test
@@ -80,11 +79,9 @@ class UserTest {
         teacher.setName("Test Teacher");
         teacher.setUser(user);
         teacher.setFreelancer(true);
-        
-        user.setTeacher(teacher);
 
-        assertNotNull(user.getTeacher());
-        assertEquals("Test Teacher", user.getTeacher().getName());
-        assertTrue(user.getTeacher().isFreelancer());
+        assertSame(user, teacher.getUser());
+        assertEquals("teacheruser", teacher.getUser().getUsername());
+        assertTrue(teacher.isFreelancer());
     }
 } 
\ No newline at end of file
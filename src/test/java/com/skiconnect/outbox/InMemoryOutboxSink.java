@@ -0,0 +1,47 @@
+package com.skiconnect.outbox;
+
+import com.skiconnect.model.OutboxEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects delivered events for assertions, and fails a given number of deliveries on request.
+ */
+@Component
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> delivered = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private int failures;
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        if (failures > 0) {
+            failures--;
+            throw new IOException("Sink unavailable");
+        }
+        delivered.addAll(events);
+        batchSizes.add(events.size());
+    }
+
+    public synchronized void failNext(int deliveries) {
+        failures = deliveries;
+    }
+
+    public synchronized List<OutboxEvent> delivered() {
+        return List.copyOf(delivered);
+    }
+
+    public synchronized List<Integer> batchSizes() {
+        return List.copyOf(batchSizes);
+    }
+
+    public synchronized void clear() {
+        delivered.clear();
+        batchSizes.clear();
+        failures = 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.skiconnect.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skiconnect.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Draining a backlog of booking events to the log file sink one event per batch against 100 per batch.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "skiconnect.app.outboxLingerMs=3600000",
+        "skiconnect.app.outboxLogFile=target/booking-events.log"
+})
+@Import(InMemoryOutboxSink.class)
+class OutboxDispatcherBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcherBenchmarkTest.class);
+
+    private static final int EVENTS = 10_000;
+    // Lessons the events are spread over, a few events each
+    private static final int LESSONS = 2_500;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void benchmarkBatchSizes() throws Exception {
+        try {
+            // Warm up both paths
+            drain(1, 1_000, "warmup-single");
+            drain(100, 1_000, "warmup-batched");
+
+            long single = drain(1, EVENTS, "single");
+            long batched = drain(100, EVENTS, "batched");
+            logger.info("{} events: {} events/s one per batch, {} events/s 100 per batch",
+                    EVENTS, EVENTS * 1_000_000_000L / single, EVENTS * 1_000_000_000L / batched);
+            assertTrue(batched * 5 < single, "batches of 100 should deliver at least 5x faster than single events");
+        } finally {
+            jdbcTemplate.update("DELETE FROM outbox_events");
+        }
+    }
+
+    // Fills the outbox and returns the nanoseconds a dispatcher with the given batch size takes to drain it
+    private long drain(int batchSize, int events, String name) throws Exception {
+        fill(events);
+        Path file = directory.resolve(name + ".log");
+        LogFileOutboxSink sink = new LogFileOutboxSink(objectMapper, file.toString());
+        OutboxDispatcher dispatcher = new OutboxDispatcher(outboxEventRepository, List.of(sink), transactionManager,
+                batchSize, 1_000, 200);
+        try {
+            long start = System.nanoTime();
+            assertEquals(events, dispatcher.dispatch());
+            long nanos = System.nanoTime() - start;
+            assertEquals(events, Files.readAllLines(file).size());
+            return nanos;
+        } finally {
+            sink.close();
+        }
+    }
+
+    private void fill(int events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp start = Timestamp.valueOf(LocalDateTime.of(2025, 12, 1, 9, 0));
+        Timestamp end = Timestamp.valueOf(LocalDateTime.of(2025, 12, 1, 10, 0));
+        List<Object[]> rows = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            rows.add(new Object[]{i % 2 == 0 ? "BOOKED" : "CANCELLED", (long) (i % LESSONS), start, end, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_events (type, availability_id, place_id, school_id, teacher_id, "
+                + "start_time, end_time, created_at, attempts) VALUES (?, ?, 1, 1, 1, ?, ?, ?, 0)", rows);
+    }
+}
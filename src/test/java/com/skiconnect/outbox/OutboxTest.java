@@ -0,0 +1,209 @@
+package com.skiconnect.outbox;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.event.ChangeEventRing;
+import com.skiconnect.event.LessonAvailabilityChangedEvent.Type;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.OutboxEvent;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.service.LessonAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Events are delivered only once the booking commits. A database of its own keeps the
+// dispatchers of other cached contexts away from its outbox, and the long linger leaves draining to the test.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "skiconnect.app.outboxLingerMs=3600000",
+        "skiconnect.app.outboxLogFile=target/booking-events.log"
+})
+@Import(InMemoryOutboxSink.class)
+public class OutboxTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 29, 10, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private ChangeEventRing changeEventRing;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Outbox Resort", "Outbox Valley");
+        school = fixtures.school(place, "Outbox School");
+        teacher = fixtures.teacher(school, "Outbox Teacher");
+        student = fixtures.user("outboxstudent");
+        outboxDispatcher.dispatch();
+        sink.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM outbox_events");
+        fixtures.deleteAll();
+        sink.clear();
+    }
+
+    @Test
+    void testBookingsAndCancellationsAreDeliveredAfterCommit() {
+        LessonAvailability lesson = createLesson(0);
+        lessonAvailabilityService.bookLesson(lesson.getId(), student.getId());
+        lessonAvailabilityService.cancelBooking(lesson.getId());
+        // Rolled back, so it leaves no event
+        lessonAvailabilityService.bookLesson(lesson.getId(), student.getId());
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.bookLesson(lesson.getId(), student.getId()));
+
+        // Nothing is delivered on the booking thread
+        assertTrue(sink.delivered().isEmpty());
+        assertEquals(3, outboxDispatcher.dispatch());
+
+        List<OutboxEvent> delivered = sink.delivered();
+        assertEquals(List.of(Type.BOOKED, Type.CANCELLED, Type.BOOKED), delivered.stream().map(OutboxEvent::getType).toList());
+        assertTrue(delivered.stream().allMatch(event -> event.getAvailabilityId().equals(lesson.getId())
+                && event.getTeacherId().equals(teacher.getId()) && event.getStartTime().equals(lesson.getStartTime())
+                && event.getStudentId().equals(student.getId())));
+        assertEquals(0, pendingEvents());
+        assertEquals(0, outboxDispatcher.dispatch());
+    }
+
+    @Test
+    void testDispatcherIsWokenThroughTheChangeRing() throws Exception {
+        LessonAvailability lesson = createLesson(0);
+        awaitChangeRing();
+        outboxDispatcher.dispatchIfDue();
+
+        lessonAvailabilityService.bookLesson(lesson.getId(), student.getId());
+        awaitChangeRing();
+        assertEquals(1, outboxDispatcher.dispatchIfDue());
+        assertEquals(0, outboxDispatcher.dispatchIfDue());
+    }
+
+    @Test
+    void testHoldsAreDeliveredOnlyOnceConfirmed() {
+        LessonAvailability confirmed = createLesson(0);
+        LessonAvailability lapsed = createLesson(120);
+        lessonAvailabilityService.holdLesson(confirmed.getId(), student.getId(), Duration.ofHours(1));
+        lessonAvailabilityService.holdLesson(lapsed.getId(), student.getId(), Duration.ofHours(1));
+        assertEquals(0, outboxDispatcher.dispatch());
+
+        lessonAvailabilityService.confirmHold(confirmed.getId(), student.getId());
+        jdbcTemplate.update("UPDATE lesson_availabilities SET held_until = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(1), lapsed.getId());
+        assertEquals(1, lessonAvailabilityService.releaseLapsedHolds(List.of(lapsed.getId())));
+
+        assertEquals(1, outboxDispatcher.dispatch());
+        OutboxEvent booking = sink.delivered().get(0);
+        assertEquals(Type.BOOKED, booking.getType());
+        assertEquals(confirmed.getId(), booking.getAvailabilityId());
+        assertEquals(student.getId(), booking.getStudentId());
+    }
+
+    @Test
+    void testDeletingABookedLessonCancelsTheBookingAndItsWaitlist() {
+        LessonAvailability lesson = createLesson(0);
+        User queued = fixtures.user("outboxqueued");
+        lessonAvailabilityService.bookLesson(lesson.getId(), student.getId());
+        lessonAvailabilityService.joinWaitlist(lesson.getId(), queued.getId());
+        outboxDispatcher.dispatch();
+        sink.clear();
+
+        lessonAvailabilityService.deleteById(lesson.getId());
+
+        assertEquals(2, outboxDispatcher.dispatch());
+        List<OutboxEvent> delivered = sink.delivered();
+        assertEquals(List.of(Type.WAITLIST_CANCELLED, Type.CANCELLED), delivered.stream().map(OutboxEvent::getType).toList());
+        assertEquals(List.of(queued.getId(), student.getId()), delivered.stream().map(OutboxEvent::getStudentId).toList());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedWithoutReorderingItsLessons() {
+        LessonAvailability first = createLesson(0);
+        lessonAvailabilityService.bookLesson(first.getId(), student.getId());
+        sink.failNext(1);
+        assertEquals(0, outboxDispatcher.dispatch());
+        assertEquals(1, pendingEvents());
+
+        // Held back behind the failed booking of its lesson, while another lesson's booking goes through
+        lessonAvailabilityService.cancelBooking(first.getId());
+        LessonAvailability second = createLesson(120);
+        lessonAvailabilityService.bookLesson(second.getId(), student.getId());
+        assertEquals(1, outboxDispatcher.dispatch());
+        assertEquals(List.of(second.getId()), sink.delivered().stream().map(OutboxEvent::getAvailabilityId).toList());
+
+        // Once the retry is due, the lesson's events arrive in the order they committed
+        jdbcTemplate.update("UPDATE outbox_events SET next_attempt_at = ? WHERE next_attempt_at IS NOT NULL",
+                LocalDateTime.now().minusSeconds(1));
+        assertEquals(2, outboxDispatcher.dispatch());
+        List<OutboxEvent> retried = sink.delivered().subList(1, 3);
+        assertEquals(List.of(Type.BOOKED, Type.CANCELLED), retried.stream().map(OutboxEvent::getType).toList());
+        assertEquals(1, retried.get(0).getAttempts());
+        assertEquals(0, pendingEvents());
+    }
+
+    @Test
+    void testBacklogIsDrainedInFullBatches() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            ids.add(createLesson(i * 60L).getId());
+        }
+        lessonAvailabilityService.bookLessons(ids, student.getId());
+
+        assertEquals(250, outboxDispatcher.dispatch());
+        assertEquals(List.of(100, 100, 50), sink.batchSizes());
+        assertEquals(ids, sink.delivered().stream().map(OutboxEvent::getAvailabilityId).toList());
+    }
+
+    // Lessons an hour long, the given number of minutes after the first
+    private LessonAvailability createLesson(long minutes) {
+        LocalDateTime start = START.plusMinutes(minutes);
+        return lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), place.getId(),
+                start, start.plusHours(1));
+    }
+
+    private void awaitChangeRing() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (changeEventRing.lags().get("OutboxDispatcher") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0L, changeEventRing.lags().get("OutboxDispatcher"));
+    }
+
+    private int pendingEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events", Integer.class);
+    }
+}
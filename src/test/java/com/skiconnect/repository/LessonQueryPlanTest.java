@@ -0,0 +1,66 @@
+package com.skiconnect.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that H2 serves each lesson listing filter shape from the matching composite index in schema.sql.
+ * The statements mirror what {@link LessonAvailabilitySpecifications} renders for a keyset page.
+ */
+@SpringBootTest
+@Transactional
+public class LessonQueryPlanTest {
+
+    private static final String WINDOW = "start_time >= TIMESTAMP '2030-01-01 00:00:00'"
+            + " AND start_time < TIMESTAMP '2030-02-01 00:00:00'";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void placeStatusAndWindowUsePlaceStatusIndex() {
+        assertUsesIndex("IDX_LESSON_PLACE_STATUS_START", "place_id = 1 AND is_available = TRUE AND " + WINDOW);
+    }
+
+    @Test
+    void schoolStatusAndWindowUseSchoolStatusIndex() {
+        assertUsesIndex("IDX_LESSON_SCHOOL_STATUS_START", "school_id = 1 AND is_available = FALSE AND " + WINDOW);
+    }
+
+    @Test
+    void teacherStatusAndWindowUseTeacherStatusIndex() {
+        assertUsesIndex("IDX_LESSON_TEACHER_STATUS_START", "teacher_id = 1 AND is_available = TRUE AND " + WINDOW);
+    }
+
+    @Test
+    void placeAndWindowUsePlaceIndex() {
+        assertUsesIndex("IDX_LESSON_PLACE_START", "place_id = 1 AND " + WINDOW);
+    }
+
+    @Test
+    void teacherAndWindowUseTeacherIndex() {
+        assertUsesIndex("IDX_LESSON_TEACHER_START", "teacher_id = 1 AND " + WINDOW);
+    }
+
+    @Test
+    void studentUsesStudentIndex() {
+        assertUsesIndex("IDX_LESSON_STUDENT_START", "student_id = 1 AND " + WINDOW);
+    }
+
+    @Test
+    void statusOnlyUsesStatusStartIndex() {
+        assertUsesIndex("IDX_LESSON_STATUS_START", "is_available = TRUE AND " + WINDOW);
+    }
+
+    private void assertUsesIndex(String index, String where) {
+        String plan = jdbcTemplate.queryForObject(
+                "EXPLAIN SELECT id FROM lesson_availabilities WHERE " + where + " ORDER BY start_time, id LIMIT 51",
+                String.class);
+        assertTrue(plan.toUpperCase().contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+}
@@ -0,0 +1,246 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.AvailabilityRule;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.model.PlaceHourlyAvailability;
+import com.skiconnect.repository.AvailabilityRuleRepository;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.repository.LessonRow;
+import com.skiconnect.repository.PlaceHourlyAvailabilityRepository;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+public class AvailabilityCounterTest {
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private AvailabilityCounterReconciler reconciler;
+
+    @Autowired
+    private LessonAvailabilityRepository lessonAvailabilityRepository;
+
+    @Autowired
+    private PlaceHourlyAvailabilityRepository placeHourlyAvailabilityRepository;
+
+    @Autowired
+    private AvailabilityRuleRepository availabilityRuleRepository;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Counter Resort", "Counter Valley");
+        school = fixtures.school(place, "Counter School");
+        teacher = fixtures.teacher(school, "Counter Teacher");
+        student = fixtures.user("counterstudent");
+    }
+
+    @Test
+    void testCountersFollowLessonLifecycle() {
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 10, 0);
+        LessonAvailability first = lessonAvailabilityService.createAvailability(
+                teacher.getId(), school.getId(), place.getId(), start, start.plusHours(1));
+        LessonAvailability second = lessonAvailabilityService.createAvailability(
+                teacher.getId(), school.getId(), place.getId(), start.plusHours(2), start.plusHours(3));
+        assertCounters(2);
+
+        lessonAvailabilityService.bookLesson(first.getId(), student.getId());
+        assertCounters(1);
+
+        lessonAvailabilityService.cancelBooking(first.getId());
+        assertCounters(2);
+
+        lessonAvailabilityService.deleteById(second.getId());
+        assertCounters(1);
+
+        lessonAvailabilityService.bookLesson(first.getId(), student.getId());
+        lessonAvailabilityService.deleteById(first.getId());
+        assertCounters(0);
+    }
+
+    @Test
+    void testHourlyRollupFollowsLessonLifecycle() {
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 10, 0);
+        LessonAvailability first = lessonAvailabilityService.createAvailability(
+                teacher.getId(), school.getId(), place.getId(), start, start.plusMinutes(30));
+        lessonAvailabilityService.createAvailability(
+                teacher.getId(), school.getId(), place.getId(), start.plusMinutes(30), start.plusMinutes(90));
+        assertEquals(2, openSlotsAt(10));
+
+        lessonAvailabilityService.bookLesson(first.getId(), student.getId());
+        assertEquals(1, openSlotsAt(10));
+
+        lessonAvailabilityService.cancelBooking(first.getId());
+        assertEquals(2, openSlotsAt(10));
+
+        lessonAvailabilityService.deleteById(first.getId());
+        assertEquals(1, openSlotsAt(10));
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void testBatchKeepsCountersAndRollupsInStep() {
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 10, 0);
+        List<LessonRow> slots = new ArrayList<>();
+        for (int i = 0; i < 2 * LessonAvailabilityServiceImpl.BATCH_CHUNK_SIZE + 5; i++) {
+            LocalDateTime slotStart = start.plusMinutes(15L * i);
+            slots.add(new LessonRow(null, school.getId(), teacher.getId(), place.getId(), null,
+                    slotStart, slotStart.plusMinutes(15), true, null));
+        }
+        slots.set(3, new LessonRow(null, school.getId(), -1L, place.getId(), null, start, start.plusHours(1), true, null));
+        slots.set(1500, new LessonRow(null, school.getId(), teacher.getId(), place.getId(), null,
+                start.plusHours(1), start, true, null));
+        slots.set(2004, new LessonRow(null, school.getId(), teacher.getId(), null, null, start, start.plusHours(1), true, null));
+
+        List<List<BatchRowResult>> chunks = new ArrayList<>();
+        int created = lessonAvailabilityService.createAvailabilities(slots, chunks::add);
+
+        assertEquals(slots.size() - 3, created);
+        assertEquals(3, chunks.size());
+        List<BatchRowResult> results = chunks.stream().flatMap(List::stream).toList();
+        assertEquals(IntStream.range(0, slots.size()).boxed().toList(), results.stream().map(BatchRowResult::getIndex).toList());
+        assertEquals("Teacher not found with id: -1", results.get(3).getError());
+        assertEquals("Start time must be before end time", results.get(1500).getError());
+        assertEquals("Teacher, school, place, start and end are required", results.get(2004).getError());
+
+        BatchRowResult first = results.get(0);
+        assertTrue(first.isCreated());
+        LessonAvailability stored = lessonAvailabilityRepository.findById(first.getAvailabilityId()).orElseThrow();
+        assertEquals(start, stored.getStartTime());
+        assertTrue(stored.isAvailable());
+
+        assertCounters(created);
+        assertEquals(results.stream().filter(result -> result.isCreated()
+                && slots.get(result.getIndex()).getStartTime().toLocalDate().equals(start.toLocalDate())
+                && slots.get(result.getIndex()).getStartTime().getHour() == 10).count(), openSlotsAt(10));
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void testReconcilerRepairsDrift() {
+        LocalDateTime start = LocalDateTime.of(2025, 2, 1, 10, 0);
+        for (int i = 0; i < 3; i++) {
+            // Written straight through the repository, bypassing the counter updates
+            LessonAvailability availability = new LessonAvailability();
+            availability.setTeacher(teacher);
+            availability.setSchool(school);
+            availability.setPlace(place);
+            availability.setStartTime(start.plusHours(i));
+            availability.setEndTime(start.plusHours(i + 1));
+            lessonAvailabilityRepository.save(availability);
+        }
+        assertCounters(0);
+        assertEquals(0, openSlotsAt(10));
+
+        // Two counters plus three missing hourly rollups
+        assertEquals(5, reconciler.reconcile());
+        assertCounters(3);
+        assertEquals(1, openSlotsAt(10));
+        assertEquals(1, openSlotsAt(12));
+
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void testReconcilerRecountsRuleSlotsBeforeTheCounters() {
+        // Mondays and Wednesdays of two weeks, four hourly slots a day
+        AvailabilityRule rule = lessonAvailabilityService.createRule(teacher.getId(), school.getId(), place.getId(),
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), LocalTime.of(9, 0), LocalTime.of(13, 0), 60,
+                LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 14), Set.of());
+        lessonAvailabilityService.bookRecurringSlot(rule.getId(), LocalDateTime.of(2025, 3, 3, 9, 0), student.getId());
+        assertCounters(15);
+
+        // Only the rule's column drifted; summing it into the counters as it stands would spread the drift
+        entityManager.createNativeQuery("UPDATE availability_rules SET open_slots = open_slots + 5 WHERE id = ?1")
+                .setParameter(1, rule.getId())
+                .executeUpdate();
+
+        assertEquals(1, reconciler.reconcile());
+        assertEquals(15, openSlotsOf(rule));
+        assertCounters(15);
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void testPastRuleSlotsStayCountedLikePastLessons() {
+        LocalDate firstDay = LocalDate.now().minusDays(10);
+        lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), place.getId(),
+                firstDay.atTime(15, 0), firstDay.atTime(16, 0));
+        // Every day of three, two hourly slots a day, all of them over
+        AvailabilityRule rule = lessonAvailabilityService.createRule(teacher.getId(), school.getId(), place.getId(),
+                EnumSet.allOf(DayOfWeek.class), LocalTime.of(9, 0), LocalTime.of(11, 0), 60,
+                firstDay, firstDay.plusDays(2), Set.of());
+        assertCounters(7);
+
+        // An exception takes away the day's slots even though they are past
+        lessonAvailabilityService.addRuleException(rule.getId(), firstDay.plusDays(1));
+        assertEquals(4, openSlotsOf(rule));
+        assertCounters(5);
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    private int openSlotsOf(AvailabilityRule rule) {
+        entityManager.flush();
+        entityManager.clear();
+        return availabilityRuleRepository.findById(rule.getId()).orElseThrow().getOpenSlots();
+    }
+
+    private void assertCounters(int expected) {
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(expected, schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(expected, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+    }
+
+    private int openSlotsAt(int hour) {
+        entityManager.flush();
+        entityManager.clear();
+        return placeHourlyAvailabilityRepository.findById(
+                        new PlaceHourlyAvailability.Key(place.getId(), LocalDate.of(2025, 2, 1), hour))
+                .map(PlaceHourlyAvailability::getOpenSlots)
+                .orElse(0);
+    }
+}
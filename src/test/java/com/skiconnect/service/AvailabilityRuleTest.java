@@ -0,0 +1,279 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.FreeSlotFinder;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.AvailabilityRule;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.PlaceHourlyAvailability;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.LessonAvailabilityRepository;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A place offering a recurring rule against a twin place holding the same slots as stored rows: every read
+ * must see the same lessons, whether the slots are expanded on the fly or loaded.
+ */
+@SpringBootTest
+@Transactional
+public class AvailabilityRuleTest {
+
+    private static final Set<DayOfWeek> WEEKDAYS = Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY);
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 1, 26);
+    private static final LocalDate HOLIDAY = LocalDate.of(2025, 1, 8);
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2025, 1, 5, 0, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2025, 1, 27, 0, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private AvailabilityCounterReconciler reconciler;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private LessonAvailabilityRepository lessonAvailabilityRepository;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Owner recurring;
+    private Owner stored;
+    private AvailabilityRule rule;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        recurring = createOwner("rule");
+        stored = createOwner("rows");
+        student = fixtures.user("rulestudent");
+
+        rule = lessonAvailabilityService.createRule(recurring.teacher.getId(), recurring.school.getId(), recurring.place.getId(),
+                WEEKDAYS, LocalTime.of(9, 0), LocalTime.of(12, 30), 60, FIRST_DAY, LAST_DAY, Set.of(HOLIDAY));
+
+        // The same slots, one row each; the half hour left at the end of the window yields none
+        Iterator<LocalDateTime> starts = RecurringSlots.starts(rule, WINDOW_START, WINDOW_END);
+        while (starts.hasNext()) {
+            LocalDateTime start = starts.next();
+            lessonAvailabilityService.createAvailability(stored.teacher.getId(), stored.school.getId(), stored.place.getId(),
+                    start, start.plusHours(1));
+        }
+        // The fixture is not committed, so the index must read it through the test transaction
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @AfterTransaction
+    void restoreIndex() {
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testRuleReadsLikeStoredRows() {
+        // Three weeks of Monday, Wednesday and Friday less one holiday, three slots a day
+        assertEquals(24, rule.getOpenSlots());
+        assertSameLessons();
+    }
+
+    @Test
+    void testBookingMaterializesOneSlot() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 10, 0);
+        LessonAvailability booked = lessonAvailabilityService.bookRecurringSlot(rule.getId(), start, student.getId());
+        assertFalse(booked.isAvailable());
+        assertEquals(rule.getId(), booked.getRule().getId());
+        lessonAvailabilityService.bookLesson(storedLessonAt(start), student.getId());
+        lessonAvailabilityIndex.rebuild();
+
+        assertSameLessons();
+        assertThrows(IllegalStateException.class,
+                () -> lessonAvailabilityService.bookRecurringSlot(rule.getId(), start, student.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> lessonAvailabilityService.bookRecurringSlot(rule.getId(), start.plusMinutes(30), student.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> lessonAvailabilityService.bookRecurringSlot(rule.getId(), HOLIDAY.atTime(9, 0), student.getId()));
+    }
+
+    @Test
+    void testExceptionRemovesOnlyOpenSlotsOfTheDay() {
+        LocalDate day = LocalDate.of(2025, 1, 13);
+        lessonAvailabilityService.bookRecurringSlot(rule.getId(), day.atTime(9, 0), student.getId());
+        lessonAvailabilityService.bookLesson(storedLessonAt(day.atTime(9, 0)), student.getId());
+
+        AvailabilityRule updated = lessonAvailabilityService.addRuleException(rule.getId(), day);
+        assertEquals(21, updated.getOpenSlots());
+        // Not a day the rule runs on, so nothing changes
+        assertEquals(21, lessonAvailabilityService.addRuleException(rule.getId(), day.plusDays(1)).getOpenSlots());
+        lessonAvailabilityService.deleteById(storedLessonAt(day.atTime(10, 0)));
+        lessonAvailabilityService.deleteById(storedLessonAt(day.atTime(11, 0)));
+        lessonAvailabilityIndex.rebuild();
+
+        assertSameLessons();
+    }
+
+    @Test
+    void testDeletingABookedSlotReopensIt() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 20, 11, 0);
+        LessonAvailability booked = lessonAvailabilityService.bookRecurringSlot(rule.getId(), start, student.getId());
+        lessonAvailabilityService.deleteById(booked.getId());
+        lessonAvailabilityIndex.rebuild();
+
+        assertSameLessons();
+        assertEquals(24, ruleOpenSlots());
+    }
+
+    @Test
+    void testDeletingTheRuleKeepsBookedLessons() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 15, 9, 0);
+        LessonAvailability booked = lessonAvailabilityService.bookRecurringSlot(rule.getId(), start, student.getId());
+
+        lessonAvailabilityService.deleteRule(rule.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        LessonAvailability kept = lessonAvailabilityRepository.findById(booked.getId()).orElseThrow();
+        assertNull(kept.getRule());
+        assertTrue(lessonAvailabilityService.findAvailableLessonsByPlaceAndTimeRange(
+                recurring.place.getId(), WINDOW_START, WINDOW_END).isEmpty());
+        assertEquals(0, schoolRepository.findById(recurring.school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(0, teacherRepository.findById(recurring.teacher.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    @Test
+    void testRejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> lessonAvailabilityService.createRule(recurring.teacher.getId(),
+                recurring.school.getId(), recurring.place.getId(), Set.of(), LocalTime.of(9, 0), LocalTime.of(12, 0),
+                60, FIRST_DAY, LAST_DAY, null));
+        assertThrows(IllegalArgumentException.class, () -> lessonAvailabilityService.createRule(recurring.teacher.getId(),
+                recurring.school.getId(), recurring.place.getId(), WEEKDAYS, LocalTime.of(9, 0), LocalTime.of(9, 30),
+                60, FIRST_DAY, LAST_DAY, null));
+        assertThrows(IllegalArgumentException.class, () -> lessonAvailabilityService.createRule(recurring.teacher.getId(),
+                recurring.school.getId(), recurring.place.getId(), WEEKDAYS, LocalTime.of(9, 0), LocalTime.of(12, 0),
+                60, FIRST_DAY, FIRST_DAY.plusYears(2), null));
+    }
+
+    /**
+     * Compares every read that counts or lists available lessons between the two places.
+     */
+    private void assertSameLessons() {
+        LessonAvailabilityService service = lessonAvailabilityService;
+        assertEquals(describe(service.findAvailableLessonsByPlaceAndTimeRange(stored.place.getId(), WINDOW_START, WINDOW_END)),
+                describe(service.findAvailableLessonsByPlaceAndTimeRange(recurring.place.getId(), WINDOW_START, WINDOW_END)));
+        assertEquals(describe(service.findAvailableLessonsBySchoolAndTimeRange(stored.school.getId(), WINDOW_START, WINDOW_END)),
+                describe(service.findAvailableLessonsBySchoolAndTimeRange(recurring.school.getId(), WINDOW_START, WINDOW_END)));
+        // An end inside a slot leaves that slot out
+        LocalDateTime midSlot = LocalDateTime.of(2025, 1, 10, 10, 30);
+        assertEquals(describe(service.findAvailableLessonsByTeacherAndTimeRange(stored.teacher.getId(), WINDOW_START, midSlot)),
+                describe(service.findAvailableLessonsByTeacherAndTimeRange(recurring.teacher.getId(), WINDOW_START, midSlot)));
+
+        Map<Long, Long> counts = lessonAvailabilityService.countAvailableByPlaceIds(
+                List.of(stored.place.getId(), recurring.place.getId()));
+        assertEquals(counts.get(stored.place.getId()), counts.get(recurring.place.getId()));
+
+        assertEquals(describeCalendar(lessonAvailabilityService.findOpenSlotsByPlace(stored.place.getId(), FIRST_DAY, LAST_DAY)),
+                describeCalendar(lessonAvailabilityService.findOpenSlotsByPlace(recurring.place.getId(), FIRST_DAY, LAST_DAY)));
+
+        for (int hours = 1; hours <= 3; hours++) {
+            assertEquals(describeFreeSlots(lessonAvailabilityService.findEarliestFreeSlots(stored.place.getId(), null,
+                            Duration.ofHours(hours), WINDOW_START, WINDOW_END, 50)),
+                    describeFreeSlots(lessonAvailabilityService.findEarliestFreeSlots(recurring.place.getId(), null,
+                            Duration.ofHours(hours), WINDOW_START, WINDOW_END, 50)));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        School storedSchool = schoolRepository.findById(stored.school.getId()).orElseThrow();
+        assertEquals(storedSchool.getAvailableLessons(),
+                schoolRepository.findById(recurring.school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(storedSchool.getAvailableLessons(),
+                teacherRepository.findById(recurring.teacher.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(storedSchool.getAvailableLessons(), counts.get(recurring.place.getId()).intValue());
+        assertEquals(0, reconciler.reconcile());
+    }
+
+    private Long storedLessonAt(LocalDateTime start) {
+        return lessonAvailabilityService.findAvailableLessonsByPlaceAndTimeRange(
+                stored.place.getId(), start, start.plusHours(1)).get(0).getId();
+    }
+
+    private int ruleOpenSlots() {
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(AvailabilityRule.class, rule.getId()).getOpenSlots();
+    }
+
+    private static List<String> describe(List<LessonAvailability> lessons) {
+        return lessons.stream()
+                .map(lesson -> lesson.getStartTime() + "-" + lesson.getEndTime())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> describeCalendar(List<PlaceHourlyAvailability> hours) {
+        return hours.stream()
+                .map(hour -> hour.getSlotDate() + "T" + hour.getSlotHour() + "=" + hour.getOpenSlots())
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> describeFreeSlots(List<FreeSlotFinder.FreeSlot> slots) {
+        return slots.stream()
+                .map(slot -> slot.getStartTime() + "-" + slot.getEndTime())
+                .collect(Collectors.toList());
+    }
+
+    private Owner createOwner(String name) {
+        Place place = fixtures.place(name + " Resort", name + " Valley");
+        School school = fixtures.school(place, name + " School");
+        return new Owner(place, school, fixtures.teacher(school, name + " Teacher"));
+    }
+
+    private static final class Owner {
+        private final Place place;
+        private final School school;
+        private final Teacher teacher;
+
+        Owner(Place place, School school, Teacher teacher) {
+            this.place = place;
+            this.school = school;
+            this.teacher = teacher;
+        }
+    }
+}
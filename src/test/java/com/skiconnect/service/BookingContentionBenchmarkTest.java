@@ -0,0 +1,144 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Thousands of concurrent bookings aimed at the same lessons: exactly one must win each lesson, and the
+ * throughput and latency percentiles of the compare-and-set booking are logged.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class BookingContentionBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingContentionBenchmarkTest.class);
+
+    private static final int LESSONS = 250;
+    private static final int STUDENTS_PER_LESSON = 16;
+    private static final int THREADS = 16;
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2026, 1, 5, 8, 0);
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void benchmarkContendedBookings() throws Exception {
+        Place place = fixtures.place("Contention Benchmark Resort", "Contention Benchmark Valley");
+        School school = fixtures.school(place, "Contention Benchmark School");
+        Teacher teacher = fixtures.teacher(school, "Contention Benchmark Teacher");
+
+        try {
+            List<Long> lessonIds = new ArrayList<>();
+            for (int i = 0; i < LESSONS; i++) {
+                LocalDateTime start = SEASON_START.plusDays(i / 8).plusHours(i % 8);
+                lessonIds.add(lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(),
+                        place.getId(), start, start.plusHours(1)).getId());
+            }
+            List<Long> studentIds = new ArrayList<>();
+            for (int i = 0; i < STUDENTS_PER_LESSON; i++) {
+                studentIds.add(fixtures.user("contentionbenchmarkstudent" + i).getId());
+            }
+
+            // Every student tries every lesson; the attempts on one lesson are spread over all threads
+            List<long[]> attempts = new ArrayList<>(LESSONS * STUDENTS_PER_LESSON);
+            for (Long lessonId : lessonIds) {
+                for (Long studentId : studentIds) {
+                    attempts.add(new long[] {lessonId, studentId});
+                }
+            }
+            Collections.shuffle(attempts, new Random(42));
+
+            Map<Long, AtomicInteger> winners = new ConcurrentHashMap<>();
+            AtomicInteger conflicts = new AtomicInteger();
+            long[] latencies = new long[attempts.size()];
+            CountDownLatch go = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> futures = new ArrayList<>(attempts.size());
+            long start;
+            long elapsed;
+            try {
+                for (int i = 0; i < attempts.size(); i++) {
+                    int attempt = i;
+                    futures.add(executor.submit(() -> {
+                        go.await();
+                        long lessonId = attempts.get(attempt)[0];
+                        long begin = System.nanoTime();
+                        try {
+                            lessonAvailabilityService.bookLesson(lessonId, attempts.get(attempt)[1]);
+                            winners.computeIfAbsent(lessonId, id -> new AtomicInteger()).incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            conflicts.incrementAndGet();
+                        } finally {
+                            latencies[attempt] = System.nanoTime() - begin;
+                        }
+                        return null;
+                    }));
+                }
+                start = System.nanoTime();
+                go.countDown();
+                for (Future<?> future : futures) {
+                    future.get(5, TimeUnit.MINUTES);
+                }
+                elapsed = System.nanoTime() - start;
+            } finally {
+                executor.shutdownNow();
+            }
+
+            Arrays.sort(latencies);
+            logger.info("{} bookings of {} lessons on {} threads: {} bookings/s, p50 {} us, p99 {} us, max {} us",
+                    attempts.size(), LESSONS, THREADS, attempts.size() * 1_000_000_000L / elapsed,
+                    latencies[latencies.length / 2] / 1_000, latencies[latencies.length * 99 / 100] / 1_000,
+                    latencies[latencies.length - 1] / 1_000);
+
+            assertEquals(LESSONS, winners.size());
+            winners.forEach((lessonId, wins) -> assertEquals(1, wins.get(), "lesson " + lessonId));
+            assertEquals(LESSONS * (STUDENTS_PER_LESSON - 1), conflicts.get());
+            assertEquals(0, schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons());
+            assertEquals(0, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+        } finally {
+            fixtures.deleteAll();
+            lessonAvailabilityIndex.rebuild();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.SchoolRepository;
+import com.skiconnect.repository.TeacherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every booking has to run and commit in its own transaction on its own thread
+@SpringBootTest
+public class ConcurrentBookingTest {
+
+    private static final int SLOTS = 10;
+    private static final int STUDENTS_PER_SLOT = 8;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private final List<Long> lessonIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Contention Resort", "Contention Valley");
+        school = fixtures.school(place, "Contention School");
+        teacher = fixtures.teacher(school, "Contention Teacher");
+
+        for (int i = 0; i < SLOTS; i++) {
+            lessonIds.add(lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), place.getId(),
+                    START.plusHours(i), START.plusHours(i + 1)).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testEachLessonHasExactlyOneWinner() throws Exception {
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS_PER_SLOT; i++) {
+            students.add(fixtures.user("contentionstudent" + i));
+        }
+
+        // Two winners of one lesson would add to the same queue from different threads
+        Map<Long, Queue<Long>> winners = new ConcurrentHashMap<>();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(STUDENTS_PER_SLOT);
+        List<Future<?>> attempts = new ArrayList<>();
+        try {
+            for (Long lessonId : lessonIds) {
+                for (User student : students) {
+                    attempts.add(executor.submit(() -> {
+                        go.await();
+                        try {
+                            lessonAvailabilityService.bookLesson(lessonId, student.getId());
+                            winners.computeIfAbsent(lessonId, id -> new ConcurrentLinkedQueue<>()).add(student.getId());
+                        } catch (IllegalStateException e) {
+                            conflicts.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+            }
+            go.countDown();
+            for (Future<?> attempt : attempts) {
+                // Any other failure, such as a lock timeout, is rethrown here
+                attempt.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(SLOTS * (STUDENTS_PER_SLOT - 1), conflicts.get());
+        for (Long lessonId : lessonIds) {
+            Queue<Long> lessonWinners = winners.get(lessonId);
+            assertEquals(1, lessonWinners.size(), "lesson " + lessonId);
+            assertEquals(lessonWinners.peek(), jdbcTemplate.queryForObject(
+                    "SELECT student_id FROM lesson_availabilities WHERE id = ?", Long.class, lessonId));
+        }
+        assertEquals(0, schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(0, teacherRepository.findById(teacher.getId()).orElseThrow().getAvailableLessons());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT SUM(open_slots) FROM place_hourly_availability WHERE place_id = ?", Integer.class, place.getId()));
+        // Every winner's event reached the index after its commit
+        assertTrue(lessonAvailabilityIndex.findAvailableByPlace(place.getId(), START, START.plusHours(SLOTS)).isEmpty());
+    }
+}
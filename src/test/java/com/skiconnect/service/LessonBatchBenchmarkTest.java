@@ -0,0 +1,109 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.repository.LessonRow;
+import com.skiconnect.repository.SchoolRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Creating 10k lessons through the bulk path against one createAvailability call per lesson.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class LessonBatchBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonBatchBenchmarkTest.class);
+
+    private static final int LESSONS = 10_000;
+    // One call per lesson is slow enough that a sample stands for the whole batch
+    private static final int SINGLE_SAMPLE = 1_000;
+    private static final LocalDateTime SEASON_START = LocalDateTime.of(2025, 12, 1, 8, 0);
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void benchmarkBatchAgainstSingleCreates() {
+        Place place = fixtures.place("Batch Benchmark Resort", "Batch Benchmark Valley");
+        School school = fixtures.school(place, "Batch Benchmark School");
+
+        // Several teachers, so each chunk updates more than one counter
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            teachers.add(fixtures.teacher(school, "Batch Benchmark Teacher " + i));
+        }
+
+        try {
+            // Warm up both paths on a separate day range
+            lessonAvailabilityService.createAvailabilities(slots(school, place, teachers, SEASON_START.minusYears(1), 2_000),
+                    chunk -> { });
+            List<LessonRow> warmup = slots(school, place, teachers, SEASON_START.minusYears(2), 200);
+            for (LessonRow slot : warmup) {
+                createOne(slot);
+            }
+
+            List<LessonRow> batch = slots(school, place, teachers, SEASON_START, LESSONS);
+            long start = System.nanoTime();
+            int created = lessonAvailabilityService.createAvailabilities(batch, chunk -> { });
+            long batchNanos = System.nanoTime() - start;
+            assertEquals(LESSONS, created);
+
+            List<LessonRow> singles = slots(school, place, teachers, SEASON_START.plusYears(1), SINGLE_SAMPLE);
+            start = System.nanoTime();
+            for (LessonRow slot : singles) {
+                createOne(slot);
+            }
+            long singleNanos = (System.nanoTime() - start) * (LESSONS / SINGLE_SAMPLE);
+
+            logger.info("{} lessons: bulk {} ms ({} us per lesson), one call per lesson ~{} ms (extrapolated from {})",
+                    LESSONS, batchNanos / 1_000_000, batchNanos / 1_000 / LESSONS, singleNanos / 1_000_000, SINGLE_SAMPLE);
+            assertEquals(Integer.valueOf(LESSONS + 2_000 + 200 + SINGLE_SAMPLE), schoolRepository.findById(school.getId())
+                    .map(School::getAvailableLessons).orElseThrow());
+            // The absolute time is dominated by H2 maintaining the table's secondary indexes and depends on the
+            // machine, so the gate is the speed-up over one call per lesson
+            assertTrue(batchNanos * 20 < singleNanos, "the bulk path should be at least 20x faster than one call per lesson");
+        } finally {
+            fixtures.deleteAll();
+        }
+    }
+
+    private void createOne(LessonRow slot) {
+        lessonAvailabilityService.createAvailability(slot.getTeacherId(), slot.getSchoolId(), slot.getPlaceId(),
+                slot.getStartTime(), slot.getEndTime());
+    }
+
+    // Hourly lessons from 8:00 to 16:00, spread round-robin over the teachers
+    private static List<LessonRow> slots(School school, Place place, List<Teacher> teachers, LocalDateTime from, int count) {
+        List<LessonRow> slots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Teacher teacher = teachers.get(i % teachers.size());
+            int hour = i / teachers.size();
+            LocalDateTime start = from.plusDays(hour / 8).plusHours(hour % 8);
+            slots.add(new LessonRow(null, school.getId(), teacher.getId(), place.getId(), null,
+                    start, start.plusHours(1), true, null));
+        }
+        return slots;
+    }
+}
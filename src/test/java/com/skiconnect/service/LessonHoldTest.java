@@ -0,0 +1,163 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.SchoolRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Holds reach the timing wheel only once they commit, and the scheduled release runs on its own thread
+@SpringBootTest
+public class LessonHoldTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 28, 10, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private LessonHoldExpiry lessonHoldExpiry;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private LessonAvailability lesson;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Hold Resort", "Hold Valley");
+        school = fixtures.school(place, "Hold School");
+        teacher = fixtures.teacher(school, "Hold Teacher");
+
+        lesson = lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), place.getId(),
+                START, START.plusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testHeldLessonIsReservedUntilTheHolderConfirms() {
+        User holder = fixtures.user("holdholder");
+        User other = fixtures.user("holdother");
+        LessonHold hold = lessonAvailabilityService.holdLesson(lesson.getId(), holder.getId(), Duration.ofMinutes(5));
+        assertEquals(holder.getId(), hold.getStudentId());
+        assertEquals(0, availableLessons());
+        assertEquals(0, openSlotsAtStart());
+
+        // Nobody else can book, hold, confirm or cancel the held lesson
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.bookLesson(lesson.getId(), other.getId()));
+        assertThrows(IllegalStateException.class,
+                () -> lessonAvailabilityService.holdLesson(lesson.getId(), other.getId(), Duration.ofMinutes(5)));
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.confirmHold(lesson.getId(), other.getId()));
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.cancelBooking(lesson.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> lessonAvailabilityService.holdLesson(lesson.getId(), other.getId(), Duration.ZERO));
+
+        LessonAvailability confirmed = lessonAvailabilityService.confirmHold(lesson.getId(), holder.getId());
+        assertFalse(confirmed.isAvailable());
+        assertNull(confirmed.getHeldUntil());
+        assertNull(heldUntil());
+        assertEquals(0, availableLessons());
+
+        // A confirmed hold is an ordinary booking
+        assertTrue(lessonAvailabilityService.cancelBooking(lesson.getId()).isAvailable());
+        assertEquals(1, availableLessons());
+        assertEquals(1, openSlotsAtStart());
+    }
+
+    @Test
+    void testLapsedHoldIsReleasedByTheWheel() throws Exception {
+        User holder = fixtures.user("holdlapsed");
+        lessonAvailabilityService.holdLesson(lesson.getId(), holder.getId(), Duration.ofMillis(300));
+        assertEquals(0, availableLessons());
+
+        // Released by the scheduled tick, not by this thread
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!isAvailable() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(isAvailable());
+        assertNull(bookedStudent());
+        assertNull(heldUntil());
+        assertEquals(1, availableLessons());
+        assertEquals(1, openSlotsAtStart());
+
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.confirmHold(lesson.getId(), holder.getId()));
+        User other = fixtures.user("holdlate");
+        assertEquals(other.getId(), lessonAvailabilityService.bookLesson(lesson.getId(), other.getId()).getStudent().getId());
+        assertEquals(0, availableLessons());
+    }
+
+    @Test
+    void testConfirmedHoldSurvivesItsDeadline() throws Exception {
+        User holder = fixtures.user("holdconfirmed");
+        lessonAvailabilityService.holdLesson(lesson.getId(), holder.getId(), Duration.ofMillis(200));
+        lessonAvailabilityService.confirmHold(lesson.getId(), holder.getId());
+
+        // The wheel still fires for the lesson; the release skips it because it is no longer held
+        Thread.sleep(400);
+        lessonHoldExpiry.releaseLapsedHolds();
+        assertEquals(0, lessonAvailabilityService.releaseLapsedHolds(List.of(lesson.getId())));
+        assertFalse(isAvailable());
+        assertEquals(holder.getId(), bookedStudent());
+        assertEquals(0, availableLessons());
+    }
+
+    private boolean isAvailable() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT is_available FROM lesson_availabilities WHERE id = ?", Boolean.class, lesson.getId()));
+    }
+
+    private Long bookedStudent() {
+        return jdbcTemplate.queryForObject("SELECT student_id FROM lesson_availabilities WHERE id = ?", Long.class, lesson.getId());
+    }
+
+    private LocalDateTime heldUntil() {
+        return jdbcTemplate.queryForObject("SELECT held_until FROM lesson_availabilities WHERE id = ?",
+                LocalDateTime.class, lesson.getId());
+    }
+
+    private int availableLessons() {
+        return schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons();
+    }
+
+    private int openSlotsAtStart() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(open_slots), 0) FROM place_hourly_availability "
+                + "WHERE place_id = ? AND slot_date = ? AND slot_hour = ?", Integer.class, place.getId(), START.toLocalDate(), START.getHour());
+    }
+}
@@ -0,0 +1,106 @@
+package com.skiconnect.service;
+
+import com.skiconnect.model.AvailabilityRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurringSlotsTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 1, 6);
+
+    @Test
+    void testWeekdayMaskRoundTrips() {
+        Set<DayOfWeek> days = Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY, DayOfWeek.SUNDAY);
+        int mask = RecurringSlots.weekdayMask(days);
+
+        assertEquals(0b1001001, mask);
+        assertEquals(days, RecurringSlots.weekdays(mask));
+    }
+
+    @Test
+    void testStartsSkipOtherWeekdaysExceptionsAndTheLeftoverOfTheWindow() {
+        AvailabilityRule rule = rule(Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), LocalTime.of(9, 0), LocalTime.of(11, 30),
+                60, MONDAY, MONDAY.plusDays(9));
+        rule.getExceptions().add(MONDAY.plusDays(2));
+
+        assertEquals(List.of(MONDAY.atTime(9, 0), MONDAY.atTime(10, 0),
+                        MONDAY.plusDays(7).atTime(9, 0), MONDAY.plusDays(7).atTime(10, 0),
+                        MONDAY.plusDays(9).atTime(9, 0), MONDAY.plusDays(9).atTime(10, 0)),
+                collect(RecurringSlots.starts(rule, MONDAY.atStartOfDay(), MONDAY.plusDays(30).atStartOfDay())));
+        assertEquals(6, RecurringSlots.countSlots(rule));
+    }
+
+    @Test
+    void testIsSlotStartOnlyOnTheGrid() {
+        AvailabilityRule rule = rule(Set.of(DayOfWeek.MONDAY), LocalTime.of(9, 0), LocalTime.of(11, 30), 45, MONDAY, MONDAY);
+
+        assertTrue(RecurringSlots.isSlotStart(rule, MONDAY.atTime(9, 45)));
+        assertTrue(RecurringSlots.isSlotStart(rule, MONDAY.atTime(10, 30)));
+        assertFalse(RecurringSlots.isSlotStart(rule, MONDAY.atTime(10, 0)));
+        // A slot starting at 11:15 would end after the daily window
+        assertFalse(RecurringSlots.isSlotStart(rule, MONDAY.atTime(11, 15)));
+        assertFalse(RecurringSlots.isSlotStart(rule, MONDAY.atTime(8, 15)));
+        assertFalse(RecurringSlots.isSlotStart(rule, MONDAY.plusDays(7).atTime(9, 0)));
+    }
+
+    @Test
+    void testStartsMatchAFilteredFullExpansion() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            Set<DayOfWeek> days = RecurringSlots.weekdays(1 + random.nextInt(127));
+            LocalTime dailyStart = LocalTime.of(7 + random.nextInt(4), 15 * random.nextInt(4));
+            int slotMinutes = 15 * (1 + random.nextInt(8));
+            LocalTime dailyEnd = dailyStart.plusMinutes(slotMinutes * (1L + random.nextInt(6)) + 15L * random.nextInt(3));
+            LocalDate validFrom = MONDAY.plusDays(random.nextInt(10));
+            AvailabilityRule rule = rule(days, dailyStart, dailyEnd, slotMinutes, validFrom, validFrom.plusDays(random.nextInt(30)));
+            for (int i = 0; i < 3; i++) {
+                rule.getExceptions().add(validFrom.plusDays(random.nextInt(30)));
+            }
+
+            List<LocalDateTime> all = collect(RecurringSlots.starts(rule, LocalDateTime.MIN, LocalDateTime.MAX));
+            LocalDateTime from = MONDAY.atTime(6, 0).plusMinutes(15L * random.nextInt(40 * 96));
+            LocalDateTime to = from.plusMinutes(15L * random.nextInt(10 * 96));
+            List<LocalDateTime> expected = new ArrayList<>();
+            for (LocalDateTime start : all) {
+                assertTrue(RecurringSlots.isSlotStart(rule, start), "round " + round + ": " + start);
+                if (!start.isBefore(from) && start.isBefore(to)) {
+                    expected.add(start);
+                }
+            }
+
+            assertEquals(RecurringSlots.countSlots(rule), all.size(), "round " + round);
+            assertEquals(expected, collect(RecurringSlots.starts(rule, from, to)), "round " + round + ": " + from + " to " + to);
+        }
+    }
+
+    private static AvailabilityRule rule(Set<DayOfWeek> days, LocalTime dailyStart, LocalTime dailyEnd, int slotMinutes,
+                                         LocalDate validFrom, LocalDate validUntil) {
+        AvailabilityRule rule = new AvailabilityRule();
+        rule.setWeekdays(RecurringSlots.weekdayMask(days));
+        rule.setDailyStart(dailyStart);
+        rule.setDailyEnd(dailyEnd);
+        rule.setSlotMinutes(slotMinutes);
+        rule.setValidFrom(validFrom);
+        rule.setValidUntil(validUntil);
+        return rule;
+    }
+
+    private static List<LocalDateTime> collect(Iterator<LocalDateTime> starts) {
+        List<LocalDateTime> collected = new ArrayList<>();
+        starts.forEachRemaining(collected::add);
+        return collected;
+    }
+}
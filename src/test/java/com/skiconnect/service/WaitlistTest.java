@@ -0,0 +1,226 @@
+package com.skiconnect.service;
+
+import com.skiconnect.TestFixtures;
+import com.skiconnect.event.LessonAvailabilityChangedEvent;
+import com.skiconnect.index.LessonAvailabilityIndex;
+import com.skiconnect.model.LessonAvailability;
+import com.skiconnect.model.Place;
+import com.skiconnect.model.School;
+import com.skiconnect.model.Teacher;
+import com.skiconnect.model.User;
+import com.skiconnect.repository.SchoolRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Waitlist locks are held until commit, and the concurrent joins need their own transactions
+@SpringBootTest
+@RecordApplicationEvents
+public class WaitlistTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 12, 27, 10, 0);
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private LessonAvailabilityService lessonAvailabilityService;
+
+    @Autowired
+    private LessonAvailabilityIndex lessonAvailabilityIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    private Place place;
+    private School school;
+    private Teacher teacher;
+    private LessonAvailability lesson;
+
+    @BeforeEach
+    void setUp() {
+        place = fixtures.place("Waitlist Resort", "Waitlist Valley");
+        school = fixtures.school(place, "Waitlist School");
+        teacher = fixtures.teacher(school, "Waitlist Teacher");
+
+        lesson = lessonAvailabilityService.createAvailability(teacher.getId(), school.getId(), place.getId(),
+                START, START.plusHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixtures.deleteAll();
+        lessonAvailabilityIndex.rebuild();
+    }
+
+    @Test
+    void testCancellationsPromoteInJoiningOrder() {
+        User holder = fixtures.user("waitlistholder");
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.joinWaitlist(lesson.getId(), holder.getId()));
+        lessonAvailabilityService.bookLesson(lesson.getId(), holder.getId());
+
+        List<User> waiting = List.of(fixtures.user("waitlistfirst"), fixtures.user("waitlistsecond"), fixtures.user("waitlistthird"));
+        for (int i = 0; i < waiting.size(); i++) {
+            WaitlistPosition joined = lessonAvailabilityService.joinWaitlist(lesson.getId(), waiting.get(i).getId());
+            assertEquals(i + 1, joined.getPosition());
+            assertEquals(i + 1, joined.getLength());
+        }
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.joinWaitlist(lesson.getId(), holder.getId()));
+        assertThrows(IllegalStateException.class, () -> lessonAvailabilityService.joinWaitlist(lesson.getId(), waiting.get(0).getId()));
+        assertEquals(3, lessonAvailabilityService.findWaitlistPosition(lesson.getId(), waiting.get(2).getId()).getPosition());
+
+        // Each cancellation hands the lesson to the next in line; it never counts as open in between
+        for (int i = 0; i < waiting.size(); i++) {
+            Long next = waiting.get(i).getId();
+            assertEquals(next, lessonAvailabilityService.cancelBooking(lesson.getId()).getStudent().getId());
+            assertEquals(next, bookedStudent());
+            assertEquals(0, availableLessons());
+            assertThrows(IllegalArgumentException.class, () -> lessonAvailabilityService.findWaitlistPosition(lesson.getId(), next));
+            if (i + 1 < waiting.size()) {
+                WaitlistPosition last = lessonAvailabilityService.findWaitlistPosition(lesson.getId(), waiting.get(2).getId());
+                assertEquals(waiting.size() - 1 - i, last.getPosition());
+                assertEquals(waiting.size() - 1 - i, last.getLength());
+            }
+        }
+
+        // With nobody left waiting, the next cancellation frees the lesson
+        assertTrue(lessonAvailabilityService.cancelBooking(lesson.getId()).isAvailable());
+        assertNull(bookedStudent());
+        assertEquals(1, availableLessons());
+    }
+
+    @Test
+    void testConcurrentJoinsQueueInArrivalOrder() throws Exception {
+        lessonAvailabilityService.bookLesson(lesson.getId(), fixtures.user("waitlistbusyholder").getId());
+        int students = 16;
+        List<User> waiting = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            waiting.add(fixtures.user("waitlistconcurrent" + i));
+        }
+
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(students);
+        List<Future<WaitlistPosition>> joins = new ArrayList<>();
+        try {
+            for (User student : waiting) {
+                joins.add(executor.submit(() -> {
+                    go.await();
+                    return lessonAvailabilityService.joinWaitlist(lesson.getId(), student.getId());
+                }));
+            }
+            go.countDown();
+            // Positions are handed out without gaps or duplicates
+            Map<Long, Long> studentByPosition = new TreeMap<>();
+            for (Future<WaitlistPosition> join : joins) {
+                WaitlistPosition position = join.get(30, TimeUnit.SECONDS);
+                assertNull(studentByPosition.put(position.getPosition(), position.getStudentId()));
+            }
+            assertEquals(students, studentByPosition.size());
+            assertEquals(1L, studentByPosition.keySet().iterator().next());
+            assertEquals(students, lessonAvailabilityService.findWaitlistPosition(lesson.getId(),
+                    waiting.get(0).getId()).getLength());
+
+            // Racing cancellations are serialized per lesson: each one hands the lesson to the next in line
+            CountDownLatch cancel = new CountDownLatch(1);
+            List<Future<LessonAvailability>> cancels = new ArrayList<>();
+            for (int i = 0; i < students; i++) {
+                cancels.add(executor.submit(() -> {
+                    cancel.await();
+                    return lessonAvailabilityService.cancelBooking(lesson.getId());
+                }));
+            }
+            cancel.countDown();
+            Set<Long> promoted = new HashSet<>();
+            for (Future<LessonAvailability> cancelled : cancels) {
+                promoted.add(cancelled.get(30, TimeUnit.SECONDS).getStudent().getId());
+            }
+            assertEquals(Set.copyOf(studentByPosition.values()), promoted);
+            assertEquals(studentByPosition.get((long) students), bookedStudent());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, availableLessons());
+    }
+
+    @Test
+    void testDeletedLessonCancelsEveryConcurrentJoin() throws Exception {
+        lessonAvailabilityService.bookLesson(lesson.getId(), fixtures.user("waitlistdeleteholder").getId());
+        int students = 16;
+        List<User> waiting = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            waiting.add(fixtures.user("waitlistdeleted" + i));
+        }
+
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(students);
+        List<Future<Boolean>> joins = new ArrayList<>();
+        int joined = 0;
+        try {
+            for (User student : waiting) {
+                joins.add(executor.submit(() -> {
+                    go.await();
+                    try {
+                        lessonAvailabilityService.joinWaitlist(lesson.getId(), student.getId());
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        // Joined after the lesson was gone
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+            // Recorded events are those of this thread: the delete's, one per student it found queued
+            lessonAvailabilityService.deleteById(lesson.getId());
+            for (Future<Boolean> join : joins) {
+                if (join.get(30, TimeUnit.SECONDS)) {
+                    joined++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(joined, events.stream(LessonAvailabilityChangedEvent.class)
+                .filter(event -> event.getType() == LessonAvailabilityChangedEvent.Type.WAITLIST_CANCELLED)
+                .count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM waitlist_entries WHERE availability_id = ?", Integer.class, lesson.getId()));
+    }
+
+    private Long bookedStudent() {
+        return jdbcTemplate.queryForObject("SELECT student_id FROM lesson_availabilities WHERE id = ?", Long.class, lesson.getId());
+    }
+
+    private int availableLessons() {
+        return schoolRepository.findById(school.getId()).orElseThrow().getAvailableLessons();
+    }
+}
@@ -0,0 +1,131 @@
+package com.skiconnect.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JMH benchmark of what the publishing thread pays per event to hand it to three consumers through the ring,
+ * against calling them itself as a synchronous listener would. Excluded from the default build; run with
+ * {@code mvn test -Pbenchmark}, which forks the JMH harness from the test below.
+ */
+@Tag("benchmark")
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventRingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventRingBenchmarkTest.class);
+
+    private static final int CONSUMERS = 3;
+    // Bursts fit the ring, so publishing is measured rather than waiting for consumers to make room
+    private static final int BURST = 1_024;
+    // Work per event of each consumer, roughly a cache update
+    private static final int WORK_ROUNDS = 200;
+
+    private final AtomicLong sink = new AtomicLong();
+    private EventRing<Long> ring;
+    private long event;
+
+    @Setup(Level.Trial)
+    public void startRing() {
+        ring = new EventRing<>(4_096);
+        for (int i = 0; i < CONSUMERS; i++) {
+            ring.addConsumer("consumer-" + i, EventRing.WaitStrategy.SLEEPING, this::consume);
+        }
+        ring.start();
+    }
+
+    // Each burst starts on an empty ring; the wait for the consumers to drain the last one is not measured
+    @Setup(Level.Invocation)
+    public void awaitDrained() {
+        while (ring.lags().values().stream().anyMatch(lag -> lag > 0)) {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopRing() throws InterruptedException {
+        ring.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void publishThroughRing() {
+        for (int i = 0; i < BURST; i++) {
+            ring.publish(event++);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void callConsumersSynchronously(Blackhole blackhole) {
+        for (int i = 0; i < BURST; i++) {
+            long current = event++;
+            for (int consumer = 0; consumer < CONSUMERS; consumer++) {
+                blackhole.consume(work(current));
+            }
+        }
+    }
+
+    @Test
+    void benchmarkPublishAgainstSynchronousConsumers() throws Exception {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(EventRingBenchmarkTest.class.getName())
+                .build()).run();
+        Map<String, Double> nanosPerEvent = results.stream().collect(Collectors.toMap(
+                result -> result.getParams().getBenchmark().substring(EventRingBenchmarkTest.class.getName().length() + 1),
+                result -> result.getPrimaryResult().getScore()));
+
+        double ring = nanosPerEvent.get("publishThroughRing");
+        double synchronous = nanosPerEvent.get("callConsumersSynchronously");
+        logger.info("Per event on the publishing thread with {} consumers: {} ns through the ring, {} ns calling them synchronously",
+                CONSUMERS, String.format("%.1f", ring), String.format("%.1f", synchronous));
+        assertTrue(ring * 5 < synchronous, "publishing through the ring should cost at least 5x less");
+    }
+
+    private void consume(long event) {
+        if (work(event) == 42) {
+            sink.incrementAndGet();
+        }
+    }
+
+    private static long work(long event) {
+        long hash = event;
+        for (int i = 0; i < WORK_ROUNDS; i++) {
+            hash = hash * 0x9E3779B97F4A7C15L + i;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,167 @@
+package com.skiconnect.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventRingTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 20_000;
+
+    @Test
+    void testEveryConsumerSeesEveryEventInPublicationOrder() throws Exception {
+        // A small ring, so producers keep wrapping around and waiting for the consumers
+        EventRing<long[]> ring = new EventRing<>(64);
+        List<List<long[]>> seen = new ArrayList<>();
+        for (EventRing.WaitStrategy strategy : EventRing.WaitStrategy.values()) {
+            List<long[]> events = new ArrayList<>();
+            seen.add(events);
+            ring.addConsumer(strategy.name(), strategy, events::add);
+        }
+        ring.start();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long producer = p;
+            producers.add(new Thread(() -> {
+                for (long i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    ring.publish(new long[] {producer, i});
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        ring.stop();
+
+        for (List<long[]> events : seen) {
+            assertEquals(PRODUCERS * EVENTS_PER_PRODUCER, events.size());
+            // Each producer's events arrive in the order it published them
+            long[] next = new long[PRODUCERS];
+            for (long[] event : events) {
+                assertEquals(next[(int) event[0]]++, event[1]);
+            }
+        }
+        assertEquals(Map.of("BUSY_SPIN", 0L, "YIELDING", 0L, "SLEEPING", 0L, "BLOCKING", 0L), ring.lags());
+    }
+
+    @Test
+    void testFullRingHoldsPublishersBackUntilTheSlowestConsumerCatchesUp() throws Exception {
+        EventRing<Integer> ring = new EventRing<>(8);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> fast = new ArrayList<>();
+        List<Integer> slow = new ArrayList<>();
+        ring.addConsumer("fast", EventRing.WaitStrategy.SLEEPING, fast::add);
+        ring.addConsumer("slow", EventRing.WaitStrategy.BLOCKING, event -> {
+            awaitUninterruptibly(release);
+            slow.add(event);
+        });
+        ring.start();
+
+        // The slow consumer is stuck on the first event, so the ring takes seven more before it is full
+        for (int i = 0; i < 8; i++) {
+            ring.publish(i);
+        }
+        CountDownLatch published = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            ring.publish(8);
+            published.countDown();
+        });
+        producer.start();
+
+        assertFalse(published.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(9L, ring.lags().get("slow"));
+        assertTrue(ring.lags().get("fast") <= 1);
+
+        release.countDown();
+        assertTrue(published.await(5, TimeUnit.SECONDS));
+        ring.stop();
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), slow);
+        assertEquals(slow, fast);
+    }
+
+    @Test
+    void testStoppedRingTurnsPublishersAway() throws Exception {
+        EventRing<Integer> ring = new EventRing<>(4);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> handled = new ArrayList<>();
+        ring.addConsumer("stuck", EventRing.WaitStrategy.BLOCKING, event -> {
+            awaitUninterruptibly(release);
+            handled.add(event);
+        });
+        ring.start();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.publish(i));
+        }
+
+        // Waiting for room behind the stuck consumer until the ring stops
+        CountDownLatch gaveUp = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            if (!ring.publish(4)) {
+                gaveUp.countDown();
+            }
+        });
+        producer.start();
+        assertFalse(gaveUp.await(100, TimeUnit.MILLISECONDS));
+        Thread stopper = new Thread(() -> {
+            try {
+                ring.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        assertTrue(gaveUp.await(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        stopper.join();
+        assertFalse(ring.publish(5));
+        assertEquals(List.of(0, 1, 2, 3), handled);
+    }
+
+    @Test
+    void testFailingEventIsSkipped() throws Exception {
+        EventRing<Integer> ring = new EventRing<>(4);
+        List<Integer> handled = new ArrayList<>();
+        ring.addConsumer("picky", EventRing.WaitStrategy.YIELDING, event -> {
+            if (event == 1) {
+                throw new IllegalStateException("rejected");
+            }
+            handled.add(event);
+        });
+        ring.start();
+        for (int i = 0; i < 3; i++) {
+            ring.publish(i);
+        }
+        ring.stop();
+
+        assertEquals(List.of(0, 2), handled);
+        assertThrows(IllegalStateException.class,
+                () -> ring.addConsumer("late", EventRing.WaitStrategy.SLEEPING, event -> { }));
+    }
+
+    @Test
+    void testCapacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRing<>(100));
+        assertThrows(IllegalArgumentException.class, () -> new EventRing<>(1));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.skiconnect.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CPU spent expiring 100k outstanding holds through the timing wheel against scanning every hold on each tick.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TimingWheelBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheelBenchmarkTest.class);
+
+    private static final int HOLDS = 100_000;
+    private static final long TICK_MILLIS = 100;
+    // Holds of one to three minutes, expired over a simulated three minutes of 100 ms ticks
+    private static final long MIN_TTL_MILLIS = 60_000;
+    private static final long MAX_TTL_MILLIS = 180_000;
+    private static final int TICKS = (int) (MAX_TTL_MILLIS / TICK_MILLIS) + 1;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void benchmarkExpiryAgainstFullScan() {
+        Random random = new Random(21);
+        long[] deadlines = new long[HOLDS];
+        for (int i = 0; i < HOLDS; i++) {
+            deadlines[i] = MIN_TTL_MILLIS + (long) (random.nextDouble() * (MAX_TTL_MILLIS - MIN_TTL_MILLIS));
+        }
+
+        // Warm up both paths
+        for (int i = 0; i < 3; i++) {
+            runWheel(deadlines);
+            runScan(deadlines);
+        }
+
+        long start = threads.getCurrentThreadCpuTime();
+        long wheelFired = runWheel(deadlines);
+        long wheelNanos = threads.getCurrentThreadCpuTime() - start;
+
+        start = threads.getCurrentThreadCpuTime();
+        long scanFired = runScan(deadlines);
+        long scanNanos = threads.getCurrentThreadCpuTime() - start;
+
+        logger.info("{} holds over {} ticks: wheel {} ms CPU ({} µs/tick), full scan {} ms CPU ({} µs/tick)",
+                HOLDS, TICKS, wheelNanos / 1_000_000, wheelNanos / TICKS / 1_000,
+                scanNanos / 1_000_000, scanNanos / TICKS / 1_000);
+        assertEquals(HOLDS, wheelFired);
+        assertEquals(HOLDS, scanFired);
+        assertTrue(wheelNanos * 10 < scanNanos, "the wheel should use at least 10x less CPU than scanning each tick");
+        // Three simulated minutes of expiring 100k holds must cost well under a second of CPU
+        assertTrue(wheelNanos < 500_000_000L, "the wheel should expire 100k holds in under 500 ms of CPU");
+    }
+
+    private static long runWheel(long[] deadlines) {
+        TimingWheel wheel = new TimingWheel(TICK_MILLIS, 4, 0);
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+        long fired = 0;
+        for (int tick = 1; tick <= TICKS; tick++) {
+            fired += wheel.advance(tick * TICK_MILLIS).size();
+        }
+        return fired;
+    }
+
+    // What a periodic query over all holds amounts to: every outstanding hold is looked at on every tick
+    private static long runScan(long[] deadlines) {
+        boolean[] released = new boolean[deadlines.length];
+        long fired = 0;
+        for (int tick = 1; tick <= TICKS; tick++) {
+            long now = tick * TICK_MILLIS;
+            List<Integer> due = new ArrayList<>();
+            for (int i = 0; i < deadlines.length; i++) {
+                if (!released[i] && deadlines[i] <= now) {
+                    released[i] = true;
+                    due.add(i);
+                }
+            }
+            fired += due.size();
+        }
+        return fired;
+    }
+}
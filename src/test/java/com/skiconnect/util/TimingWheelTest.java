@@ -0,0 +1,77 @@
+package com.skiconnect.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void testIdsFireOnTheFirstAdvancePastTheirDeadline() {
+        Random random = new Random(3);
+        long now = 1_000_003;
+        // Two levels of 64 buckets turn every 40.96 s, so the longest deadlines have to be parked and re-filed
+        TimingWheel wheel = new TimingWheel(TICK, 2, now);
+        Map<Long, Long> pending = new HashMap<>();
+        long nextId = 0;
+
+        for (int step = 0; step < 3_000; step++) {
+            for (int i = random.nextInt(20); i > 0; i--) {
+                long deadline = now + switch (random.nextInt(4)) {
+                    case 0 -> random.nextInt(700);
+                    case 1 -> random.nextInt(40_000);
+                    case 2 -> random.nextInt(200_000);
+                    default -> -random.nextInt(50);
+                };
+                wheel.schedule(nextId, deadline);
+                pending.put(nextId++, deadline);
+            }
+
+            now += random.nextInt(step % 100 == 0 ? 5_000 : 120);
+            Set<Long> expected = new HashSet<>();
+            long reachedTick = Math.floorDiv(now, TICK);
+            pending.forEach((id, deadline) -> {
+                if (Math.floorDiv(deadline + TICK - 1, TICK) <= reachedTick) {
+                    expected.add(id);
+                }
+            });
+
+            List<Long> fired = wheel.advance(now);
+            assertEquals(expected.size(), fired.size(), "step " + step);
+            assertEquals(expected, new HashSet<>(fired), "step " + step);
+            expected.forEach(pending::remove);
+            assertEquals(pending.size(), wheel.size());
+        }
+        assertTrue(nextId > 20_000);
+    }
+
+    @Test
+    void testNothingFiresBeforeItsTick() {
+        TimingWheel wheel = new TimingWheel(TICK, 3, 0);
+        wheel.schedule(1, 25);
+        wheel.schedule(2, 64 * TICK * 5);
+
+        assertTrue(wheel.advance(29).isEmpty());
+        assertEquals(List.of(1L), wheel.advance(30));
+        assertTrue(wheel.advance(64 * TICK * 5 - 1).isEmpty());
+        assertEquals(List.of(2L), wheel.advance(64 * TICK * 5));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0, 3, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(TICK, 0, 0));
+    }
+}